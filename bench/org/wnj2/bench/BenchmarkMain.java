@@ -0,0 +1,80 @@
+/*
+ * Copyright 2009 Junpei Kawamoto
+ *
+ * This file is part of Japanese WordNet wrapper for Java (Wnj2).
+ * Wnj2 is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Wnj2 is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Wnj2.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package org.wnj2.bench;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * すべての検索ベンチマークを，GCプロファイラで割り当て量を計測しながら実行します．
+ * データベースファイルの代わりに数値を指定すると，その倍率で合成したデータベースを使います．
+ *
+ * @author Junpei Kawamoto
+ *
+ */
+public class BenchmarkMain {
+
+	/**
+	 * @param args
+	 * @throws RunnerException ベンチマークの実行に失敗した場合
+	 */
+	public static void main(String[] args) throws RunnerException {
+
+		if(args.length < 1){
+			System.out.println("Useage: <Wordnet File's Path or Scale of Synthetic Wordnet> [Benchmark's Regexp]");
+			System.exit(1);
+		}
+
+		final OptionsBuilder builder = new OptionsBuilder();
+		builder.include(args.length > 1 ? args[1] : LookupBenchmark.class.getPackage().getName() + ".*");
+		if(isScale(args[0])){
+
+			builder.param("scale", args[0]);
+
+		}else{
+
+			builder.param("database", args[0]);
+
+		}
+		final Options options = builder.addProfiler(GCProfiler.class).build();
+
+		new Runner(options).run();
+
+	}
+
+	private static boolean isScale(final String arg){
+
+		try{
+
+			Double.parseDouble(arg);
+			return true;
+
+		}catch(final NumberFormatException e){
+
+			return false;
+
+		}
+
+	}
+
+}
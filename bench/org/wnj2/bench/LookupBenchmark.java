@@ -0,0 +1,121 @@
+/*
+ * Copyright 2009 Junpei Kawamoto
+ *
+ * This file is part of Japanese WordNet wrapper for Java (Wnj2).
+ * Wnj2 is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Wnj2 is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Wnj2.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package org.wnj2.bench;
+
+import java.sql.SQLException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.wnj2.Link;
+import org.wnj2.Sense;
+import org.wnj2.Synlink;
+import org.wnj2.Synset;
+import org.wnj2.SynsetDef;
+import org.wnj2.Word;
+
+/**
+ * 公開されている検索メソッドの所要時間を計るベンチマーク．
+ *
+ * <p>
+ * 各スレッドは標本の見出し語とSynsetを順に検索します．
+ * スレッド数はサブクラスで指定します．
+ * </p>
+ *
+ * @see SingleThreadedLookupBenchmark
+ * @see MultiThreadedLookupBenchmark
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public abstract class LookupBenchmark {
+
+	/** このスレッドが次に検索する標本の番号 */
+	private int position = 0;
+
+	/////////////////////////////////////////////////////////////////////////////////////
+	// Public methods
+	/////////////////////////////////////////////////////////////////////////////////////
+	@Benchmark
+	public List<Word> findWords(final WordNetState state) throws SQLException {
+
+		return state.wn.findWords(state.lemmas[this.next(state)]);
+
+	}
+
+	@Benchmark
+	public List<Synset> findSynsets(final WordNetState state) throws SQLException {
+
+		final Synset s = state.synsets[this.next(state)];
+		return state.wn.findSynsets(s.getName(), s.getPos());
+
+	}
+
+	@Benchmark
+	public List<Sense> getSenses(final WordNetState state) throws SQLException {
+
+		return state.synsets[this.next(state)].getSenses();
+
+	}
+
+	@Benchmark
+	public List<Synlink> getSynlinks(final WordNetState state) throws SQLException {
+
+		return state.synsets[this.next(state)].getSynlinks();
+
+	}
+
+	@Benchmark
+	public List<Synset> getConnectedSynsets(final WordNetState state) throws SQLException {
+
+		return state.synsets[this.next(state)].getConnectedSynsets(Link.hype);
+
+	}
+
+	@Benchmark
+	public SynsetDef getDef(final WordNetState state) throws SQLException {
+
+		return state.synsets[this.next(state)].getDef();
+
+	}
+
+	/////////////////////////////////////////////////////////////////////////////////////
+	// Private methods
+	/////////////////////////////////////////////////////////////////////////////////////
+	private int next(final WordNetState state){
+
+		final int ret = this.position;
+		this.position = ret + 1 == state.lemmas.length ? 0 : ret + 1;
+		return ret;
+
+	}
+
+}
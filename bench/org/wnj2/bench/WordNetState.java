@@ -0,0 +1,271 @@
+/*
+ * Copyright 2009 Junpei Kawamoto
+ *
+ * This file is part of Japanese WordNet wrapper for Java (Wnj2).
+ * Wnj2 is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Wnj2 is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Wnj2.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package org.wnj2.bench;
+
+import java.io.File;
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.stream.Stream;
+
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.wnj2.CachePolicy;
+import org.wnj2.Link;
+import org.wnj2.MappedWnj2;
+import org.wnj2.OpenMode;
+import org.wnj2.SnapshotWnj2;
+import org.wnj2.Synset;
+import org.wnj2.Wnj2;
+import org.wnj2.Word;
+import org.wnj2.importers.Generator;
+import org.wnj2.importers.Importer;
+import org.wnj2.importers.TargetDialect;
+
+/**
+ * ベンチマークで検索するWnj2と，検索に使う見出し語やSynsetの標本．
+ *
+ * <p>
+ * データベースファイルはdatabaseパラメータ，またはシステムプロパティwnj2.databaseで指定します．
+ * どちらも指定しない場合は，scaleパラメータの倍率で合成したデータベースを一時ファイルに作成して使います．
+ * backendパラメータで検索の実装を，cacheパラメータでSynset, Wordキャッシュの状態を切り替えます．
+ * </p>
+ */
+@State(Scope.Benchmark)
+public class WordNetState {
+
+	/** 標本の大きさ */
+	static final int SAMPLES = 1024;
+
+	/** 標本を選ぶ間隔 */
+	private static final int STRIDE = 97;
+
+	/** warmの場合のキャッシュの容量 */
+	private static final int CACHE_CAPACITY = 1 << 16;
+
+	/** SQLiteデータベースファイルのパス，空の場合はシステムプロパティwnj2.database */
+	@Param({""})
+	public String database;
+
+	/** データベースファイルを指定しない場合に合成するデータベースの倍率 */
+	@Param({"1"})
+	public String scale;
+
+	/**
+	 * 検索の実装．
+	 * sqliteとsqlite-roはデータベースを読み書き可能または読み込み専用で開いたWnj2，
+	 * snapshotはSnapshotWnj2，mappedはバイナリ辞書ファイルをメモリマップしたMappedWnj2．
+	 */
+	@Param({"sqlite", "sqlite-ro", "snapshot", "mapped"})
+	public String backend;
+
+	/**
+	 * キャッシュの状態．
+	 * coldはキャッシュを無効にし，warmはキャッシュを有効にして標本をすべて一度検索しておく．
+	 */
+	@Param({"cold", "warm"})
+	public String cache;
+
+	Wnj2 wn;
+	String[] lemmas;
+	Synset[] synsets;
+
+	private File compiled = null;
+	private File generated = null;
+
+	/////////////////////////////////////////////////////////////////////////////////////
+	// Public methods
+	/////////////////////////////////////////////////////////////////////////////////////
+	@Setup(Level.Trial)
+	public void setUp() throws Exception {
+
+		final String path = this.database.isEmpty() ? System.getProperty("wnj2.database", "") : this.database;
+		this.wn = this.open(path.isEmpty() ? this.generate() : new File(path));
+		this.sample();
+
+		if(this.cache.equals("warm")){
+
+			this.wn.setCache(CACHE_CAPACITY, CachePolicy.TINY_LFU);
+			for(int i = 0; i != this.lemmas.length; ++i){
+
+				for(final Word w : this.wn.findWords(this.lemmas[i])){
+
+					w.getSenses();
+
+				}
+				this.synsets[i].getSenses();
+				this.synsets[i].getConnectedSynsets(Link.hype);
+
+			}
+
+		}else{
+
+			this.wn.setCache(0, CachePolicy.LRU);
+
+		}
+
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() throws IOException {
+
+		this.wn.close();
+		if(this.compiled != null){
+
+			this.compiled.delete();
+
+		}
+		if(this.generated != null){
+
+			this.generated.delete();
+
+		}
+
+	}
+
+	/////////////////////////////////////////////////////////////////////////////////////
+	// Private methods
+	/////////////////////////////////////////////////////////////////////////////////////
+	private Wnj2 open(final File file) throws Exception {
+
+		if(this.backend.equals("sqlite")){
+
+			return new Wnj2(file, Runtime.getRuntime().availableProcessors(), OpenMode.READ_WRITE);
+
+		}else if(this.backend.equals("sqlite-ro")){
+
+			return new Wnj2(file, Runtime.getRuntime().availableProcessors(), OpenMode.READ_ONLY);
+
+		}else if(this.backend.equals("snapshot")){
+
+			return new SnapshotWnj2(file);
+
+		}else if(this.backend.equals("mapped")){
+
+			this.compiled = File.createTempFile("wnj2", ".bin");
+			final Connection con = DriverManager.getConnection(String.format("jdbc:sqlite:%s", file.getAbsolutePath()));
+			try{
+
+				MappedWnj2.compile(con, this.compiled);
+
+			}finally{
+
+				con.close();
+
+			}
+			return new MappedWnj2(this.compiled);
+
+		}
+		throw new IllegalArgumentException(String.format("unknown backend %s", this.backend));
+
+	}
+
+	/**
+	 * 既定のシードとscaleパラメータの倍率で合成したデータベースを一時ファイルに作成する．
+	 */
+	private File generate() throws Exception {
+
+		this.generated = File.createTempFile("wnj2", ".db");
+		final String url = String.format("jdbc:sqlite:%s", this.generated.getAbsolutePath());
+		final Generator generator = new Generator(new Importer.Connector(){
+
+			@Override
+			public Connection open() throws SQLException {
+
+				return DriverManager.getConnection(url);
+
+			}
+
+		}, TargetDialect.SQLITE);
+		generator.setScale(Double.parseDouble(this.scale));
+		generator.run();
+		return this.generated;
+
+	}
+
+	/**
+	 * 一定の間隔でWordとSynsetを選び，標本にする．
+	 */
+	private void sample() throws SQLException {
+
+		final List<String> lemmas = new ArrayList<String>();
+		final Stream<Word> words = this.wn.allWords();
+		try{
+
+			final Iterator<Word> it = words.iterator();
+			for(int i = 0; it.hasNext() && lemmas.size() != SAMPLES; ++i){
+
+				final Word w = it.next();
+				if(i % STRIDE == 0){
+
+					lemmas.add(w.getLemma());
+
+				}
+
+			}
+
+		}finally{
+
+			words.close();
+
+		}
+
+		final List<Synset> synsets = new ArrayList<Synset>();
+		final Stream<Synset> all = this.wn.allSynsets();
+		try{
+
+			final Iterator<Synset> it = all.iterator();
+			for(int i = 0; it.hasNext() && synsets.size() != lemmas.size(); ++i){
+
+				final Synset s = it.next();
+				if(i % STRIDE == 0){
+
+					synsets.add(s);
+
+				}
+
+			}
+
+		}finally{
+
+			all.close();
+
+		}
+
+		final int n = Math.min(lemmas.size(), synsets.size());
+		if(n == 0){
+
+			throw new IllegalStateException("the database has no words or synsets");
+
+		}
+		this.lemmas = lemmas.subList(0, n).toArray(new String[n]);
+		this.synsets = synsets.subList(0, n).toArray(new Synset[n]);
+
+	}
+
+}
@@ -0,0 +1,565 @@
+/*
+ * Copyright 2009 Junpei Kawamoto
+ *
+ * This file is part of Japanese WordNet wrapper for Java (Wnj2).
+ * Wnj2 is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Wnj2 is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Wnj2.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package org.wnj2;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.CharBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * 文章中に現れる見出し語を検出するアノテータ．
+ *
+ * <p>
+ * WORDテーブルのすべての見出し語からAho-Corasickオートマトンを作成し，
+ * 文章を一度だけ走査して見出し語の出現をすべて検出します．
+ * 日本語のように単語が空白で区切られていない文章でも，部分文字列ごとに検索する必要はありません．
+ * </p>
+ * <blockquote><pre>
+ * Annotator annotator = wn.createAnnotator();
+ * annotator.annotateLongest(text, new Annotator.Handler(){
+ *     public void found(long begin, long end, List&lt;Word&gt; words){
+ *         ...
+ *     }
+ * });
+ * </pre></blockquote>
+ * <p>
+ * 大文字と小文字は区別せず，見出し語中の'_'は空白として扱います．
+ * 英数字で始まる（終わる）見出し語は，直前（直後）が英数字でない位置にだけ一致します．
+ * 走査中に確保するオブジェクトはほとんどなく，候補のWordのリストは一致ごとに共有されます．
+ * 作成後に内容は変更されないため，このオブジェクトは複数のスレッドから同時に利用できます．
+ * </p>
+ *
+ * @see Wnj2#createAnnotator()
+ */
+public final class Annotator {
+
+	/**
+	 * 検出した見出し語を受け取るハンドラ．
+	 */
+	public interface Handler{
+
+		/**
+		 * 見出し語を検出した時に呼び出される．
+		 *
+		 * @param begin 文章中の開始位置
+		 * @param end 文章中の終了位置（この位置の文字は含まない）
+		 * @param words 見出し語が一致したWordのリスト，頻度の高い順．変更できません．
+		 */
+		void found(long begin, long end, List<Word> words);
+
+	}
+
+	/** Readerから一度に読み込む文字数 */
+	private static final int BUFFER_SIZE = 8192;
+
+	private static final int ROOT = 0;
+
+	/** 状態ごとの，最初の子の状態．子は連続した番号を持つ */
+	private final int[] firstChild;
+
+	/** 状態ごとの子の数 */
+	private final int[] childCount;
+
+	/** 親からこの状態へ遷移する文字，兄弟の間で昇順 */
+	private final char[] labels;
+
+	private final int[] fail;
+
+	/** この状態で終わる見出し語の番号，ない場合は負の値 */
+	private final int[] output;
+
+	/** 失敗遷移をたどって最初に見つかる，見出し語で終わる状態，ない場合は負の値 */
+	private final int[] dictionaryLink;
+
+	/** 見出し語ごとの長さ */
+	private final int[] lengths;
+
+	/** 見出し語ごとの候補のWord */
+	private final List<List<Word>> candidates;
+
+	private final int maxLength;
+
+	/////////////////////////////////////////////////////////////////////////////////////
+	// Constractor
+	/////////////////////////////////////////////////////////////////////////////////////
+	Annotator(final Wnj2 parent, final WordTable table){
+
+		// 見出し語を辞書順に並べ，同じ見出し語のWordをまとめる
+		final String[] keys = new String[table.size()];
+		final Integer[] order = new Integer[table.size()];
+		for(int i = 0; i != keys.length; ++i){
+
+			keys[i] = table.lemma(i) == null ? "" : fold(table.lemma(i));
+			order[i] = i;
+
+		}
+		Arrays.sort(order, new Comparator<Integer>(){
+
+			@Override
+			public int compare(final Integer o1, final Integer o2) {
+
+				final int c = keys[o1].compareTo(keys[o2]);
+				if(c != 0){
+
+					return c;
+
+				}
+				return table.freq(o2) - table.freq(o1);
+
+			}
+
+		});
+
+		final List<String> patterns = new ArrayList<String>();
+		this.candidates = new ArrayList<List<Word>>();
+		for(int i = 0; i != order.length; ++i){
+
+			final String key = keys[order[i]];
+			if(key.isEmpty()){
+
+				continue;
+
+			}
+
+			final int row = order[i];
+			final Word word = Word.create(parent, table.id(row), table.lang(row), table.lemma(row), table.pron(row), table.pos(row));
+			if(!patterns.isEmpty() && patterns.get(patterns.size() - 1).equals(key)){
+
+				this.candidates.get(this.candidates.size() - 1).add(word);
+
+			}else{
+
+				patterns.add(key);
+				final List<Word> list = new ArrayList<Word>(1);
+				list.add(word);
+				this.candidates.add(list);
+
+			}
+
+		}
+		for(int i = 0; i != this.candidates.size(); ++i){
+
+			this.candidates.set(i, Collections.unmodifiableList(this.candidates.get(i)));
+
+		}
+
+		this.lengths = new int[patterns.size()];
+		int chars = 1;
+		int max = 0;
+		for(int i = 0; i != this.lengths.length; ++i){
+
+			this.lengths[i] = patterns.get(i).length();
+			chars += this.lengths[i];
+			max = Math.max(max, this.lengths[i]);
+
+		}
+		this.maxLength = max;
+
+		// トライを幅優先で作成する．兄弟は辞書順に連続した番号を持つ
+		int[] firstChild = new int[chars];
+		int[] childCount = new int[chars];
+		char[] labels = new char[chars];
+		int[] output = new int[chars];
+		int[] parents = new int[chars];
+		final int[] rangeBegin = new int[chars];
+		final int[] rangeEnd = new int[chars];
+		final int[] depth = new int[chars];
+		Arrays.fill(output, -1);
+		rangeEnd[ROOT] = patterns.size();
+		int states = 1;
+		for(int s = 0; s != states; ++s){
+
+			int i = rangeBegin[s];
+			if(i != rangeEnd[s] && patterns.get(i).length() == depth[s]){
+
+				output[s] = i++;
+
+			}
+
+			firstChild[s] = states;
+			while(i != rangeEnd[s]){
+
+				final char c = patterns.get(i).charAt(depth[s]);
+				int j = i + 1;
+				while(j != rangeEnd[s] && patterns.get(j).charAt(depth[s]) == c){
+
+					++j;
+
+				}
+
+				labels[states] = c;
+				parents[states] = s;
+				rangeBegin[states] = i;
+				rangeEnd[states] = j;
+				depth[states] = depth[s] + 1;
+				++states;
+				++childCount[s];
+				i = j;
+
+			}
+
+		}
+
+		this.firstChild = Arrays.copyOf(firstChild, states);
+		this.childCount = Arrays.copyOf(childCount, states);
+		this.labels = Arrays.copyOf(labels, states);
+		this.output = Arrays.copyOf(output, states);
+		this.fail = new int[states];
+		this.dictionaryLink = new int[states];
+
+		// 番号順は幅優先順なので，親の失敗遷移は子より先に求まる
+		this.dictionaryLink[ROOT] = -1;
+		for(int s = 1; s != states; ++s){
+
+			final int p = parents[s];
+			if(p == ROOT){
+
+				this.fail[s] = ROOT;
+
+			}else{
+
+				int f = this.fail[p];
+				int g = this.child(f, this.labels[s]);
+				while(g < 0 && f != ROOT){
+
+					f = this.fail[f];
+					g = this.child(f, this.labels[s]);
+
+				}
+				this.fail[s] = g < 0 ? ROOT : g;
+
+			}
+
+			final int f = this.fail[s];
+			this.dictionaryLink[s] = f != ROOT && this.output[f] >= 0 ? f : this.dictionaryLink[f];
+
+		}
+
+	}
+
+	/////////////////////////////////////////////////////////////////////////////////////
+	// Public methods
+	/////////////////////////////////////////////////////////////////////////////////////
+	/**
+	 * 文章中の見出し語の出現をすべて検出する．
+	 * 重なり合う出現もすべて報告します．ハンドラは終了位置の順に呼び出されます．
+	 *
+	 * @param text 文章
+	 * @param handler 検出した見出し語を受け取るハンドラ
+	 */
+	public void annotate(final CharSequence text, final Handler handler){
+		assert text != null : "text is null";
+		assert handler != null : "handler is null";
+
+		this.scan(text, 0, 0, text.length(), ROOT, handler);
+
+	}
+
+	/**
+	 * Readerから読み込んだ文章中の見出し語の出現をすべて検出する．
+	 * 文章は一定の大きさずつ読み込むため，大きな文章もメモリに読み込まずに処理できます．
+	 * Readerは閉じません．
+	 *
+	 * @param reader 文章を読み込むReader
+	 * @param handler 検出した見出し語を受け取るハンドラ
+	 * @throws IOException 読み込み中にエラーが発生した場合
+	 */
+	public void annotate(final Reader reader, final Handler handler) throws IOException{
+		assert reader != null : "reader is null";
+		assert handler != null : "handler is null";
+
+		this.run(reader, handler, false);
+
+	}
+
+	/**
+	 * 文章を先頭から，各位置で最も長く一致する見出し語に区切る．
+	 * 重なり合う出現は報告せず，一致した見出し語の後ろから検出を続けます．
+	 * ハンドラは開始位置の順に呼び出されます．
+	 *
+	 * @param text 文章
+	 * @param handler 検出した見出し語を受け取るハンドラ
+	 */
+	public void annotateLongest(final CharSequence text, final Handler handler){
+		assert text != null : "text is null";
+		assert handler != null : "handler is null";
+
+		this.scanLongest(text, 0, 0, text.length(), 0, handler);
+
+	}
+
+	/**
+	 * Readerから読み込んだ文章を，各位置で最も長く一致する見出し語に区切る．
+	 * Readerは閉じません．
+	 *
+	 * @param reader 文章を読み込むReader
+	 * @param handler 検出した見出し語を受け取るハンドラ
+	 * @throws IOException 読み込み中にエラーが発生した場合
+	 * @see #annotateLongest(CharSequence, Handler)
+	 */
+	public void annotateLongest(final Reader reader, final Handler handler) throws IOException{
+		assert reader != null : "reader is null";
+		assert handler != null : "handler is null";
+
+		this.run(reader, handler, true);
+
+	}
+
+	/////////////////////////////////////////////////////////////////////////////////////
+	// Private methods
+	/////////////////////////////////////////////////////////////////////////////////////
+	/**
+	 * Readerから読み込みながら走査する．
+	 * 境界の判定と最長一致のため，処理済みの位置の前後の文字をバッファに残します．
+	 */
+	private void run(final Reader reader, final Handler handler, final boolean longest) throws IOException{
+
+		final int history = this.maxLength + 1;
+		final int lookahead = longest ? this.maxLength : 1;
+		final char[] buffer = new char[BUFFER_SIZE + history + lookahead];
+		final CharBuffer view = CharBuffer.wrap(buffer);
+		int length = 0;
+		int position = 0;
+		long offset = 0;
+		int state = ROOT;
+		long skip = 0;
+		boolean eof = false;
+		while(!eof){
+
+			final int read = reader.read(buffer, length, buffer.length - length);
+			if(read < 0){
+
+				eof = true;
+
+			}else{
+
+				length += read;
+
+			}
+
+			final int limit = eof ? length : Math.max(position, length - lookahead);
+			view.limit(length);
+			if(longest){
+
+				skip = this.scanLongest(view, offset, position, limit, skip, handler);
+
+			}else{
+
+				state = this.scan(view, offset, position, limit, state, handler);
+
+			}
+			position = limit;
+
+			final int keep = Math.max(0, position - history);
+			System.arraycopy(buffer, keep, buffer, 0, length - keep);
+			length -= keep;
+			position -= keep;
+			offset += keep;
+
+		}
+
+	}
+
+	/**
+	 * [from, to)の文字でオートマトンを遷移させ，見出し語の出現を報告する．
+	 *
+	 * @param text 文章，toより後ろに続く文字は境界の判定にだけ使う
+	 * @param offset textの先頭の文章中の位置
+	 * @return 最後の状態
+	 */
+	private int scan(final CharSequence text, final long offset, final int from, final int to, final int state, final Handler handler){
+
+		int s = state;
+		for(int i = from; i != to; ++i){
+
+			s = this.next(s, fold(text.charAt(i)));
+			for(int o = this.output[s] >= 0 ? s : this.dictionaryLink[s]; o >= 0; o = this.dictionaryLink[o]){
+
+				final int p = this.output[o];
+				final int begin = i + 1 - this.lengths[p];
+				if(isBoundary(text, begin, i + 1)){
+
+					handler.found(offset + begin, offset + i + 1, this.candidates.get(p));
+
+				}
+
+			}
+
+		}
+
+		return s;
+
+	}
+
+	/**
+	 * [from, to)の各位置から最も長く一致する見出し語を報告する．
+	 *
+	 * @param text 文章，toより後ろに続く文字は一致の判定に使う
+	 * @param offset textの先頭の文章中の位置
+	 * @param skip この位置より前からは一致を探さない（文章中の位置）
+	 * @return 次に一致を探す位置（文章中の位置）
+	 */
+	private long scanLongest(final CharSequence text, final long offset, final int from, final int to, final long skip, final Handler handler){
+
+		long next = skip;
+		for(int i = from; i < to; ++i){
+
+			if(offset + i < next){
+
+				continue;
+
+			}
+
+			int s = ROOT;
+			int found = -1;
+			for(int j = i; j != text.length(); ++j){
+
+				s = this.child(s, fold(text.charAt(j)));
+				if(s < 0){
+
+					break;
+
+				}
+				if(this.output[s] >= 0 && isBoundary(text, i, j + 1)){
+
+					found = this.output[s];
+
+				}
+
+			}
+
+			if(found >= 0){
+
+				final int end = i + this.lengths[found];
+				handler.found(offset + i, offset + end, this.candidates.get(found));
+				next = offset + end;
+
+			}
+
+		}
+
+		return next;
+
+	}
+
+	private int next(final int state, final char c){
+
+		int s = state;
+		int g = this.child(s, c);
+		while(g < 0 && s != ROOT){
+
+			s = this.fail[s];
+			g = this.child(s, c);
+
+		}
+
+		return g < 0 ? ROOT : g;
+
+	}
+
+	/**
+	 * 文字cで遷移する子の状態を二分探索で求める．
+	 *
+	 * @return 子の状態，ない場合は負の値
+	 */
+	private int child(final int state, final char c){
+
+		int lo = this.firstChild[state];
+		int hi = lo + this.childCount[state];
+		while(lo < hi){
+
+			final int mid = (lo + hi) >>> 1;
+			if(this.labels[mid] < c){
+
+				lo = mid + 1;
+
+			}else if(this.labels[mid] > c){
+
+				hi = mid;
+
+			}else{
+
+				return mid;
+
+			}
+
+		}
+
+		return -1;
+
+	}
+
+	/////////////////////////////////////////////////////////////////////////////////////
+	// Static methods
+	/////////////////////////////////////////////////////////////////////////////////////
+	private static char fold(final char c){
+
+		return c == '_' ? ' ' : Character.toLowerCase(c);
+
+	}
+
+	private static String fold(final String s){
+
+		final char[] ret = s.toCharArray();
+		for(int i = 0; i != ret.length; ++i){
+
+			ret[i] = fold(ret[i]);
+
+		}
+
+		return new String(ret);
+
+	}
+
+	/**
+	 * 英数字の途中で始まる，または終わる一致でないかを調べる．
+	 */
+	private static boolean isBoundary(final CharSequence text, final int begin, final int end){
+
+		if(begin > 0 && isWordChar(text.charAt(begin - 1)) && isWordChar(text.charAt(begin))){
+
+			return false;
+
+		}
+		if(end < text.length() && isWordChar(text.charAt(end - 1)) && isWordChar(text.charAt(end))){
+
+			return false;
+
+		}
+
+		return true;
+
+	}
+
+	/**
+	 * 空白で区切って書く言語の文字かどうかを調べる．仮名や漢字は含まない．
+	 */
+	private static boolean isWordChar(final char c){
+
+		return c < '　' && Character.isLetterOrDigit(c);
+
+	}
+
+}
@@ -0,0 +1,465 @@
+/*
+ * Copyright 2009 Junpei Kawamoto
+ *
+ * This file is part of Japanese WordNet wrapper for Java (Wnj2).
+ * Wnj2 is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Wnj2 is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Wnj2.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package org.wnj2;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Wnj2の検索を非同期に実行するファサード．
+ *
+ * <p>
+ * 各メソッドは検索をエグゼキュータに投入してすぐに戻り，結果をCompletableFutureで返します．
+ * 多数の検索を同時に投入し，まとめて待つことができます．
+ * </p>
+ * <blockquote><pre>
+ * AsyncWnj2 async = new AsyncWnj2(wn, 8);
+ * CompletableFuture&lt;List&lt;Word&gt;&gt; a = async.findWords("犬");
+ * CompletableFuture&lt;List&lt;Word&gt;&gt; b = async.findWords("猫");
+ * CompletableFuture.allOf(a, b).join();
+ * </pre></blockquote>
+ * <p>
+ * 同時に実行する検索の数はconcurrencyで制限します．
+ * データベースへの同時接続数はWnj2のコネクション数で決まるため，concurrencyはそれ以下にしてください．
+ * 検索で発生したSQLExceptionは，CompletableFutureの例外として通知されます．
+ * このオブジェクトは複数のスレッドから同時に利用できます．
+ * </p>
+ *
+ * @see Wnj2#Wnj2(java.io.File, int)
+ */
+public class AsyncWnj2 implements Closeable{
+
+	private final Wnj2 wn;
+	private final Executor executor;
+	private final Semaphore permits;
+
+	/** このオブジェクトが作成したエグゼキュータ，外部から与えられた場合はnull */
+	private final ExecutorService ownExecutor;
+
+	/////////////////////////////////////////////////////////////////////////////////////
+	// Constractors
+	/////////////////////////////////////////////////////////////////////////////////////
+	/**
+	 * concurrency個のデーモンスレッドで検索を実行するAsyncWnj2を作成する．
+	 * スレッドはcloseで終了します．
+	 *
+	 * @param wn 検索に使うWnj2
+	 * @param concurrency 同時に実行する検索の最大数
+	 */
+	public AsyncWnj2(final Wnj2 wn, final int concurrency){
+		assert wn != null : "wn is null";
+		assert concurrency > 0 : "concurrency must be positive";
+
+		final AtomicInteger count = new AtomicInteger();
+		this.wn = wn;
+		this.ownExecutor = Executors.newFixedThreadPool(concurrency, new ThreadFactory(){
+
+			@Override
+			public Thread newThread(final Runnable r) {
+
+				final Thread ret = new Thread(r, String.format("wnj2-async-%d", count.incrementAndGet()));
+				ret.setDaemon(true);
+				return ret;
+
+			}
+
+		});
+		this.executor = this.ownExecutor;
+		this.permits = new Semaphore(concurrency);
+
+	}
+
+	/**
+	 * 指定したエグゼキュータで検索を実行するAsyncWnj2を作成する．
+	 *
+	 * <p>
+	 * エグゼキュータのスレッド数にかかわらず，同時に実行する検索はconcurrency個までに制限されます．
+	 * 例えばJava 21以降では仮想スレッドのエグゼキュータ（Executors.newVirtualThreadPerTaskExecutor()）を指定できます．
+	 * 指定したエグゼキュータはcloseで終了しません．
+	 * </p>
+	 *
+	 * @param wn 検索に使うWnj2
+	 * @param executor 検索を実行するエグゼキュータ
+	 * @param concurrency 同時に実行する検索の最大数
+	 */
+	public AsyncWnj2(final Wnj2 wn, final Executor executor, final int concurrency){
+		assert wn != null : "wn is null";
+		assert executor != null : "executor is null";
+		assert concurrency > 0 : "concurrency must be positive";
+
+		this.wn = wn;
+		this.ownExecutor = null;
+		this.executor = executor;
+		this.permits = new Semaphore(concurrency);
+
+	}
+
+	/////////////////////////////////////////////////////////////////////////////////////
+	// Public methods
+	/////////////////////////////////////////////////////////////////////////////////////
+	/**
+	 * このオブジェクトが作成したスレッドを終了する．
+	 * 実行待ちの検索は実行されず，そのCompletableFutureはキャンセルされます．Wnj2は閉じません．
+	 */
+	@Override
+	public void close() throws IOException {
+
+		if(this.ownExecutor != null){
+
+			for(final Runnable r : this.ownExecutor.shutdownNow()){
+
+				if(r instanceof Task){
+
+					((Task<?>)r).cancel();
+
+				}
+
+			}
+
+		}
+
+	}
+
+	/**
+	 * 検索に使うWnj2を取得する．
+	 *
+	 * @return Wnj2
+	 */
+	public Wnj2 getWnj2(){
+
+		return this.wn;
+
+	}
+
+	/**
+	 * 見出し語に一致するWord集合を非同期に取得する．
+	 *
+	 * @param lemma 見出し語
+	 * @return 見出し語lemmaに一致するWordのリスト
+	 * @see Wnj2#findWords(String)
+	 */
+	public CompletableFuture<List<Word>> findWords(final String lemma){
+		assert lemma != null : "lemma is null";
+
+		return this.submit(new Callable<List<Word>>(){
+
+			@Override
+			public List<Word> call() throws Exception {
+
+				return wn.findWords(lemma);
+
+			}
+
+		});
+
+	}
+
+	/**
+	 * 見出し語と品詞を指定して一致するWord集合を非同期に取得する．
+	 *
+	 * @param lemma 見出し語
+	 * @param pos 品詞
+	 * @return 見出し語lemmaと品詞posに一致するWordのリスト
+	 * @see Wnj2#findWords(String, Pos)
+	 */
+	public CompletableFuture<List<Word>> findWords(final String lemma, final Pos pos){
+		assert lemma != null : "lemma is null";
+		assert pos != null : "pos is null";
+
+		return this.submit(new Callable<List<Word>>(){
+
+			@Override
+			public List<Word> call() throws Exception {
+
+				return wn.findWords(lemma, pos);
+
+			}
+
+		});
+
+	}
+
+	/**
+	 * 見出し語と品詞を指定して一致するSynset集合を非同期に取得する．
+	 *
+	 * @param lemma 見出し語
+	 * @param pos 品詞
+	 * @return 見出し語lemmaと品詞posに一致するSynsetのリスト
+	 * @see Wnj2#findSynsets(String, Pos)
+	 */
+	public CompletableFuture<List<Synset>> findSynsets(final String lemma, final Pos pos){
+		assert lemma != null : "lemma is null";
+		assert pos != null : "pos is null";
+
+		return this.submit(new Callable<List<Synset>>(){
+
+			@Override
+			public List<Synset> call() throws Exception {
+
+				return wn.findSynsets(lemma, pos);
+
+			}
+
+		});
+
+	}
+
+	/**
+	 * Wordに関係するSense集合を非同期に取得する．
+	 *
+	 * @param word Word
+	 * @return Wordに関係するSenseのリスト
+	 * @see Word#getSenses()
+	 */
+	public CompletableFuture<List<Sense>> getSenses(final Word word){
+		assert word != null : "word is null";
+
+		return this.submit(new Callable<List<Sense>>(){
+
+			@Override
+			public List<Sense> call() throws Exception {
+
+				return word.getSenses();
+
+			}
+
+		});
+
+	}
+
+	/**
+	 * Synsetに属するSense集合を非同期に取得する．
+	 *
+	 * @param synset Synset
+	 * @return Synsetに属するSenseのリスト
+	 * @see Synset#getSenses()
+	 */
+	public CompletableFuture<List<Sense>> getSenses(final Synset synset){
+		assert synset != null : "synset is null";
+
+		return this.submit(new Callable<List<Sense>>(){
+
+			@Override
+			public List<Sense> call() throws Exception {
+
+				return synset.getSenses();
+
+			}
+
+		});
+
+	}
+
+	/**
+	 * Synsetに属するSenseのうち，指定した言語のものを非同期に取得する．
+	 *
+	 * @param synset Synset
+	 * @param lang 言語
+	 * @return Synsetに属するSenseのリスト
+	 * @see Synset#getSenses(Lang)
+	 */
+	public CompletableFuture<List<Sense>> getSenses(final Synset synset, final Lang lang){
+		assert synset != null : "synset is null";
+		assert lang != null : "lang is null";
+
+		return this.submit(new Callable<List<Sense>>(){
+
+			@Override
+			public List<Sense> call() throws Exception {
+
+				return synset.getSenses(lang);
+
+			}
+
+		});
+
+	}
+
+	/**
+	 * Synsetから出ているリンクを非同期に取得する．
+	 *
+	 * @param synset Synset
+	 * @return Synlinkのリスト
+	 * @see Synset#getSynlinks()
+	 */
+	public CompletableFuture<List<Synlink>> getSynlinks(final Synset synset){
+		assert synset != null : "synset is null";
+
+		return this.submit(new Callable<List<Synlink>>(){
+
+			@Override
+			public List<Synlink> call() throws Exception {
+
+				return synset.getSynlinks();
+
+			}
+
+		});
+
+	}
+
+	/**
+	 * Synsetから出ている指定した種類のリンクを非同期に取得する．
+	 *
+	 * @param synset Synset
+	 * @param link リンクの種類
+	 * @return Synlinkのリスト
+	 * @see Synset#getSynlinks(Link)
+	 */
+	public CompletableFuture<List<Synlink>> getSynlinks(final Synset synset, final Link link){
+		assert synset != null : "synset is null";
+		assert link != null : "link is null";
+
+		return this.submit(new Callable<List<Synlink>>(){
+
+			@Override
+			public List<Synlink> call() throws Exception {
+
+				return synset.getSynlinks(link);
+
+			}
+
+		});
+
+	}
+
+	/**
+	 * Synsetと指定した種類のリンクで結ばれたSynsetを非同期に取得する．
+	 *
+	 * @param synset Synset
+	 * @param link リンクの種類
+	 * @return Synsetのリスト
+	 * @see Synset#getConnectedSynsets(Link)
+	 */
+	public CompletableFuture<List<Synset>> getConnectedSynsets(final Synset synset, final Link link){
+		assert synset != null : "synset is null";
+		assert link != null : "link is null";
+
+		return this.submit(new Callable<List<Synset>>(){
+
+			@Override
+			public List<Synset> call() throws Exception {
+
+				return synset.getConnectedSynsets(link);
+
+			}
+
+		});
+
+	}
+
+	/////////////////////////////////////////////////////////////////////////////////////
+	// Private methods
+	/////////////////////////////////////////////////////////////////////////////////////
+	/**
+	 * 検索をエグゼキュータに投入する．
+	 * 実行時に許可を得てから検索し，同時に実行する検索の数を制限します．
+	 */
+	private <T> CompletableFuture<T> submit(final Callable<T> query){
+
+		final CompletableFuture<T> ret = new CompletableFuture<T>();
+		try{
+
+			this.executor.execute(new Task<T>(query, ret, this.permits));
+
+		}catch(final RejectedExecutionException e){
+
+			ret.completeExceptionally(e);
+
+		}
+
+		return ret;
+
+	}
+
+	/////////////////////////////////////////////////////////////////////////////////////
+	// Inner classes
+	/////////////////////////////////////////////////////////////////////////////////////
+	/**
+	 * エグゼキュータに投入する検索．
+	 * 実行されずに破棄された場合にCompletableFutureをキャンセルできるよう，結果の通知先を保持します．
+	 */
+	private static final class Task<T> implements Runnable{
+
+		private final Callable<T> query;
+		private final CompletableFuture<T> future;
+		private final Semaphore permits;
+
+		Task(final Callable<T> query, final CompletableFuture<T> future, final Semaphore permits){
+
+			this.query = query;
+			this.future = future;
+			this.permits = permits;
+
+		}
+
+		@Override
+		public void run() {
+
+			try{
+
+				this.permits.acquire();
+
+			}catch(final InterruptedException e){
+
+				Thread.currentThread().interrupt();
+				this.future.completeExceptionally(e);
+				return;
+
+			}
+
+			try{
+
+				this.future.complete(this.query.call());
+
+			}catch(final Throwable e){
+
+				this.future.completeExceptionally(e);
+
+			}finally{
+
+				this.permits.release();
+
+			}
+
+		}
+
+		/**
+		 * 実行されなかった検索のCompletableFutureをキャンセルする．
+		 */
+		void cancel(){
+
+			this.future.cancel(false);
+
+		}
+
+	}
+
+}
@@ -0,0 +1,34 @@
+/*
+ * Copyright 2009 Junpei Kawamoto
+ *
+ * This file is part of Japanese WordNet wrapper for Java (Wnj2).
+ * Wnj2 is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Wnj2 is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Wnj2.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.wnj2;
+
+/**
+ * Wnj2が保持するSynset, Wordキャッシュの追い出し方針
+ *
+ * @see Wnj2#setCache(int, CachePolicy)
+ */
+public enum CachePolicy {
+
+	/** 最も長い間参照されていないものから追い出す(Least Recently Used) */
+	LRU,
+
+	/** 参照頻度の推定値を用いて追い出すものを選ぶ(Window TinyLFU) */
+	TINY_LFU
+
+}
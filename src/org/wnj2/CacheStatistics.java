@@ -0,0 +1,129 @@
+/*
+ * Copyright 2009 Junpei Kawamoto
+ *
+ * This file is part of Japanese WordNet wrapper for Java (Wnj2).
+ * Wnj2 is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Wnj2 is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Wnj2.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.wnj2;
+
+/**
+ * キャッシュの統計情報．
+ *
+ * <p>
+ * 取得した時点での値を保持し，その後のキャッシュの利用によって変化しません．
+ * </p>
+ *
+ * @see Wnj2#getSynsetCacheStatistics()
+ * @see Wnj2#getWordCacheStatistics()
+ */
+public final class CacheStatistics {
+
+	private final long hits;
+	private final long misses;
+	private final long evictions;
+	private final int size;
+	private final int capacity;
+
+	/////////////////////////////////////////////////////////////////////////////////////
+	// Constractor
+	/////////////////////////////////////////////////////////////////////////////////////
+	CacheStatistics(final long hits, final long misses, final long evictions, final int size, final int capacity){
+
+		this.hits = hits;
+		this.misses = misses;
+		this.evictions = evictions;
+		this.size = size;
+		this.capacity = capacity;
+
+	}
+
+	/////////////////////////////////////////////////////////////////////////////////////
+	// Public methods
+	/////////////////////////////////////////////////////////////////////////////////////
+	/**
+	 * キャッシュに見つかった回数を取得する．
+	 *
+	 * @return ヒット数
+	 */
+	public long getHitCount() {
+		return this.hits;
+	}
+
+	/**
+	 * キャッシュに見つからなかった回数を取得する．
+	 *
+	 * @return ミス数
+	 */
+	public long getMissCount() {
+		return this.misses;
+	}
+
+	/**
+	 * 容量を超えたために追い出された要素の数を取得する．
+	 *
+	 * @return 追い出された要素の数
+	 */
+	public long getEvictionCount() {
+		return this.evictions;
+	}
+
+	/**
+	 * キャッシュに格納されている要素の数を取得する．
+	 *
+	 * @return 要素数
+	 */
+	public int getSize() {
+		return this.size;
+	}
+
+	/**
+	 * キャッシュの容量を取得する．
+	 *
+	 * @return 格納できる要素の最大数
+	 */
+	public int getCapacity() {
+		return this.capacity;
+	}
+
+	/**
+	 * ヒット率を取得する．
+	 *
+	 * @return ヒット数を参照回数で割った値，一度も参照されていない場合は0
+	 */
+	public double getHitRate() {
+
+		final long requests = this.hits + this.misses;
+		return requests == 0 ? 0 : (double)this.hits / requests;
+
+	}
+
+	/**
+	 * このオブジェクトのJSON表記を取得する．
+	 *
+	 * @return このオブジェクトをJSON形式で表した文字列．
+	 */
+	@Override
+	public String toString() {
+
+		return String.format("{\"hits\": %d, \"misses\": %d, \"evictions\": %d, \"size\": %d, \"capacity\": %d}",
+				this.hits,
+				this.misses,
+				this.evictions,
+				this.size,
+				this.capacity);
+
+	}
+
+}
@@ -0,0 +1,144 @@
+/*
+ * Copyright 2009 Junpei Kawamoto
+ *
+ * This file is part of Japanese WordNet wrapper for Java (Wnj2).
+ * Wnj2 is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Wnj2 is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Wnj2.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.wnj2;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * リンクを幅優先でたどるイテレータ．
+ * 現在の段を返し終えると，次の段のSynsetを一回の問い合わせでまとめて取得します．
+ */
+class ClosureIterator implements Iterator<Synset>{
+
+	private final Wnj2 parent;
+	private final Link link;
+	private final int maxDepth;
+
+	private final Set<String> visited = new HashSet<String>();
+	private List<Synset> level = new ArrayList<Synset>();
+	private int index = 0;
+	private int depth = 0;
+
+	/////////////////////////////////////////////////////////////////////////////////////
+	// Constractor
+	/////////////////////////////////////////////////////////////////////////////////////
+	ClosureIterator(final Wnj2 parent, final Synset root, final Link link, final int maxDepth){
+
+		this.parent = parent;
+		this.link = link;
+		this.maxDepth = maxDepth;
+
+		this.visited.add(root.getSynsetID());
+		this.level.add(root);
+		// 起点自身は返さない
+		this.index = 1;
+
+	}
+
+	/////////////////////////////////////////////////////////////////////////////////////
+	// Public methods
+	/////////////////////////////////////////////////////////////////////////////////////
+	@Override
+	public boolean hasNext() {
+
+		while(this.index == this.level.size()){
+
+			if(this.depth == this.maxDepth || this.level.isEmpty()){
+
+				return false;
+
+			}
+			this.expand();
+
+		}
+		return true;
+
+	}
+
+	@Override
+	public Synset next() {
+
+		if(!this.hasNext()){
+
+			throw new NoSuchElementException();
+
+		}
+		return this.level.get(this.index++);
+
+	}
+
+	@Override
+	public void remove() {
+
+		throw new UnsupportedOperationException();
+
+	}
+
+	/////////////////////////////////////////////////////////////////////////////////////
+	// Private methods
+	/////////////////////////////////////////////////////////////////////////////////////
+	private void expand(){
+
+		final List<String> frontier = new ArrayList<String>(this.level.size());
+		for(final Synset s : this.level){
+
+			frontier.add(s.getSynsetID());
+
+		}
+
+		final Map<String, List<Synset>> connected;
+		try{
+
+			connected = this.parent.findConnectedSynsets(frontier, this.link);
+
+		}catch(final SQLException e){
+
+			throw new UncheckedSQLException(e);
+
+		}
+
+		final List<Synset> next = new ArrayList<Synset>();
+		for(final List<Synset> synsets : connected.values()){
+
+			for(final Synset s : synsets){
+
+				if(this.visited.add(s.getSynsetID())){
+
+					next.add(s);
+
+				}
+
+			}
+
+		}
+
+		this.level = next;
+		this.index = 0;
+		++this.depth;
+
+	}
+
+}
@@ -0,0 +1,296 @@
+/*
+ * Copyright 2009 Junpei Kawamoto
+ *
+ * This file is part of Japanese WordNet wrapper for Java (Wnj2).
+ * Wnj2 is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Wnj2 is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Wnj2.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.wnj2;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Wnj2が使用するデータベースへのコネクションのプール．
+ *
+ * <p>
+ * コネクションは必要になった時点で上限数まで作成されます．
+ * コネクションの作成はプールのロックを持たずに行うため，作成に時間がかかっても他のacquireとreleaseは待たされません．
+ * Factoryは複数のスレッドから同時に呼び出されることがあります．
+ * 上限数のコネクションがすべて使用中の場合，acquireは他のスレッドがreleaseするまで待ちます．
+ * 待機中にプールが閉じられた場合，acquireはSQLExceptionを投げます．
+ * 一つのコネクションを同時に使用するのは一つのスレッドだけです．
+ * </p>
+ * <p>
+ * コネクションを借りているスレッドが返す前に再びacquireを呼び出した場合，同じコネクションを返します．
+ * 借りた回数だけreleaseされた時点でコネクションはプールへ戻ります．
+ * Streamの読み出し中にその要素から検索する場合のように，コネクションを借りたまま別の検索を行っても，
+ * 二つ目のコネクションを待つことはありません．
+ * コネクションを借りたスレッド以外がそのコネクションを使うことはないため，
+ * コネクションを借りたままのStreamは，それを作成したスレッドで読み出す必要があります．
+ * </p>
+ */
+final class ConnectionPool implements Closeable{
+
+	/**
+	 * 新しいコネクションを作成する．
+	 */
+	interface Factory{
+
+		Connection open() throws SQLException;
+
+	}
+
+	private final Factory factory;
+	private final int capacity;
+
+	private final Deque<PooledConnection> idle = new ArrayDeque<PooledConnection>();
+	private final List<PooledConnection> connections = new ArrayList<PooledConnection>();
+
+	/** コネクションを借りているスレッドから，借りているコネクションへのマップ */
+	private final Map<Thread, PooledConnection> owners = new HashMap<Thread, PooledConnection>();
+
+	/** 枠を確保して作成中のコネクションの数 */
+	private int opening = 0;
+	private boolean closed = false;
+
+	/////////////////////////////////////////////////////////////////////////////////////
+	// Constractors
+	/////////////////////////////////////////////////////////////////////////////////////
+	ConnectionPool(final Factory factory, final int capacity){
+		assert factory != null : "factory is null";
+		assert capacity > 0 : "capacity must be positive";
+
+		this.factory = factory;
+		this.capacity = capacity;
+
+	}
+
+	/**
+	 * 指定したコネクションだけを持つプールを作成する．
+	 */
+	ConnectionPool(final Connection connection){
+		this(new Factory(){
+
+			@Override
+			public Connection open() throws SQLException {
+				throw new SQLException("no more connections");
+			}
+
+		}, 1);
+
+		final PooledConnection c = new PooledConnection(connection);
+		this.connections.add(c);
+		this.idle.add(c);
+
+	}
+
+	/////////////////////////////////////////////////////////////////////////////////////
+	// Public methods
+	/////////////////////////////////////////////////////////////////////////////////////
+	/**
+	 * すべてのコネクションを閉じる．
+	 * 使用中のコネクションも閉じられます．
+	 * acquireで待機しているスレッドはSQLExceptionを受け取ります．
+	 */
+	@Override
+	public void close() throws IOException {
+
+		final List<PooledConnection> targets;
+		synchronized(this){
+
+			this.closed = true;
+			targets = new ArrayList<PooledConnection>(this.connections);
+			this.connections.clear();
+			this.idle.clear();
+			this.owners.clear();
+			this.notifyAll();
+
+		}
+
+		SQLException error = null;
+		for(final PooledConnection c : targets){
+
+			try{
+
+				c.close();
+
+			}catch(final SQLException e){
+
+				error = e;
+
+			}
+
+		}
+
+		if(error != null){
+
+			throw new IOException(error.getMessage());
+
+		}
+
+	}
+
+	/////////////////////////////////////////////////////////////////////////////////////
+	// Package private methods
+	/////////////////////////////////////////////////////////////////////////////////////
+	/**
+	 * コネクションを借りる．
+	 * 借りたコネクションは，使用後に必ずreleaseで返して下さい．
+	 * 呼び出したスレッドが既にコネクションを借りている場合は，待たずに同じコネクションを返します．
+	 *
+	 * @return 呼び出したスレッドが専有できるコネクション
+	 * @throws SQLException プールが閉じられている場合，コネクションの作成に失敗した場合，または待機中に割り込まれた場合
+	 */
+	PooledConnection acquire() throws SQLException{
+
+		final Thread current = Thread.currentThread();
+		synchronized(this){
+
+			while(true){
+
+				if(this.closed){
+
+					throw new SQLException("connection pool is closed");
+
+				}
+
+				final PooledConnection owned = this.owners.get(current);
+				if(owned != null){
+
+					++owned.holds;
+					return owned;
+
+				}
+
+				final PooledConnection c = this.idle.poll();
+				if(c != null){
+
+					return this.lend(c, current);
+
+				}
+
+				if(this.connections.size() + this.opening < this.capacity){
+
+					++this.opening;
+					break;
+
+				}
+
+				try{
+
+					// releaseまたはcloseで起こされた後，closedを確認し直す
+					this.wait();
+
+				}catch(final InterruptedException e){
+
+					Thread.currentThread().interrupt();
+					throw new SQLException("interrupted while waiting for a connection");
+
+				}
+
+			}
+
+		}
+
+		// 確保した枠のコネクションを，ロックを持たずに作成する
+		Connection connection = null;
+		try{
+
+			connection = this.factory.open();
+
+		}finally{
+
+			if(connection == null){
+
+				synchronized(this){
+
+					--this.opening;
+					this.notify();
+
+				}
+
+			}
+
+		}
+
+		synchronized(this){
+
+			--this.opening;
+			if(!this.closed){
+
+				final PooledConnection c = new PooledConnection(connection);
+				this.connections.add(c);
+				return this.lend(c, current);
+
+			}
+
+		}
+
+		connection.close();
+		throw new SQLException("connection pool is closed");
+
+	}
+
+	/**
+	 * 借りたコネクションを返す．
+	 * 借りたスレッドとは別のスレッドから返すこともできます．
+	 *
+	 * @param connection acquireで借りたコネクション
+	 */
+	synchronized void release(final PooledConnection connection){
+
+		if(this.closed || --connection.holds != 0){
+
+			return;
+
+		}
+
+		this.owners.remove(connection.owner);
+		connection.owner = null;
+		this.idle.offer(connection);
+		this.notify();
+
+	}
+
+	int getCapacity(){
+
+		return this.capacity;
+
+	}
+
+	/////////////////////////////////////////////////////////////////////////////////////
+	// Private methods
+	/////////////////////////////////////////////////////////////////////////////////////
+	/**
+	 * コネクションをownerに貸し出す．プールのロックを持って呼び出す．
+	 */
+	private PooledConnection lend(final PooledConnection connection, final Thread owner){
+
+		connection.owner = owner;
+		connection.holds = 1;
+		this.owners.put(owner, connection);
+		return connection;
+
+	}
+
+}
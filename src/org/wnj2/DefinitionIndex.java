@@ -0,0 +1,664 @@
+/*
+ * Copyright 2009 Junpei Kawamoto
+ *
+ * This file is part of Japanese WordNet wrapper for Java (Wnj2).
+ * Wnj2 is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Wnj2 is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Wnj2.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package org.wnj2;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * SYNSET_DEFの説明文に対する転置索引．
+ *
+ * <p>
+ * Synsetと言語の組を一つの文書とし，英語は空白と記号で区切った単語を，
+ * 日本語は文字の二つ組（bigram）を索引語とします．
+ * 各索引語の出現リストは，文書番号の差分と出現回数を可変長整数で符号化したバイト列で保持します．
+ * 検索結果はBM25で順位付けします．
+ * </p>
+ * <p>
+ * 作成は文書を分割して並行に行い，作成した索引はファイルへ保存できます．
+ * 作成後に内容は変更されません．
+ * </p>
+ */
+final class DefinitionIndex {
+
+	static final int MAGIC = 0x574E4449;
+	static final int VERSION = 1;
+
+	private static final Lang[] LANGS = Lang.values();
+
+	/** 一つのタスクで処理する文書の数 */
+	private static final int CHUNK_SIZE = 4096;
+
+	private static final double K1 = 1.2;
+	private static final double B = 0.75;
+
+	/** 文書ごとのSynsetID */
+	private final String[] synsets;
+
+	/** 文書ごとの言語 */
+	private final Lang[] langs;
+
+	/** 文書ごとの索引語の数 */
+	private final int[] lengths;
+
+	/** 言語ごとの文書数 */
+	private final int[] docCounts = new int[LANGS.length];
+
+	/** 言語ごとの文書の平均の長さ */
+	private final double[] averageLengths = new double[LANGS.length];
+
+	/** 言語ごとの，索引語から出現リストへの対応 */
+	private final List<Map<String, Postings>> terms;
+
+	/////////////////////////////////////////////////////////////////////////////////////
+	// Constractor
+	/////////////////////////////////////////////////////////////////////////////////////
+	private DefinitionIndex(final String[] synsets, final Lang[] langs, final int[] lengths, final List<Map<String, Postings>> terms){
+
+		this.synsets = synsets;
+		this.langs = langs;
+		this.lengths = lengths;
+		this.terms = terms;
+
+		final long[] total = new long[LANGS.length];
+		for(int i = 0; i != langs.length; ++i){
+
+			++this.docCounts[langs[i].ordinal()];
+			total[langs[i].ordinal()] += lengths[i];
+
+		}
+		for(int i = 0; i != LANGS.length; ++i){
+
+			this.averageLengths[i] = this.docCounts[i] == 0 ? 0 : (double)total[i] / this.docCounts[i];
+
+		}
+
+	}
+
+	/////////////////////////////////////////////////////////////////////////////////////
+	// Package private methods
+	/////////////////////////////////////////////////////////////////////////////////////
+	/**
+	 * 問い合わせに適合する説明文を持つSynsetを，スコアの高い順に取得する．
+	 *
+	 * @param query 問い合わせ
+	 * @param lang 説明文の言語，nullの場合はすべての言語
+	 * @param k 取得する最大の件数
+	 * @return SynsetIDのリスト
+	 */
+	List<String> search(final String query, final Lang lang, final int k){
+
+		final Map<Integer, double[]> scores = new HashMap<Integer, double[]>();
+		for(final Lang l : LANGS){
+
+			if(lang != null && lang != l){
+
+				continue;
+
+			}
+
+			final Map<String, Postings> dictionary = this.terms.get(l.ordinal());
+			final int n = this.docCounts[l.ordinal()];
+			final double average = this.averageLengths[l.ordinal()];
+			for(final String term : new LinkedHashSet<String>(tokenize(query, l))){
+
+				final Postings p = dictionary.get(term);
+				if(p == null){
+
+					continue;
+
+				}
+
+				final double idf = Math.log(1 + (n - p.count + 0.5) / (p.count + 0.5));
+				final int[] cursor = new int[1];
+				int doc = 0;
+				for(int i = 0; i != p.count; ++i){
+
+					doc += readVarint(p.bytes, cursor);
+					final int tf = readVarint(p.bytes, cursor);
+					final double norm = tf + K1 * (1 - B + B * this.lengths[doc] / average);
+					double[] score = scores.get(doc);
+					if(score == null){
+
+						score = new double[1];
+						scores.put(doc, score);
+
+					}
+					score[0] += idf * tf * (K1 + 1) / norm;
+
+				}
+
+			}
+
+		}
+
+		// 言語の異なる文書が同じSynsetに適合した場合は，高い方のスコアを使う
+		final Map<String, double[]> bySynset = new HashMap<String, double[]>();
+		for(final Map.Entry<Integer, double[]> e : scores.entrySet()){
+
+			final String synset = this.synsets[e.getKey()];
+			final double[] score = bySynset.get(synset);
+			if(score == null || score[0] < e.getValue()[0]){
+
+				bySynset.put(synset, e.getValue());
+
+			}
+
+		}
+
+		// スコアの低いものを先頭に置き，上位k件だけを残す
+		final PriorityQueue<Map.Entry<String, double[]>> top = new PriorityQueue<Map.Entry<String, double[]>>(Math.max(1, k), new Comparator<Map.Entry<String, double[]>>(){
+
+			@Override
+			public int compare(final Map.Entry<String, double[]> o1, final Map.Entry<String, double[]> o2) {
+
+				final int c = Double.compare(o1.getValue()[0], o2.getValue()[0]);
+				return c != 0 ? c : o2.getKey().compareTo(o1.getKey());
+
+			}
+
+		});
+		for(final Map.Entry<String, double[]> e : bySynset.entrySet()){
+
+			top.add(e);
+			if(top.size() > k){
+
+				top.poll();
+
+			}
+
+		}
+
+		final String[] ret = new String[top.size()];
+		for(int i = ret.length - 1; i >= 0; --i){
+
+			ret[i] = top.poll().getKey();
+
+		}
+
+		return Arrays.asList(ret);
+
+	}
+
+	/**
+	 * 索引をファイルへ保存する．
+	 *
+	 * @param file 出力先のファイル
+	 * @throws IOException 入出力エラーが発生した場合
+	 */
+	void save(final File file) throws IOException{
+
+		final DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file)));
+		try{
+
+			out.writeInt(MAGIC);
+			out.writeInt(VERSION);
+			out.writeInt(this.synsets.length);
+			for(int i = 0; i != this.synsets.length; ++i){
+
+				out.writeUTF(this.synsets[i]);
+				out.writeByte(this.langs[i].ordinal());
+				out.writeInt(this.lengths[i]);
+
+			}
+
+			for(final Map<String, Postings> dictionary : this.terms){
+
+				out.writeInt(dictionary.size());
+				for(final Map.Entry<String, Postings> e : dictionary.entrySet()){
+
+					out.writeUTF(e.getKey());
+					out.writeInt(e.getValue().count);
+					out.writeInt(e.getValue().bytes.length);
+					out.write(e.getValue().bytes);
+
+				}
+
+			}
+
+		}finally{
+
+			out.close();
+
+		}
+
+	}
+
+	/////////////////////////////////////////////////////////////////////////////////////
+	// Static methods
+	/////////////////////////////////////////////////////////////////////////////////////
+	/**
+	 * 説明文から索引を並行に作成する．
+	 *
+	 * @param table 説明文
+	 * @param threads 作成に使うスレッドの数
+	 * @return 作成した索引
+	 */
+	static DefinitionIndex build(final DefinitionTable table, final int threads){
+
+		final int n = table.size();
+		final String[] synsets = new String[n];
+		final Lang[] langs = new Lang[n];
+		final int[] lengths = new int[n];
+		for(int i = 0; i != n; ++i){
+
+			synsets[i] = table.synset(i);
+			langs[i] = table.lang(i);
+
+		}
+
+		// 文書を連続した範囲に分けて索引語を数え，範囲の順に併合すると文書番号は昇順になる
+		final ExecutorService executor = Executors.newFixedThreadPool(threads);
+		final List<Map<String, IntList>> merged = new ArrayList<Map<String, IntList>>();
+		for(int i = 0; i != LANGS.length; ++i){
+
+			merged.add(new HashMap<String, IntList>());
+
+		}
+		try{
+
+			final List<Future<List<Map<String, IntList>>>> futures = new ArrayList<Future<List<Map<String, IntList>>>>();
+			for(int begin = 0; begin < n; begin += CHUNK_SIZE){
+
+				final int from = begin;
+				final int to = Math.min(n, begin + CHUNK_SIZE);
+				futures.add(executor.submit(new Callable<List<Map<String, IntList>>>(){
+
+					@Override
+					public List<Map<String, IntList>> call() {
+
+						return count(table, from, to, lengths);
+
+					}
+
+				}));
+
+			}
+
+			for(final Future<List<Map<String, IntList>>> f : futures){
+
+				final List<Map<String, IntList>> partial = getResult(f);
+				for(int i = 0; i != LANGS.length; ++i){
+
+					for(final Map.Entry<String, IntList> e : partial.get(i).entrySet()){
+
+						final IntList list = merged.get(i).get(e.getKey());
+						if(list == null){
+
+							merged.get(i).put(e.getKey(), e.getValue());
+
+						}else{
+
+							list.addAll(e.getValue());
+
+						}
+
+					}
+
+				}
+
+			}
+
+		}finally{
+
+			executor.shutdownNow();
+
+		}
+
+		final List<Map<String, Postings>> terms = new ArrayList<Map<String, Postings>>();
+		for(final Map<String, IntList> m : merged){
+
+			final Map<String, Postings> dictionary = new HashMap<String, Postings>(m.size() * 4 / 3 + 1);
+			for(final Map.Entry<String, IntList> e : m.entrySet()){
+
+				dictionary.put(e.getKey(), Postings.encode(e.getValue()));
+
+			}
+			terms.add(dictionary);
+
+		}
+
+		return new DefinitionIndex(synsets, langs, lengths, terms);
+
+	}
+
+	/**
+	 * saveで保存した索引を読み込む．
+	 *
+	 * @param file saveで保存したファイル
+	 * @return 読み込んだ索引
+	 * @throws IOException 入出力エラーが発生した場合，またはファイルの形式やバージョンが異なる場合
+	 */
+	static DefinitionIndex load(final File file) throws IOException{
+
+		final DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)));
+		try{
+
+			if(in.readInt() != MAGIC){
+
+				throw new IOException("not a Wnj2 definition index file");
+
+			}
+			final int version = in.readInt();
+			if(version != VERSION){
+
+				throw new IOException(String.format("unsupported definition index version %d", version));
+
+			}
+
+			final int n = in.readInt();
+			final String[] synsets = new String[n];
+			final Lang[] langs = new Lang[n];
+			final int[] lengths = new int[n];
+			for(int i = 0; i != n; ++i){
+
+				synsets[i] = in.readUTF();
+				langs[i] = LANGS[in.readByte()];
+				lengths[i] = in.readInt();
+
+			}
+
+			final List<Map<String, Postings>> terms = new ArrayList<Map<String, Postings>>();
+			for(int i = 0; i != LANGS.length; ++i){
+
+				final int size = in.readInt();
+				final Map<String, Postings> dictionary = new HashMap<String, Postings>(size * 4 / 3 + 1);
+				for(int j = 0; j != size; ++j){
+
+					final String term = in.readUTF();
+					final int count = in.readInt();
+					final byte[] bytes = new byte[in.readInt()];
+					in.readFully(bytes);
+					dictionary.put(term, new Postings(count, bytes));
+
+				}
+				terms.add(dictionary);
+
+			}
+
+			return new DefinitionIndex(synsets, langs, lengths, terms);
+
+		}finally{
+
+			in.close();
+
+		}
+
+	}
+
+	/**
+	 * 文字列を索引語に分割する．
+	 * 英語は英数字の並びを小文字にした単語，日本語は英数字や仮名，漢字の並びの二文字ずつの組です．
+	 * 一文字だけの並びはその文字を索引語とします．
+	 *
+	 * @param text 文字列
+	 * @param lang 言語
+	 * @return 索引語のリスト
+	 */
+	static List<String> tokenize(final String text, final Lang lang){
+
+		final List<String> ret = new ArrayList<String>();
+		final String s = text.toLowerCase();
+		int begin = 0;
+		while(begin < s.length()){
+
+			while(begin < s.length() && !Character.isLetterOrDigit(s.charAt(begin))){
+
+				++begin;
+
+			}
+			int end = begin;
+			while(end < s.length() && Character.isLetterOrDigit(s.charAt(end))){
+
+				++end;
+
+			}
+
+			if(end > begin){
+
+				if(lang == Lang.jpn && end - begin > 1){
+
+					for(int i = begin; i + 1 < end; ++i){
+
+						ret.add(s.substring(i, i + 2));
+
+					}
+
+				}else{
+
+					ret.add(s.substring(begin, end));
+
+				}
+
+			}
+			begin = end;
+
+		}
+
+		return ret;
+
+	}
+
+	/**
+	 * [begin, end)の文書の索引語を数える．
+	 *
+	 * @return 言語ごとの，索引語から文書番号と出現回数の組の並びへの対応
+	 */
+	private static List<Map<String, IntList>> count(final DefinitionTable table, final int begin, final int end, final int[] lengths){
+
+		final List<Map<String, IntList>> ret = new ArrayList<Map<String, IntList>>();
+		for(int i = 0; i != LANGS.length; ++i){
+
+			ret.add(new HashMap<String, IntList>());
+
+		}
+
+		final Map<String, int[]> tf = new HashMap<String, int[]>();
+		for(int doc = begin; doc != end; ++doc){
+
+			tf.clear();
+			final List<String> tokens = tokenize(table.text(doc), table.lang(doc));
+			for(final String t : tokens){
+
+				final int[] c = tf.get(t);
+				if(c == null){
+
+					tf.put(t, new int[]{1});
+
+				}else{
+
+					++c[0];
+
+				}
+
+			}
+			lengths[doc] = tokens.size();
+
+			final Map<String, IntList> m = ret.get(table.lang(doc).ordinal());
+			for(final Map.Entry<String, int[]> e : tf.entrySet()){
+
+				IntList list = m.get(e.getKey());
+				if(list == null){
+
+					list = new IntList();
+					m.put(e.getKey(), list);
+
+				}
+				list.add(doc);
+				list.add(e.getValue()[0]);
+
+			}
+
+		}
+
+		return ret;
+
+	}
+
+	private static <T> T getResult(final Future<T> future){
+
+		try{
+
+			return future.get();
+
+		}catch(final InterruptedException e){
+
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException("interrupted while building the definition index");
+
+		}catch(final ExecutionException e){
+
+			final Throwable cause = e.getCause();
+			if(cause instanceof RuntimeException){
+
+				throw (RuntimeException)cause;
+
+			}
+			throw new IllegalStateException(cause);
+
+		}
+
+	}
+
+	private static int readVarint(final byte[] bytes, final int[] cursor){
+
+		int ret = 0;
+		int shift = 0;
+		byte b;
+		do{
+
+			b = bytes[cursor[0]++];
+			ret |= (b & 0x7F) << shift;
+			shift += 7;
+
+		}while((b & 0x80) != 0);
+
+		return ret;
+
+	}
+
+	/**
+	 * 索引語の出現リスト．
+	 */
+	private static final class Postings{
+
+		/** 出現する文書の数 */
+		final int count;
+
+		/** 文書番号の差分と出現回数を交互に並べた可変長整数 */
+		final byte[] bytes;
+
+		Postings(final int count, final byte[] bytes){
+
+			this.count = count;
+			this.bytes = bytes;
+
+		}
+
+		/**
+		 * 文書番号と出現回数を交互に並べたリストを符号化する．
+		 */
+		static Postings encode(final IntList list){
+
+			final byte[] buffer = new byte[list.size * 5];
+			int size = 0;
+			int prev = 0;
+			for(int i = 0; i < list.size; i += 2){
+
+				size = writeVarint(buffer, size, list.values[i] - prev);
+				size = writeVarint(buffer, size, list.values[i + 1]);
+				prev = list.values[i];
+
+			}
+
+			return new Postings(list.size / 2, Arrays.copyOf(buffer, size));
+
+		}
+
+		private static int writeVarint(final byte[] buffer, final int offset, final int value){
+
+			int i = offset;
+			int v = value;
+			while((v & ~0x7F) != 0){
+
+				buffer[i++] = (byte)((v & 0x7F) | 0x80);
+				v >>>= 7;
+
+			}
+			buffer[i++] = (byte)v;
+			return i;
+
+		}
+
+	}
+
+	/**
+	 * 伸長可能なint型の配列．
+	 */
+	private static final class IntList{
+
+		int[] values = new int[4];
+		int size = 0;
+
+		void add(final int value){
+
+			if(this.size == this.values.length){
+
+				this.values = Arrays.copyOf(this.values, this.size * 2);
+
+			}
+			this.values[this.size++] = value;
+
+		}
+
+		void addAll(final IntList other){
+
+			if(this.size + other.size > this.values.length){
+
+				this.values = Arrays.copyOf(this.values, Math.max(this.size + other.size, this.size * 2));
+
+			}
+			System.arraycopy(other.values, 0, this.values, this.size, other.size);
+			this.size += other.size;
+
+		}
+
+	}
+
+}
@@ -0,0 +1,92 @@
+/*
+ * Copyright 2009 Junpei Kawamoto
+ *
+ * This file is part of Japanese WordNet wrapper for Java (Wnj2).
+ * Wnj2 is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Wnj2 is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Wnj2.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package org.wnj2;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 索引の作成に使うSYNSET_DEFテーブルの内容．
+ *
+ * <p>
+ * Synsetと言語の組ごとに，説明文をつなげた文字列を保持します．
+ * 同じSynsetと言語の説明文は続けて追加してください．
+ * 索引を作成する間だけ使用し，作成後は破棄されます．
+ * </p>
+ *
+ * @see Wnj2#loadDefinitionTable()
+ */
+final class DefinitionTable {
+
+	private final List<String> synsets = new ArrayList<String>();
+	private final List<Lang> langs = new ArrayList<Lang>();
+	private final List<String> texts = new ArrayList<String>();
+
+	/////////////////////////////////////////////////////////////////////////////////////
+	// Package private methods
+	/////////////////////////////////////////////////////////////////////////////////////
+	void add(final String synset, final Lang lang, final String text){
+
+		if(text == null){
+
+			return;
+
+		}
+
+		final int last = this.synsets.size() - 1;
+		if(last >= 0 && this.synsets.get(last).equals(synset) && this.langs.get(last) == lang){
+
+			this.texts.set(last, this.texts.get(last) + " " + text);
+
+		}else{
+
+			this.synsets.add(synset);
+			this.langs.add(lang);
+			this.texts.add(text);
+
+		}
+
+	}
+
+	int size(){
+
+		return this.synsets.size();
+
+	}
+
+	String synset(final int i){
+
+		return this.synsets.get(i);
+
+	}
+
+	Lang lang(final int i){
+
+		return this.langs.get(i);
+
+	}
+
+	String text(final int i){
+
+		return this.texts.get(i);
+
+	}
+
+}
@@ -0,0 +1,168 @@
+/*
+ * Copyright 2009 Junpei Kawamoto
+ *
+ * This file is part of Japanese WordNet wrapper for Java (Wnj2).
+ * Wnj2 is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Wnj2 is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Wnj2.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.wnj2;
+
+import java.sql.DatabaseMetaData;
+import java.sql.SQLException;
+
+/**
+ * データベース製品ごとのSQLの違い．
+ *
+ * <p>
+ * 現在は，再帰問い合わせ（WITH RECURSIVE）が使えるかどうかだけを区別します．
+ * 再帰問い合わせが使える場合，リンクの推移閉包などはデータベース上で一回の問い合わせで計算されます．
+ * </p>
+ * <p>
+ * 推移閉包，深さ，経路の問い合わせは，各製品の再帰問い合わせに共通する範囲だけを使うため，製品ごとに文を変える必要はありません．
+ * 列名を指定したCTE，UNIONによる重複の除去，外側の問い合わせでの集約だけを使い，
+ * 再帰部分には集約，DISTINCT，ORDER BY，LIMITを含めず，CTEを一度だけ参照します．
+ * MySQL 8.0の再帰部分の制限とcte_max_recursion_depth（既定値1000）も，深さの上限を64とすることで満たします．
+ * 製品ごとに異なる文が必要になった場合は，この列挙型に文の作成を加えます．
+ * </p>
+ */
+enum Dialect {
+
+	/** SQLite 3.8.3以降 */
+	SQLITE(true),
+
+	/** MySQL 8.0以降，MariaDB 10.2.2以降 */
+	MYSQL(true),
+
+	/** PostgreSQL 8.4以降 */
+	POSTGRESQL(true),
+
+	/** H2 Database Engine */
+	H2(true),
+
+	/** 再帰問い合わせを使えないデータベース */
+	GENERIC(false);
+
+	private final boolean recursive;
+
+	/////////////////////////////////////////////////////////////////////////////////////
+	// Constractor
+	/////////////////////////////////////////////////////////////////////////////////////
+	private Dialect(final boolean recursive){
+
+		this.recursive = recursive;
+
+	}
+
+	/////////////////////////////////////////////////////////////////////////////////////
+	// Package private methods
+	/////////////////////////////////////////////////////////////////////////////////////
+	/**
+	 * 再帰問い合わせを使えるかどうかを調べる．
+	 *
+	 * @return WITH RECURSIVEを使える場合はtrue
+	 */
+	boolean supportsRecursiveQueries(){
+
+		return this.recursive;
+
+	}
+
+	/////////////////////////////////////////////////////////////////////////////////////
+	// Static methods
+	/////////////////////////////////////////////////////////////////////////////////////
+	/**
+	 * データベースのメタデータから製品を判定する．
+	 *
+	 * @param meta データベースのメタデータ
+	 * @return 判定した製品，再帰問い合わせを使えないバージョンの場合はGENERIC
+	 * @throws SQLException メタデータの取得に失敗した場合
+	 */
+	static Dialect detect(final DatabaseMetaData meta) throws SQLException{
+
+		final String name = String.valueOf(meta.getDatabaseProductName()).toLowerCase();
+		final String version = String.valueOf(meta.getDatabaseProductVersion());
+
+		if(name.contains("sqlite")){
+
+			return atLeast(version, 3, 8, 3) ? SQLITE : GENERIC;
+
+		}
+		if(name.contains("mariadb") || version.toLowerCase().contains("mariadb")){
+
+			// 古いクライアント向けに "5.5.5-" が前置されている場合がある
+			final String v = version.startsWith("5.5.5-") ? version.substring(6) : version;
+			return atLeast(v, 10, 2, 2) ? MYSQL : GENERIC;
+
+		}
+		if(name.contains("mysql")){
+
+			return atLeast(version, 8, 0, 0) ? MYSQL : GENERIC;
+
+		}
+		if(name.contains("postgresql")){
+
+			return atLeast(version, 8, 4, 0) ? POSTGRESQL : GENERIC;
+
+		}
+		if(name.equals("h2")){
+
+			return H2;
+
+		}
+		return GENERIC;
+
+	}
+
+	/**
+	 * "3.8.11.2" や "10.3.9-MariaDB" 形式のバージョン文字列が指定したバージョン以上かどうかを調べる．
+	 */
+	static boolean atLeast(final String version, final int... required){
+
+		final String[] parts = version.split("[^0-9]+");
+		int p = 0;
+		// 先頭が数字でない場合の空要素を読み飛ばす
+		while(p != parts.length && parts[p].length() == 0){
+
+			++p;
+
+		}
+
+		for(final int r : required){
+
+			int v = 0;
+			if(p != parts.length){
+
+				try{
+
+					v = Integer.parseInt(parts[p++]);
+
+				}catch(final NumberFormatException e){
+
+					return false;
+
+				}
+
+			}
+			if(v != r){
+
+				return v > r;
+
+			}
+
+		}
+		return true;
+
+	}
+
+}
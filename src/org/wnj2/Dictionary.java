@@ -0,0 +1,170 @@
+/*
+ * Copyright 2009 Junpei Kawamoto
+ *
+ * This file is part of Japanese WordNet wrapper for Java (Wnj2).
+ * Wnj2 is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Wnj2 is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Wnj2.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.wnj2;
+
+/**
+ * 読み込み専用の日本語WordNetデータへのアクセサ．
+ *
+ * <p>
+ * Word, Synset, Sense, SynsetDef, Synlinkはそれぞれ0から始まる番号で参照します．
+ * Wordはwordid順，SynsetはSynsetID順に並んでいます．
+ * あるWordやSynsetに属するSense, SynsetDef, Synlinkは，
+ * beginからendの直前までの番号で参照できます．
+ * </p>
+ *
+ * @see SnapshotWnj2
+ */
+abstract class Dictionary {
+
+	static final Lang[] LANGS = Lang.values();
+	static final Pos[] POSES = Pos.values();
+	static final Link[] LINKS = Link.values();
+
+	/////////////////////////////////////////////////////////////////////////////////////
+	// WORD
+	/////////////////////////////////////////////////////////////////////////////////////
+	abstract int wordCount();
+
+	/**
+	 * wordidからWord番号を取得する．
+	 *
+	 * @param wordid wordid
+	 * @return Word番号，見つからない場合は負の値
+	 */
+	abstract int findWord(int wordid);
+
+	/**
+	 * 見出し語が一致するWord番号を取得する．
+	 *
+	 * @param lemma 見出し語
+	 * @return 見出し語lemmaに一致するWord番号の配列
+	 */
+	abstract int[] findWordsByLemma(String lemma);
+
+	abstract int wordId(int word);
+
+	abstract Lang wordLang(int word);
+
+	abstract String wordLemma(int word);
+
+	abstract String wordPron(int word);
+
+	abstract Pos wordPos(int word);
+
+	/////////////////////////////////////////////////////////////////////////////////////
+	// SYNSET
+	/////////////////////////////////////////////////////////////////////////////////////
+	abstract int synsetCount();
+
+	/**
+	 * SynsetIDからSynset番号を取得する．
+	 *
+	 * @param synsetid SynsetID
+	 * @return Synset番号，見つからない場合は負の値
+	 */
+	abstract int findSynset(String synsetid);
+
+	/**
+	 * 名前が一致するSynset番号を取得する．
+	 *
+	 * @param name Synsetの名前
+	 * @return 名前がnameに一致するSynset番号の配列
+	 */
+	abstract int[] findSynsetsByName(String name);
+
+	abstract String synsetId(int synset);
+
+	abstract Pos synsetPos(int synset);
+
+	abstract String synsetName(int synset);
+
+	abstract String synsetSrc(int synset);
+
+	/////////////////////////////////////////////////////////////////////////////////////
+	// SENSE
+	/////////////////////////////////////////////////////////////////////////////////////
+	abstract int senseCount();
+
+	abstract int wordSenseBegin(int word);
+
+	abstract int wordSenseEnd(int word);
+
+	/**
+	 * Wordに属するSenseのSense番号を取得する．
+	 *
+	 * @param i wordSenseBeginからwordSenseEndの直前までの値
+	 * @return Sense番号
+	 */
+	abstract int wordSense(int i);
+
+	abstract int synsetSenseBegin(int synset);
+
+	abstract int synsetSenseEnd(int synset);
+
+	/**
+	 * Synsetに属するSenseのSense番号を取得する．
+	 *
+	 * @param i synsetSenseBeginからsynsetSenseEndの直前までの値
+	 * @return Sense番号
+	 */
+	abstract int synsetSense(int i);
+
+	abstract int senseSynset(int sense);
+
+	abstract int senseWord(int sense);
+
+	abstract Lang senseLang(int sense);
+
+	abstract int senseRank(int sense);
+
+	abstract int senseLexid(int sense);
+
+	abstract int senseFreq(int sense);
+
+	abstract String senseSrc(int sense);
+
+	/////////////////////////////////////////////////////////////////////////////////////
+	// SYNSET_DEF
+	/////////////////////////////////////////////////////////////////////////////////////
+	abstract int defBegin(int synset);
+
+	abstract int defEnd(int synset);
+
+	abstract Lang defLang(int def);
+
+	abstract String defText(int def);
+
+	abstract int defSid(int def);
+
+	/////////////////////////////////////////////////////////////////////////////////////
+	// SYNLINK
+	/////////////////////////////////////////////////////////////////////////////////////
+	abstract int linkCount();
+
+	abstract int linkBegin(int synset);
+
+	abstract int linkEnd(int synset);
+
+	abstract int linkTo(int link);
+
+	abstract Link linkType(int link);
+
+	abstract String linkSrc(int link);
+
+}
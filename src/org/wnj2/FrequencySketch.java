@@ -0,0 +1,130 @@
+/*
+ * Copyright 2009 Junpei Kawamoto
+ *
+ * This file is part of Japanese WordNet wrapper for Java (Wnj2).
+ * Wnj2 is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Wnj2 is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Wnj2.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.wnj2;
+
+/**
+ * 要素の参照頻度を推定するCount-Min Sketch．
+ *
+ * <p>
+ * 4本の行それぞれに4ビットの飽和カウンタを並べ，推定値には最小値を用います．
+ * 加算回数が容量の10倍に達するとすべてのカウンタを半分にし，古い参照の影響を減らします．
+ * </p>
+ */
+class FrequencySketch {
+
+	private static final int DEPTH = 4;
+	private static final int[] SEEDS = {0x97cb3127, 0xb4b82e9b, 0x7f4a7c15, 0x9e3779b9};
+
+	private final long[] table;
+	private final int mask;
+	private final int sampleSize;
+	private int additions = 0;
+
+	/////////////////////////////////////////////////////////////////////////////////////
+	// Constractor
+	/////////////////////////////////////////////////////////////////////////////////////
+	FrequencySketch(final int capacity){
+
+		int width = 16;
+		while(width < capacity && width < (1 << 28)){
+
+			width <<= 1;
+
+		}
+
+		// 一つのlongに16個のカウンタを格納する
+		this.table = new long[Math.max(1, width * DEPTH / 16)];
+		this.mask = width - 1;
+		this.sampleSize = Math.max(10 * capacity, 16);
+
+	}
+
+	/////////////////////////////////////////////////////////////////////////////////////
+	// Package private methods
+	/////////////////////////////////////////////////////////////////////////////////////
+	int frequency(final Object key){
+
+		final int hash = spread(key.hashCode());
+		int ret = 15;
+		for(int i = 0; i != DEPTH; ++i){
+
+			final int index = this.indexOf(hash, i);
+			ret = Math.min(ret, (int)((this.table[index >>> 4] >>> ((index & 15) << 2)) & 15L));
+
+		}
+		return ret;
+
+	}
+
+	void increment(final Object key){
+
+		final int hash = spread(key.hashCode());
+		boolean added = false;
+		for(int i = 0; i != DEPTH; ++i){
+
+			final int index = this.indexOf(hash, i);
+			final int shift = (index & 15) << 2;
+			if(((this.table[index >>> 4] >>> shift) & 15L) != 15L){
+
+				this.table[index >>> 4] += 1L << shift;
+				added = true;
+
+			}
+
+		}
+
+		if(added && ++this.additions == this.sampleSize){
+
+			this.reset();
+
+		}
+
+	}
+
+	/////////////////////////////////////////////////////////////////////////////////////
+	// Private methods
+	/////////////////////////////////////////////////////////////////////////////////////
+	private int indexOf(final int hash, final int row){
+
+		int h = (hash + SEEDS[row]) * SEEDS[row];
+		h ^= h >>> 16;
+		return row * (this.mask + 1) + (h & this.mask);
+
+	}
+
+	private void reset(){
+
+		for(int i = 0; i != this.table.length; ++i){
+
+			// 各カウンタを1ビット右シフトし，隣のカウンタから溢れたビットを落とす
+			this.table[i] = (this.table[i] >>> 1) & 0x7777777777777777L;
+
+		}
+		this.additions /= 2;
+
+	}
+
+	private static int spread(final int hash){
+
+		final int h = hash * 0x9e3779b9;
+		return h ^ (h >>> 16);
+
+	}
+
+}
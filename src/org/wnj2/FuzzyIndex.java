@@ -0,0 +1,307 @@
+/*
+ * Copyright 2009 Junpei Kawamoto
+ *
+ * This file is part of Japanese WordNet wrapper for Java (Wnj2).
+ * Wnj2 is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Wnj2 is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Wnj2.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package org.wnj2;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * 編集距離で見出し語を検索するためのBK木．
+ *
+ * <p>
+ * 小文字にした見出し語を節点とし，各節点の子を親との編集距離（Levenshtein距離）で区別します．
+ * 検索語との距離がdの節点では，辺の距離がd - maxEditsからd + maxEditsの子だけをたどれば十分なため，
+ * すべての見出し語と距離を計算せずに候補を求められます．
+ * 作成後に内容は変更されません．
+ * </p>
+ */
+final class FuzzyIndex {
+
+	/** 節点の見出し語 */
+	private final String[] terms;
+
+	/** 節点の見出し語を持つWordのwordid，頻度の高い順 */
+	private final int[][] ids;
+
+	/** 節点のWordの頻度の最大値 */
+	private final int[] freqs;
+
+	private final int[] firstChild;
+	private final int[] nextSibling;
+
+	/** 親の見出し語との編集距離 */
+	private final int[] edges;
+
+	/////////////////////////////////////////////////////////////////////////////////////
+	// Constractor
+	/////////////////////////////////////////////////////////////////////////////////////
+	FuzzyIndex(final WordTable table){
+
+		final Map<String, List<Integer>> groups = new HashMap<String, List<Integer>>();
+		for(int i = 0; i != table.size(); ++i){
+
+			if(table.lemma(i) == null){
+
+				continue;
+
+			}
+
+			final String key = table.lemma(i).toLowerCase(Locale.ROOT);
+			List<Integer> rows = groups.get(key);
+			if(rows == null){
+
+				rows = new ArrayList<Integer>(1);
+				groups.put(key, rows);
+
+			}
+			rows.add(i);
+
+		}
+
+		final Comparator<Integer> byFreq = new Comparator<Integer>(){
+
+			@Override
+			public int compare(final Integer o1, final Integer o2) {
+
+				final int c = table.freq(o2) - table.freq(o1);
+				return c != 0 ? c : table.id(o1) - table.id(o2);
+
+			}
+
+		};
+
+		final int n = groups.size();
+		this.terms = new String[n];
+		this.ids = new int[n][];
+		this.freqs = new int[n];
+		this.firstChild = new int[n];
+		this.nextSibling = new int[n];
+		this.edges = new int[n];
+		Arrays.fill(this.firstChild, -1);
+		Arrays.fill(this.nextSibling, -1);
+
+		// 入力の順序によらず同じ木になるよう，見出し語の辞書順に挿入する
+		final List<String> keys = new ArrayList<String>(groups.keySet());
+		Collections.sort(keys);
+		final int[][] rows = new int[2][];
+		for(int node = 0; node != n; ++node){
+
+			final List<Integer> group = groups.get(keys.get(node));
+			Collections.sort(group, byFreq);
+			this.terms[node] = keys.get(node);
+			this.ids[node] = new int[group.size()];
+			for(int j = 0; j != group.size(); ++j){
+
+				this.ids[node][j] = table.id(group.get(j));
+
+			}
+			this.freqs[node] = table.freq(group.get(0));
+
+			if(node != 0){
+
+				this.insert(node, rows);
+
+			}
+
+		}
+
+	}
+
+	/////////////////////////////////////////////////////////////////////////////////////
+	// Package private methods
+	/////////////////////////////////////////////////////////////////////////////////////
+	/**
+	 * 見出し語との編集距離がmaxEdits以下のWordを取得する．
+	 * 距離の小さい順，距離が同じ場合は頻度の高い順に並べます．
+	 *
+	 * @param lemma 見出し語
+	 * @param maxEdits 編集距離の上限
+	 * @return wordidの配列
+	 */
+	int[] find(final String lemma, final int maxEdits){
+
+		if(this.terms.length == 0){
+
+			return new int[0];
+
+		}
+
+		final String query = lemma.toLowerCase(Locale.ROOT);
+		final int[][] rows = new int[2][];
+		final List<int[]> found = new ArrayList<int[]>();
+		int[] stack = new int[64];
+		int top = 0;
+		stack[top++] = 0;
+		while(top != 0){
+
+			final int node = stack[--top];
+			final int d = distance(query, this.terms[node], rows);
+			if(d <= maxEdits){
+
+				found.add(new int[]{node, d});
+
+			}
+
+			for(int c = this.firstChild[node]; c >= 0; c = this.nextSibling[c]){
+
+				if(this.edges[c] >= d - maxEdits && this.edges[c] <= d + maxEdits){
+
+					if(top == stack.length){
+
+						stack = Arrays.copyOf(stack, top * 2);
+
+					}
+					stack[top++] = c;
+
+				}
+
+			}
+
+		}
+
+		Collections.sort(found, new Comparator<int[]>(){
+
+			@Override
+			public int compare(final int[] o1, final int[] o2) {
+
+				if(o1[1] != o2[1]){
+
+					return o1[1] - o2[1];
+
+				}
+				if(freqs[o1[0]] != freqs[o2[0]]){
+
+					return freqs[o2[0]] - freqs[o1[0]];
+
+				}
+				return terms[o1[0]].compareTo(terms[o2[0]]);
+
+			}
+
+		});
+
+		int size = 0;
+		for(final int[] f : found){
+
+			size += this.ids[f[0]].length;
+
+		}
+		final int[] ret = new int[size];
+		int i = 0;
+		for(final int[] f : found){
+
+			for(final int id : this.ids[f[0]]){
+
+				ret[i++] = id;
+
+			}
+
+		}
+
+		return ret;
+
+	}
+
+	/////////////////////////////////////////////////////////////////////////////////////
+	// Private methods
+	/////////////////////////////////////////////////////////////////////////////////////
+	/**
+	 * 根から辺をたどり，節点を子として追加する．
+	 */
+	private void insert(final int node, final int[][] rows){
+
+		int parent = 0;
+		while(true){
+
+			final int d = distance(this.terms[node], this.terms[parent], rows);
+			int child = this.firstChild[parent];
+			while(child >= 0 && this.edges[child] != d){
+
+				child = this.nextSibling[child];
+
+			}
+
+			if(child < 0){
+
+				this.edges[node] = d;
+				this.nextSibling[node] = this.firstChild[parent];
+				this.firstChild[parent] = node;
+				return;
+
+			}
+			parent = child;
+
+		}
+
+	}
+
+	/////////////////////////////////////////////////////////////////////////////////////
+	// Static methods
+	/////////////////////////////////////////////////////////////////////////////////////
+	/**
+	 * 二つの文字列のLevenshtein距離を求める．
+	 *
+	 * @param rows 作業用の配列，呼び出し間で再利用する
+	 */
+	static int distance(final String a, final String b, final int[][] rows){
+
+		final int m = b.length();
+		if(rows[0] == null || rows[0].length <= m){
+
+			rows[0] = new int[m + 1];
+			rows[1] = new int[m + 1];
+
+		}
+
+		int[] prev = rows[0];
+		int[] cur = rows[1];
+		for(int j = 0; j <= m; ++j){
+
+			prev[j] = j;
+
+		}
+		for(int i = 1; i <= a.length(); ++i){
+
+			cur[0] = i;
+			final char c = a.charAt(i - 1);
+			for(int j = 1; j <= m; ++j){
+
+				final int cost = c == b.charAt(j - 1) ? 0 : 1;
+				cur[j] = Math.min(Math.min(cur[j - 1] + 1, prev[j] + 1), prev[j - 1] + cost);
+
+			}
+
+			final int[] t = prev;
+			prev = cur;
+			cur = t;
+
+		}
+
+		return prev[m];
+
+	}
+
+}
@@ -0,0 +1,140 @@
+/*
+ * Copyright 2009 Junpei Kawamoto
+ *
+ * This file is part of Japanese WordNet wrapper for Java (Wnj2).
+ * Wnj2 is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Wnj2 is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Wnj2.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.wnj2;
+
+/**
+ * 容量に上限のあるキャッシュ．
+ *
+ * <p>
+ * 同じキーに対しては同じオブジェクトを共有させるため，putIfAbsentは既に格納されている値を優先します．
+ * すべてのメソッドはスレッドセーフです．
+ * </p>
+ */
+abstract class IdentityCache<K, V> {
+
+	private final int capacity;
+
+	private long hits = 0;
+	private long misses = 0;
+	private long evictions = 0;
+
+	/////////////////////////////////////////////////////////////////////////////////////
+	// Constractor
+	/////////////////////////////////////////////////////////////////////////////////////
+	protected IdentityCache(final int capacity){
+
+		this.capacity = capacity;
+
+	}
+
+	/////////////////////////////////////////////////////////////////////////////////////
+	// Package private methods
+	/////////////////////////////////////////////////////////////////////////////////////
+	/**
+	 * キーに対応する値を取得する．
+	 *
+	 * @param key キー
+	 * @return キーに対応する値，格納されていない場合はnull
+	 */
+	synchronized V get(final K key){
+
+		final V ret = this.lookup(key);
+		if(ret == null){
+
+			++this.misses;
+
+		}else{
+
+			++this.hits;
+
+		}
+		return ret;
+
+	}
+
+	/**
+	 * キーに対応する値が格納されていなければ格納する．
+	 *
+	 * @param key キー
+	 * @param value 値
+	 * @return 既に格納されていた値，格納されていなかった場合はvalue
+	 */
+	synchronized V putIfAbsent(final K key, final V value){
+
+		final V current = this.peek(key);
+		if(current != null){
+
+			return current;
+
+		}
+
+		this.evictions += this.insert(key, value);
+		return value;
+
+	}
+
+	synchronized CacheStatistics getStatistics(){
+
+		return new CacheStatistics(this.hits, this.misses, this.evictions, this.size(), this.capacity);
+
+	}
+
+	int getCapacity(){
+
+		return this.capacity;
+
+	}
+
+	/////////////////////////////////////////////////////////////////////////////////////
+	// Protected methods
+	/////////////////////////////////////////////////////////////////////////////////////
+	/**
+	 * 参照としてキーに対応する値を取得する．
+	 */
+	protected abstract V lookup(K key);
+
+	/**
+	 * 統計に数えずにキーに対応する値を取得する．
+	 */
+	protected abstract V peek(K key);
+
+	/**
+	 * 値を格納する．
+	 *
+	 * @return 追い出した要素の数
+	 */
+	protected abstract int insert(K key, V value);
+
+	protected abstract int size();
+
+	/////////////////////////////////////////////////////////////////////////////////////
+	// Static methods
+	/////////////////////////////////////////////////////////////////////////////////////
+	static <K, V> IdentityCache<K, V> create(final int capacity, final CachePolicy policy){
+
+		switch(policy){
+		case TINY_LFU:
+			return new TinyLfuCache<K, V>(capacity);
+		default:
+			return new LruCache<K, V>(capacity);
+		}
+
+	}
+
+}
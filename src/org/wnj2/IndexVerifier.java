@@ -0,0 +1,393 @@
+/*
+ * Copyright 2009 Junpei Kawamoto
+ *
+ * This file is part of Japanese WordNet wrapper for Java (Wnj2).
+ * Wnj2 is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Wnj2 is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Wnj2.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package org.wnj2;
+
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Wnj2の問い合わせに必要な索引を調べ，不足している索引を作成する．
+ *
+ * <p>
+ * 問い合わせの形ごとに，絞り込みに使う列を先頭に持つ索引があるかどうかをDatabaseMetaDataで調べます．
+ * 作成する索引は，絞り込みの列に続けて，結合や並べ替えに使う列を含みます．
+ * Wnj2の問い合わせはすべての列を読み出すため，索引だけで問い合わせを処理するカバリング索引ではありません．
+ * 不足している索引ごとに，その索引で絞り込む問い合わせの所要時間を計り，
+ * 結果とともにjava.util.loggingのorg.wnj2.IndexVerifierロガーに出力します．
+ * </p>
+ */
+final class IndexVerifier {
+
+	/** 問い合わせの形．先頭のfilter個の列で絞り込む */
+	private static final String[][] SHAPES = {
+		{"WORD", "lemma", "pos"},
+		{"WORD", "wordid"},
+		{"SENSE", "wordid"},
+		{"SENSE", "synset", "lang"},
+		{"SYNSET", "synset"},
+		{"SYNSET", "name", "pos"},
+		{"SYNLINK", "synset1", "link", "synset2"},
+		{"SYNSET_DEF", "synset"}
+	};
+
+	/** 各形で絞り込みに使う列の数．SENSEはsynsetとlangで絞り込むため，主キー(synset, wordid)では足りない */
+	private static final int[] FILTERS = {2, 1, 1, 2, 1, 2, 2, 1};
+
+	/** MySQLでtext型の列を索引にする場合の長さ */
+	private static final int PREFIX_LENGTH = 191;
+
+	/** 所要時間を計る問い合わせの繰り返し回数 */
+	private static final int TRIALS = 5;
+
+	private static final Logger LOGGER = Logger.getLogger(IndexVerifier.class.getName());
+
+	/////////////////////////////////////////////////////////////////////////////////////
+	// Constractor
+	/////////////////////////////////////////////////////////////////////////////////////
+	private IndexVerifier(){
+	}
+
+	/////////////////////////////////////////////////////////////////////////////////////
+	// Static methods
+	/////////////////////////////////////////////////////////////////////////////////////
+	/**
+	 * 不足している索引を調べ，createがtrueの場合は作成する．
+	 *
+	 * @param con データベースへのコネクション
+	 * @param create 不足している索引を作成する場合はtrue
+	 * @return 不足していた索引の "SYNLINK(synset1, link, synset2)" 形式の説明
+	 * @throws SQLException データベースへのアクセスにエラーが発生した場合
+	 */
+	static List<String> verify(final Connection con, final boolean create) throws SQLException{
+		assert con != null : "con is null";
+
+		final DatabaseMetaData meta = con.getMetaData();
+		final String product = String.valueOf(meta.getDatabaseProductName()).toLowerCase();
+		final boolean prefix = product.contains("mysql") || product.contains("mariadb");
+
+		final List<String> ret = new ArrayList<String>();
+		for(int i = 0; i != SHAPES.length; ++i){
+
+			final String table = SHAPES[i][0];
+			final String[] columns = new String[SHAPES[i].length - 1];
+			System.arraycopy(SHAPES[i], 1, columns, 0, columns.length);
+
+			if(hasIndex(meta, table, columns, FILTERS[i])){
+
+				continue;
+
+			}
+
+			final String description = String.format("%s(%s)", table, join(columns, null, ", "));
+			ret.add(description);
+
+			final Object[] sample = findSample(con, table, columns, FILTERS[i]);
+			final double before = measure(con, table, columns, FILTERS[i], sample);
+			if(!create){
+
+				LOGGER.warning(String.format("missing index on %s: %.3f ms", description, before));
+				continue;
+
+			}
+
+			final Set<String> texts = prefix ? findTextColumns(meta, table) : new HashSet<String>();
+			final String name = String.format("WNJ2_%s_%s", table, join(columns, null, "_").toUpperCase());
+			final Statement stmt = con.createStatement();
+			try{
+
+				stmt.executeUpdate(String.format("create index %s on %s(%s);", name, table, join(columns, texts, ", ")));
+
+			}finally{
+
+				stmt.close();
+
+			}
+
+			final double after = measure(con, table, columns, FILTERS[i], sample);
+			LOGGER.info(String.format("created index %s on %s: %.3f ms -> %.3f ms", name, description, before, after));
+
+		}
+
+		if(ret.isEmpty()){
+
+			LOGGER.fine("all indexes are present");
+
+		}
+		return ret;
+
+	}
+
+	/**
+	 * 絞り込みの列を先頭に持つ索引があるかどうかを調べる．
+	 * 索引の先頭filter個の列が絞り込みの列と順序によらず一致すれば十分とします．
+	 */
+	private static boolean hasIndex(final DatabaseMetaData meta, final String table, final String[] columns, final int filter) throws SQLException{
+
+		final Set<String> required = new HashSet<String>();
+		for(int i = 0; i != filter; ++i){
+
+			required.add(columns[i].toLowerCase());
+
+		}
+
+		// 索引名ごとに，先頭filter個の列を集める
+		final Map<String, Set<String>> leading = new HashMap<String, Set<String>>();
+		for(final String name : names(table)){
+
+			final ResultSet rs = meta.getIndexInfo(null, null, name, false, true);
+			try{
+
+				while(rs.next()){
+
+					final String index = rs.getString("INDEX_NAME");
+					final String column = rs.getString("COLUMN_NAME");
+					if(index == null || column == null || rs.getInt("ORDINAL_POSITION") > filter){
+
+						continue;
+
+					}
+
+					Set<String> s = leading.get(index);
+					if(s == null){
+
+						s = new HashSet<String>();
+						leading.put(index, s);
+
+					}
+					s.add(column.toLowerCase());
+
+				}
+
+			}finally{
+
+				rs.close();
+
+			}
+
+		}
+
+		// SQLiteのinteger primary keyのように，索引として報告されない主キーもある
+		final Set<String> key = new HashSet<String>();
+		for(final String name : names(table)){
+
+			final ResultSet rs = meta.getPrimaryKeys(null, null, name);
+			try{
+
+				while(rs.next()){
+
+					if(rs.getInt("KEY_SEQ") <= filter){
+
+						key.add(rs.getString("COLUMN_NAME").toLowerCase());
+
+					}
+
+				}
+
+			}finally{
+
+				rs.close();
+
+			}
+
+		}
+
+		return leading.containsValue(required) || key.equals(required);
+
+	}
+
+	/**
+	 * MySQLで長さの指定が必要なtext型の列を取得する．
+	 */
+	private static Set<String> findTextColumns(final DatabaseMetaData meta, final String table) throws SQLException{
+
+		final Set<String> ret = new HashSet<String>();
+		for(final String name : names(table)){
+
+			final ResultSet rs = meta.getColumns(null, null, name, null);
+			try{
+
+				while(rs.next()){
+
+					final String type = String.valueOf(rs.getString("TYPE_NAME")).toLowerCase();
+					if(type.contains("text") || type.contains("blob")){
+
+						ret.add(rs.getString("COLUMN_NAME").toLowerCase());
+
+					}
+
+				}
+
+			}finally{
+
+				rs.close();
+
+			}
+
+		}
+		return ret;
+
+	}
+
+	/**
+	 * 所要時間を計る問い合わせのパラメータとして，テーブルの最初の行の値を取得する．
+	 *
+	 * @return 絞り込みの列の値，テーブルが空の場合はnull
+	 */
+	private static Object[] findSample(final Connection con, final String table, final String[] columns, final int filter) throws SQLException{
+
+		final Statement stmt = con.createStatement();
+		try{
+
+			stmt.setMaxRows(1);
+			final ResultSet rs = stmt.executeQuery(String.format("select %s from %s;", join(columns, null, ", "), table));
+			try{
+
+				if(!rs.next()){
+
+					return null;
+
+				}
+
+				final Object[] ret = new Object[filter];
+				for(int i = 0; i != filter; ++i){
+
+					ret[i] = rs.getObject(i + 1);
+
+				}
+				return ret;
+
+			}finally{
+
+				rs.close();
+
+			}
+
+		}finally{
+
+			stmt.close();
+
+		}
+
+	}
+
+	/**
+	 * 絞り込みの列で検索する問い合わせの平均所要時間を計る．
+	 * Wnj2の問い合わせと同じく，すべての列を読み出します．
+	 *
+	 * @return 平均所要時間（ミリ秒），sampleがnullの場合はNaN
+	 */
+	private static double measure(final Connection con, final String table, final String[] columns, final int filter, final Object[] sample) throws SQLException{
+
+		if(sample == null){
+
+			return Double.NaN;
+
+		}
+
+		final StringBuilder sql = new StringBuilder();
+		sql.append("select * from ").append(table).append(" where ");
+		for(int i = 0; i != filter; ++i){
+
+			sql.append(i == 0 ? "" : " and ").append(columns[i]).append(" = ?");
+
+		}
+
+		final PreparedStatement ps = con.prepareStatement(sql.append(";").toString());
+		try{
+
+			for(int i = 0; i != filter; ++i){
+
+				ps.setObject(i + 1, sample[i]);
+
+			}
+
+			final long start = System.nanoTime();
+			for(int t = 0; t != TRIALS; ++t){
+
+				final ResultSet rs = ps.executeQuery();
+				try{
+
+					while(rs.next()){
+					}
+
+				}finally{
+
+					rs.close();
+
+				}
+
+			}
+			return (System.nanoTime() - start) / 1e6 / TRIALS;
+
+		}finally{
+
+			ps.close();
+
+		}
+
+	}
+
+	/**
+	 * DBMSによって名前の大文字と小文字の扱いが異なるため，調べるテーブル名の候補を返す．
+	 */
+	private static String[] names(final String table){
+
+		return new String[]{table, table.toLowerCase()};
+
+	}
+
+	/**
+	 * 列名を区切り文字でつなげる．textsに含まれる列には長さを付ける．
+	 */
+	private static String join(final String[] columns, final Set<String> texts, final String separator){
+
+		final StringBuilder b = new StringBuilder();
+		for(int i = 0; i != columns.length; ++i){
+
+			if(i != 0){
+
+				b.append(separator);
+
+			}
+			b.append(columns[i]);
+			if(texts != null && texts.contains(columns[i])){
+
+				b.append("(").append(PREFIX_LENGTH).append(")");
+
+			}
+
+		}
+		return b.toString();
+
+	}
+
+}
@@ -0,0 +1,119 @@
+/*
+ * Copyright 2009 Junpei Kawamoto
+ *
+ * This file is part of Japanese WordNet wrapper for Java (Wnj2).
+ * Wnj2 is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Wnj2 is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Wnj2.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.wnj2;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * 所要時間の分布を記録するヒストグラム．
+ *
+ * <p>
+ * 値は2のべき乗ごとの範囲をさらに16等分した区間で数えます．
+ * 32未満の値は正確に，それ以上の値は相対誤差1/16以内で記録します．
+ * 区間の数は固定のため，記録する値の範囲によらずメモリ使用量は一定です．
+ * recordはオブジェクトを作成せず，複数のスレッドから同時に呼び出せます．
+ * </p>
+ */
+final class LatencyHistogram {
+
+	/** 2のべき乗ごとの範囲を分割する数のビット数 */
+	private static final int SUB_BITS = 4;
+	private static final int SUB_BUCKETS = 1 << SUB_BITS;
+
+	/** 0以上Long.MAX_VALUE以下の値を数える区間の数 */
+	static final int BUCKETS = (Long.SIZE - SUB_BITS) * SUB_BUCKETS;
+
+	private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+
+	/////////////////////////////////////////////////////////////////////////////////////
+	// Package private methods
+	/////////////////////////////////////////////////////////////////////////////////////
+	/**
+	 * 値を一つ記録する．
+	 *
+	 * @param value 値，負の値は0として扱う
+	 */
+	void record(final long value){
+
+		this.counts.incrementAndGet(index(value));
+
+	}
+
+	/**
+	 * 区間ごとの記録数の複製を取得する．
+	 *
+	 * @return 長さBUCKETSの配列
+	 */
+	long[] getCounts(){
+
+		final long[] ret = new long[BUCKETS];
+		for(int i = 0; i != BUCKETS; ++i){
+
+			ret[i] = this.counts.get(i);
+
+		}
+		return ret;
+
+	}
+
+	void reset(){
+
+		for(int i = 0; i != BUCKETS; ++i){
+
+			this.counts.set(i, 0);
+
+		}
+
+	}
+
+	/////////////////////////////////////////////////////////////////////////////////////
+	// Static methods
+	/////////////////////////////////////////////////////////////////////////////////////
+	/**
+	 * 値を数える区間の番号を取得する．
+	 */
+	static int index(final long value){
+
+		if(value < 2 * SUB_BUCKETS){
+
+			return (int)Math.max(value, 0);
+
+		}
+		final int exponent = Long.SIZE - 1 - Long.numberOfLeadingZeros(value);
+		return (exponent - SUB_BITS + 1) * SUB_BUCKETS + (int)(value >>> (exponent - SUB_BITS)) - SUB_BUCKETS;
+
+	}
+
+	/**
+	 * 区間に含まれる最大の値を取得する．
+	 */
+	static long highestValue(final int index){
+
+		if(index < 2 * SUB_BUCKETS){
+
+			return index;
+
+		}
+		final int exponent = index / SUB_BUCKETS + SUB_BITS - 1;
+		final long top = SUB_BUCKETS + index % SUB_BUCKETS;
+		return ((top + 1) << (exponent - SUB_BITS)) - 1;
+
+	}
+
+}
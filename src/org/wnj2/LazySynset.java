@@ -22,7 +22,7 @@ import java.sql.SQLException;
 
 class LazySynset extends Synset{
 
-	private Synset impl = null;
+	private volatile Synset impl = null;
 
 	/////////////////////////////////////////////////////////////////////////////////////
 	// Constractor
@@ -74,7 +74,9 @@ class LazySynset extends Synset{
 
 			try {
 
+				final long start = System.nanoTime();
 				this.impl = this.parent.findSynset(this);
+				this.parent.record(Query.LAZY_SYNSET, start, this.impl == null ? 0 : 1);
 
 			}catch(final SQLException e){
 
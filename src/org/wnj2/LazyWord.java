@@ -22,7 +22,7 @@ import java.sql.SQLException;
 
 class LazyWord extends Word{
 
-	private Word impl = null;
+	private volatile Word impl = null;
 
 	/////////////////////////////////////////////////////////////////////////////////////
 	// Constractor
@@ -84,7 +84,9 @@ class LazyWord extends Word{
 
 			try {
 
+				final long start = System.nanoTime();
 				this.impl = this.parent.findWord(this);
+				this.parent.record(Query.LAZY_WORD, start, this.impl == null ? 0 : 1);
 
 			}catch(final SQLException e){
 
@@ -0,0 +1,78 @@
+/*
+ * Copyright 2009 Junpei Kawamoto
+ *
+ * This file is part of Japanese WordNet wrapper for Java (Wnj2).
+ * Wnj2 is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Wnj2 is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Wnj2.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.wnj2;
+
+import java.util.LinkedHashMap;
+
+class LruCache<K, V> extends IdentityCache<K, V>{
+
+	private final LinkedHashMap<K, V> map;
+
+	/////////////////////////////////////////////////////////////////////////////////////
+	// Constractor
+	/////////////////////////////////////////////////////////////////////////////////////
+	LruCache(final int capacity){
+		super(capacity);
+
+		this.map = new LinkedHashMap<K, V>(16, 0.75f, true);
+
+	}
+
+	/////////////////////////////////////////////////////////////////////////////////////
+	// Protected methods
+	/////////////////////////////////////////////////////////////////////////////////////
+	@Override
+	protected V lookup(final K key) {
+
+		return this.map.get(key);
+
+	}
+
+	@Override
+	protected V peek(final K key) {
+
+		return this.map.get(key);
+
+	}
+
+	@Override
+	protected int insert(final K key, final V value) {
+
+		this.map.put(key, value);
+
+		int evicted = 0;
+		while(this.map.size() > this.getCapacity()){
+
+			final K eldest = this.map.keySet().iterator().next();
+			this.map.remove(eldest);
+			++evicted;
+
+		}
+		return evicted;
+
+	}
+
+	@Override
+	protected int size() {
+
+		return this.map.size();
+
+	}
+
+}
@@ -0,0 +1,1010 @@
+/*
+ * Copyright 2009 Junpei Kawamoto
+ *
+ * This file is part of Japanese WordNet wrapper for Java (Wnj2).
+ * Wnj2 is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Wnj2 is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Wnj2.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.wnj2;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * バイナリ辞書ファイルをメモリマップして参照するDictionary．
+ *
+ * <p>
+ * ファイルはビッグエンディアンで，次の順に格納されています．
+ * </p>
+ * <blockquote><pre>
+ * int    MAGIC ("WNJ2")
+ * int    VERSION
+ * int    Word数, Synset数, Sense数, SynsetDef数, Synlink数, 文字列数
+ * int[]  各配列の開始位置（Section列挙の順）
+ * 配列   各配列の本体（4バイト境界に整列）
+ * </pre></blockquote>
+ * <p>
+ * 文字列はUTF-8で一つのブロックにまとめ，文字列番号から開始位置を引きます．
+ * null は文字列番号 -1 で表します．
+ * SynsetIDは "00001740-n" の形式を仮定し，オフセットと品詞記号を一つのintに符号化します．
+ * 見出し語とSynsetの名前の索引は，UTF-8のバイト列の辞書順に並んでいます．
+ * </p>
+ *
+ * @see MappedWnj2
+ */
+final class MappedDictionary extends Dictionary{
+
+	static final int MAGIC = 0x574E4A32;
+	static final int VERSION = 1;
+
+	private static final Charset UTF8 = Charset.forName("UTF-8");
+
+	/** SynsetIDの品詞記号．アルファベット順にすることで符号の順序とSynsetIDの順序を一致させる． */
+	private static final String SYNSET_POS = "anrsv";
+
+	/**
+	 * ファイルに格納される配列．
+	 */
+	private enum Section{
+		STRING_START, STRING_BLOB,
+		WORD_ID, WORD_LEMMA, WORD_PRON, WORDS_BY_LEMMA, WORD_LANG, WORD_POS,
+		SYNSET_ID, SYNSET_NAME, SYNSET_SRC, SYNSETS_BY_NAME, SYNSET_POS,
+		SENSE_SYNSET, SENSE_WORD, SENSE_RANK, SENSE_LEXID, SENSE_FREQ, SENSE_SRC, SENSE_LANG,
+		WORD_SENSE_START, WORD_SENSES, SYNSET_SENSE_START, SYNSET_SENSES,
+		DEF_START, DEF_TEXT, DEF_SID, DEF_LANG,
+		LINK_START, LINK_TO, LINK_SRC, LINK_TYPE
+	}
+
+	private static final int HEADER_SIZE = 4 * (8 + Section.values().length);
+
+	private final ByteBuffer buffer;
+
+	private final int words;
+	private final int synsets;
+	private final int senses;
+	private final int links;
+
+	private final int[] offsets = new int[Section.values().length];
+
+	/////////////////////////////////////////////////////////////////////////////////////
+	// Constractor
+	/////////////////////////////////////////////////////////////////////////////////////
+	private MappedDictionary(final ByteBuffer buffer) throws IOException{
+
+		this.buffer = buffer;
+		if(buffer.capacity() < HEADER_SIZE || buffer.getInt(0) != MAGIC){
+
+			throw new IOException("not a Wnj2 dictionary file");
+
+		}
+		if(buffer.getInt(4) != VERSION){
+
+			throw new IOException(String.format("unsupported dictionary version %d", buffer.getInt(4)));
+
+		}
+
+		this.words = buffer.getInt(8);
+		this.synsets = buffer.getInt(12);
+		this.senses = buffer.getInt(16);
+		this.links = buffer.getInt(24);
+		for(int i = 0; i != this.offsets.length; ++i){
+
+			this.offsets[i] = buffer.getInt(32 + 4 * i);
+
+		}
+
+	}
+
+	/////////////////////////////////////////////////////////////////////////////////////
+	// Package private methods
+	/////////////////////////////////////////////////////////////////////////////////////
+	@Override
+	int wordCount(){
+
+		return this.words;
+
+	}
+
+	@Override
+	int findWord(final int wordid){
+
+		int low = 0;
+		int high = this.words - 1;
+		while(low <= high){
+
+			final int mid = (low + high) >>> 1;
+			final int v = this.getInt(Section.WORD_ID, mid);
+			if(v < wordid){
+
+				low = mid + 1;
+
+			}else if(v > wordid){
+
+				high = mid - 1;
+
+			}else{
+
+				return mid;
+
+			}
+
+		}
+		return -(low + 1);
+
+	}
+
+	@Override
+	int[] findWordsByLemma(final String lemma){
+
+		return this.findByString(Section.WORDS_BY_LEMMA, Section.WORD_LEMMA, this.words, lemma.getBytes(UTF8));
+
+	}
+
+	@Override
+	int wordId(final int word){
+
+		return this.getInt(Section.WORD_ID, word);
+
+	}
+
+	@Override
+	Lang wordLang(final int word){
+
+		return LANGS[this.getByte(Section.WORD_LANG, word)];
+
+	}
+
+	@Override
+	String wordLemma(final int word){
+
+		return this.getString(this.getInt(Section.WORD_LEMMA, word));
+
+	}
+
+	@Override
+	String wordPron(final int word){
+
+		return this.getString(this.getInt(Section.WORD_PRON, word));
+
+	}
+
+	@Override
+	Pos wordPos(final int word){
+
+		return POSES[this.getByte(Section.WORD_POS, word)];
+
+	}
+
+	@Override
+	int synsetCount(){
+
+		return this.synsets;
+
+	}
+
+	@Override
+	int findSynset(final String synsetid){
+
+		final int code = encodeSynsetId(synsetid);
+		if(code < 0){
+
+			return -1;
+
+		}
+
+		int low = 0;
+		int high = this.synsets - 1;
+		while(low <= high){
+
+			final int mid = (low + high) >>> 1;
+			final int v = this.getInt(Section.SYNSET_ID, mid);
+			if(v < code){
+
+				low = mid + 1;
+
+			}else if(v > code){
+
+				high = mid - 1;
+
+			}else{
+
+				return mid;
+
+			}
+
+		}
+		return -(low + 1);
+
+	}
+
+	@Override
+	int[] findSynsetsByName(final String name){
+
+		return this.findByString(Section.SYNSETS_BY_NAME, Section.SYNSET_NAME, this.synsets, name.getBytes(UTF8));
+
+	}
+
+	@Override
+	String synsetId(final int synset){
+
+		return decodeSynsetId(this.getInt(Section.SYNSET_ID, synset));
+
+	}
+
+	@Override
+	Pos synsetPos(final int synset){
+
+		return POSES[this.getByte(Section.SYNSET_POS, synset)];
+
+	}
+
+	@Override
+	String synsetName(final int synset){
+
+		return this.getString(this.getInt(Section.SYNSET_NAME, synset));
+
+	}
+
+	@Override
+	String synsetSrc(final int synset){
+
+		return this.getString(this.getInt(Section.SYNSET_SRC, synset));
+
+	}
+
+	@Override
+	int senseCount(){
+
+		return this.senses;
+
+	}
+
+	@Override
+	int wordSenseBegin(final int word){
+
+		return this.getInt(Section.WORD_SENSE_START, word);
+
+	}
+
+	@Override
+	int wordSenseEnd(final int word){
+
+		return this.getInt(Section.WORD_SENSE_START, word + 1);
+
+	}
+
+	@Override
+	int wordSense(final int i){
+
+		return this.getInt(Section.WORD_SENSES, i);
+
+	}
+
+	@Override
+	int synsetSenseBegin(final int synset){
+
+		return this.getInt(Section.SYNSET_SENSE_START, synset);
+
+	}
+
+	@Override
+	int synsetSenseEnd(final int synset){
+
+		return this.getInt(Section.SYNSET_SENSE_START, synset + 1);
+
+	}
+
+	@Override
+	int synsetSense(final int i){
+
+		return this.getInt(Section.SYNSET_SENSES, i);
+
+	}
+
+	@Override
+	int senseSynset(final int sense){
+
+		return this.getInt(Section.SENSE_SYNSET, sense);
+
+	}
+
+	@Override
+	int senseWord(final int sense){
+
+		return this.getInt(Section.SENSE_WORD, sense);
+
+	}
+
+	@Override
+	Lang senseLang(final int sense){
+
+		return LANGS[this.getByte(Section.SENSE_LANG, sense)];
+
+	}
+
+	@Override
+	int senseRank(final int sense){
+
+		return this.getInt(Section.SENSE_RANK, sense);
+
+	}
+
+	@Override
+	int senseLexid(final int sense){
+
+		return this.getInt(Section.SENSE_LEXID, sense);
+
+	}
+
+	@Override
+	int senseFreq(final int sense){
+
+		return this.getInt(Section.SENSE_FREQ, sense);
+
+	}
+
+	@Override
+	String senseSrc(final int sense){
+
+		return this.getString(this.getInt(Section.SENSE_SRC, sense));
+
+	}
+
+	@Override
+	int defBegin(final int synset){
+
+		return this.getInt(Section.DEF_START, synset);
+
+	}
+
+	@Override
+	int defEnd(final int synset){
+
+		return this.getInt(Section.DEF_START, synset + 1);
+
+	}
+
+	@Override
+	Lang defLang(final int def){
+
+		return LANGS[this.getByte(Section.DEF_LANG, def)];
+
+	}
+
+	@Override
+	String defText(final int def){
+
+		return this.getString(this.getInt(Section.DEF_TEXT, def));
+
+	}
+
+	@Override
+	int defSid(final int def){
+
+		return this.getInt(Section.DEF_SID, def);
+
+	}
+
+	@Override
+	int linkCount(){
+
+		return this.links;
+
+	}
+
+	@Override
+	int linkBegin(final int synset){
+
+		return this.getInt(Section.LINK_START, synset);
+
+	}
+
+	@Override
+	int linkEnd(final int synset){
+
+		return this.getInt(Section.LINK_START, synset + 1);
+
+	}
+
+	@Override
+	int linkTo(final int link){
+
+		return this.getInt(Section.LINK_TO, link);
+
+	}
+
+	@Override
+	Link linkType(final int link){
+
+		return LINKS[this.getByte(Section.LINK_TYPE, link)];
+
+	}
+
+	@Override
+	String linkSrc(final int link){
+
+		return this.getString(this.getInt(Section.LINK_SRC, link));
+
+	}
+
+	/////////////////////////////////////////////////////////////////////////////////////
+	// Private methods
+	/////////////////////////////////////////////////////////////////////////////////////
+	private int getInt(final Section section, final int i){
+
+		return this.buffer.getInt(this.offsets[section.ordinal()] + 4 * i);
+
+	}
+
+	private byte getByte(final Section section, final int i){
+
+		return this.buffer.get(this.offsets[section.ordinal()] + i);
+
+	}
+
+	private String getString(final int id){
+
+		if(id < 0){
+
+			return null;
+
+		}
+
+		final int begin = this.getInt(Section.STRING_START, id);
+		final int end = this.getInt(Section.STRING_START, id + 1);
+		final int base = this.offsets[Section.STRING_BLOB.ordinal()];
+		final byte[] bytes = new byte[end - begin];
+		for(int i = 0; i != bytes.length; ++i){
+
+			bytes[i] = this.buffer.get(base + begin + i);
+
+		}
+		return new String(bytes, UTF8);
+
+	}
+
+	/**
+	 * 文字列番号idの文字列と，UTF-8のバイト列keyを辞書順で比較する．
+	 */
+	private int compareString(final int id, final byte[] key){
+
+		if(id < 0){
+
+			return -1;
+
+		}
+
+		final int begin = this.getInt(Section.STRING_START, id);
+		final int end = this.getInt(Section.STRING_START, id + 1);
+		final int base = this.offsets[Section.STRING_BLOB.ordinal()] + begin;
+		final int length = end - begin;
+		for(int i = 0; i != length && i != key.length; ++i){
+
+			final int c = (this.buffer.get(base + i) & 0xff) - (key[i] & 0xff);
+			if(c != 0){
+
+				return c;
+
+			}
+
+		}
+		return length - key.length;
+
+	}
+
+	/**
+	 * 文字列でソートされた索引indexから，文字列がkeyに一致する要素番号を取得する．
+	 */
+	private int[] findByString(final Section index, final Section column, final int size, final byte[] key){
+
+		int low = 0;
+		int high = size;
+		while(low < high){
+
+			final int mid = (low + high) >>> 1;
+			if(this.compareString(this.getInt(column, this.getInt(index, mid)), key) < 0){
+
+				low = mid + 1;
+
+			}else{
+
+				high = mid;
+
+			}
+
+		}
+
+		int end = low;
+		while(end != size && this.compareString(this.getInt(column, this.getInt(index, end)), key) == 0){
+
+			++end;
+
+		}
+
+		final int[] ret = new int[end - low];
+		for(int i = 0; i != ret.length; ++i){
+
+			ret[i] = this.getInt(index, low + i);
+
+		}
+		return ret;
+
+	}
+
+	/////////////////////////////////////////////////////////////////////////////////////
+	// Static methods
+	/////////////////////////////////////////////////////////////////////////////////////
+	/**
+	 * バイナリ辞書ファイルをメモリマップする．
+	 *
+	 * @param file バイナリ辞書ファイル
+	 * @return マップしたDictionary
+	 * @throws IOException 入出力エラーが発生した場合，またはファイルの形式が正しくない場合
+	 */
+	static MappedDictionary map(final File file) throws IOException{
+
+		final RandomAccessFile raf = new RandomAccessFile(file, "r");
+		try{
+
+			final FileChannel channel = raf.getChannel();
+			return new MappedDictionary(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+
+		}finally{
+
+			// マップした領域はチャネルを閉じた後も有効
+			raf.close();
+
+		}
+
+	}
+
+	/**
+	 * Dictionaryの内容をバイナリ辞書ファイルに書き出す．
+	 *
+	 * @param d 書き出すDictionary
+	 * @param file 出力先のファイル
+	 * @throws IOException 入出力エラーが発生した場合，またはSynsetIDが想定した形式でない場合
+	 */
+	static void write(final Dictionary d, final File file) throws IOException{
+
+		final int words = d.wordCount();
+		final int synsets = d.synsetCount();
+		final int senses = d.senseCount();
+		final int links = d.linkCount();
+
+		final StringTable strings = new StringTable();
+		final Object[] sections = new Object[Section.values().length];
+
+		// WORD
+		{
+			final int[] id = new int[words];
+			final int[] lemma = new int[words];
+			final int[] pron = new int[words];
+			final byte[] lang = new byte[words];
+			final byte[] pos = new byte[words];
+			for(int i = 0; i != words; ++i){
+
+				id[i] = d.wordId(i);
+				lemma[i] = strings.add(d.wordLemma(i));
+				pron[i] = strings.add(d.wordPron(i));
+				lang[i] = (byte)d.wordLang(i).ordinal();
+				pos[i] = (byte)d.wordPos(i).ordinal();
+
+			}
+			sections[Section.WORD_ID.ordinal()] = id;
+			sections[Section.WORD_LEMMA.ordinal()] = lemma;
+			sections[Section.WORD_PRON.ordinal()] = pron;
+			sections[Section.WORDS_BY_LEMMA.ordinal()] = strings.sort(lemma);
+			sections[Section.WORD_LANG.ordinal()] = lang;
+			sections[Section.WORD_POS.ordinal()] = pos;
+		}
+
+		// SYNSET
+		{
+			final int[] id = new int[synsets];
+			final int[] name = new int[synsets];
+			final int[] src = new int[synsets];
+			final byte[] pos = new byte[synsets];
+			for(int i = 0; i != synsets; ++i){
+
+				id[i] = encodeSynsetId(d.synsetId(i));
+				if(id[i] < 0 || (i != 0 && id[i] <= id[i - 1])){
+
+					throw new IOException(String.format("unsupported synset id: %s", d.synsetId(i)));
+
+				}
+				name[i] = strings.add(d.synsetName(i));
+				src[i] = strings.add(d.synsetSrc(i));
+				pos[i] = (byte)d.synsetPos(i).ordinal();
+
+			}
+			sections[Section.SYNSET_ID.ordinal()] = id;
+			sections[Section.SYNSET_NAME.ordinal()] = name;
+			sections[Section.SYNSET_SRC.ordinal()] = src;
+			sections[Section.SYNSETS_BY_NAME.ordinal()] = strings.sort(name);
+			sections[Section.SYNSET_POS.ordinal()] = pos;
+		}
+
+		// SENSE
+		{
+			final int[] synset = new int[senses];
+			final int[] word = new int[senses];
+			final int[] rank = new int[senses];
+			final int[] lexid = new int[senses];
+			final int[] freq = new int[senses];
+			final int[] src = new int[senses];
+			final byte[] lang = new byte[senses];
+			for(int i = 0; i != senses; ++i){
+
+				synset[i] = d.senseSynset(i);
+				word[i] = d.senseWord(i);
+				rank[i] = d.senseRank(i);
+				lexid[i] = d.senseLexid(i);
+				freq[i] = d.senseFreq(i);
+				src[i] = strings.add(d.senseSrc(i));
+				lang[i] = (byte)d.senseLang(i).ordinal();
+
+			}
+			sections[Section.SENSE_SYNSET.ordinal()] = synset;
+			sections[Section.SENSE_WORD.ordinal()] = word;
+			sections[Section.SENSE_RANK.ordinal()] = rank;
+			sections[Section.SENSE_LEXID.ordinal()] = lexid;
+			sections[Section.SENSE_FREQ.ordinal()] = freq;
+			sections[Section.SENSE_SRC.ordinal()] = src;
+			sections[Section.SENSE_LANG.ordinal()] = lang;
+
+			final int[] wordStart = new int[words + 1];
+			final int[] wordSenses = new int[senses];
+			for(int i = 0; i != words; ++i){
+
+				wordStart[i] = d.wordSenseBegin(i);
+				for(int j = d.wordSenseBegin(i); j != d.wordSenseEnd(i); ++j){
+
+					wordSenses[j] = d.wordSense(j);
+
+				}
+
+			}
+			wordStart[words] = senses;
+			sections[Section.WORD_SENSE_START.ordinal()] = wordStart;
+			sections[Section.WORD_SENSES.ordinal()] = wordSenses;
+
+			final int[] synsetStart = new int[synsets + 1];
+			final int[] synsetSenses = new int[senses];
+			for(int i = 0; i != synsets; ++i){
+
+				synsetStart[i] = d.synsetSenseBegin(i);
+				for(int j = d.synsetSenseBegin(i); j != d.synsetSenseEnd(i); ++j){
+
+					synsetSenses[j] = d.synsetSense(j);
+
+				}
+
+			}
+			synsetStart[synsets] = senses;
+			sections[Section.SYNSET_SENSE_START.ordinal()] = synsetStart;
+			sections[Section.SYNSET_SENSES.ordinal()] = synsetSenses;
+		}
+
+		// SYNSET_DEF
+		{
+			final int defs = synsets == 0 ? 0 : d.defEnd(synsets - 1);
+			final int[] start = new int[synsets + 1];
+			final int[] text = new int[defs];
+			final int[] sid = new int[defs];
+			final byte[] lang = new byte[defs];
+			for(int i = 0; i != synsets; ++i){
+
+				start[i] = d.defBegin(i);
+
+			}
+			start[synsets] = defs;
+			for(int i = 0; i != defs; ++i){
+
+				text[i] = strings.add(d.defText(i));
+				sid[i] = d.defSid(i);
+				lang[i] = (byte)d.defLang(i).ordinal();
+
+			}
+			sections[Section.DEF_START.ordinal()] = start;
+			sections[Section.DEF_TEXT.ordinal()] = text;
+			sections[Section.DEF_SID.ordinal()] = sid;
+			sections[Section.DEF_LANG.ordinal()] = lang;
+		}
+
+		// SYNLINK
+		{
+			final int[] start = new int[synsets + 1];
+			final int[] to = new int[links];
+			final int[] src = new int[links];
+			final byte[] type = new byte[links];
+			for(int i = 0; i != synsets; ++i){
+
+				start[i] = d.linkBegin(i);
+
+			}
+			start[synsets] = links;
+			for(int i = 0; i != links; ++i){
+
+				to[i] = d.linkTo(i);
+				src[i] = strings.add(d.linkSrc(i));
+				type[i] = (byte)d.linkType(i).ordinal();
+
+			}
+			sections[Section.LINK_START.ordinal()] = start;
+			sections[Section.LINK_TO.ordinal()] = to;
+			sections[Section.LINK_SRC.ordinal()] = src;
+			sections[Section.LINK_TYPE.ordinal()] = type;
+		}
+
+		sections[Section.STRING_START.ordinal()] = strings.starts();
+		sections[Section.STRING_BLOB.ordinal()] = strings.blob();
+
+		// 各配列の開始位置を計算する
+		final int[] offsets = new int[sections.length];
+		long offset = HEADER_SIZE;
+		for(int i = 0; i != sections.length; ++i){
+
+			offsets[i] = (int)offset;
+			offset += align(sections[i] instanceof int[] ? 4L * ((int[])sections[i]).length : ((byte[])sections[i]).length);
+			if(offset > Integer.MAX_VALUE){
+
+				throw new IOException("dictionary is too large");
+
+			}
+
+		}
+
+		final DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file), 1 << 16));
+		try{
+
+			out.writeInt(MAGIC);
+			out.writeInt(VERSION);
+			out.writeInt(words);
+			out.writeInt(synsets);
+			out.writeInt(senses);
+			out.writeInt(((int[])sections[Section.DEF_TEXT.ordinal()]).length);
+			out.writeInt(links);
+			out.writeInt(strings.size());
+			for(final int o : offsets){
+
+				out.writeInt(o);
+
+			}
+
+			for(final Object section : sections){
+
+				if(section instanceof int[]){
+
+					for(final int v : (int[])section){
+
+						out.writeInt(v);
+
+					}
+
+				}else{
+
+					final byte[] bytes = (byte[])section;
+					out.write(bytes);
+					for(long i = bytes.length; i != align(bytes.length); ++i){
+
+						out.write(0);
+
+					}
+
+				}
+
+			}
+
+		}finally{
+
+			out.close();
+
+		}
+
+	}
+
+	/**
+	 * "00001740-n" 形式のSynsetIDを符号化する．
+	 *
+	 * @param synsetid SynsetID
+	 * @return 符号，形式が異なる場合は負の値
+	 */
+	static int encodeSynsetId(final String synsetid){
+
+		if(synsetid == null || synsetid.length() != 10 || synsetid.charAt(8) != '-'){
+
+			return -1;
+
+		}
+
+		int offset = 0;
+		for(int i = 0; i != 8; ++i){
+
+			final char c = synsetid.charAt(i);
+			if(c < '0' || c > '9'){
+
+				return -1;
+
+			}
+			offset = offset * 10 + (c - '0');
+
+		}
+
+		final int pos = SYNSET_POS.indexOf(synsetid.charAt(9));
+		if(pos < 0){
+
+			return -1;
+
+		}
+		return offset * 8 + pos;
+
+	}
+
+	static String decodeSynsetId(final int code){
+
+		final char[] ret = new char[10];
+		int offset = code >>> 3;
+		for(int i = 7; i >= 0; --i){
+
+			ret[i] = (char)('0' + offset % 10);
+			offset /= 10;
+
+		}
+		ret[8] = '-';
+		ret[9] = SYNSET_POS.charAt(code & 7);
+		return new String(ret);
+
+	}
+
+	private static long align(final long size){
+
+		return (size + 3) & ~3L;
+
+	}
+
+	/**
+	 * 書き出し時に文字列の重複を除いて番号を振る．
+	 */
+	private static class StringTable{
+
+		private final Map<String, Integer> ids = new HashMap<String, Integer>();
+		private byte[][] values = new byte[1024][];
+		private int size = 0;
+
+		int add(final String value){
+
+			if(value == null){
+
+				return -1;
+
+			}
+
+			final Integer id = this.ids.get(value);
+			if(id != null){
+
+				return id;
+
+			}
+
+			if(this.size == this.values.length){
+
+				this.values = Arrays.copyOf(this.values, this.size * 2);
+
+			}
+			this.values[this.size] = value.getBytes(UTF8);
+			this.ids.put(value, this.size);
+			return this.size++;
+
+		}
+
+		int size(){
+
+			return this.size;
+
+		}
+
+		/**
+		 * 文字列番号の配列columnについて，文字列のバイト列の辞書順に並べた要素番号を取得する．
+		 */
+		int[] sort(final int[] column){
+
+			final Integer[] boxed = new Integer[column.length];
+			for(int i = 0; i != boxed.length; ++i){
+
+				boxed[i] = i;
+
+			}
+			Arrays.sort(boxed, new Comparator<Integer>(){
+
+				@Override
+				public int compare(final Integer o1, final Integer o2) {
+					return StringTable.this.compare(column[o1], column[o2]);
+				}
+
+			});
+
+			final int[] ret = new int[boxed.length];
+			for(int i = 0; i != ret.length; ++i){
+
+				ret[i] = boxed[i];
+
+			}
+			return ret;
+
+		}
+
+		int[] starts(){
+
+			final int[] ret = new int[this.size + 1];
+			for(int i = 0; i != this.size; ++i){
+
+				ret[i + 1] = ret[i] + this.values[i].length;
+
+			}
+			return ret;
+
+		}
+
+		byte[] blob(){
+
+			final int[] starts = this.starts();
+			final byte[] ret = new byte[starts[this.size]];
+			for(int i = 0; i != this.size; ++i){
+
+				System.arraycopy(this.values[i], 0, ret, starts[i], this.values[i].length);
+
+			}
+			return ret;
+
+		}
+
+		private int compare(final int a, final int b){
+
+			if(a < 0 || b < 0){
+
+				return (a < 0 ? 0 : 1) - (b < 0 ? 0 : 1);
+
+			}
+
+			final byte[] x = this.values[a];
+			final byte[] y = this.values[b];
+			for(int i = 0; i != x.length && i != y.length; ++i){
+
+				final int c = (x[i] & 0xff) - (y[i] & 0xff);
+				if(c != 0){
+
+					return c;
+
+				}
+
+			}
+			return x.length - y.length;
+
+		}
+
+	}
+
+}
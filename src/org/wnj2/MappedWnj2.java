@@ -0,0 +1,94 @@
+/*
+ * Copyright 2009 Junpei Kawamoto
+ *
+ * This file is part of Japanese WordNet wrapper for Java (Wnj2).
+ * Wnj2 is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Wnj2 is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Wnj2.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.wnj2;
+
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.SQLException;
+
+/**
+ * バイナリ辞書ファイルをメモリマップして検索を行うWnj2．
+ *
+ * <p>
+ * バイナリ辞書ファイルは，日本語WordNetのデータベースからcompileメソッド，
+ * または {@link org.wnj2.importers.Import2Binary} で作成します．
+ * </p>
+ * <blockquote><pre>
+ * Wnj2 wn = new MappedWnj2(new File("path_to_the_dictionary_file"));
+ * </pre></blockquote>
+ * <p>
+ * ファイルは読み込まずにメモリマップするため，作成はすぐに終わります．
+ * データはJavaのヒープ外に置かれ，同じファイルをマップする複数のJVMの間でページキャッシュを共有します．
+ * SnapshotWnj2と同様，このオブジェクトは複数のスレッドから同時に利用できます．
+ * </p>
+ *
+ * @see SnapshotWnj2
+ */
+public class MappedWnj2 extends SnapshotWnj2{
+
+	/////////////////////////////////////////////////////////////////////////////////////
+	// Constractor
+	/////////////////////////////////////////////////////////////////////////////////////
+	/**
+	 * 指定したバイナリ辞書ファイルをメモリマップしたMappedWnj2インスタンスを作成する．
+	 *
+	 * @param file バイナリ辞書ファイル
+	 * @throws FileNotFoundException 指定されたファイルが見つからない場合
+	 * @throws IOException 入出力エラーが発生した場合，またはファイルの形式やバージョンが異なる場合
+	 */
+	public MappedWnj2(final File file) throws FileNotFoundException, IOException{
+		super(map(file));
+
+	}
+
+	/////////////////////////////////////////////////////////////////////////////////////
+	// Static methods
+	/////////////////////////////////////////////////////////////////////////////////////
+	/**
+	 * 日本語WordNetデータベースの内容をバイナリ辞書ファイルに書き出す．
+	 *
+	 * @param connection 日本語WordNetデータベースへ接続済みのコネクション
+	 * @param file 出力先のファイル
+	 * @throws SQLException データベースへのアクセスにエラーが発生した場合
+	 * @throws IOException 入出力エラーが発生した場合，またはSynsetIDの形式が異なる場合
+	 */
+	public static void compile(final Connection connection, final File file) throws SQLException, IOException{
+		assert connection != null : "connection is null";
+		assert file != null : "file is null";
+
+		MappedDictionary.write(Snapshot.load(connection), file);
+
+	}
+
+	private static MappedDictionary map(final File file) throws FileNotFoundException, IOException{
+		assert file != null : "file is null";
+
+		if(!file.exists()){
+
+			throw new FileNotFoundException(file.toString());
+
+		}
+
+		return MappedDictionary.map(file);
+
+	}
+
+}
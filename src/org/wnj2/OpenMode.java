@@ -0,0 +1,47 @@
+/*
+ * Copyright 2009 Junpei Kawamoto
+ *
+ * This file is part of Japanese WordNet wrapper for Java (Wnj2).
+ * Wnj2 is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Wnj2 is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Wnj2.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package org.wnj2;
+
+/**
+ * SQLiteデータベースファイルの開き方
+ *
+ * @see Wnj2#Wnj2(java.io.File, int, OpenMode)
+ */
+public enum OpenMode {
+
+	/** 読み書き可能なモードで開く．ファイルのロックとジャーナルを使います */
+	READ_WRITE,
+
+	/**
+	 * 変更されない辞書として読み込み専用で開く(mode=ro, immutable=1)．
+	 * ロックとジャーナルを使わず，ファイルをメモリマップして読み込みます．
+	 * 開いている間にファイルが変更されてはいけません．
+	 * データベースを変更できないため，Wnj2#verifyIndexes(boolean)で索引を作成することはできません
+	 */
+	READ_ONLY,
+
+	/**
+	 * 起動時にファイルの内容をプロセス内のメモリ上のSQLiteデータベースへ複製して開く．
+	 * 以降の検索はファイルへアクセスしません．
+	 * 複製したデータベースは変更できないため，Wnj2#verifyIndexes(boolean)で索引を作成することはできません
+	 */
+	IN_MEMORY
+
+}
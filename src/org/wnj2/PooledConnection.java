@@ -0,0 +1,192 @@
+/*
+ * Copyright 2009 Junpei Kawamoto
+ *
+ * This file is part of Japanese WordNet wrapper for Java (Wnj2).
+ * Wnj2 is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Wnj2 is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Wnj2.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.wnj2;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * ConnectionPoolが管理するコネクション．
+ * コネクションごとにPreparedStatementを保持し，再利用します．
+ * 保持するPreparedStatementはコネクションを閉じる時にすべて閉じます．
+ *
+ * <p>
+ * 同じスレッドがコネクションを借りたまま再び借りた場合，Streamの読み出し中に別の検索が同じコネクションで実行されます．
+ * 読み出し中のResultSetを閉じないよう，Streamにはleaseで他の問い合わせと共有しないPreparedStatementを貸し出します．
+ * </p>
+ */
+final class PooledConnection {
+
+	private final Connection connection;
+	private final Map<String, PreparedStatement> statements = new HashMap<String, PreparedStatement>();
+
+	/** Stream用に保持するPreparedStatement */
+	private final Map<String, PreparedStatement> cursors = new HashMap<String, PreparedStatement>();
+
+	/** 貸し出し中のPreparedStatementから，cursorsに保持しているかどうかへのマップ */
+	private final Map<PreparedStatement, Boolean> leased = new IdentityHashMap<PreparedStatement, Boolean>();
+
+	/** このコネクションを借りているスレッド．ConnectionPoolのロックで保護される */
+	Thread owner = null;
+
+	/** ownerがこのコネクションを借りている回数．ConnectionPoolのロックで保護される */
+	int holds = 0;
+
+	/////////////////////////////////////////////////////////////////////////////////////
+	// Constractor
+	/////////////////////////////////////////////////////////////////////////////////////
+	PooledConnection(final Connection connection){
+		assert connection != null : "connection is null";
+
+		this.connection = connection;
+
+	}
+
+	/////////////////////////////////////////////////////////////////////////////////////
+	// Package private methods
+	/////////////////////////////////////////////////////////////////////////////////////
+	Connection getConnection(){
+
+		return this.connection;
+
+	}
+
+	/**
+	 * SQL文に対応するPreparedStatementを取得する．
+	 * 既に作成したものがあればそれを再利用します．
+	 *
+	 * @param sql SQL文
+	 * @return PreparedStatement
+	 * @throws SQLException データベースへのアクセスにエラーが発生した場合
+	 */
+	synchronized PreparedStatement prepare(final String sql) throws SQLException{
+
+		PreparedStatement ps = this.statements.get(sql);
+		if(ps == null){
+
+			ps = this.connection.prepareStatement(sql);
+			this.statements.put(sql, ps);
+
+		}
+
+		assert ps != null;
+		return ps;
+
+	}
+
+	/**
+	 * Streamが結果を読み出すためのPreparedStatementを貸し出す．
+	 * 貸し出したPreparedStatementは，unleaseで返すまで他の問い合わせに使われません．
+	 * 同じSQL文のPreparedStatementが貸し出し中の場合は，新しいPreparedStatementを作成します．
+	 *
+	 * @param sql SQL文
+	 * @return PreparedStatement
+	 * @throws SQLException データベースへのアクセスにエラーが発生した場合
+	 */
+	synchronized PreparedStatement lease(final String sql) throws SQLException{
+
+		PreparedStatement ps = this.cursors.get(sql);
+		if(ps == null){
+
+			ps = this.connection.prepareStatement(sql);
+			this.cursors.put(sql, ps);
+
+		}else if(this.leased.containsKey(ps)){
+
+			// 入れ子になった同じ問い合わせのStreamには，返された時点で閉じるPreparedStatementを作る
+			ps = this.connection.prepareStatement(sql);
+			this.leased.put(ps, Boolean.FALSE);
+			return ps;
+
+		}
+
+		this.leased.put(ps, Boolean.TRUE);
+		return ps;
+
+	}
+
+	/**
+	 * leaseで貸し出したPreparedStatementを返す．
+	 *
+	 * @param ps leaseで取得したPreparedStatement
+	 * @throws SQLException PreparedStatementを閉じる際にエラーが発生した場合
+	 */
+	synchronized void unlease(final PreparedStatement ps) throws SQLException{
+
+		if(Boolean.FALSE.equals(this.leased.remove(ps))){
+
+			ps.close();
+
+		}
+
+	}
+
+	/**
+	 * 保持しているPreparedStatementとコネクションを閉じる．
+	 *
+	 * @throws SQLException いずれかを閉じる際にエラーが発生した場合
+	 */
+	synchronized void close() throws SQLException{
+
+		final List<PreparedStatement> targets = new ArrayList<PreparedStatement>(this.statements.values());
+		targets.addAll(this.cursors.values());
+		for(final Map.Entry<PreparedStatement, Boolean> e : this.leased.entrySet()){
+
+			if(!e.getValue()){
+
+				targets.add(e.getKey());
+
+			}
+
+		}
+
+		SQLException error = null;
+		for(final PreparedStatement ps : targets){
+
+			try{
+
+				ps.close();
+
+			}catch(final SQLException e){
+
+				error = e;
+
+			}
+
+		}
+		this.statements.clear();
+		this.cursors.clear();
+		this.leased.clear();
+		this.connection.close();
+
+		if(error != null){
+
+			throw error;
+
+		}
+
+	}
+
+}
@@ -0,0 +1,291 @@
+/*
+ * Copyright 2009 Junpei Kawamoto
+ *
+ * This file is part of Japanese WordNet wrapper for Java (Wnj2).
+ * Wnj2 is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Wnj2 is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Wnj2.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package org.wnj2;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Locale;
+import java.util.PriorityQueue;
+
+/**
+ * 見出し語の前方一致検索のための索引．
+ *
+ * <p>
+ * 小文字にした見出し語を言語ごとに辞書順に並べて保持します．
+ * 辞書順に並べると，ある接頭辞で始まる見出し語は連続した範囲になるため，
+ * この配列は暗黙的なトライとして働きます．範囲は二分探索で求めます．
+ * </p>
+ * <p>
+ * 頻度の高い順に上位k件を取り出すために，頻度が最大の位置を返すセグメント木を併せて保持します．
+ * 範囲の最大の位置を取り出し，その左右の範囲を優先度付きキューへ戻すことを繰り返すため，
+ * 範囲の大きさによらずO(k log n)で上位k件が求まります．
+ * 作成後に内容は変更されません．
+ * </p>
+ */
+final class PrefixIndex {
+
+	private static final Lang[] LANGS = Lang.values();
+
+	/** 小文字にした見出し語，言語ごとに辞書順 */
+	private final String[] keys;
+
+	private final int[] ids;
+
+	private final int[] freqs;
+
+	/** 言語ごとの開始位置，末尾は要素数 */
+	private final int[] langStart = new int[LANGS.length + 1];
+
+	/** 葉の数 */
+	private final int leaves;
+
+	/** 各節点の範囲で頻度が最大の位置 */
+	private final int[] tree;
+
+	/////////////////////////////////////////////////////////////////////////////////////
+	// Constractor
+	/////////////////////////////////////////////////////////////////////////////////////
+	PrefixIndex(final WordTable table){
+
+		final int n = table.size();
+		final String[] lower = new String[n];
+		final Integer[] order = new Integer[n];
+		for(int i = 0; i != n; ++i){
+
+			lower[i] = table.lemma(i) == null ? "" : table.lemma(i).toLowerCase(Locale.ROOT);
+			order[i] = i;
+
+		}
+		Arrays.sort(order, new Comparator<Integer>(){
+
+			@Override
+			public int compare(final Integer o1, final Integer o2) {
+
+				final int c = table.lang(o1).compareTo(table.lang(o2));
+				return c != 0 ? c : lower[o1].compareTo(lower[o2]);
+
+			}
+
+		});
+
+		this.keys = new String[n];
+		this.ids = new int[n];
+		this.freqs = new int[n];
+		for(int i = 0; i != n; ++i){
+
+			final int j = order[i];
+			this.keys[i] = lower[j];
+			this.ids[i] = table.id(j);
+			this.freqs[i] = table.freq(j);
+			++this.langStart[table.lang(j).ordinal() + 1];
+
+		}
+		for(int i = 0; i != LANGS.length; ++i){
+
+			this.langStart[i + 1] += this.langStart[i];
+
+		}
+
+		int leaves = 1;
+		while(leaves < n){
+
+			leaves <<= 1;
+
+		}
+		this.leaves = leaves;
+		this.tree = new int[2 * leaves];
+		Arrays.fill(this.tree, -1);
+		for(int i = 0; i != n; ++i){
+
+			this.tree[leaves + i] = i;
+
+		}
+		for(int i = leaves - 1; i > 0; --i){
+
+			this.tree[i] = this.better(this.tree[2 * i], this.tree[2 * i + 1]);
+
+		}
+
+	}
+
+	/////////////////////////////////////////////////////////////////////////////////////
+	// Package private methods
+	/////////////////////////////////////////////////////////////////////////////////////
+	/**
+	 * 接頭辞で始まる見出し語のWordを，頻度の高い順に取得する．
+	 * 頻度が同じ場合は見出し語の辞書順です．
+	 *
+	 * @param prefix 接頭辞
+	 * @param lang 言語，nullの場合はすべての言語
+	 * @param limit 取得する最大の件数
+	 * @return wordidの配列
+	 */
+	int[] find(final String prefix, final Lang lang, final int limit){
+
+		final String key = prefix.toLowerCase(Locale.ROOT);
+		final PriorityQueue<int[]> queue = new PriorityQueue<int[]>(16, new Comparator<int[]>(){
+
+			@Override
+			public int compare(final int[] o1, final int[] o2) {
+
+				return o1[0] == better(o1[0], o2[0]) ? -1 : 1;
+
+			}
+
+		});
+
+		for(final Lang l : LANGS){
+
+			if(lang == null || lang == l){
+
+				this.offer(queue, this.lowerBound(key, l), this.upperBound(key, l));
+
+			}
+
+		}
+
+		final int[] ret = new int[limit];
+		int size = 0;
+		while(size != limit && !queue.isEmpty()){
+
+			final int[] range = queue.poll();
+			ret[size++] = this.ids[range[0]];
+			this.offer(queue, range[1], range[0]);
+			this.offer(queue, range[0] + 1, range[2]);
+
+		}
+
+		return size == limit ? ret : Arrays.copyOf(ret, size);
+
+	}
+
+	/////////////////////////////////////////////////////////////////////////////////////
+	// Private methods
+	/////////////////////////////////////////////////////////////////////////////////////
+	/**
+	 * 範囲が空でなければ，最大の位置と範囲をキューに追加する．
+	 */
+	private void offer(final PriorityQueue<int[]> queue, final int begin, final int end){
+
+		if(begin < end){
+
+			queue.add(new int[]{this.argmax(begin, end), begin, end});
+
+		}
+
+	}
+
+	/**
+	 * [begin, end)の範囲で頻度が最大の位置を求める．
+	 */
+	private int argmax(final int begin, final int end){
+
+		int ret = -1;
+		for(int l = begin + this.leaves, r = end + this.leaves; l < r; l >>= 1, r >>= 1){
+
+			if((l & 1) != 0){
+
+				ret = this.better(ret, this.tree[l++]);
+
+			}
+			if((r & 1) != 0){
+
+				ret = this.better(ret, this.tree[--r]);
+
+			}
+
+		}
+
+		return ret;
+
+	}
+
+	/**
+	 * 頻度が高い方の位置を返す．頻度が同じ場合は前の位置を返す．
+	 */
+	private int better(final int i, final int j){
+
+		if(i < 0){
+
+			return j;
+
+		}
+		if(j < 0){
+
+			return i;
+
+		}
+		if(this.freqs[i] != this.freqs[j]){
+
+			return this.freqs[i] > this.freqs[j] ? i : j;
+
+		}
+
+		return i < j ? i : j;
+
+	}
+
+	private int lowerBound(final String key, final Lang lang){
+
+		int lo = this.langStart[lang.ordinal()];
+		int hi = this.langStart[lang.ordinal() + 1];
+		while(lo < hi){
+
+			final int mid = (lo + hi) >>> 1;
+			if(this.keys[mid].compareTo(key) < 0){
+
+				lo = mid + 1;
+
+			}else{
+
+				hi = mid;
+
+			}
+
+		}
+
+		return lo;
+
+	}
+
+	private int upperBound(final String prefix, final Lang lang){
+
+		int lo = this.lowerBound(prefix, lang);
+		int hi = this.langStart[lang.ordinal() + 1];
+		while(lo < hi){
+
+			final int mid = (lo + hi) >>> 1;
+			if(this.keys[mid].startsWith(prefix)){
+
+				lo = mid + 1;
+
+			}else{
+
+				hi = mid;
+
+			}
+
+		}
+
+		return lo;
+
+	}
+
+}
@@ -0,0 +1,55 @@
+/*
+ * Copyright 2009 Junpei Kawamoto
+ *
+ * This file is part of Japanese WordNet wrapper for Java (Wnj2).
+ * Wnj2 is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Wnj2 is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Wnj2.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.wnj2;
+
+/**
+ * 統計情報を記録する問い合わせの種類．
+ *
+ * <p>
+ * FIND_で始まるものはWnj2の同名のSQL文を，LAZY_で始まるものはLazySynset, LazyWordの遅延読み込みを表します．
+ * 遅延読み込みはキャッシュに見つかった場合も含みます．
+ * </p>
+ *
+ * @see QueryStatistics
+ */
+enum Query {
+
+	FIND_WORD_BY_LEMMA,
+	FIND_WORD_BY_LEMMA_AND_POS,
+	FIND_WORD_BY_WORDID,
+	FIND_WORDS_BY_WORDIDS,
+	FIND_SENSES_BY_WORDID,
+	FIND_SENSES_BY_SYNSET,
+	FIND_SENSES_BY_SYNSET_AND_LANG,
+	FIND_SYNSET_BY_SYNSET,
+	FIND_SYNSETS_BY_SYNSETS,
+	FIND_SYNSETS_BY_NAME_AND_POS,
+	FIND_SYNSET_BY_SYNSET_AND_LINK,
+	FIND_SYNSETS_BY_SYNSETS_AND_LINK,
+	FIND_CLOSURE,
+	FIND_DEPTH,
+	FIND_PATH_EDGES,
+	FIND_SYNSETDEF_BY_SYNSET,
+	FIND_SYNLINK_BY_SYNSET,
+	FIND_SYNLINK_BY_SYNSET_AND_LINK,
+	FIND_KEYS,
+	LAZY_SYNSET,
+	LAZY_WORD;
+
+}
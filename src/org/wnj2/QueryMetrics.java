@@ -0,0 +1,109 @@
+/*
+ * Copyright 2009 Junpei Kawamoto
+ *
+ * This file is part of Japanese WordNet wrapper for Java (Wnj2).
+ * Wnj2 is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Wnj2 is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Wnj2.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.wnj2;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 一種類の問い合わせの呼び出し回数，行数，所要時間を記録する．
+ *
+ * <p>
+ * recordはオブジェクトを作成せず，複数のスレッドから同時に呼び出せます．
+ * 各値は個別に更新するため，記録中に取得した統計情報では値の間にわずかなずれが生じることがあります．
+ * </p>
+ */
+final class QueryMetrics {
+
+	private final String name;
+	private final AtomicLong count = new AtomicLong();
+	private final AtomicLong rows = new AtomicLong();
+	private final AtomicLong total = new AtomicLong();
+	private final AtomicLong max = new AtomicLong();
+	private final LatencyHistogram histogram = new LatencyHistogram();
+
+	/////////////////////////////////////////////////////////////////////////////////////
+	// Constractor
+	/////////////////////////////////////////////////////////////////////////////////////
+	QueryMetrics(final String name){
+
+		this.name = name;
+
+	}
+
+	/////////////////////////////////////////////////////////////////////////////////////
+	// Package private methods
+	/////////////////////////////////////////////////////////////////////////////////////
+	/**
+	 * 一回の呼び出しを記録する．
+	 *
+	 * @param nanos 所要時間（ナノ秒）
+	 * @param rows 読み出した行数
+	 */
+	void record(final long nanos, final long rows){
+
+		this.count.incrementAndGet();
+		this.rows.addAndGet(rows);
+		this.total.addAndGet(nanos);
+		this.histogram.record(nanos);
+
+		long current = this.max.get();
+		while(nanos > current && !this.max.compareAndSet(current, nanos)){
+
+			current = this.max.get();
+
+		}
+
+	}
+
+	QueryStatistics getStatistics(){
+
+		return new QueryStatistics(this.name, this.count.get(), this.rows.get(), this.total.get(), this.max.get(), this.histogram.getCounts());
+
+	}
+
+	void reset(){
+
+		this.count.set(0);
+		this.rows.set(0);
+		this.total.set(0);
+		this.max.set(0);
+		this.histogram.reset();
+
+	}
+
+	/////////////////////////////////////////////////////////////////////////////////////
+	// Static methods
+	/////////////////////////////////////////////////////////////////////////////////////
+	/**
+	 * すべての種類の問い合わせについて，Query.ordinal()の順に並べたQueryMetricsを作成する．
+	 */
+	static QueryMetrics[] create(){
+
+		final Query[] queries = Query.values();
+		final QueryMetrics[] ret = new QueryMetrics[queries.length];
+		for(int i = 0; i != queries.length; ++i){
+
+			ret[i] = new QueryMetrics(queries[i].name());
+
+		}
+		return ret;
+
+	}
+
+}
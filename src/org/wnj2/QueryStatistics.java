@@ -0,0 +1,211 @@
+/*
+ * Copyright 2009 Junpei Kawamoto
+ *
+ * This file is part of Japanese WordNet wrapper for Java (Wnj2).
+ * Wnj2 is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Wnj2 is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Wnj2.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.wnj2;
+
+/**
+ * 問い合わせの統計情報．
+ *
+ * <p>
+ * 取得した時点での値を保持し，その後の問い合わせによって変化しません．
+ * 時間の単位はすべてナノ秒です．
+ * パーセンタイルは記録した区間から求めるため，相対誤差1/16以内の近似値になります．
+ * Streamを返す検索では，Streamを閉じた時点で，問い合わせを開始してからの時間と読み出した行数を記録します．
+ * </p>
+ *
+ * @see Wnj2#getQueryStatistics()
+ */
+public final class QueryStatistics {
+
+	private final String name;
+	private final long count;
+	private final long rows;
+	private final long total;
+	private final long max;
+	private final long[] histogram;
+
+	/////////////////////////////////////////////////////////////////////////////////////
+	// Constractor
+	/////////////////////////////////////////////////////////////////////////////////////
+	QueryStatistics(final String name, final long count, final long rows, final long total, final long max, final long[] histogram){
+
+		this.name = name;
+		this.count = count;
+		this.rows = rows;
+		this.total = total;
+		this.max = max;
+		this.histogram = histogram;
+
+	}
+
+	/////////////////////////////////////////////////////////////////////////////////////
+	// Public methods
+	/////////////////////////////////////////////////////////////////////////////////////
+	/**
+	 * 問い合わせの名前を取得する．
+	 * FIND_で始まる名前はWnj2のSQL文を，LAZY_SYNSET, LAZY_WORDはSynset, Wordの遅延読み込みを表します．
+	 *
+	 * @return 問い合わせの名前
+	 */
+	public String getName() {
+		return this.name;
+	}
+
+	/**
+	 * 問い合わせが正常に終了した回数を取得する．
+	 *
+	 * @return 呼び出し回数
+	 */
+	public long getCount() {
+		return this.count;
+	}
+
+	/**
+	 * 読み出した行数の合計を取得する．
+	 *
+	 * @return 行数
+	 */
+	public long getRowCount() {
+		return this.rows;
+	}
+
+	/**
+	 * 所要時間の合計を取得する．
+	 *
+	 * @return 所要時間の合計
+	 */
+	public long getTotalTime() {
+		return this.total;
+	}
+
+	/**
+	 * 最大の所要時間を取得する．
+	 *
+	 * @return 最大の所要時間
+	 */
+	public long getMaxTime() {
+		return this.max;
+	}
+
+	/**
+	 * 平均の所要時間を取得する．
+	 *
+	 * @return 所要時間の合計を呼び出し回数で割った値，一度も呼び出されていない場合は0
+	 */
+	public double getMeanTime() {
+
+		return this.count == 0 ? 0 : (double)this.total / this.count;
+
+	}
+
+	/**
+	 * 所要時間の中央値を取得する．
+	 *
+	 * @return 所要時間の中央値
+	 */
+	public long getMedianTime() {
+		return this.getPercentileTime(50);
+	}
+
+	/**
+	 * 所要時間の90パーセンタイルを取得する．
+	 *
+	 * @return 所要時間の90パーセンタイル
+	 */
+	public long get90thPercentileTime() {
+		return this.getPercentileTime(90);
+	}
+
+	/**
+	 * 所要時間の99パーセンタイルを取得する．
+	 *
+	 * @return 所要時間の99パーセンタイル
+	 */
+	public long get99thPercentileTime() {
+		return this.getPercentileTime(99);
+	}
+
+	/**
+	 * 所要時間の99.9パーセンタイルを取得する．
+	 *
+	 * @return 所要時間の99.9パーセンタイル
+	 */
+	public long get999thPermilleTime() {
+		return this.getPercentileTime(99.9);
+	}
+
+	/**
+	 * 指定したパーセンタイルの所要時間を取得する．
+	 *
+	 * @param percentile 0以上100以下のパーセンタイル
+	 * @return 記録した値のうちpercentileパーセントがこの値以下になる時間，一度も呼び出されていない場合は0
+	 */
+	public long getPercentileTime(final double percentile){
+		assert percentile >= 0 && percentile <= 100 : "percentile is out of range";
+
+		long recorded = 0;
+		for(final long c : this.histogram){
+
+			recorded += c;
+
+		}
+		if(recorded == 0){
+
+			return 0;
+
+		}
+
+		final long target = Math.max(1, (long)Math.ceil(recorded * percentile / 100));
+		long seen = 0;
+		for(int i = 0; i != this.histogram.length; ++i){
+
+			seen += this.histogram[i];
+			if(seen >= target){
+
+				return Math.min(LatencyHistogram.highestValue(i), this.max);
+
+			}
+
+		}
+		return this.max;
+
+	}
+
+	/**
+	 * このオブジェクトのJSON表記を取得する．
+	 *
+	 * @return このオブジェクトをJSON形式で表した文字列．
+	 */
+	@Override
+	public String toString() {
+
+		return String.format("{\"name\": \"%s\", \"count\": %d, \"rows\": %d, \"total\": %d, \"mean\": %.1f, \"p50\": %d, \"p90\": %d, \"p99\": %d, \"p999\": %d, \"max\": %d}",
+				this.name,
+				this.count,
+				this.rows,
+				this.total,
+				this.getMeanTime(),
+				this.getMedianTime(),
+				this.get90thPercentileTime(),
+				this.get99thPercentileTime(),
+				this.get999thPermilleTime(),
+				this.max);
+
+	}
+
+}
@@ -0,0 +1,226 @@
+/*
+ * Copyright 2009 Junpei Kawamoto
+ *
+ * This file is part of Japanese WordNet wrapper for Java (Wnj2).
+ * Wnj2 is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Wnj2 is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Wnj2.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package org.wnj2;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 読みからWordを検索するための索引．
+ *
+ * <p>
+ * 正規化した読みをキーとするハッシュ表で，Wordの読み（WORD.pron）と，
+ * 仮名だけからなる日本語の見出し語を索引します．
+ * 正規化では，NFKC正規化で全角英数字と半角仮名を統一し，片仮名を平仮名に，
+ * 長音符を直前の仮名の母音に置き換えます．
+ * 例えば「コーヒー」「ｺｰﾋｰ」「こおひい」は同じキーになります．
+ * 作成後に内容は変更されません．
+ * </p>
+ */
+final class ReadingIndex {
+
+	private static final String[] VOWELS = new String[]{
+		"あぁかがさざただなはばぱまやゃらわゎ",
+		"いぃきぎしじちぢにひびぴみりゐ",
+		"うぅくぐすずつづっぬふぶぷむゆゅるゔ",
+		"えぇけげせぜてでねへべぺめれゑ",
+		"おぉこごそぞとどのほぼぽもよょろを"
+	};
+
+	private static final String VOWEL_KANA = "あいうえお";
+
+	private static final Map<Character, Character> VOWEL_OF = new HashMap<Character, Character>();
+	static{
+
+		for(int i = 0; i != VOWELS.length; ++i){
+
+			for(final char c : VOWELS[i].toCharArray()){
+
+				VOWEL_OF.put(c, VOWEL_KANA.charAt(i));
+
+			}
+
+		}
+
+	}
+
+	/** 正規化した読みから，頻度の高い順に並べたwordidへの対応 */
+	private final Map<String, int[]> index;
+
+	/////////////////////////////////////////////////////////////////////////////////////
+	// Constractor
+	/////////////////////////////////////////////////////////////////////////////////////
+	ReadingIndex(final WordTable table){
+
+		final Map<String, List<Integer>> entries = new HashMap<String, List<Integer>>();
+		for(int i = 0; i != table.size(); ++i){
+
+			if(table.pron(i) != null && !table.pron(i).isEmpty()){
+
+				add(entries, normalize(table.pron(i)), i);
+
+			}
+
+			final String lemma = table.lemma(i);
+			if(table.lang(i) == Lang.jpn && lemma != null && isKana(lemma)){
+
+				final String key = normalize(lemma);
+				final List<Integer> list = entries.get(key);
+				if(list == null || list.get(list.size() - 1) != i){
+
+					add(entries, key, i);
+
+				}
+
+			}
+
+		}
+
+		this.index = new HashMap<String, int[]>(entries.size() * 4 / 3 + 1);
+		final Comparator<Integer> byFreq = new Comparator<Integer>(){
+
+			@Override
+			public int compare(final Integer o1, final Integer o2) {
+
+				final int c = table.freq(o2) - table.freq(o1);
+				return c != 0 ? c : table.id(o1) - table.id(o2);
+
+			}
+
+		};
+		for(final Map.Entry<String, List<Integer>> e : entries.entrySet()){
+
+			final Integer[] rows = e.getValue().toArray(new Integer[e.getValue().size()]);
+			Arrays.sort(rows, byFreq);
+
+			final int[] ids = new int[rows.length];
+			for(int i = 0; i != rows.length; ++i){
+
+				ids[i] = table.id(rows[i]);
+
+			}
+			this.index.put(e.getKey(), ids);
+
+		}
+
+	}
+
+	/////////////////////////////////////////////////////////////////////////////////////
+	// Package private methods
+	/////////////////////////////////////////////////////////////////////////////////////
+	/**
+	 * 読みが一致するWordのwordidを，頻度の高い順に取得する．
+	 *
+	 * @param reading 読み，正規化前のもの
+	 * @return wordidの配列
+	 */
+	int[] find(final String reading){
+
+		final int[] ret = this.index.get(normalize(reading));
+		return ret == null ? new int[0] : ret;
+
+	}
+
+	/////////////////////////////////////////////////////////////////////////////////////
+	// Static methods
+	/////////////////////////////////////////////////////////////////////////////////////
+	/**
+	 * 読みを正規化する．
+	 *
+	 * @param reading 読み
+	 * @return 正規化した読み
+	 */
+	static String normalize(final String reading){
+
+		final String s = Normalizer.normalize(reading, Normalizer.Form.NFKC);
+		final StringBuilder ret = new StringBuilder(s.length());
+		for(int i = 0; i != s.length(); ++i){
+
+			char c = s.charAt(i);
+			if(c >= 'ァ' && c <= 'ヶ' || c == 'ヽ' || c == 'ヾ'){
+
+				// 片仮名を平仮名へ
+				c = (char)(c - 0x60);
+
+			}else if(c == 'ー' || c == '〜' || c == '～'){
+
+				// 長音符を直前の仮名の母音へ
+				final Character v = ret.length() == 0 ? null : VOWEL_OF.get(ret.charAt(ret.length() - 1));
+				if(v != null){
+
+					c = v;
+
+				}
+
+			}else{
+
+				c = Character.toLowerCase(c);
+
+			}
+			ret.append(c);
+
+		}
+
+		return ret.toString();
+
+	}
+
+	/**
+	 * 平仮名，片仮名，半角片仮名（U+FF65からU+FF9F）だけからなる文字列かどうかを調べる．
+	 * 全角の英数字や記号を含む見出し語は読みとして扱わない．
+	 */
+	private static boolean isKana(final String s){
+
+		for(int i = 0; i != s.length(); ++i){
+
+			final char c = s.charAt(i);
+			final Character.UnicodeBlock b = Character.UnicodeBlock.of(c);
+			if(b != Character.UnicodeBlock.HIRAGANA && b != Character.UnicodeBlock.KATAKANA
+					&& (c < '\uFF65' || c > '\uFF9F')){
+
+				return false;
+
+			}
+
+		}
+
+		return !s.isEmpty();
+
+	}
+
+	private static void add(final Map<String, List<Integer>> entries, final String key, final int row){
+
+		List<Integer> list = entries.get(key);
+		if(list == null){
+
+			list = new ArrayList<Integer>(1);
+			entries.put(key, list);
+
+		}
+		list.add(row);
+
+	}
+
+}
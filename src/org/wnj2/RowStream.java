@@ -0,0 +1,232 @@
+/*
+ * Copyright 2009 Junpei Kawamoto
+ *
+ * This file is part of Japanese WordNet wrapper for Java (Wnj2).
+ * Wnj2 is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Wnj2 is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Wnj2.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package org.wnj2;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * ResultSetの行を順に読み出すStream．
+ *
+ * <p>
+ * 行は要素が要求された時点で一つずつ読み出して変換するため，結果の件数によらず一定のメモリで処理できます．
+ * コネクションは作成したスレッドだけが使うため，並列Streamにしても分割せず，作成したスレッドで順に読み出します．
+ * Streamは結果を読み切った時点，またはcloseされた時点でResultSetを閉じ，
+ * PooledConnection#leaseで借りたPreparedStatementと，借りていたコネクションをプールへ返します．
+ * 行の読み出し中にSQLExceptionが発生した場合は，UncheckedSQLExceptionを投げます．
+ * 例外が発生した場合も，その時点でResultSetを閉じます．
+ * QueryMetricsを指定した場合は，例外なく閉じられた時点で，問い合わせを開始してからの時間と読み出した行数を記録します．
+ * </p>
+ */
+final class RowStream<T> extends Spliterators.AbstractSpliterator<T> implements Runnable{
+
+	/**
+	 * ResultSetの現在の行をオブジェクトに変換する．
+	 */
+	interface Mapper<T>{
+
+		T map(ResultSet rs) throws SQLException;
+
+	}
+
+	private final ConnectionPool pool;
+	private final PooledConnection connection;
+	private final PreparedStatement ps;
+	private final ResultSet rs;
+	private final Mapper<T> mapper;
+	private final QueryMetrics metrics;
+	private final long start;
+	private long rows = 0;
+	private boolean failed = false;
+	private boolean closed = false;
+
+	/////////////////////////////////////////////////////////////////////////////////////
+	// Constractor
+	/////////////////////////////////////////////////////////////////////////////////////
+	private RowStream(final ConnectionPool pool, final PooledConnection connection, final PreparedStatement ps, final ResultSet rs,
+			final Mapper<T> mapper, final QueryMetrics metrics, final long start){
+		super(Long.MAX_VALUE, Spliterator.ORDERED | Spliterator.NONNULL);
+
+		this.pool = pool;
+		this.connection = connection;
+		this.ps = ps;
+		this.rs = rs;
+		this.mapper = mapper;
+		this.metrics = metrics;
+		this.start = start;
+
+	}
+
+	/////////////////////////////////////////////////////////////////////////////////////
+	// Public methods
+	/////////////////////////////////////////////////////////////////////////////////////
+	/**
+	 * 分割しない．
+	 * 分割すると他のスレッドがResultSetを読み進め，作成したスレッドの検索と同じコネクションを同時に使うため．
+	 */
+	@Override
+	public Spliterator<T> trySplit() {
+
+		return null;
+
+	}
+
+	@Override
+	public boolean tryAdvance(final Consumer<? super T> action) {
+
+		if(this.closed){
+
+			return false;
+
+		}
+
+		try{
+
+			if(!this.rs.next()){
+
+				this.run();
+				return false;
+
+			}
+
+			++this.rows;
+			action.accept(this.mapper.map(this.rs));
+			return true;
+
+		}catch(final SQLException e){
+
+			this.failed = true;
+			this.run();
+			throw new UncheckedSQLException(e);
+
+		}catch(final RuntimeException e){
+
+			this.failed = true;
+			this.run();
+			throw e;
+
+		}
+
+	}
+
+	/**
+	 * ResultSetを閉じ，PreparedStatementとコネクションを返す．
+	 * 二回目以降の呼び出しは何もしません．
+	 */
+	@Override
+	public void run() {
+
+		if(this.closed){
+
+			return;
+
+		}
+		this.closed = true;
+		if(this.metrics != null && !this.failed){
+
+			this.metrics.record(System.nanoTime() - this.start, this.rows);
+
+		}
+
+		try{
+
+			try{
+
+				this.rs.close();
+
+			}finally{
+
+				this.connection.unlease(this.ps);
+
+			}
+
+		}catch(final SQLException e){
+
+			throw new UncheckedSQLException(e);
+
+		}finally{
+
+			this.pool.release(this.connection);
+
+		}
+
+	}
+
+	/////////////////////////////////////////////////////////////////////////////////////
+	// Static methods
+	/////////////////////////////////////////////////////////////////////////////////////
+	/**
+	 * パラメータを設定済みのPreparedStatementを実行し，結果を読み出すStreamを作成する．
+	 *
+	 * <p>
+	 * psとconnectionはStreamが閉じられるまで使用中のままになります．
+	 * 問い合わせの実行に失敗した場合は，この時点でpsとconnectionを返します．
+	 * </p>
+	 *
+	 * @param pool connectionを借りたプール
+	 * @param connection psを作成したコネクション
+	 * @param ps 実行するPreparedStatement，connectionのleaseで借りたもの
+	 * @param fetchSize 一度に読み出す行数のヒント，0の場合はドライバの既定値
+	 * @param mapper 行の変換方法
+	 * @param metrics 統計情報を記録するQueryMetrics，記録しない場合はnull
+	 * @param start 問い合わせを開始した時点のSystem.nanoTime()の値
+	 * @return 結果を読み出すStream
+	 * @throws SQLException データベースへのアクセスにエラーが発生した場合
+	 */
+	static <T> Stream<T> create(final ConnectionPool pool, final PooledConnection connection, final PreparedStatement ps,
+			final int fetchSize, final Mapper<T> mapper, final QueryMetrics metrics, final long start) throws SQLException{
+		assert pool != null : "pool is null";
+		assert connection != null : "connection is null";
+		assert ps != null : "ps is null";
+		assert mapper != null : "mapper is null";
+
+		final ResultSet rs;
+		try{
+
+			ps.setFetchSize(fetchSize);
+			rs = ps.executeQuery();
+
+		}catch(final SQLException e){
+
+			try{
+
+				connection.unlease(ps);
+
+			}finally{
+
+				pool.release(connection);
+
+			}
+			throw e;
+
+		}
+
+		final RowStream<T> cursor = new RowStream<T>(pool, connection, ps, rs, mapper, metrics, start);
+		return StreamSupport.stream(cursor, false).onClose(cursor);
+
+	}
+
+}
@@ -0,0 +1,217 @@
+/*
+ * Copyright 2009 Junpei Kawamoto
+ *
+ * This file is part of Japanese WordNet wrapper for Java (Wnj2).
+ * Wnj2 is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Wnj2 is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Wnj2.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package org.wnj2;
+
+import java.sql.SQLException;
+import java.util.Queue;
+import java.util.Spliterator;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * テーブルをキーの範囲で分割して読み出すSpliterator．
+ *
+ * <p>
+ * 各範囲は読み出しが始まった時点で個別に問い合わせます．
+ * 並列Streamでは範囲ごとに別のスレッドが別のコネクションで読み出します．
+ * まだ読み出していない範囲を二つ以上持つ場合に，前半の範囲を分割して返します．
+ * Streamを閉じると，読み出し中の範囲をすべて閉じます．
+ * </p>
+ */
+final class ScanSpliterator<T> implements Spliterator<T>, Runnable{
+
+	/**
+	 * 範囲を読み出すStreamを作成する．
+	 */
+	interface Source<T>{
+
+		/**
+		 * @param partition 範囲の番号
+		 * @return 範囲に含まれる行を読み出すStream
+		 * @throws SQLException データベースへのアクセスにエラーが発生した場合
+		 */
+		Stream<T> open(int partition) throws SQLException;
+
+	}
+
+	private final Source<T> source;
+
+	/** 読み出し中のStream．分割したSpliteratorの間で共有する */
+	private final Queue<Stream<T>> opened;
+
+	private int begin;
+	private final int end;
+
+	private Stream<T> stream = null;
+	private Spliterator<T> current = null;
+
+	/////////////////////////////////////////////////////////////////////////////////////
+	// Constractor
+	/////////////////////////////////////////////////////////////////////////////////////
+	private ScanSpliterator(final Source<T> source, final Queue<Stream<T>> opened, final int begin, final int end){
+
+		this.source = source;
+		this.opened = opened;
+		this.begin = begin;
+		this.end = end;
+
+	}
+
+	/////////////////////////////////////////////////////////////////////////////////////
+	// Public methods
+	/////////////////////////////////////////////////////////////////////////////////////
+	@Override
+	public boolean tryAdvance(final Consumer<? super T> action) {
+
+		while(this.current != null || this.next()){
+
+			if(this.current.tryAdvance(action)){
+
+				return true;
+
+			}
+			this.closeCurrent();
+
+		}
+
+		return false;
+
+	}
+
+	@Override
+	public void forEachRemaining(final Consumer<? super T> action) {
+
+		while(this.current != null || this.next()){
+
+			this.current.forEachRemaining(action);
+			this.closeCurrent();
+
+		}
+
+	}
+
+	@Override
+	public Spliterator<T> trySplit() {
+
+		if(this.current != null || this.end - this.begin < 2){
+
+			return null;
+
+		}
+
+		final int mid = (this.begin + this.end) >>> 1;
+		final ScanSpliterator<T> ret = new ScanSpliterator<T>(this.source, this.opened, this.begin, mid);
+		this.begin = mid;
+		return ret;
+
+	}
+
+	@Override
+	public long estimateSize() {
+
+		return Long.MAX_VALUE;
+
+	}
+
+	@Override
+	public int characteristics() {
+
+		return Spliterator.ORDERED | Spliterator.NONNULL;
+
+	}
+
+	/**
+	 * 読み出し中のStreamをすべて閉じる．
+	 */
+	@Override
+	public void run() {
+
+		Stream<T> s;
+		while((s = this.opened.poll()) != null){
+
+			s.close();
+
+		}
+
+	}
+
+	/////////////////////////////////////////////////////////////////////////////////////
+	// Private methods
+	/////////////////////////////////////////////////////////////////////////////////////
+	/**
+	 * 次の範囲の読み出しを始める．
+	 *
+	 * @return 範囲が残っていない場合はfalse
+	 */
+	private boolean next(){
+
+		if(this.begin == this.end){
+
+			return false;
+
+		}
+
+		try{
+
+			this.stream = this.source.open(this.begin++);
+
+		}catch(final SQLException e){
+
+			throw new UncheckedSQLException(e);
+
+		}
+		this.opened.add(this.stream);
+		this.current = this.stream.spliterator();
+		return true;
+
+	}
+
+	private void closeCurrent(){
+
+		this.opened.remove(this.stream);
+		this.stream.close();
+		this.stream = null;
+		this.current = null;
+
+	}
+
+	/////////////////////////////////////////////////////////////////////////////////////
+	// Static methods
+	/////////////////////////////////////////////////////////////////////////////////////
+	/**
+	 * partitions個の範囲を順に読み出すStreamを作成する．
+	 *
+	 * @param source 範囲を読み出すStreamの作成方法
+	 * @param partitions 範囲の数
+	 * @param parallel 並列Streamを作成する場合はtrue
+	 * @return すべての範囲の行を読み出すStream
+	 */
+	static <T> Stream<T> create(final Source<T> source, final int partitions, final boolean parallel){
+		assert source != null : "source is null";
+		assert partitions > 0 : "partitions must be positive";
+
+		final ScanSpliterator<T> root = new ScanSpliterator<T>(source, new ConcurrentLinkedQueue<Stream<T>>(), 0, partitions);
+		return StreamSupport.stream(root, parallel).onClose(root);
+
+	}
+
+}
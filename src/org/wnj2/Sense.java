@@ -58,10 +58,15 @@ public class Sense {
 	// Constractor
 	/////////////////////////////////////////////////////////////////////////////////////
 	Sense(final Wnj2 parent, final String synset, final int word, final String lang, final int rank, final int lex, final int freq, final String src){
+		this(parent, Synset.create(parent, synset), Word.create(parent, word), lang, rank, lex, freq, src);
+
+	}
+
+	Sense(final Wnj2 parent, final Synset synset, final Word word, final String lang, final int rank, final int lex, final int freq, final String src){
 
 		this.parent = parent;
-		this.synset = Synset.create(parent, synset);
-		this.word = Word.create(parent, word);
+		this.synset = synset;
+		this.word = word;
 		this.lang = lang;
 		this.rank = rank;
 		this.lexid = lex;
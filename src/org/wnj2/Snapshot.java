@@ -0,0 +1,822 @@
+/*
+ * Copyright 2009 Junpei Kawamoto
+ *
+ * This file is part of Japanese WordNet wrapper for Java (Wnj2).
+ * Wnj2 is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Wnj2 is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Wnj2.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.wnj2;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Arrays;
+import java.util.Comparator;
+
+/**
+ * WORD, SENSE, SYNSET, SYNSET_DEF, SYNLINK の各テーブルをプリミティブ配列に展開したもの．
+ *
+ * <p>
+ * WordはwordidでソートしたWord番号，Synsetはsynsetでソートした Synset番号で参照します．
+ * SenseとSynsetDef，Synlinkは，それぞれ属するWord番号やSynset番号ごとに連続して並べ，
+ * 開始位置の配列（CSR形式）から引きます．
+ * </p>
+ *
+ * @see MappedDictionary
+ */
+final class Snapshot extends Dictionary{
+
+	// WORD
+	final int[] wordIds;
+	final byte[] wordLang;
+	final String[] wordLemma;
+	final String[] wordPron;
+	final byte[] wordPos;
+	final int[] wordsByLemma;
+
+	// SYNSET
+	final String[] synsetIds;
+	final byte[] synsetPos;
+	final String[] synsetName;
+	final String[] synsetSrc;
+	final int[] synsetsByName;
+
+	// SENSE
+	final int[] senseSynset;
+	final int[] senseWord;
+	final byte[] senseLang;
+	final int[] senseRank;
+	final int[] senseLexid;
+	final int[] senseFreq;
+	final String[] senseSrc;
+	final int[] wordSenseStart;
+	final int[] wordSenses;
+	final int[] synsetSenseStart;
+	final int[] synsetSenses;
+
+	// SYNSET_DEF
+	final int[] defStart;
+	final byte[] defLang;
+	final String[] defText;
+	final int[] defSid;
+
+	// SYNLINK
+	final int[] linkStart;
+	final int[] linkTo;
+	final byte[] linkType;
+	final String[] linkSrc;
+
+	/////////////////////////////////////////////////////////////////////////////////////
+	// Constractor
+	/////////////////////////////////////////////////////////////////////////////////////
+	private Snapshot(final Statement stat) throws SQLException{
+
+		// WORD
+		{
+			final int size = count(stat, "WORD");
+			final int[] ids = new int[size];
+			final byte[] lang = new byte[size];
+			final String[] lemma = new String[size];
+			final String[] pron = new String[size];
+			final byte[] pos = new byte[size];
+
+			int n = 0;
+			final ResultSet rs = stat.executeQuery("select * from WORD");
+			try{
+
+				while(rs.next() && n != size){
+
+					ids[n] = rs.getInt(1);
+					lang[n] = (byte)Lang.valueOf(rs.getString(2)).ordinal();
+					lemma[n] = rs.getString(3);
+					pron[n] = rs.getString(4);
+					pos[n] = (byte)Pos.valueOf(rs.getString(5)).ordinal();
+					++n;
+
+				}
+
+			}finally{
+
+				rs.close();
+
+			}
+
+			final int[] order = sort(n, new Comparator<Integer>(){
+
+				@Override
+				public int compare(final Integer o1, final Integer o2) {
+					return ids[o1] < ids[o2] ? -1 : (ids[o1] == ids[o2] ? 0 : 1);
+				}
+
+			});
+
+			this.wordIds = new int[n];
+			this.wordLang = new byte[n];
+			this.wordLemma = new String[n];
+			this.wordPron = new String[n];
+			this.wordPos = new byte[n];
+			for(int i = 0; i != n; ++i){
+
+				this.wordIds[i] = ids[order[i]];
+				this.wordLang[i] = lang[order[i]];
+				this.wordLemma[i] = lemma[order[i]];
+				this.wordPron[i] = pron[order[i]];
+				this.wordPos[i] = pos[order[i]];
+
+			}
+
+			this.wordsByLemma = sort(n, new Comparator<Integer>(){
+
+				@Override
+				public int compare(final Integer o1, final Integer o2) {
+					return compareNullable(Snapshot.this.wordLemma[o1], Snapshot.this.wordLemma[o2]);
+				}
+
+			});
+
+		}
+
+		// SYNSET
+		{
+			final int size = count(stat, "SYNSET");
+			final String[] ids = new String[size];
+			final byte[] pos = new byte[size];
+			final String[] name = new String[size];
+			final String[] src = new String[size];
+
+			int n = 0;
+			final ResultSet rs = stat.executeQuery("select * from SYNSET");
+			try{
+
+				while(rs.next() && n != size){
+
+					ids[n] = rs.getString(1);
+					pos[n] = (byte)Pos.valueOf(rs.getString(2)).ordinal();
+					name[n] = rs.getString(3);
+					src[n] = rs.getString(4);
+					++n;
+
+				}
+
+			}finally{
+
+				rs.close();
+
+			}
+
+			final int[] order = sort(n, new Comparator<Integer>(){
+
+				@Override
+				public int compare(final Integer o1, final Integer o2) {
+					return ids[o1].compareTo(ids[o2]);
+				}
+
+			});
+
+			this.synsetIds = new String[n];
+			this.synsetPos = new byte[n];
+			this.synsetName = new String[n];
+			this.synsetSrc = new String[n];
+			for(int i = 0; i != n; ++i){
+
+				this.synsetIds[i] = ids[order[i]];
+				this.synsetPos[i] = pos[order[i]];
+				this.synsetName[i] = name[order[i]];
+				this.synsetSrc[i] = src[order[i]];
+
+			}
+
+			this.synsetsByName = sort(n, new Comparator<Integer>(){
+
+				@Override
+				public int compare(final Integer o1, final Integer o2) {
+					return compareNullable(Snapshot.this.synsetName[o1], Snapshot.this.synsetName[o2]);
+				}
+
+			});
+
+		}
+
+		// SENSE
+		{
+			final int size = count(stat, "SENSE");
+			final int[] synset = new int[size];
+			final int[] word = new int[size];
+			final byte[] lang = new byte[size];
+			final int[] rank = new int[size];
+			final int[] lexid = new int[size];
+			final int[] freq = new int[size];
+			final String[] src = new String[size];
+
+			// 対応するWordまたはSynsetが存在しないタプルは読み飛ばす
+			int n = 0;
+			final ResultSet rs = stat.executeQuery("select * from SENSE");
+			try{
+
+				while(rs.next() && n != size){
+
+					synset[n] = this.findSynset(rs.getString(1));
+					word[n] = this.findWord(rs.getInt(2));
+					if(synset[n] < 0 || word[n] < 0){
+
+						continue;
+
+					}
+					lang[n] = (byte)Lang.valueOf(rs.getString(3)).ordinal();
+					rank[n] = rs.getInt(4);
+					lexid[n] = rs.getInt(5);
+					freq[n] = rs.getInt(6);
+					src[n] = rs.getString(7);
+					++n;
+
+				}
+
+			}finally{
+
+				rs.close();
+
+			}
+
+			this.senseSynset = Arrays.copyOf(synset, n);
+			this.senseWord = Arrays.copyOf(word, n);
+			this.senseLang = Arrays.copyOf(lang, n);
+			this.senseRank = Arrays.copyOf(rank, n);
+			this.senseLexid = Arrays.copyOf(lexid, n);
+			this.senseFreq = Arrays.copyOf(freq, n);
+			this.senseSrc = Arrays.copyOf(src, n);
+
+			this.wordSenseStart = new int[this.wordIds.length + 1];
+			this.wordSenses = group(this.senseWord, this.wordSenseStart);
+			this.synsetSenseStart = new int[this.synsetIds.length + 1];
+			this.synsetSenses = group(this.senseSynset, this.synsetSenseStart);
+
+		}
+
+		// SYNSET_DEF
+		{
+			final int size = count(stat, "SYNSET_DEF");
+			final int[] synset = new int[size];
+			final byte[] lang = new byte[size];
+			final String[] def = new String[size];
+			final int[] sid = new int[size];
+
+			int n = 0;
+			final ResultSet rs = stat.executeQuery("select * from SYNSET_DEF");
+			try{
+
+				while(rs.next() && n != size){
+
+					synset[n] = this.findSynset(rs.getString(1));
+					if(synset[n] < 0){
+
+						continue;
+
+					}
+					lang[n] = (byte)Lang.valueOf(rs.getString(2)).ordinal();
+					def[n] = rs.getString(3);
+					sid[n] = rs.getInt(4);
+					++n;
+
+				}
+
+			}finally{
+
+				rs.close();
+
+			}
+
+			this.defStart = new int[this.synsetIds.length + 1];
+			final int[] order = group(Arrays.copyOf(synset, n), this.defStart);
+			this.defLang = new byte[n];
+			this.defText = new String[n];
+			this.defSid = new int[n];
+			for(int i = 0; i != n; ++i){
+
+				this.defLang[i] = lang[order[i]];
+				this.defText[i] = def[order[i]];
+				this.defSid[i] = sid[order[i]];
+
+			}
+
+		}
+
+		// SYNLINK
+		{
+			final int size = count(stat, "SYNLINK");
+			final int[] from = new int[size];
+			final int[] to = new int[size];
+			final byte[] type = new byte[size];
+			final String[] src = new String[size];
+
+			int n = 0;
+			final ResultSet rs = stat.executeQuery("select * from SYNLINK");
+			try{
+
+				while(rs.next() && n != size){
+
+					from[n] = this.findSynset(rs.getString(1));
+					to[n] = this.findSynset(rs.getString(2));
+					if(from[n] < 0 || to[n] < 0){
+
+						continue;
+
+					}
+					type[n] = (byte)Link.valueOf(rs.getString(3)).ordinal();
+					src[n] = rs.getString(4);
+					++n;
+
+				}
+
+			}finally{
+
+				rs.close();
+
+			}
+
+			this.linkStart = new int[this.synsetIds.length + 1];
+			final int[] order = group(Arrays.copyOf(from, n), this.linkStart);
+			this.linkTo = new int[n];
+			this.linkType = new byte[n];
+			this.linkSrc = new String[n];
+			for(int i = 0; i != n; ++i){
+
+				this.linkTo[i] = to[order[i]];
+				this.linkType[i] = type[order[i]];
+				this.linkSrc[i] = src[order[i]];
+
+			}
+
+		}
+
+	}
+
+	/////////////////////////////////////////////////////////////////////////////////////
+	// Package private methods
+	/////////////////////////////////////////////////////////////////////////////////////
+	@Override
+	int wordCount(){
+
+		return this.wordIds.length;
+
+	}
+
+	@Override
+	int findWord(final int wordid){
+
+		return Arrays.binarySearch(this.wordIds, wordid);
+
+	}
+
+	@Override
+	int[] findWordsByLemma(final String lemma){
+
+		final int begin = this.lowerBoundLemma(lemma);
+		int end = begin;
+		while(end != this.wordsByLemma.length && lemma.equals(this.wordLemma[this.wordsByLemma[end]])){
+
+			++end;
+
+		}
+		return Arrays.copyOfRange(this.wordsByLemma, begin, end);
+
+	}
+
+	@Override
+	int wordId(final int word){
+
+		return this.wordIds[word];
+
+	}
+
+	@Override
+	Lang wordLang(final int word){
+
+		return LANGS[this.wordLang[word]];
+
+	}
+
+	@Override
+	String wordLemma(final int word){
+
+		return this.wordLemma[word];
+
+	}
+
+	@Override
+	String wordPron(final int word){
+
+		return this.wordPron[word];
+
+	}
+
+	@Override
+	Pos wordPos(final int word){
+
+		return POSES[this.wordPos[word]];
+
+	}
+
+	@Override
+	int synsetCount(){
+
+		return this.synsetIds.length;
+
+	}
+
+	@Override
+	int findSynset(final String synsetid){
+
+		if(synsetid == null){
+
+			return -1;
+
+		}
+		return Arrays.binarySearch(this.synsetIds, synsetid);
+
+	}
+
+	@Override
+	int[] findSynsetsByName(final String name){
+
+		final int begin = this.lowerBoundName(name);
+		int end = begin;
+		while(end != this.synsetsByName.length && name.equals(this.synsetName[this.synsetsByName[end]])){
+
+			++end;
+
+		}
+		return Arrays.copyOfRange(this.synsetsByName, begin, end);
+
+	}
+
+	@Override
+	String synsetId(final int synset){
+
+		return this.synsetIds[synset];
+
+	}
+
+	@Override
+	Pos synsetPos(final int synset){
+
+		return POSES[this.synsetPos[synset]];
+
+	}
+
+	@Override
+	String synsetName(final int synset){
+
+		return this.synsetName[synset];
+
+	}
+
+	@Override
+	String synsetSrc(final int synset){
+
+		return this.synsetSrc[synset];
+
+	}
+
+	@Override
+	int senseCount(){
+
+		return this.senseSynset.length;
+
+	}
+
+	@Override
+	int wordSenseBegin(final int word){
+
+		return this.wordSenseStart[word];
+
+	}
+
+	@Override
+	int wordSenseEnd(final int word){
+
+		return this.wordSenseStart[word + 1];
+
+	}
+
+	@Override
+	int wordSense(final int i){
+
+		return this.wordSenses[i];
+
+	}
+
+	@Override
+	int synsetSenseBegin(final int synset){
+
+		return this.synsetSenseStart[synset];
+
+	}
+
+	@Override
+	int synsetSenseEnd(final int synset){
+
+		return this.synsetSenseStart[synset + 1];
+
+	}
+
+	@Override
+	int synsetSense(final int i){
+
+		return this.synsetSenses[i];
+
+	}
+
+	@Override
+	int senseSynset(final int sense){
+
+		return this.senseSynset[sense];
+
+	}
+
+	@Override
+	int senseWord(final int sense){
+
+		return this.senseWord[sense];
+
+	}
+
+	@Override
+	Lang senseLang(final int sense){
+
+		return LANGS[this.senseLang[sense]];
+
+	}
+
+	@Override
+	int senseRank(final int sense){
+
+		return this.senseRank[sense];
+
+	}
+
+	@Override
+	int senseLexid(final int sense){
+
+		return this.senseLexid[sense];
+
+	}
+
+	@Override
+	int senseFreq(final int sense){
+
+		return this.senseFreq[sense];
+
+	}
+
+	@Override
+	String senseSrc(final int sense){
+
+		return this.senseSrc[sense];
+
+	}
+
+	@Override
+	int defBegin(final int synset){
+
+		return this.defStart[synset];
+
+	}
+
+	@Override
+	int defEnd(final int synset){
+
+		return this.defStart[synset + 1];
+
+	}
+
+	@Override
+	Lang defLang(final int def){
+
+		return LANGS[this.defLang[def]];
+
+	}
+
+	@Override
+	String defText(final int def){
+
+		return this.defText[def];
+
+	}
+
+	@Override
+	int defSid(final int def){
+
+		return this.defSid[def];
+
+	}
+
+	@Override
+	int linkCount(){
+
+		return this.linkTo.length;
+
+	}
+
+	@Override
+	int linkBegin(final int synset){
+
+		return this.linkStart[synset];
+
+	}
+
+	@Override
+	int linkEnd(final int synset){
+
+		return this.linkStart[synset + 1];
+
+	}
+
+	@Override
+	int linkTo(final int link){
+
+		return this.linkTo[link];
+
+	}
+
+	@Override
+	Link linkType(final int link){
+
+		return LINKS[this.linkType[link]];
+
+	}
+
+	@Override
+	String linkSrc(final int link){
+
+		return this.linkSrc[link];
+
+	}
+
+	/////////////////////////////////////////////////////////////////////////////////////
+	// Private methods
+	/////////////////////////////////////////////////////////////////////////////////////
+	private int lowerBoundLemma(final String lemma){
+
+		int low = 0;
+		int high = this.wordsByLemma.length;
+		while(low < high){
+
+			final int mid = (low + high) >>> 1;
+			if(compareNullable(this.wordLemma[this.wordsByLemma[mid]], lemma) < 0){
+
+				low = mid + 1;
+
+			}else{
+
+				high = mid;
+
+			}
+
+		}
+		return low;
+
+	}
+
+	private int lowerBoundName(final String name){
+
+		int low = 0;
+		int high = this.synsetsByName.length;
+		while(low < high){
+
+			final int mid = (low + high) >>> 1;
+			if(compareNullable(this.synsetName[this.synsetsByName[mid]], name) < 0){
+
+				low = mid + 1;
+
+			}else{
+
+				high = mid;
+
+			}
+
+		}
+		return low;
+
+	}
+
+	/////////////////////////////////////////////////////////////////////////////////////
+	// Static methods
+	/////////////////////////////////////////////////////////////////////////////////////
+	/**
+	 * 指定したコネクションから各テーブルを読み込む．
+	 *
+	 * @param connection 日本語WordNetデータベースへ接続済みのコネクション
+	 * @return 読み込んだスナップショット
+	 * @throws SQLException データベースへのアクセスにエラーが発生した場合
+	 */
+	static Snapshot load(final Connection connection) throws SQLException{
+		assert connection != null : "connection is null";
+
+		final Statement stat = connection.createStatement();
+		try{
+
+			return new Snapshot(stat);
+
+		}finally{
+
+			stat.close();
+
+		}
+
+	}
+
+	static int compareNullable(final String a, final String b){
+
+		if(a == null){
+
+			return b == null ? 0 : -1;
+
+		}
+		if(b == null){
+
+			return 1;
+
+		}
+		return a.compareTo(b);
+
+	}
+
+	private static int count(final Statement stat, final String table) throws SQLException{
+
+		final ResultSet rs = stat.executeQuery(String.format("select count(*) from %s", table));
+		try{
+
+			return rs.next() ? rs.getInt(1) : 0;
+
+		}finally{
+
+			rs.close();
+
+		}
+
+	}
+
+	/**
+	 * 0からsize-1までの番号を，比較器に従って安定ソートした配列を作成する．
+	 */
+	private static int[] sort(final int size, final Comparator<Integer> comparator){
+
+		final Integer[] boxed = new Integer[size];
+		for(int i = 0; i != size; ++i){
+
+			boxed[i] = i;
+
+		}
+		Arrays.sort(boxed, comparator);
+
+		final int[] ret = new int[size];
+		for(int i = 0; i != size; ++i){
+
+			ret[i] = boxed[i];
+
+		}
+		return ret;
+
+	}
+
+	/**
+	 * keysの値ごとに要素番号をまとめる（計数ソート）．
+	 * 値kを持つ要素の番号は，戻り値の start[k] から start[k+1] の範囲に元の順序で格納されます．
+	 */
+	private static int[] group(final int[] keys, final int[] start){
+
+		for(final int k : keys){
+
+			++start[k + 1];
+
+		}
+		for(int i = 1; i != start.length; ++i){
+
+			start[i] += start[i - 1];
+
+		}
+
+		final int[] next = Arrays.copyOf(start, start.length - 1);
+		final int[] ret = new int[keys.length];
+		for(int i = 0; i != keys.length; ++i){
+
+			ret[next[keys[i]]++] = i;
+
+		}
+		return ret;
+
+	}
+
+}
@@ -0,0 +1,733 @@
+/*
+ * Copyright 2009 Junpei Kawamoto
+ *
+ * This file is part of Japanese WordNet wrapper for Java (Wnj2).
+ * Wnj2 is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Wnj2 is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Wnj2.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.wnj2;
+
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.function.IntFunction;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+/**
+ * データベースの内容をメモリ上に読み込み，以降の検索をすべてメモリ上で行うWnj2．
+ *
+ * <p>
+ * 作成時にWORD, SENSE, SYNSET, SYNSET_DEF, SYNLINKの各テーブルを一度だけ読み込み，
+ * プリミティブ配列と整数キーの索引に展開します．
+ * 以降のfindWordsやSynset.getSensesなどの呼び出しはデータベースへアクセスしません．
+ * 取得できるWord, Synset, Sense, Synlinkオブジェクトは通常のWnj2と同じものです．
+ * </p>
+ * <blockquote><pre>
+ * Wnj2 wn = new SnapshotWnj2(new File("path_to_the_data_file"));
+ * </pre></blockquote>
+ * <p>
+ * 読み込み後の内容は変更されないため，このオブジェクトは複数のスレッドから同時に利用できます．
+ * SQL文を実行しないため，問い合わせの統計情報（getQueryStatistics）は記録しません．
+ * </p>
+ *
+ * @see Wnj2
+ * @see MappedWnj2
+ */
+public class SnapshotWnj2 extends Wnj2{
+
+	private final Dictionary dictionary;
+
+	/////////////////////////////////////////////////////////////////////////////////////
+	// Constractors
+	/////////////////////////////////////////////////////////////////////////////////////
+	/**
+	 * 指定したSQLiteデータベースファイルの内容を読み込んだSnapshotWnj2インスタンスを作成する．
+	 * 読み込みが終わるとデータベースへの接続は切断されます．
+	 *
+	 * @param file 日本語WordNetデータベースファイル
+	 *
+	 * @throws ClassNotFoundException SQLite用JDBSドライバの読み込みに失敗した場合
+	 * @throws SQLException 日本語WordNetデータベースファイルに関する入出力エラーが発生した場合
+	 * @throws FileNotFoundException 指定されたファイルが見つからない場合
+	 */
+	public SnapshotWnj2(final File file) throws ClassNotFoundException, SQLException, FileNotFoundException{
+		this(load(file));
+
+	}
+
+	/**
+	 * データベースへのコネクションを指定してSnapshotWnj2インスタンスを作成する．
+	 * 指定したコネクションは読み込みにのみ使用し，閉じません．
+	 *
+	 * @param connection 日本語WordNetデータベースへ接続済みのコネクション
+	 * @throws SQLException データベースへのアクセスにエラーが発生した場合
+	 */
+	public SnapshotWnj2(final Connection connection) throws SQLException{
+		this(Snapshot.load(connection));
+
+	}
+
+	SnapshotWnj2(final Dictionary dictionary){
+		super();
+		assert dictionary != null : "dictionary is null";
+
+		this.dictionary = dictionary;
+
+	}
+
+	/////////////////////////////////////////////////////////////////////////////////////
+	// Public methods
+	/////////////////////////////////////////////////////////////////////////////////////
+	/* (非 Javadoc)
+	 * @see org.wnj2.Wnj2#findWords(java.lang.String)
+	 */
+	@Override
+	public List<Word> findWords(final String lemma) throws SQLException {
+		assert lemma != null : "lemma is null";
+
+		return this.collectWords(lemma.toLowerCase(), null);
+
+	}
+
+	/* (非 Javadoc)
+	 * @see org.wnj2.Wnj2#findWords(java.lang.String, org.wnj2.Pos)
+	 */
+	@Override
+	public List<Word> findWords(final String lemma, final Pos pos) throws SQLException {
+		assert lemma != null : "lemma is null";
+		assert pos != null : "pos is null";
+
+		return this.collectWords(lemma.toLowerCase(), pos);
+
+	}
+
+	/* (非 Javadoc)
+	 * @see org.wnj2.Wnj2#findSynsets(java.lang.String, org.wnj2.Pos)
+	 */
+	@Override
+	public List<Synset> findSynsets(final String lemma, final Pos pos) throws SQLException {
+		assert lemma != null : "lemma is null";
+		assert pos != null : "pos is null";
+
+		final Dictionary d = this.dictionary;
+		final List<Synset> ret = new ArrayList<Synset>();
+		for(final int synset : d.findSynsetsByName(lemma)){
+
+			if(d.synsetPos(synset) == pos){
+
+				ret.add(this.createSynset(synset));
+
+			}
+
+		}
+
+		return ret;
+
+	}
+
+	/* (非 Javadoc)
+	 * @see org.wnj2.Wnj2#streamWords(java.lang.String)
+	 */
+	@Override
+	public Stream<Word> streamWords(final String lemma) throws SQLException {
+
+		return this.findWords(lemma).stream();
+
+	}
+
+	/* (非 Javadoc)
+	 * @see org.wnj2.Wnj2#streamWords(java.lang.String, org.wnj2.Pos)
+	 */
+	@Override
+	public Stream<Word> streamWords(final String lemma, final Pos pos) throws SQLException {
+
+		return this.findWords(lemma, pos).stream();
+
+	}
+
+	/* (非 Javadoc)
+	 * @see org.wnj2.Wnj2#streamSynsets(java.lang.String, org.wnj2.Pos)
+	 */
+	@Override
+	public Stream<Synset> streamSynsets(final String lemma, final Pos pos) throws SQLException {
+
+		return this.findSynsets(lemma, pos).stream();
+
+	}
+
+	/* (非 Javadoc)
+	 * @see org.wnj2.Wnj2#streamSenses(org.wnj2.Word)
+	 */
+	@Override
+	public Stream<Sense> streamSenses(final Word word) throws SQLException {
+		assert word != null : "word is null";
+
+		return this.findSenses(word).stream();
+
+	}
+
+	/* (非 Javadoc)
+	 * @see org.wnj2.Wnj2#streamSenses(org.wnj2.Synset)
+	 */
+	@Override
+	public Stream<Sense> streamSenses(final Synset synset) throws SQLException {
+		assert synset != null : "synset is null";
+
+		return this.findSenses(synset).stream();
+
+	}
+
+	/* (非 Javadoc)
+	 * @see org.wnj2.Wnj2#streamSynlinks(org.wnj2.Synset)
+	 */
+	@Override
+	public Stream<Synlink> streamSynlinks(final Synset synset) throws SQLException {
+		assert synset != null : "synset is null";
+
+		return this.findSynlinks(synset).stream();
+
+	}
+
+	/* (非 Javadoc)
+	 * @see org.wnj2.Wnj2#allWords()
+	 */
+	@Override
+	public Stream<Word> allWords() throws SQLException {
+
+		return IntStream.range(0, this.dictionary.wordCount()).mapToObj(new IntFunction<Word>(){
+
+			@Override
+			public Word apply(final int i) {
+
+				return createWord(i);
+
+			}
+
+		});
+
+	}
+
+	/* (非 Javadoc)
+	 * @see org.wnj2.Wnj2#allWords(int)
+	 */
+	@Override
+	public Stream<Word> allWords(final int partitions) throws SQLException {
+		assert partitions > 0 : "partitions must be positive";
+
+		// メモリ上の配列は範囲の分割をStreamに任せる
+		return this.allWords().parallel();
+
+	}
+
+	/* (非 Javadoc)
+	 * @see org.wnj2.Wnj2#allSynsets()
+	 */
+	@Override
+	public Stream<Synset> allSynsets() throws SQLException {
+
+		return IntStream.range(0, this.dictionary.synsetCount()).mapToObj(new IntFunction<Synset>(){
+
+			@Override
+			public Synset apply(final int i) {
+
+				return createSynset(i);
+
+			}
+
+		});
+
+	}
+
+	/* (非 Javadoc)
+	 * @see org.wnj2.Wnj2#allSynsets(int)
+	 */
+	@Override
+	public Stream<Synset> allSynsets(final int partitions) throws SQLException {
+		assert partitions > 0 : "partitions must be positive";
+
+		return this.allSynsets().parallel();
+
+	}
+
+	/* (非 Javadoc)
+	 * @see org.wnj2.Wnj2#allSenses()
+	 */
+	@Override
+	public Stream<Sense> allSenses() throws SQLException {
+
+		final Dictionary d = this.dictionary;
+		return IntStream.range(0, d.synsetCount()).mapToObj(new IntFunction<Stream<Sense>>(){
+
+			@Override
+			public Stream<Sense> apply(final int synset) {
+
+				return IntStream.range(d.synsetSenseBegin(synset), d.synsetSenseEnd(synset)).mapToObj(new IntFunction<Sense>(){
+
+					@Override
+					public Sense apply(final int i) {
+
+						return createSense(d.synsetSense(i));
+
+					}
+
+				});
+
+			}
+
+		}).flatMap(Function.<Stream<Sense>>identity());
+
+	}
+
+	/* (非 Javadoc)
+	 * @see org.wnj2.Wnj2#allSenses(int)
+	 */
+	@Override
+	public Stream<Sense> allSenses(final int partitions) throws SQLException {
+		assert partitions > 0 : "partitions must be positive";
+
+		return this.allSenses().parallel();
+
+	}
+
+	/* (非 Javadoc)
+	 * @see org.wnj2.Wnj2#allSynlinks()
+	 */
+	@Override
+	public Stream<Synlink> allSynlinks() throws SQLException {
+
+		final Dictionary d = this.dictionary;
+		return IntStream.range(0, d.synsetCount()).mapToObj(new IntFunction<Stream<Synlink>>(){
+
+			@Override
+			public Stream<Synlink> apply(final int synset) {
+
+				return IntStream.range(d.linkBegin(synset), d.linkEnd(synset)).mapToObj(new IntFunction<Synlink>(){
+
+					@Override
+					public Synlink apply(final int i) {
+
+						return new Synlink(SnapshotWnj2.this, d.synsetId(synset), d.synsetId(d.linkTo(i)), d.linkType(i), d.linkSrc(i));
+
+					}
+
+				});
+
+			}
+
+		}).flatMap(Function.<Stream<Synlink>>identity());
+
+	}
+
+	/* (非 Javadoc)
+	 * @see org.wnj2.Wnj2#allSynlinks(int)
+	 */
+	@Override
+	public Stream<Synlink> allSynlinks(final int partitions) throws SQLException {
+		assert partitions > 0 : "partitions must be positive";
+
+		return this.allSynlinks().parallel();
+
+	}
+
+	/* (非 Javadoc)
+	 * @see org.wnj2.Wnj2#findWordsByIds(int[])
+	 */
+	@Override
+	public List<Word> findWordsByIds(final int[] wordids) throws SQLException {
+		assert wordids != null : "wordids is null";
+
+		final List<Word> ret = new ArrayList<Word>();
+		for(final int id : wordids){
+
+			final int i = this.dictionary.findWord(id);
+			if(i >= 0){
+
+				ret.add(this.createWord(i));
+
+			}
+
+		}
+
+		return ret;
+
+	}
+
+	/* (非 Javadoc)
+	 * @see org.wnj2.Wnj2#findSynsetsByIds(java.util.Collection)
+	 */
+	@Override
+	public List<Synset> findSynsetsByIds(final Collection<String> synsetids) throws SQLException {
+		assert synsetids != null : "synsetids is null";
+
+		final List<Synset> ret = new ArrayList<Synset>();
+		for(final String id : synsetids){
+
+			final int i = this.dictionary.findSynset(id);
+			if(i >= 0){
+
+				ret.add(this.createSynset(i));
+
+			}
+
+		}
+
+		return ret;
+
+	}
+
+	/* (非 Javadoc)
+	 * @see org.wnj2.Wnj2#getSynsetFrequencies()
+	 */
+	@Override
+	public Map<String, Integer> getSynsetFrequencies() throws SQLException {
+
+		final Dictionary d = this.dictionary;
+		final Map<String, Integer> ret = new HashMap<String, Integer>();
+		for(int i = 0; i != d.synsetCount(); ++i){
+
+			if(d.synsetSenseBegin(i) == d.synsetSenseEnd(i)){
+
+				continue;
+
+			}
+
+			int freq = 0;
+			for(int j = d.synsetSenseBegin(i); j != d.synsetSenseEnd(i); ++j){
+
+				freq += d.senseFreq(d.synsetSense(j));
+
+			}
+			ret.put(d.synsetId(i), freq);
+
+		}
+
+		return ret;
+
+	}
+
+	/////////////////////////////////////////////////////////////////////////////////////
+	// Package private methods
+	/////////////////////////////////////////////////////////////////////////////////////
+	Dictionary getDictionary(){
+
+		return this.dictionary;
+
+	}
+
+	@Override
+	WordTable loadWordTable() throws SQLException {
+
+		final Dictionary d = this.dictionary;
+		final WordTable ret = new WordTable();
+		for(int i = 0; i != d.wordCount(); ++i){
+
+			int freq = 0;
+			for(int j = d.wordSenseBegin(i); j != d.wordSenseEnd(i); ++j){
+
+				freq += d.senseFreq(d.wordSense(j));
+
+			}
+			ret.add(d.wordId(i), d.wordLang(i), d.wordLemma(i), d.wordPron(i), d.wordPos(i), freq);
+
+		}
+
+		return ret;
+
+	}
+
+	@Override
+	DefinitionTable loadDefinitionTable() throws SQLException {
+
+		final Dictionary d = this.dictionary;
+		final DefinitionTable ret = new DefinitionTable();
+		for(int i = 0; i != d.synsetCount(); ++i){
+
+			for(int j = d.defBegin(i); j != d.defEnd(i); ++j){
+
+				ret.add(d.synsetId(i), d.defLang(j), d.defText(j));
+
+			}
+
+		}
+
+		return ret;
+
+	}
+
+	@Override
+	Word findWord(final Word word) throws SQLException {
+
+		final int i = this.dictionary.findWord(word.getWordID());
+		if(i < 0){
+
+			return null;
+
+		}
+
+		return this.createWord(i);
+
+	}
+
+	@Override
+	List<Sense> findSenses(final Word word) throws SQLException {
+
+		final Dictionary d = this.dictionary;
+		final List<Sense> ret = new ArrayList<Sense>();
+		final int i = d.findWord(word.getWordID());
+		if(i >= 0){
+
+			for(int j = d.wordSenseBegin(i); j != d.wordSenseEnd(i); ++j){
+
+				ret.add(this.createSense(d.wordSense(j)));
+
+			}
+
+		}
+
+		return ret;
+
+	}
+
+	@Override
+	List<Sense> findSenses(final Synset synset) throws SQLException {
+
+		return this.findSenses(synset, null);
+
+	}
+
+	@Override
+	List<Sense> findSenses(final Synset synset, final Lang lang) throws SQLException {
+
+		final Dictionary d = this.dictionary;
+		final List<Sense> ret = new ArrayList<Sense>();
+		final int i = d.findSynset(synset.getSynsetID());
+		if(i >= 0){
+
+			for(int j = d.synsetSenseBegin(i); j != d.synsetSenseEnd(i); ++j){
+
+				final int sense = d.synsetSense(j);
+				if(lang == null || d.senseLang(sense) == lang){
+
+					ret.add(this.createSense(sense));
+
+				}
+
+			}
+
+		}
+
+		return ret;
+
+	}
+
+	@Override
+	Synset findSynset(final Synset synset) throws SQLException {
+
+		final int i = this.dictionary.findSynset(synset.getSynsetID());
+		if(i < 0){
+
+			return null;
+
+		}
+
+		return this.createSynset(i);
+
+	}
+
+	@Override
+	List<Synset> findSynsets(final Synset synset, final Link link) throws SQLException {
+
+		final Dictionary d = this.dictionary;
+		final List<Synset> ret = new ArrayList<Synset>();
+		final int i = d.findSynset(synset.getSynsetID());
+		if(i >= 0){
+
+			for(int j = d.linkBegin(i); j != d.linkEnd(i); ++j){
+
+				if(d.linkType(j) == link){
+
+					ret.add(this.createSynset(d.linkTo(j)));
+
+				}
+
+			}
+
+		}
+
+		return ret;
+
+	}
+
+	@Override
+	Map<String, List<Synset>> findConnectedSynsets(final Collection<String> synsetids, final Link link) throws SQLException {
+
+		final Dictionary d = this.dictionary;
+		final Map<String, List<Synset>> ret = new LinkedHashMap<String, List<Synset>>();
+		for(final String id : synsetids){
+
+			final int i = d.findSynset(id);
+			if(i < 0 || ret.containsKey(id)){
+
+				continue;
+
+			}
+
+			List<Synset> list = null;
+			for(int j = d.linkBegin(i); j != d.linkEnd(i); ++j){
+
+				if(d.linkType(j) == link){
+
+					if(list == null){
+
+						list = new ArrayList<Synset>();
+						ret.put(id, list);
+
+					}
+					list.add(this.createSynset(d.linkTo(j)));
+
+				}
+
+			}
+
+		}
+
+		return ret;
+
+	}
+
+	@Override
+	SynsetDef findSynsetDef(final Synset synset) throws SQLException {
+
+		final Dictionary d = this.dictionary;
+		final int i = d.findSynset(synset.getSynsetID());
+		if(i < 0 || d.defBegin(i) == d.defEnd(i)){
+
+			return null;
+
+		}
+
+		final int j = d.defBegin(i);
+		return new SynsetDef(this, synset, d.defLang(j), d.defText(j), d.defSid(j));
+
+	}
+
+	@Override
+	List<Synlink> findSynlinks(final Synset synset) throws SQLException {
+
+		return this.findSynlinks(synset, null);
+
+	}
+
+	@Override
+	List<Synlink> findSynlinks(final Synset synset, final Link link) throws SQLException {
+
+		final Dictionary d = this.dictionary;
+		final List<Synlink> ret = new ArrayList<Synlink>();
+		final int i = d.findSynset(synset.getSynsetID());
+		if(i >= 0){
+
+			for(int j = d.linkBegin(i); j != d.linkEnd(i); ++j){
+
+				if(link == null || d.linkType(j) == link){
+
+					ret.add(new Synlink(this, synset.getSynsetID(), d.synsetId(d.linkTo(j)), d.linkType(j), d.linkSrc(j)));
+
+				}
+
+			}
+
+		}
+
+		return ret;
+
+	}
+
+	Word createWord(final int i){
+
+		final Dictionary d = this.dictionary;
+		return Word.create(this, d.wordId(i), d.wordLang(i), d.wordLemma(i), d.wordPron(i), d.wordPos(i));
+
+	}
+
+	Synset createSynset(final int i){
+
+		final Dictionary d = this.dictionary;
+		return Synset.create(this, d.synsetId(i), d.synsetPos(i), d.synsetName(i), d.synsetSrc(i));
+
+	}
+
+	Sense createSense(final int i){
+
+		final Dictionary d = this.dictionary;
+		return new Sense(this, this.createSynset(d.senseSynset(i)), this.createWord(d.senseWord(i)), d.senseLang(i).toString(), d.senseRank(i), d.senseLexid(i), d.senseFreq(i), d.senseSrc(i));
+
+	}
+
+	/////////////////////////////////////////////////////////////////////////////////////
+	// Private methods
+	/////////////////////////////////////////////////////////////////////////////////////
+	private List<Word> collectWords(final String lemma, final Pos pos){
+
+		final Dictionary d = this.dictionary;
+		final List<Word> ret = new ArrayList<Word>();
+		for(final int word : d.findWordsByLemma(lemma)){
+
+			if(pos == null || d.wordPos(word) == pos){
+
+				ret.add(this.createWord(word));
+
+			}
+
+		}
+
+		return ret;
+
+	}
+
+	/////////////////////////////////////////////////////////////////////////////////////
+	// Static methods
+	/////////////////////////////////////////////////////////////////////////////////////
+	private static Snapshot load(final File file) throws ClassNotFoundException, SQLException, FileNotFoundException{
+		assert file != null : "file is null";
+
+		if(!file.exists()){
+
+			throw new FileNotFoundException(file.toString());
+
+		}
+
+		Class.forName("org.sqlite.JDBC");
+		final Connection connection = Wnj2.openSQLite(file);
+		try{
+
+			return Snapshot.load(connection);
+
+		}finally{
+
+			connection.close();
+
+		}
+
+	}
+
+}
@@ -19,6 +19,7 @@
 package org.wnj2;
 
 import java.sql.SQLException;
+import java.util.Iterator;
 import java.util.List;
 
 /**
@@ -166,6 +167,85 @@ public abstract class Synset {
 
 	}
 
+	/**
+	 * このオブジェクトから指定されたリンクを繰り返したどって到達できるSynset集合を取得する．
+	 *
+	 * <p>
+	 * 例えばLink.hypeを指定すると，最上位までのすべての上位語を取得できます．
+	 * 結果は近いものから順に並び，このオブジェクト自身は含みません．
+	 * 同じSynsetは一度だけ現れ，循環するリンクがあっても停止します．
+	 * 再帰問い合わせ（WITH RECURSIVE）を使えるデータベースでは一回の問い合わせで，
+	 * そうでない場合は深さ一段ごとに一回の問い合わせで取得します．
+	 * </p>
+	 *
+	 * @param link たどるリンクの種類
+	 * @param maxDepth たどるリンクの最大数，制限しない場合はInteger.MAX_VALUE
+	 * @return 到達できるSynsetのリスト
+	 * @throws SQLException データベースへのアクセスにエラーが発生した場合
+	 */
+	public List<Synset> getClosure(final Link link, final int maxDepth) throws SQLException{
+		assert link != null : "link is null";
+		assert maxDepth >= 0 : "maxDepth is negative";
+
+		return this.parent.findClosure(this, link, maxDepth);
+
+	}
+
+	/**
+	 * 指定されたリンクを繰り返したどって到達できるSynsetまでの最短距離のうち，最大のものを取得する．
+	 *
+	 * <p>
+	 * 例えば名詞のSynsetにLink.hypeを指定すると，最上位のSynsetまでの距離が得られます．
+	 * </p>
+	 *
+	 * @param link たどるリンクの種類
+	 * @return 最短距離の最大値，このSynsetから指定されたリンクが出ていない場合は0
+	 * @throws SQLException データベースへのアクセスにエラーが発生した場合
+	 */
+	public int getDepth(final Link link) throws SQLException{
+		assert link != null : "link is null";
+
+		return this.parent.findDepth(this, link);
+
+	}
+
+	/**
+	 * 指定されたリンクをたどって，このオブジェクトから指定されたSynsetへ至る最短経路を取得する．
+	 *
+	 * @param target 経路の終点
+	 * @param link たどるリンクの種類
+	 * @return このオブジェクトからtargetまでのSynsetのリスト（両端を含む），到達できない場合は空のリスト
+	 * @throws SQLException データベースへのアクセスにエラーが発生した場合
+	 */
+	public List<Synset> getPath(final Synset target, final Link link) throws SQLException{
+		assert target != null : "target is null";
+		assert link != null : "link is null";
+
+		return this.parent.findPath(this, target, link);
+
+	}
+
+	/**
+	 * getClosureと同じSynsetを，必要になった時点で一段ずつ取得するイテレータを取得する．
+	 *
+	 * <p>
+	 * 一段分のSynsetを返し終えた時点で，次の段をまとめて問い合わせます．
+	 * 問い合わせ中にエラーが発生した場合，イテレータはUncheckedSQLExceptionを送出します．
+	 * </p>
+	 *
+	 * @param link たどるリンクの種類
+	 * @param maxDepth たどるリンクの最大数，制限しない場合はInteger.MAX_VALUE
+	 * @return 到達できるSynsetを近いものから順に返すイテレータ
+	 * @see #getClosure(Link, int)
+	 */
+	public Iterator<Synset> iterateClosure(final Link link, final int maxDepth){
+		assert link != null : "link is null";
+		assert maxDepth >= 0 : "maxDepth is negative";
+
+		return new ClosureIterator(this.parent, this, link, maxDepth);
+
+	}
+
 	/**
 	 * このオブジェクトと指定されたオブジェクトを比較します．
 	 * このメソッドは，SynsetIDが等しい場合にtrueを返します．
@@ -0,0 +1,167 @@
+/*
+ * Copyright 2009 Junpei Kawamoto
+ *
+ * This file is part of Japanese WordNet wrapper for Java (Wnj2).
+ * Wnj2 is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Wnj2 is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Wnj2.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.wnj2;
+
+import java.util.LinkedHashMap;
+
+/**
+ * Window TinyLFU方式のキャッシュ．
+ *
+ * <p>
+ * 容量の1%を新しい要素を受け入れるLRUのウィンドウに，残りを本体に割り当てます．
+ * 本体は試用領域と保護領域（本体の80%）からなるSegmented LRUです．
+ * ウィンドウから溢れた要素は，本体から追い出される候補よりも推定参照頻度が高い場合にのみ本体へ入ります．
+ * </p>
+ */
+class TinyLfuCache<K, V> extends IdentityCache<K, V>{
+
+	private final LinkedHashMap<K, V> window = new LinkedHashMap<K, V>(16, 0.75f, true);
+	private final LinkedHashMap<K, V> probation = new LinkedHashMap<K, V>(16, 0.75f, true);
+	private final LinkedHashMap<K, V> protect = new LinkedHashMap<K, V>(16, 0.75f, true);
+
+	private final int windowCapacity;
+	private final int mainCapacity;
+	private final int protectCapacity;
+
+	private final FrequencySketch sketch;
+
+	/////////////////////////////////////////////////////////////////////////////////////
+	// Constractor
+	/////////////////////////////////////////////////////////////////////////////////////
+	TinyLfuCache(final int capacity){
+		super(capacity);
+
+		this.windowCapacity = Math.max(1, capacity / 100);
+		this.mainCapacity = Math.max(0, capacity - this.windowCapacity);
+		this.protectCapacity = this.mainCapacity * 8 / 10;
+		this.sketch = new FrequencySketch(capacity);
+
+	}
+
+	/////////////////////////////////////////////////////////////////////////////////////
+	// Protected methods
+	/////////////////////////////////////////////////////////////////////////////////////
+	@Override
+	protected V lookup(final K key) {
+
+		this.sketch.increment(key);
+
+		V ret = this.window.get(key);
+		if(ret != null){
+
+			return ret;
+
+		}
+
+		ret = this.protect.get(key);
+		if(ret != null){
+
+			return ret;
+
+		}
+
+		ret = this.probation.remove(key);
+		if(ret != null){
+
+			// 試用領域で再び参照されたものは保護領域へ昇格させる
+			this.protect.put(key, ret);
+			if(this.protect.size() > this.protectCapacity){
+
+				final K demoted = eldest(this.protect);
+				this.probation.put(demoted, this.protect.remove(demoted));
+
+			}
+
+		}
+		return ret;
+
+	}
+
+	@Override
+	protected V peek(final K key) {
+
+		V ret = this.window.get(key);
+		if(ret == null){
+
+			ret = this.protect.get(key);
+
+		}
+		if(ret == null){
+
+			ret = this.probation.get(key);
+
+		}
+		return ret;
+
+	}
+
+	@Override
+	protected int insert(final K key, final V value) {
+
+		this.window.put(key, value);
+		if(this.window.size() <= this.windowCapacity){
+
+			return 0;
+
+		}
+
+		final K candidate = eldest(this.window);
+		final V candidateValue = this.window.remove(candidate);
+		if(this.probation.size() + this.protect.size() < this.mainCapacity){
+
+			this.probation.put(candidate, candidateValue);
+			return 0;
+
+		}
+
+		final LinkedHashMap<K, V> victims = this.probation.isEmpty() ? this.protect : this.probation;
+		if(victims.isEmpty()){
+
+			return 1;
+
+		}
+
+		final K victim = eldest(victims);
+		if(this.sketch.frequency(candidate) > this.sketch.frequency(victim)){
+
+			victims.remove(victim);
+			this.probation.put(candidate, candidateValue);
+
+		}
+		return 1;
+
+	}
+
+	@Override
+	protected int size() {
+
+		return this.window.size() + this.probation.size() + this.protect.size();
+
+	}
+
+	/////////////////////////////////////////////////////////////////////////////////////
+	// Private methods
+	/////////////////////////////////////////////////////////////////////////////////////
+	private static <K> K eldest(final LinkedHashMap<K, ?> map){
+
+		return map.keySet().iterator().next();
+
+	}
+
+}
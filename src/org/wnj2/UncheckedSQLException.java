@@ -0,0 +1,60 @@
+/*
+ * Copyright 2009 Junpei Kawamoto
+ *
+ * This file is part of Japanese WordNet wrapper for Java (Wnj2).
+ * Wnj2 is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Wnj2 is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Wnj2.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.wnj2;
+
+import java.sql.SQLException;
+
+/**
+ * SQLExceptionを送出できない箇所で，データベースへのアクセスに発生したエラーを伝える例外．
+ *
+ * @see Synset#iterateClosure(Link, int)
+ */
+public class UncheckedSQLException extends RuntimeException {
+
+	private static final long serialVersionUID = 1L;
+
+	/////////////////////////////////////////////////////////////////////////////////////
+	// Constractor
+	/////////////////////////////////////////////////////////////////////////////////////
+	/**
+	 * 原因となったSQLExceptionを指定して例外を作成する．
+	 *
+	 * @param cause 原因となったSQLException
+	 */
+	public UncheckedSQLException(final SQLException cause){
+		super(cause.getMessage(), cause);
+
+	}
+
+	/////////////////////////////////////////////////////////////////////////////////////
+	// Public methods
+	/////////////////////////////////////////////////////////////////////////////////////
+	/**
+	 * 原因となったSQLExceptionを取得する．
+	 *
+	 * @return 原因となったSQLException
+	 */
+	@Override
+	public synchronized SQLException getCause() {
+
+		return (SQLException)super.getCause();
+
+	}
+
+}
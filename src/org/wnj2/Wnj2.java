@@ -22,15 +22,30 @@ import java.io.Closeable;
 import java.io.File;
 import java.io.FileNotFoundException;
 import java.io.IOException;
-import java.lang.ref.Reference;
-import java.lang.ref.SoftReference;
+import java.lang.management.ManagementFactory;
 import java.sql.Connection;
 import java.sql.DriverManager;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.sql.Statement;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import javax.sql.DataSource;
 
 /**
  * データベースへの接続を管理する基本オブジェクト．
@@ -69,53 +84,207 @@ import java.util.List;
  * どちらの方法で作成した場合も，使用後はcloseメソッドを呼び出して下さい．データベースへの接続を切ります．
  * </p>
  *
+ * <p>
+ * Wnj2は複数のスレッドから同時に利用できます．
+ * データファイルまたはデータソースを指定して作成した場合，Wnj2はコネクションのプールを持ち，
+ * 各検索はプールから借りたコネクションとそのコネクション専用のPreparedStatementを使って実行されます．
+ * </p>
+ *
  *  @see Word
  *  @see Synset
+ *  @see SnapshotWnj2
  *
  */
 public class Wnj2 implements Closeable{
 
-	private final Connection connection;
+	/** SQLiteデータベースファイルを指定した場合のコネクション数の上限 */
+	private static final int DEFAULT_POOL_SIZE = Runtime.getRuntime().availableProcessors();
+
+	/** READ_ONLYで開いたSQLiteデータベースをメモリマップする最大のバイト数 */
+	private static final long SQLITE_MMAP_SIZE = 1L << 30;
+
+	/** READ_ONLYで開いたSQLiteデータベースのコネクションごとのページキャッシュのキロバイト数 */
+	private static final int SQLITE_CACHE_SIZE = 8192;
+
+	/** IN_MEMORYで開いたデータベースの名前の通し番号 */
+	private static final AtomicInteger MEMORY_DATABASES = new AtomicInteger();
+
+	/** registerMBeanで登録する名前の通し番号 */
+	private static final AtomicInteger MBEANS = new AtomicInteger();
+
+	private final ConnectionPool pool;
+
+	/** READ_ONLYまたはIN_MEMORYで開いたため，データベースを変更できない場合はtrue */
+	private final boolean queryOnly;
 
 	private static final String FIND_WORD_BY_LEMMA = "select * from WORD where lemma = ?;";
 	private static final String FIND_WORD_BY_LEMMA_AND_POS = "select * from WORD where lemma = ? and pos = ?;";
 	private static final String FIND_WORD_BY_WORDID = "select * from WORD where wordid = ?;";
 
-	private static final String FIND_SENSES_BY_WORDID = "select * from SENSE where wordid = ?";
-	private static final String FIND_SENSES_BY_SYNSET = "select * from SENSE where synset = ?";
-	private static final String FIND_SENSES_BY_SYNSET_AND_LANG = "select * from SENSE where synset = ? and lang = ?";
+	// Senseと同時に，関連するSynsetとWordも取得する
+	private static final String SENSE_COLUMNS = "select e.synset, e.wordid, e.lang, e.rank, e.lexid, e.freq, e.src, s.pos, s.name, s.src, w.lang, w.lemma, w.pron, w.pos from SENSE e left join SYNSET s on e.synset = s.synset left join WORD w on e.wordid = w.wordid";
+	private static final String FIND_SENSES_BY_WORDID = SENSE_COLUMNS + " where e.wordid = ?";
+	private static final String FIND_SENSES_BY_SYNSET = SENSE_COLUMNS + " where e.synset = ?";
+	private static final String FIND_SENSES_BY_SYNSET_AND_LANG = SENSE_COLUMNS + " where e.synset = ? and e.lang = ?";
+
+	private static final String FIND_WORDS_BY_WORDIDS = "select * from WORD where wordid in (%s);";
+	private static final String FIND_SYNSETS_BY_SYNSETS = "select * from SYNSET where synset in (%s);";
+
+	/** in句一つに含めるパラメータの最大数 */
+	private static final int MAX_IN_PARAMETERS = 500;
+	/**
+	 * in句のパラメータ数として使う大きさ．
+	 * 作成されるSQL文の種類をこの数に抑え，コネクションごとのPreparedStatementのキャッシュを小さく保つ．
+	 */
+	private static final int[] IN_PARAMETER_SIZES = {1, 8, 64, MAX_IN_PARAMETERS};
 
 	private static final String FIND_SYNSETS_BY_NAME_AND_POS = "select * from SYNSET where name = ? and pos = ?;";
+	private static final String LOAD_WORD_TABLE = "select w.wordid, w.lang, w.lemma, w.pron, w.pos, coalesce(sum(e.freq), 0) from WORD w left join SENSE e on w.wordid = e.wordid group by w.wordid, w.lang, w.lemma, w.pron, w.pos;";
+	private static final String LOAD_DEFINITION_TABLE = "select synset, lang, def from SYNSET_DEF order by synset, lang, sid;";
+	private static final String SUM_FREQ_BY_SYNSET = "select synset, sum(freq) from SENSE group by synset;";
 	private static final String FIND_SYNSET_BY_SYNSET = "select * from SYNSET where synset = ?;";
-	private static final String FIND_SYNSET_BY_SYNSET_AND_LINK = "select s.synset, s.pos, s.name, s.src from SYNLINK l inner join SYNSET s on l.synset2 = s.synset where l.synset1 = ?;";
+	private static final String FIND_SYNSET_BY_SYNSET_AND_LINK = "select s.synset, s.pos, s.name, s.src from SYNLINK l inner join SYNSET s on l.synset2 = s.synset where l.synset1 = ? and l.link = ?;";
+
+	private static final String FIND_SYNSETS_BY_SYNSETS_AND_LINK = "select l.synset1, s.synset, s.pos, s.name, s.src from SYNLINK l inner join SYNSET s on l.synset2 = s.synset where l.link = ? and l.synset1 in (%s);";
+
+	/** 再帰問い合わせでたどる深さの上限．これより深い部分は一段ずつ問い合わせる． */
+	private static final int MAX_RECURSIVE_DEPTH = 64;
+
+	// 起点から各Synsetまでの最短距離を求める再帰問い合わせ．パラメータは起点，リンク，リンク，深さの上限
+	// 再帰部分は集約，DISTINCT，ORDER BY，LIMITを含まず，CTEを一度だけ参照するため，どの製品でも同じ文で実行できる
+	private static final String CLOSURE = "with recursive C(synset, depth) as ("
+			+ "select distinct l.synset1, 0 from SYNLINK l where l.synset1 = ? and l.link = ? "
+			+ "union "
+			+ "select l.synset2, C.depth + 1 from C inner join SYNLINK l on l.synset1 = C.synset where l.link = ? and C.depth < ?"
+			+ "), D(synset, depth) as (select synset, min(depth) from C group by synset) ";
+	private static final String FIND_CLOSURE = CLOSURE + "select s.synset, s.pos, s.name, s.src, D.depth from D inner join SYNSET s on D.synset = s.synset where D.depth > 0 order by D.depth;";
+	private static final String FIND_DEPTH = CLOSURE + "select max(depth) from D;";
+	private static final String FIND_PATH_EDGES = CLOSURE + "select a.synset, b.synset from D a inner join SYNLINK l on l.synset1 = a.synset inner join D b on l.synset2 = b.synset "
+			+ "where l.link = ? and b.depth = a.depth + 1 and b.depth <= (select depth from D where synset = ?);";
 
 	private static final String FIND_SYNSETDEF_BY_SYNSET = "select * from SYNSET_DEF where synset = ?";
 
 	private static final String FIND_SYNLINK_BY_SYNSET = "select * from SYNLINK where synset1 = ?;";
 	private static final String FIND_SYNLINK_BY_SYNSET_AND_LINK = "select * from SYNLINK where synset1 = ? and link = ?";
 
-	private Reference<PreparedStatement> findWordsByLemma = new SoftReference<PreparedStatement>(null);
-	private Reference<PreparedStatement> findWordsByLemmaAndPos = new SoftReference<PreparedStatement>(null);
-	private Reference<PreparedStatement> findWordByWordid = new SoftReference<PreparedStatement>(null);
+	// 全件走査．範囲の条件とorder byは走査時に付け加える
+	private static final String SCAN_WORDS = "select * from WORD";
+	private static final String SCAN_SYNSETS = "select * from SYNSET";
+	private static final String SCAN_SYNLINKS = "select * from SYNLINK";
+	private static final String COUNT_ROWS = "select count(*) from %s;";
+	private static final String FIND_KEYS = "select %2$s from %1$s order by %2$s;";
+
+	private volatile Dialect dialect = null;
+
+	/** 見出し語の索引．最初に必要になった時に作成する */
+	private volatile PrefixIndex prefixIndex = null;
+
+	/** 読みの索引．最初に必要になった時に作成する */
+	private volatile ReadingIndex readingIndex = null;
+
+	/** 編集距離の索引．最初に必要になった時に作成する */
+	private volatile FuzzyIndex fuzzyIndex = null;
+
+	/** 説明文の索引．最初に必要になった時に作成するか，loadDefinitionIndexで読み込む */
+	private volatile DefinitionIndex definitionIndex = null;
+	private final Object indexLock = new Object();
+
+	/** 問い合わせの種類ごとの統計情報．Query.ordinal()の順に並ぶ */
+	private final QueryMetrics[] metrics = QueryMetrics.create();
+
+	/** registerMBeanで登録した名前，登録していない場合はnull */
+	private ObjectName objectName = null;
+
+	private volatile IdentityCache<String, Synset> synsetCache = null;
+	private volatile IdentityCache<Integer, Word> wordCache = null;
+
+	/** Streamを返す検索で一度に読み出す行数のヒント */
+	private volatile int fetchSize = 0;
+
+	private final RowStream.Mapper<Word> wordMapper = new RowStream.Mapper<Word>(){
+
+		@Override
+		public Word map(final ResultSet rs) throws SQLException {
+
+			return share(scanWordMapper.map(rs));
+
+		}
+
+	};
 
-	private Reference<PreparedStatement> findSensesByWordid = new SoftReference<PreparedStatement>(null);
-	private Reference<PreparedStatement> findSensesBySynset = new SoftReference<PreparedStatement>(null);
-	private Reference<PreparedStatement> findSensesBySynsetAndLang = new SoftReference<PreparedStatement>(null);
+	private final RowStream.Mapper<Sense> senseMapper = new RowStream.Mapper<Sense>(){
 
-	private Reference<PreparedStatement> findSynsetsByNameAndPos = new SoftReference<PreparedStatement>(null);
-	private Reference<PreparedStatement> findSynsetBySynset = new SoftReference<PreparedStatement>(null);
-	private Reference<PreparedStatement> findSynsetBySynsetAndLink = new SoftReference<PreparedStatement>(null);
+		@Override
+		public Sense map(final ResultSet rs) throws SQLException {
 
-	private Reference<PreparedStatement> findSynsetDefBySynset = new SoftReference<PreparedStatement>(null);
+			return createSense(rs, true);
+
+		}
+
+	};
+
+	private final RowStream.Mapper<Synset> synsetMapper = new RowStream.Mapper<Synset>(){
+
+		@Override
+		public Synset map(final ResultSet rs) throws SQLException {
+
+			return share(scanSynsetMapper.map(rs));
+
+		}
+
+	};
+
+	// 全件走査のMapper．走査した行でキャッシュの内容を入れ替えないよう，キャッシュに格納しない
+	private final RowStream.Mapper<Word> scanWordMapper = new RowStream.Mapper<Word>(){
+
+		@Override
+		public Word map(final ResultSet rs) throws SQLException {
+
+			return Word.create(Wnj2.this, rs.getInt(1), Lang.valueOf(rs.getString(2)), rs.getString(3), rs.getString(4), Pos.valueOf(rs.getString(5)));
+
+		}
+
+	};
+
+	private final RowStream.Mapper<Sense> scanSenseMapper = new RowStream.Mapper<Sense>(){
+
+		@Override
+		public Sense map(final ResultSet rs) throws SQLException {
+
+			return createSense(rs, false);
+
+		}
+
+	};
+
+	private final RowStream.Mapper<Synset> scanSynsetMapper = new RowStream.Mapper<Synset>(){
+
+		@Override
+		public Synset map(final ResultSet rs) throws SQLException {
+
+			return Synset.create(Wnj2.this, rs.getString(1), Pos.valueOf(rs.getString(2)), rs.getString(3), rs.getString(4));
+
+		}
+
+	};
+
+	private final RowStream.Mapper<Synlink> synlinkMapper = new RowStream.Mapper<Synlink>(){
+
+		@Override
+		public Synlink map(final ResultSet rs) throws SQLException {
+
+			return new Synlink(Wnj2.this, rs.getString(1), rs.getString(2), Link.valueOf(rs.getString(3)), rs.getString(4));
+
+		}
 
-	private Reference<PreparedStatement> findSynlinksBySynset = new SoftReference<PreparedStatement>(null);
-	private Reference<PreparedStatement> findSynlinksBySynsetAndLink = new SoftReference<PreparedStatement>(null);
+	};
 
 	/////////////////////////////////////////////////////////////////////////////////////
 	// Constractors
 	/////////////////////////////////////////////////////////////////////////////////////
 	/**
 	 * 指定したSQLiteデータベースファイルへアクセスするWnj2インスタンスを作成する．
+	 * データベースへのコネクションは，利用可能なプロセッサ数を上限として必要に応じて作成されます．
 	 *
 	 * @param file 日本語WordNetデータベースファイル
 	 *
@@ -124,7 +293,47 @@ public class Wnj2 implements Closeable{
 	 * @throws FileNotFoundException 指定されたファイルが見つからない場合
 	 */
 	public Wnj2(final File file) throws ClassNotFoundException, SQLException, FileNotFoundException{
+		this(file, DEFAULT_POOL_SIZE);
+
+	}
+
+	/**
+	 * コネクション数の上限を指定して，SQLiteデータベースファイルへアクセスするWnj2インスタンスを作成する．
+	 *
+	 * @param file 日本語WordNetデータベースファイル
+	 * @param poolSize 同時に使用するコネクションの最大数
+	 *
+	 * @throws ClassNotFoundException SQLite用JDBSドライバの読み込みに失敗した場合
+	 * @throws SQLException 日本語WordNetデータベースファイルに関する入出力エラーが発生した場合
+	 * @throws FileNotFoundException 指定されたファイルが見つからない場合
+	 */
+	public Wnj2(final File file, final int poolSize) throws ClassNotFoundException, SQLException, FileNotFoundException{
+		this(file, poolSize, OpenMode.READ_WRITE);
+
+	}
+
+	/**
+	 * 開き方を指定して，SQLiteデータベースファイルへアクセスするWnj2インスタンスを作成する．
+	 *
+	 * <p>
+	 * 配布されている辞書ファイルのように内容が変更されないファイルは，READ_ONLYで開くとロックとジャーナルの処理を省略できます．
+	 * ファイルはメモリマップして読み込むため，同じファイルを開く複数のコネクションやJVMの間でOSのページキャッシュを共有します．
+	 * コネクションは検索を同時に実行するスレッドごとに一つずつ，poolSizeまで作成されます．
+	 * IN_MEMORYで開くと，起動時にファイルの内容をメモリ上のデータベースへ複製し，すべてのコネクションでそれを共有します．
+	 * </p>
+	 *
+	 * @param file 日本語WordNetデータベースファイル
+	 * @param poolSize 同時に使用するコネクションの最大数
+	 * @param mode ファイルの開き方
+	 *
+	 * @throws ClassNotFoundException SQLite用JDBSドライバの読み込みに失敗した場合
+	 * @throws SQLException 日本語WordNetデータベースファイルに関する入出力エラーが発生した場合
+	 * @throws FileNotFoundException 指定されたファイルが見つからない場合
+	 */
+	public Wnj2(final File file, final int poolSize, final OpenMode mode) throws ClassNotFoundException, SQLException, FileNotFoundException{
 		assert file != null : "file is null";
+		assert poolSize > 0 : "poolSize must be positive";
+		assert mode != null : "mode is null";
 
 		if(!file.exists()){
 
@@ -133,19 +342,88 @@ public class Wnj2 implements Closeable{
 		}
 
 		Class.forName("org.sqlite.JDBC");
-		this.connection = DriverManager.getConnection(String.format("jdbc:sqlite:%s", file.getAbsolutePath()));
+		this.queryOnly = mode != OpenMode.READ_WRITE;
+		final String memory = String.format("file:wnj2-%d?mode=memory&cache=shared", MEMORY_DATABASES.incrementAndGet());
+		this.pool = new ConnectionPool(new ConnectionPool.Factory(){
+
+			/** メモリ上のデータベースへ複製済みかどうか */
+			private boolean restored = false;
+
+			/**
+			 * プールは複数のスレッドから同時に呼び出すため，複製が終わるまで他のコネクションを作成しない．
+			 */
+			@Override
+			public synchronized Connection open() throws SQLException {
+
+				if(mode == OpenMode.READ_WRITE){
+
+					return openSQLite(file);
+
+				}else if(mode == OpenMode.READ_ONLY){
+
+					return openReadOnlySQLite(file);
+
+				}
+
+				// プールはコネクションを閉じないため，メモリ上のデータベースはプールを閉じるまで残る
+				final Connection ret = openInMemorySQLite(memory, this.restored ? null : file);
+				this.restored = true;
+				return ret;
+
+			}
+
+		}, poolSize);
+
+		// ファイルを開けることを確認しておく
+		this.pool.release(this.pool.acquire());
 
 	}
 
 	/**
 	 * データベースへのコネクションを指定してWnj2インスタンスを作成する．
+	 * 一つのコネクションを共有するため，複数のスレッドから同時に呼び出された検索は順に実行されます．
 	 *
 	 * @param connection 日本語WordNetデータベースへ接続済みのコネクション
 	 */
 	public Wnj2(final Connection connection){
 		assert connection != null : "connection is null";
 
-		this.connection = connection;
+		this.pool = new ConnectionPool(connection);
+		this.queryOnly = false;
+
+	}
+
+	/**
+	 * データソースを指定してWnj2インスタンスを作成する．
+	 * データソースからは，poolSizeを上限として必要に応じてコネクションを取得します．
+	 *
+	 * @param dataSource 日本語WordNetデータベースのデータソース
+	 * @param poolSize 同時に使用するコネクションの最大数
+	 */
+	public Wnj2(final DataSource dataSource, final int poolSize){
+		assert dataSource != null : "dataSource is null";
+		assert poolSize > 0 : "poolSize must be positive";
+
+		this.pool = new ConnectionPool(new ConnectionPool.Factory(){
+
+			@Override
+			public Connection open() throws SQLException {
+				return dataSource.getConnection();
+			}
+
+		}, poolSize);
+		this.queryOnly = false;
+
+	}
+
+	/**
+	 * データベースへのコネクションを持たないWnj2インスタンスを作成する．
+	 * 検索メソッドをすべて上書きするサブクラスのためのものです．
+	 */
+	Wnj2(){
+
+		this.pool = null;
+		this.queryOnly = false;
 
 	}
 
@@ -163,299 +441,1734 @@ public class Wnj2 implements Closeable{
 
 		try{
 
-			this.connection.close();
+			this.unregisterMBean();
 
-		}catch(final SQLException e){
+		}finally{
+
+			if(this.pool != null){
 
-			throw new IOException(e.getMessage());
+				this.pool.close();
+
+			}
 
 		}
 
 	}
 
 	/**
-	 * 見出し語に一致するWord集合を取得する．
+	 * Synset, Wordのキャッシュを設定する．
 	 *
-	 * @param lemma 見出し語
-	 * @return 見出し語lemmaに一致するWordのリスト
-	 * @throws SQLException データベースへのアクセスにエラーが発生した場合
+	 * <p>
+	 * キャッシュを有効にすると，SynsetIDとWordIDをキーに取得済みのSynset, Wordオブジェクトを保持し，
+	 * SenseやSynlinkから得られるSynset, Wordはデータベースへ問い合わせる代わりにキャッシュ上のオブジェクトを参照します．
+	 * SynsetとWordはそれぞれ最大capacity個まで保持されます．
+	 * 既定ではキャッシュは無効です．
+	 * 設定を変更すると，それまでのキャッシュの内容と統計情報は破棄されます．
+	 * </p>
+	 *
+	 * @param capacity キャッシュに保持する要素の最大数，0の場合はキャッシュを無効にする
+	 * @param policy 容量を超えた場合の追い出し方針
 	 */
-	public List<Word> findWords(final String lemma) throws SQLException{
-		assert lemma != null : "lemma is null";
+	public void setCache(final int capacity, final CachePolicy policy){
+		assert capacity >= 0 : "capacity is negative";
+		assert policy != null : "policy is null";
 
-		PreparedStatement ps = this.findWordsByLemma.get();
-		if(ps == null){
+		if(capacity == 0){
 
-			ps = this.createPreparedStatement(FIND_WORD_BY_LEMMA);
-			this.findWordsByLemma = new SoftReference<PreparedStatement>(ps);
+			this.synsetCache = null;
+			this.wordCache = null;
 
-		}
+		}else{
 
-		final List<Word> ret = new ArrayList<Word>();
-		ps.setString(1, lemma.toLowerCase());
-		ret.addAll(this.createWords(ps));
+			this.synsetCache = IdentityCache.create(capacity, policy);
+			this.wordCache = IdentityCache.create(capacity, policy);
 
-		return ret;
+		}
 
 	}
 
 	/**
-	 * 見出し語と品詞を指定して一致するWord集合を取得する．
+	 * Synsetキャッシュの統計情報を取得する．
 	 *
-	 * @param lemma 見出し語
-	 * @param pos 品詞
-	 * @return 見出し語lemmaと品詞posに一致するWordのリスト
-	 * @throws SQLException データベースへのアクセスにエラーが発生した場合
+	 * @return Synsetキャッシュの統計情報，キャッシュが無効の場合はnull
 	 */
-	public List<Word> findWords(final String lemma, final Pos pos) throws SQLException{
-		assert lemma != null : "lemma is null";
-		assert pos != null : "pos is null";
-
-		PreparedStatement ps = this.findWordsByLemmaAndPos.get();
-		if(ps == null){
+	public CacheStatistics getSynsetCacheStatistics(){
 
-			ps = this.createPreparedStatement(FIND_WORD_BY_LEMMA_AND_POS);
-			this.findWordsByLemmaAndPos = new SoftReference<PreparedStatement>(ps);
+		final IdentityCache<String, Synset> cache = this.synsetCache;
+		return cache == null ? null : cache.getStatistics();
 
-		}
+	}
 
-		final List<Word> ret = new ArrayList<Word>();
-		ps.setString(1, lemma.toLowerCase());
-		ps.setString(2, pos.toString());
-		ret.addAll(this.createWords(ps));
+	/**
+	 * Wordキャッシュの統計情報を取得する．
+	 *
+	 * @return Wordキャッシュの統計情報，キャッシュが無効の場合はnull
+	 */
+	public CacheStatistics getWordCacheStatistics(){
 
-		return ret;
+		final IdentityCache<Integer, Word> cache = this.wordCache;
+		return cache == null ? null : cache.getStatistics();
 
 	}
 
 	/**
-	 * 見出し語と品詞を指定して一致するSynset集合を取得する．
+	 * 問い合わせの種類ごとの統計情報を取得する．
 	 *
-	 * @param lemma 見出し語
-	 * @param pos 品詞
-	 * @return 見出し語lemmaと品詞posに一致するSynsetのリスト
-	 * @throws SQLException データベースへのアクセスにエラーが発生した場合
+	 * <p>
+	 * FIND_で始まる名前のSQL文ごとに，呼び出し回数，読み出した行数，所要時間の分布を記録しています．
+	 * 所要時間はコネクションの取得を待つ時間を含みます．
+	 * LAZY_SYNSET, LAZY_WORDは，SenseやSynlinkから得たSynset, Wordの属性を最初に参照した時の読み込みです．
+	 * 記録は常に有効で，検索のたびにオブジェクトを作成することはありません．
+	 * SnapshotWnj2とMappedWnj2はSQL文を実行しないため何も記録せず，すべての値は0のままです．
+	 * </p>
+	 *
+	 * @return 統計情報のリスト
 	 */
-	public List<Synset> findSynsets(final String lemma, final Pos pos) throws SQLException{
-		assert lemma != null : "lemma is null";
-		assert pos != null : "pos is null";
+	public List<QueryStatistics> getQueryStatistics(){
 
-		PreparedStatement ps = this.findSynsetsByNameAndPos.get();
-		if(ps == null){
+		final List<QueryStatistics> ret = new ArrayList<QueryStatistics>(this.metrics.length);
+		for(final QueryMetrics m : this.metrics){
 
-			ps = this.createPreparedStatement(FIND_SYNSETS_BY_NAME_AND_POS);
-			this.findSynsetsByNameAndPos = new SoftReference<PreparedStatement>(ps);
+			ret.add(m.getStatistics());
 
 		}
-
-		final List<Synset> ret = new ArrayList<Synset>();
-		ps.setString(1, lemma);
-		ps.setString(2, pos.toString());
-		ret.addAll(this.createSynsets(ps));
-
 		return ret;
 
 	}
 
+	/**
+	 * 問い合わせの統計情報を0に戻す．
+	 */
+	public void resetQueryStatistics(){
 
-	/////////////////////////////////////////////////////////////////////////////////////
-	// Package private methods
-	/////////////////////////////////////////////////////////////////////////////////////
-	Word findWord(final Word word) throws SQLException{
-
-		PreparedStatement ps = this.findWordByWordid.get();
-		if(ps == null){
+		for(final QueryMetrics m : this.metrics){
 
-			ps = this.createPreparedStatement(FIND_WORD_BY_WORDID);
-			this.findWordByWordid = new SoftReference<PreparedStatement>(ps);
+			m.reset();
 
 		}
 
-		final List<Word> ret = new ArrayList<Word>();
-		ps.setInt(1, word.getWordID());
-		ret.addAll(this.createWords(ps));
+	}
 
-		if(ret.size() == 0){
+	/**
+	 * このWnj2の統計情報を公開するMXBeanをプラットフォームMBeanサーバに登録する．
+	 *
+	 * <p>
+	 * 名前は"org.wnj2:type=Wnj2,name=wnj2-通し番号"です．
+	 * 登録はcloseで解除されます．既に登録済みの場合は，登録済みの名前を返します．
+	 * </p>
+	 *
+	 * @return 登録した名前
+	 * @throws JMException 登録に失敗した場合
+	 * @see Wnj2MXBean
+	 */
+	public synchronized ObjectName registerMBean() throws JMException{
 
-			return null;
+		if(this.objectName == null){
 
-		}
+			final ObjectName name = new ObjectName(String.format("org.wnj2:type=Wnj2,name=wnj2-%d", MBEANS.incrementAndGet()));
+			ManagementFactory.getPlatformMBeanServer().registerMBean(new Wnj2Monitor(this), name);
+			this.objectName = name;
 
-		return ret.get(0);
+		}
+		return this.objectName;
 
 	}
 
-	List<Sense> findSenses(final Word word) throws SQLException{
-
-		PreparedStatement ps = this.findSensesByWordid.get();
-		if(ps == null){
+	/**
+	 * Streamを返す検索で，データベースから一度に読み出す行数のヒントを設定する．
+	 *
+	 * <p>
+	 * 0を指定するとJDBCドライバの既定値を使います．既定値は0です．
+	 * 大きな値は往復の回数を減らし，小さな値は一度に保持する行を減らします．
+	 * </p>
+	 *
+	 * @param rows 一度に読み出す行数のヒント
+	 * @see java.sql.Statement#setFetchSize(int)
+	 */
+	public void setFetchSize(final int rows){
+		assert rows >= 0 : "rows is negative";
 
-			ps = this.createPreparedStatement(FIND_SENSES_BY_WORDID);
-			this.findSensesByWordid = new SoftReference<PreparedStatement>(ps);
+		this.fetchSize = rows;
 
-		}
+	}
 
-		final List<Sense> ret = new ArrayList<Sense>();
-		ps.setInt(1, word.getWordID());
-		ret.addAll(this.createSences(ps));
+	/**
+	 * Streamを返す検索で，データベースから一度に読み出す行数のヒントを取得する．
+	 *
+	 * @return 一度に読み出す行数のヒント，0の場合はJDBCドライバの既定値
+	 */
+	public int getFetchSize(){
 
-		return ret;
+		return this.fetchSize;
 
 	}
 
-	List<Sense> findSenses(final Synset synset) throws SQLException{
+	/**
+	 * Wnj2の問い合わせに必要な索引がデータベースにあるかどうかを調べる．
+	 *
+	 * <p>
+	 * WORD.lemma, SENSE.wordid, SYNSET.nameなど，問い合わせの絞り込みに使う列の索引をDatabaseMetaDataで調べ，
+	 * 不足している索引を，その索引で絞り込む問い合わせの所要時間とともに
+	 * java.util.loggingのorg.wnj2.IndexVerifierロガーに警告として出力します．
+	 * createがtrueの場合は，不足している索引を作成し，作成前後の問い合わせの所要時間を出力します．
+	 * 起動時に一度だけ呼び出すことを想定しています．
+	 * SnapshotWnj2ではデータベースを使わないため，何もせずに空のリストを返します．
+	 * OpenMode.READ_ONLYまたはOpenMode.IN_MEMORYで開いた場合はデータベースを変更できないため，索引を作成できません．
+	 * </p>
+	 *
+	 * @param create 不足している索引を作成する場合はtrue
+	 * @return 不足していた索引の "SYNLINK(synset1, link, synset2)" 形式の説明のリスト
+	 * @throws SQLException データベースへのアクセスにエラーが発生した場合
+	 * @throws IllegalStateException createがtrueで，データベースをREAD_ONLYまたはIN_MEMORYで開いている場合
+	 */
+	public List<String> verifyIndexes(final boolean create) throws SQLException{
 
-		PreparedStatement ps = this.findSensesBySynset.get();
-		if(ps == null){
+		if(this.pool == null){
 
-			ps = this.createPreparedStatement(FIND_SENSES_BY_SYNSET);
-			this.findSensesBySynset = new SoftReference<PreparedStatement>(ps);
+			return new ArrayList<String>();
 
 		}
+		if(create && this.queryOnly){
 
-		final List<Sense> ret = new ArrayList<Sense>();
-		ps.setString(1, synset.getSynsetID());
-		ret.addAll(this.createSences(ps));
+			throw new IllegalStateException("cannot create indexes in a database opened with OpenMode.READ_ONLY or OpenMode.IN_MEMORY");
 
-		return ret;
+		}
 
-	}
+		final PooledConnection con = this.pool.acquire();
+		try{
 
-	List<Sense> findSenses(final Synset synset, final Lang lang) throws SQLException{
+			return IndexVerifier.verify(con.getConnection(), create);
 
-		PreparedStatement ps = this.findSensesBySynsetAndLang.get();
-		if(ps == null){
+		}finally{
 
-			ps = this.createPreparedStatement(FIND_SENSES_BY_SYNSET_AND_LANG);
-			this.findSensesBySynsetAndLang = new SoftReference<PreparedStatement>(ps);
+			this.pool.release(con);
 
 		}
 
-		final List<Sense> ret = new ArrayList<Sense>();
-		ps.setString(1, synset.getSynsetID());
-		ps.setString(2, lang.toString());
-		ret.addAll(this.createSences(ps));
-
-		return ret;
-
 	}
 
-	Synset findSynset(final Synset synset) throws SQLException{
-
-		PreparedStatement ps = this.findSynsetBySynset.get();
-		if(ps == null){
-
-			ps = this.createPreparedStatement(FIND_SYNSET_BY_SYNSET);
-			this.findSynsetBySynset = new SoftReference<PreparedStatement>(ps);
+	/**
+	 * 見出し語に一致するWord集合を取得する．
+	 *
+	 * @param lemma 見出し語
+	 * @return 見出し語lemmaに一致するWordのリスト
+	 * @throws SQLException データベースへのアクセスにエラーが発生した場合
+	 */
+	public List<Word> findWords(final String lemma) throws SQLException{
+		assert lemma != null : "lemma is null";
 
-		}
+		final long start = System.nanoTime();
+		final PooledConnection con = this.pool.acquire();
+		try{
 
-		final List<Synset> ret = new ArrayList<Synset>();
-		ps.setString(1, synset.getSynsetID());
-		ret.addAll(this.createSynsets(ps));
+			final PreparedStatement ps = con.prepare(FIND_WORD_BY_LEMMA);
+			ps.setString(1, lemma.toLowerCase());
+			final List<Word> ret = this.createWords(ps);
+			this.record(Query.FIND_WORD_BY_LEMMA, start, ret.size());
 
+			return ret;
 
-		if(ret.size() == 0){
+		}finally{
 
-			return null;
+			this.pool.release(con);
 
 		}
 
-		return ret.get(0);
-
 	}
 
-	List<Synset> findSynsets(final Synset synset, final Link link) throws SQLException{
+	/**
+	 * 見出し語と品詞を指定して一致するWord集合を取得する．
+	 *
+	 * @param lemma 見出し語
+	 * @param pos 品詞
+	 * @return 見出し語lemmaと品詞posに一致するWordのリスト
+	 * @throws SQLException データベースへのアクセスにエラーが発生した場合
+	 */
+	public List<Word> findWords(final String lemma, final Pos pos) throws SQLException{
+		assert lemma != null : "lemma is null";
+		assert pos != null : "pos is null";
 
-		PreparedStatement ps = this.findSynsetBySynsetAndLink.get();
-		if(ps == null){
+		final long start = System.nanoTime();
+		final PooledConnection con = this.pool.acquire();
+		try{
 
-			ps = this.createPreparedStatement(FIND_SYNSET_BY_SYNSET_AND_LINK);
-			this.findSynsetBySynsetAndLink = new SoftReference<PreparedStatement>(ps);
+			final PreparedStatement ps = con.prepare(FIND_WORD_BY_LEMMA_AND_POS);
+			ps.setString(1, lemma.toLowerCase());
+			ps.setString(2, pos.toString());
+			final List<Word> ret = this.createWords(ps);
+			this.record(Query.FIND_WORD_BY_LEMMA_AND_POS, start, ret.size());
 
-		}
+			return ret;
 
-		final List<Synset> ret = new ArrayList<Synset>();
-		ps.setString(1, synset.getSynsetID());
-		ret.addAll(this.createSynsets(ps));
+		}finally{
 
+			this.pool.release(con);
 
-		return ret;
+		}
 
 	}
 
+	/**
+	 * 見出し語と品詞を指定して一致するSynset集合を取得する．
+	 *
+	 * @param lemma 見出し語
+	 * @param pos 品詞
+	 * @return 見出し語lemmaと品詞posに一致するSynsetのリスト
+	 * @throws SQLException データベースへのアクセスにエラーが発生した場合
+	 */
+	public List<Synset> findSynsets(final String lemma, final Pos pos) throws SQLException{
+		assert lemma != null : "lemma is null";
+		assert pos != null : "pos is null";
 
-	SynsetDef findSynsetDef(final Synset synset) throws SQLException{
+		final long start = System.nanoTime();
+		final PooledConnection con = this.pool.acquire();
+		try{
+
+			final PreparedStatement ps = con.prepare(FIND_SYNSETS_BY_NAME_AND_POS);
+			ps.setString(1, lemma);
+			ps.setString(2, pos.toString());
+			final List<Synset> ret = this.createSynsets(ps);
+			this.record(Query.FIND_SYNSETS_BY_NAME_AND_POS, start, ret.size());
 
-		PreparedStatement ps = this.findSynsetDefBySynset.get();
-		if(ps == null){
+			return ret;
+
+		}finally{
 
-			ps = this.createPreparedStatement(FIND_SYNSETDEF_BY_SYNSET);
-			this.findSynsetDefBySynset = new SoftReference<PreparedStatement>(ps);
+			this.pool.release(con);
 
 		}
 
-		SynsetDef ret = null;
-		ps.setString(1, synset.getSynsetID());
-		final ResultSet rs = ps.executeQuery();
+	}
+
+	/**
+	 * 見出し語に一致するWordを順に読み出すStreamを取得する．
+	 *
+	 * <p>
+	 * Wordは要素が要求された時点でデータベースから一つずつ読み出されるため，結果の件数によらず一定のメモリで処理できます．
+	 * Streamは閉じられるまでコネクションを一つ使用するため，使用後は必ずcloseして下さい．
+	 * Streamを作成したスレッドが読み出し中に行う検索（例えば各WordのgetSenses）は，Streamと同じコネクションを使うため待たされません．
+	 * 他のスレッドの検索は，コネクションが一つだけのWnj2ではStreamを閉じるまで待たされます．
+	 * Streamは作成したスレッドで読み出して下さい．並列Streamにしても分割されず，呼び出したスレッドで順に読み出されます．
+	 * 読み出し中にデータベースへのアクセスでエラーが発生した場合，UncheckedSQLExceptionが投げられます．
+	 * </p>
+	 * <blockquote><pre>
+	 * try(Stream&lt;Word&gt; words = wn.streamWords("犬")){
+	 *     words.forEach(System.out::println);
+	 * }
+	 * </pre></blockquote>
+	 *
+	 * @param lemma 見出し語
+	 * @return 見出し語lemmaに一致するWordのStream
+	 * @throws SQLException データベースへのアクセスにエラーが発生した場合
+	 * @see #setFetchSize(int)
+	 */
+	public Stream<Word> streamWords(final String lemma) throws SQLException{
+		assert lemma != null : "lemma is null";
+
+		return this.stream(Query.FIND_WORD_BY_LEMMA, FIND_WORD_BY_LEMMA, this.wordMapper, lemma.toLowerCase());
+
+	}
+
+	/**
+	 * 見出し語と品詞を指定して一致するWordを順に読み出すStreamを取得する．
+	 * Streamは使用後に必ずcloseして下さい．
+	 *
+	 * @param lemma 見出し語
+	 * @param pos 品詞
+	 * @return 見出し語lemmaと品詞posに一致するWordのStream
+	 * @throws SQLException データベースへのアクセスにエラーが発生した場合
+	 * @see #streamWords(String)
+	 */
+	public Stream<Word> streamWords(final String lemma, final Pos pos) throws SQLException{
+		assert lemma != null : "lemma is null";
+		assert pos != null : "pos is null";
+
+		return this.stream(Query.FIND_WORD_BY_LEMMA_AND_POS, FIND_WORD_BY_LEMMA_AND_POS, this.wordMapper, lemma.toLowerCase(), pos.toString());
+
+	}
+
+	/**
+	 * 見出し語と品詞を指定して一致するSynsetを順に読み出すStreamを取得する．
+	 * Streamは使用後に必ずcloseして下さい．
+	 *
+	 * @param lemma 見出し語
+	 * @param pos 品詞
+	 * @return 見出し語lemmaと品詞posに一致するSynsetのStream
+	 * @throws SQLException データベースへのアクセスにエラーが発生した場合
+	 * @see #streamWords(String)
+	 */
+	public Stream<Synset> streamSynsets(final String lemma, final Pos pos) throws SQLException{
+		assert lemma != null : "lemma is null";
+		assert pos != null : "pos is null";
+
+		return this.stream(Query.FIND_SYNSETS_BY_NAME_AND_POS, FIND_SYNSETS_BY_NAME_AND_POS, this.synsetMapper, lemma, pos.toString());
+
+	}
+
+	/**
+	 * Wordに関係するSenseを順に読み出すStreamを取得する．
+	 * Streamは使用後に必ずcloseして下さい．
+	 *
+	 * @param word Word
+	 * @return Wordに関係するSenseのStream
+	 * @throws SQLException データベースへのアクセスにエラーが発生した場合
+	 * @see #streamWords(String)
+	 */
+	public Stream<Sense> streamSenses(final Word word) throws SQLException{
+		assert word != null : "word is null";
+
+		return this.stream(Query.FIND_SENSES_BY_WORDID, FIND_SENSES_BY_WORDID, this.senseMapper, word.getWordID());
+
+	}
+
+	/**
+	 * Synsetに属するSenseを順に読み出すStreamを取得する．
+	 * Streamは使用後に必ずcloseして下さい．
+	 *
+	 * @param synset Synset
+	 * @return Synsetに属するSenseのStream
+	 * @throws SQLException データベースへのアクセスにエラーが発生した場合
+	 * @see #streamWords(String)
+	 */
+	public Stream<Sense> streamSenses(final Synset synset) throws SQLException{
+		assert synset != null : "synset is null";
+
+		return this.stream(Query.FIND_SENSES_BY_SYNSET, FIND_SENSES_BY_SYNSET, this.senseMapper, synset.getSynsetID());
+
+	}
+
+	/**
+	 * Synsetから出ているリンクを順に読み出すStreamを取得する．
+	 * Streamは使用後に必ずcloseして下さい．
+	 *
+	 * @param synset Synset
+	 * @return SynlinkのStream
+	 * @throws SQLException データベースへのアクセスにエラーが発生した場合
+	 * @see #streamWords(String)
+	 */
+	public Stream<Synlink> streamSynlinks(final Synset synset) throws SQLException{
+		assert synset != null : "synset is null";
+
+		return this.stream(Query.FIND_SYNLINK_BY_SYNSET, FIND_SYNLINK_BY_SYNSET, this.synlinkMapper, synset.getSynsetID());
+
+	}
+
+	/**
+	 * すべてのWordをwordid順に読み出すStreamを取得する．
+	 *
+	 * <p>
+	 * WORDテーブルを一回の問い合わせで走査します．
+	 * Wordは要素が要求された時点で読み出され，すべての属性を持つため，行ごとの問い合わせは発生しません．
+	 * 走査したWordはキャッシュに格納しないため，キャッシュの内容は走査の前後で変わりません．
+	 * Streamは閉じられるまでコネクションを一つ使用するため，使用後は必ずcloseして下さい．
+	 * streamWordsと同様，読み出し中に同じスレッドで行う検索はStreamと同じコネクションを使います．
+	 * </p>
+	 *
+	 * @return すべてのWordのStream
+	 * @throws SQLException データベースへのアクセスにエラーが発生した場合
+	 * @see #streamWords(String)
+	 */
+	public Stream<Word> allWords() throws SQLException{
+
+		return this.scan(SCAN_WORDS, "wordid", this.scanWordMapper, null, null);
+
+	}
+
+	/**
+	 * すべてのWordをwordidの範囲に分割して並列に読み出すStreamを取得する．
+	 *
+	 * <p>
+	 * wordidをほぼ同じ件数のpartitions個の範囲に分割し，範囲ごとに別のコネクションで問い合わせます．
+	 * 同時に読み出す範囲の数はWnj2のコネクション数までです．
+	 * 各範囲を読み出すスレッドが要素から行う検索は，その範囲のコネクションを使うため，コネクションの空きを待ちません．
+	 * 返されるStreamは並列Streamです．Streamは使用後に必ずcloseして下さい．
+	 * </p>
+	 *
+	 * @param partitions 分割する範囲の数
+	 * @return すべてのWordの並列Stream
+	 * @throws SQLException データベースへのアクセスにエラーが発生した場合
+	 */
+	public Stream<Word> allWords(final int partitions) throws SQLException{
+		assert partitions > 0 : "partitions must be positive";
+
+		return this.scan(SCAN_WORDS, "wordid", this.scanWordMapper, this.findBounds("WORD", "wordid", partitions));
+
+	}
+
+	/**
+	 * すべてのSynsetをSynsetID順に読み出すStreamを取得する．
+	 * Streamは使用後に必ずcloseして下さい．
+	 *
+	 * @return すべてのSynsetのStream
+	 * @throws SQLException データベースへのアクセスにエラーが発生した場合
+	 * @see #allWords()
+	 */
+	public Stream<Synset> allSynsets() throws SQLException{
+
+		return this.scan(SCAN_SYNSETS, "synset", this.scanSynsetMapper, null, null);
+
+	}
+
+	/**
+	 * すべてのSynsetをSynsetIDの範囲に分割して並列に読み出すStreamを取得する．
+	 * Streamは使用後に必ずcloseして下さい．
+	 *
+	 * @param partitions 分割する範囲の数
+	 * @return すべてのSynsetの並列Stream
+	 * @throws SQLException データベースへのアクセスにエラーが発生した場合
+	 * @see #allWords(int)
+	 */
+	public Stream<Synset> allSynsets(final int partitions) throws SQLException{
+		assert partitions > 0 : "partitions must be positive";
+
+		return this.scan(SCAN_SYNSETS, "synset", this.scanSynsetMapper, this.findBounds("SYNSET", "synset", partitions));
+
+	}
+
+	/**
+	 * すべてのSenseをSynsetID順に読み出すStreamを取得する．
+	 *
+	 * <p>
+	 * SenseのSynsetとWordは同じ問い合わせで結合して取得するため，すべての属性を持ちます．
+	 * allWordsと同様，取得したSynsetとWordはキャッシュに格納しません．
+	 * Streamは使用後に必ずcloseして下さい．
+	 * </p>
+	 *
+	 * @return すべてのSenseのStream
+	 * @throws SQLException データベースへのアクセスにエラーが発生した場合
+	 * @see #allWords()
+	 */
+	public Stream<Sense> allSenses() throws SQLException{
+
+		return this.scan(SENSE_COLUMNS, "e.synset", this.scanSenseMapper, null, null);
+
+	}
+
+	/**
+	 * すべてのSenseをSynsetIDの範囲に分割して並列に読み出すStreamを取得する．
+	 * Streamは使用後に必ずcloseして下さい．
+	 *
+	 * @param partitions 分割する範囲の数
+	 * @return すべてのSenseの並列Stream
+	 * @throws SQLException データベースへのアクセスにエラーが発生した場合
+	 * @see #allWords(int)
+	 */
+	public Stream<Sense> allSenses(final int partitions) throws SQLException{
+		assert partitions > 0 : "partitions must be positive";
+
+		return this.scan(SENSE_COLUMNS, "e.synset", this.scanSenseMapper, this.findBounds("SENSE", "synset", partitions));
+
+	}
+
+	/**
+	 * すべてのSynlinkをリンク元のSynsetID順に読み出すStreamを取得する．
+	 * Streamは使用後に必ずcloseして下さい．
+	 *
+	 * @return すべてのSynlinkのStream
+	 * @throws SQLException データベースへのアクセスにエラーが発生した場合
+	 * @see #allWords()
+	 */
+	public Stream<Synlink> allSynlinks() throws SQLException{
+
+		return this.scan(SCAN_SYNLINKS, "synset1", this.synlinkMapper, null, null);
+
+	}
+
+	/**
+	 * すべてのSynlinkをリンク元のSynsetIDの範囲に分割して並列に読み出すStreamを取得する．
+	 * Streamは使用後に必ずcloseして下さい．
+	 *
+	 * @param partitions 分割する範囲の数
+	 * @return すべてのSynlinkの並列Stream
+	 * @throws SQLException データベースへのアクセスにエラーが発生した場合
+	 * @see #allWords(int)
+	 */
+	public Stream<Synlink> allSynlinks(final int partitions) throws SQLException{
+		assert partitions > 0 : "partitions must be positive";
+
+		return this.scan(SCAN_SYNLINKS, "synset1", this.synlinkMapper, this.findBounds("SYNLINK", "synset1", partitions));
+
+	}
+
+	/**
+	 * WordIDを指定して一致するWord集合を取得する．
+	 * 指定したWordIDは，まとめて少数の問い合わせで取得されます．
+	 *
+	 * @param wordids WordIDの配列
+	 * @return WordIDがwordidsに含まれるWordのリスト，見つからなかったWordIDに対応する要素は含まない
+	 * @throws SQLException データベースへのアクセスにエラーが発生した場合
+	 */
+	public List<Word> findWordsByIds(final int[] wordids) throws SQLException{
+		assert wordids != null : "wordids is null";
+
+		final List<Word> ret = new ArrayList<Word>();
+		final List<Integer> missing = new ArrayList<Integer>();
+		final IdentityCache<Integer, Word> cache = this.wordCache;
+		for(final int id : wordids){
+
+			final Word cached = cache == null ? null : cache.get(id);
+			if(cached != null){
+
+				ret.add(cached);
+
+			}else{
+
+				missing.add(id);
+
+			}
+
+		}
+
+		for(int begin = 0; begin < missing.size(); begin += MAX_IN_PARAMETERS){
+
+			final List<Integer> chunk = missing.subList(begin, Math.min(missing.size(), begin + MAX_IN_PARAMETERS));
+			final long start = System.nanoTime();
+			final PooledConnection con = this.pool.acquire();
+			try{
+
+				final int size = parameterSize(chunk.size());
+				final PreparedStatement ps = con.prepare(String.format(FIND_WORDS_BY_WORDIDS, placeholders(size)));
+				for(int i = 0; i != size; ++i){
+
+					// 余ったパラメータは最後のIDで埋める
+					ps.setInt(i + 1, chunk.get(Math.min(i, chunk.size() - 1)));
+
+				}
+				final List<Word> words = this.createWords(ps);
+				this.record(Query.FIND_WORDS_BY_WORDIDS, start, words.size());
+				ret.addAll(words);
+
+			}finally{
+
+				this.pool.release(con);
+
+			}
+
+		}
+
+		return ret;
+
+	}
+
+	/**
+	 * SynsetIDを指定して一致するSynset集合を取得する．
+	 * 指定したSynsetIDは，まとめて少数の問い合わせで取得されます．
+	 *
+	 * @param synsetids SynsetIDの集合
+	 * @return SynsetIDがsynsetidsに含まれるSynsetのリスト，見つからなかったSynsetIDに対応する要素は含まない
+	 * @throws SQLException データベースへのアクセスにエラーが発生した場合
+	 */
+	public List<Synset> findSynsetsByIds(final Collection<String> synsetids) throws SQLException{
+		assert synsetids != null : "synsetids is null";
+
+		final List<Synset> ret = new ArrayList<Synset>();
+		final List<String> missing = new ArrayList<String>();
+		final IdentityCache<String, Synset> cache = this.synsetCache;
+		for(final String id : synsetids){
+
+			final Synset cached = cache == null ? null : cache.get(id);
+			if(cached != null){
+
+				ret.add(cached);
+
+			}else{
+
+				missing.add(id);
+
+			}
+
+		}
+
+		for(int begin = 0; begin < missing.size(); begin += MAX_IN_PARAMETERS){
+
+			final List<String> chunk = missing.subList(begin, Math.min(missing.size(), begin + MAX_IN_PARAMETERS));
+			final long start = System.nanoTime();
+			final PooledConnection con = this.pool.acquire();
+			try{
+
+				final int size = parameterSize(chunk.size());
+				final PreparedStatement ps = con.prepare(String.format(FIND_SYNSETS_BY_SYNSETS, placeholders(size)));
+				for(int i = 0; i != size; ++i){
+
+					// 余ったパラメータは最後のIDで埋める
+					ps.setString(i + 1, chunk.get(Math.min(i, chunk.size() - 1)));
+
+				}
+				final List<Synset> synsets = this.createSynsets(ps);
+				this.record(Query.FIND_SYNSETS_BY_SYNSETS, start, synsets.size());
+				ret.addAll(synsets);
+
+			}finally{
+
+				this.pool.release(con);
+
+			}
+
+		}
+
+		return ret;
+
+	}
+
+	/**
+	 * 見出し語が指定した接頭辞で始まるWordを，頻度の高い順に取得する．
+	 *
+	 * <p>
+	 * 頻度は各Wordに属するSenseの頻度（SENSE.freq）の合計です．
+	 * 検索はメモリ上の索引を使い，大文字と小文字を区別しません．
+	 * 索引は最初の呼び出しでWORDテーブルを一度だけ読み込んで作成します．
+	 * </p>
+	 *
+	 * @param prefix 接頭辞
+	 * @param lang 言語，nullの場合はすべての言語
+	 * @param limit 取得する最大の件数
+	 * @return 頻度の高い順に並べたWordのリスト
+	 * @throws SQLException データベースへのアクセスにエラーが発生した場合
+	 */
+	public List<Word> findWordsByPrefix(final String prefix, final Lang lang, final int limit) throws SQLException{
+		assert prefix != null : "prefix is null";
+		assert limit >= 0 : "limit is negative";
+
+		PrefixIndex index = this.prefixIndex;
+		if(index == null){
+
+			synchronized(this.indexLock){
+
+				index = this.prefixIndex;
+				if(index == null){
+
+					index = new PrefixIndex(this.loadWordTable());
+					this.prefixIndex = index;
+
+				}
+
+			}
+
+		}
+
+		return this.findWordsInOrder(index.find(prefix, lang, limit));
+
+	}
+
+	/**
+	 * 読みが一致するWordを，頻度の高い順に取得する．
+	 *
+	 * <p>
+	 * 読み（Word.getPron()）と，仮名だけからなる日本語の見出し語を対象に検索します．
+	 * 平仮名と片仮名，全角と半角，長音符の違いは区別しません．
+	 * 例えば「コーヒー」で検索すると，読みが「こおひい」のWordも見つかります．
+	 * 検索はメモリ上のハッシュ表を使い，索引は最初の呼び出しでWORDテーブルを一度だけ読み込んで作成します．
+	 * </p>
+	 *
+	 * @param kana 読み
+	 * @return 読みが一致するWordのリスト
+	 * @throws SQLException データベースへのアクセスにエラーが発生した場合
+	 */
+	public List<Word> findWordsByReading(final String kana) throws SQLException{
+		assert kana != null : "kana is null";
+
+		ReadingIndex index = this.readingIndex;
+		if(index == null){
+
+			synchronized(this.indexLock){
+
+				index = this.readingIndex;
+				if(index == null){
+
+					index = new ReadingIndex(this.loadWordTable());
+					this.readingIndex = index;
+
+				}
+
+			}
+
+		}
+
+		return this.findWordsInOrder(index.find(kana));
+
+	}
+
+	/**
+	 * 見出し語との編集距離がmaxEdits以下のWordを取得する．
+	 *
+	 * <p>
+	 * 編集距離は文字の挿入，削除，置換の回数（Levenshtein距離）で，大文字と小文字は区別しません．
+	 * 結果は距離の小さい順，距離が同じ場合は頻度の高い順に並びます．
+	 * 検索はメモリ上のBK木を使い，索引は最初の呼び出しでWORDテーブルを一度だけ読み込んで作成します．
+	 * </p>
+	 *
+	 * @param lemma 見出し語
+	 * @param maxEdits 編集距離の上限
+	 * @return 見出し語との編集距離がmaxEdits以下のWordのリスト
+	 * @throws SQLException データベースへのアクセスにエラーが発生した場合
+	 */
+	public List<Word> findWordsFuzzy(final String lemma, final int maxEdits) throws SQLException{
+		assert lemma != null : "lemma is null";
+		assert maxEdits >= 0 : "maxEdits is negative";
+
+		FuzzyIndex index = this.fuzzyIndex;
+		if(index == null){
+
+			synchronized(this.indexLock){
+
+				index = this.fuzzyIndex;
+				if(index == null){
+
+					index = new FuzzyIndex(this.loadWordTable());
+					this.fuzzyIndex = index;
+
+				}
+
+			}
+
+		}
+
+		return this.findWordsInOrder(index.find(lemma, maxEdits));
+
+	}
+
+	/**
+	 * 説明文（SynsetDef）が問い合わせに適合するSynsetを，適合度の高い順に取得する．
+	 *
+	 * <p>
+	 * 英語の説明文は単語，日本語の説明文は文字の二つ組で索引し，適合度はBM25で計算します．
+	 * 検索はメモリ上の転置索引を使います．
+	 * 索引は，loadDefinitionIndexで読み込んでいない場合，最初の呼び出しでSYNSET_DEFテーブルを一度だけ読み込み，
+	 * 利用可能なプロセッサの数のスレッドで並行に作成します．
+	 * </p>
+	 *
+	 * @param query 問い合わせ
+	 * @param lang 説明文の言語，nullの場合はすべての言語
+	 * @param k 取得する最大の件数
+	 * @return 適合度の高い順に並べたSynsetのリスト
+	 * @throws SQLException データベースへのアクセスにエラーが発生した場合
+	 */
+	public List<Synset> searchDefinitions(final String query, final Lang lang, final int k) throws SQLException{
+		assert query != null : "query is null";
+		assert k >= 0 : "k is negative";
+
+		return this.findSynsetsInOrder(this.getDefinitionIndex().search(query, lang, k));
+
+	}
+
+	/**
+	 * 説明文の索引をファイルへ保存する．
+	 * 索引をまだ作成していない場合は作成してから保存します．
+	 * データベースファイルと同じ場所に保存しておくと，次回以降はloadDefinitionIndexで作成を省略できます．
+	 *
+	 * @param file 出力先のファイル
+	 * @throws SQLException データベースへのアクセスにエラーが発生した場合
+	 * @throws IOException 入出力エラーが発生した場合
+	 */
+	public void saveDefinitionIndex(final File file) throws SQLException, IOException{
+		assert file != null : "file is null";
+
+		this.getDefinitionIndex().save(file);
+
+	}
+
+	/**
+	 * saveDefinitionIndexで保存した説明文の索引を読み込み，以降の検索に使用する．
+	 * 保存した時と同じデータベースを使用してください．
+	 *
+	 * @param file saveDefinitionIndexで保存したファイル
+	 * @throws FileNotFoundException 指定されたファイルが見つからない場合
+	 * @throws IOException 入出力エラーが発生した場合，またはファイルの形式やバージョンが異なる場合
+	 */
+	public void loadDefinitionIndex(final File file) throws FileNotFoundException, IOException{
+		assert file != null : "file is null";
+
+		if(!file.exists()){
+
+			throw new FileNotFoundException(file.toString());
+
+		}
+
+		this.definitionIndex = DefinitionIndex.load(file);
+
+	}
+
+	/**
+	 * すべての見出し語を検出するアノテータを作成する．
+	 * WORDテーブルを一度だけ読み込んで作成し，以降の検出ではデータベースへアクセスしません．
+	 * 作成には時間がかかるため，作成したアノテータを使い回してください．
+	 *
+	 * @return 新しいアノテータ
+	 * @throws SQLException データベースへのアクセスにエラーが発生した場合
+	 */
+	public Annotator createAnnotator() throws SQLException{
+
+		return new Annotator(this, this.loadWordTable());
+
+	}
+
+	/**
+	 * Synsetごとに，属するSenseの頻度（SENSE.freq）の合計を取得する．
+	 * 情報量に基づく類似度の計算などに使用します．
+	 *
+	 * @return SynsetIDから頻度の合計への対応
+	 * @throws SQLException データベースへのアクセスにエラーが発生した場合
+	 * @see Sense#getFreq()
+	 */
+	public Map<String, Integer> getSynsetFrequencies() throws SQLException{
+
+		final Map<String, Integer> ret = new HashMap<String, Integer>();
+		final PooledConnection con = this.pool.acquire();
+		try{
+
+			final PreparedStatement ps = con.prepare(SUM_FREQ_BY_SYNSET);
+			final ResultSet rs = ps.executeQuery();
+			try{
+
+				while(rs.next()){
+
+					ret.put(rs.getString(1), rs.getInt(2));
+
+				}
+
+			}finally{
+
+				rs.close();
+
+			}
+
+		}finally{
+
+			this.pool.release(con);
+
+		}
+
+		return ret;
+
+	}
+
+	/////////////////////////////////////////////////////////////////////////////////////
+	// Package private methods
+	/////////////////////////////////////////////////////////////////////////////////////
+	/**
+	 * 問い合わせ一回分の統計情報を記録する．
+	 *
+	 * @param query 問い合わせの種類
+	 * @param start 問い合わせを開始した時点のSystem.nanoTime()の値
+	 * @param rows 読み出した行数
+	 */
+	void record(final Query query, final long start, final long rows){
+
+		this.metrics[query.ordinal()].record(System.nanoTime() - start, rows);
+
+	}
+
+	Word findWord(final Word word) throws SQLException{
+
+		final IdentityCache<Integer, Word> cache = this.wordCache;
+		if(cache != null){
+
+			final Word cached = cache.get(word.getWordID());
+			if(cached != null){
+
+				return cached;
+
+			}
+
+		}
+
+		final long start = System.nanoTime();
+		final PooledConnection con = this.pool.acquire();
+		try{
+
+			final PreparedStatement ps = con.prepare(FIND_WORD_BY_WORDID);
+			ps.setInt(1, word.getWordID());
+			final List<Word> ret = this.createWords(ps);
+			this.record(Query.FIND_WORD_BY_WORDID, start, ret.size());
+
+			if(ret.size() == 0){
+
+				return null;
+
+			}
+
+			return ret.get(0);
+
+		}finally{
+
+			this.pool.release(con);
+
+		}
+
+	}
+
+	List<Sense> findSenses(final Word word) throws SQLException{
+
+		final long start = System.nanoTime();
+		final PooledConnection con = this.pool.acquire();
+		try{
+
+			final PreparedStatement ps = con.prepare(FIND_SENSES_BY_WORDID);
+			ps.setInt(1, word.getWordID());
+			final List<Sense> ret = this.createSences(ps);
+			this.record(Query.FIND_SENSES_BY_WORDID, start, ret.size());
+
+			return ret;
+
+		}finally{
+
+			this.pool.release(con);
+
+		}
+
+	}
+
+	List<Sense> findSenses(final Synset synset) throws SQLException{
+
+		final long start = System.nanoTime();
+		final PooledConnection con = this.pool.acquire();
+		try{
+
+			final PreparedStatement ps = con.prepare(FIND_SENSES_BY_SYNSET);
+			ps.setString(1, synset.getSynsetID());
+			final List<Sense> ret = this.createSences(ps);
+			this.record(Query.FIND_SENSES_BY_SYNSET, start, ret.size());
+
+			return ret;
+
+		}finally{
+
+			this.pool.release(con);
+
+		}
+
+	}
+
+	List<Sense> findSenses(final Synset synset, final Lang lang) throws SQLException{
+
+		final long start = System.nanoTime();
+		final PooledConnection con = this.pool.acquire();
+		try{
+
+			final PreparedStatement ps = con.prepare(FIND_SENSES_BY_SYNSET_AND_LANG);
+			ps.setString(1, synset.getSynsetID());
+			ps.setString(2, lang.toString());
+			final List<Sense> ret = this.createSences(ps);
+			this.record(Query.FIND_SENSES_BY_SYNSET_AND_LANG, start, ret.size());
+
+			return ret;
+
+		}finally{
+
+			this.pool.release(con);
+
+		}
+
+	}
+
+	Synset findSynset(final Synset synset) throws SQLException{
+
+		final IdentityCache<String, Synset> cache = this.synsetCache;
+		if(cache != null){
+
+			final Synset cached = cache.get(synset.getSynsetID());
+			if(cached != null){
+
+				return cached;
+
+			}
+
+		}
+
+		final long start = System.nanoTime();
+		final PooledConnection con = this.pool.acquire();
+		try{
+
+			final PreparedStatement ps = con.prepare(FIND_SYNSET_BY_SYNSET);
+			ps.setString(1, synset.getSynsetID());
+			final List<Synset> ret = this.createSynsets(ps);
+			this.record(Query.FIND_SYNSET_BY_SYNSET, start, ret.size());
+
+
+			if(ret.size() == 0){
+
+				return null;
+
+			}
+
+			return ret.get(0);
+
+		}finally{
+
+			this.pool.release(con);
+
+		}
+
+	}
+
+	List<Synset> findSynsets(final Synset synset, final Link link) throws SQLException{
+
+		final long start = System.nanoTime();
+		final PooledConnection con = this.pool.acquire();
+		try{
+
+			final PreparedStatement ps = con.prepare(FIND_SYNSET_BY_SYNSET_AND_LINK);
+			ps.setString(1, synset.getSynsetID());
+			ps.setString(2, link.toString());
+			final List<Synset> ret = this.createSynsets(ps);
+			this.record(Query.FIND_SYNSET_BY_SYNSET_AND_LINK, start, ret.size());
+
+
+			return ret;
+
+		}finally{
+
+			this.pool.release(con);
+
+		}
+
+	}
+
+	/**
+	 * 複数のSynsetについて，指定されたリンクで結ばれているSynsetをまとめて取得する．
+	 *
+	 * @param synsetids リンク元のSynsetID
+	 * @param link リンクの種類
+	 * @return リンク元のSynsetIDから，リンク先のSynsetのリストへのマップ．リンクを持たないSynsetIDは含まない
+	 * @throws SQLException データベースへのアクセスにエラーが発生した場合
+	 */
+	Map<String, List<Synset>> findConnectedSynsets(final Collection<String> synsetids, final Link link) throws SQLException{
+
+		final Map<String, List<Synset>> ret = new LinkedHashMap<String, List<Synset>>();
+		final List<String> ids = new ArrayList<String>(synsetids);
+		for(int begin = 0; begin < ids.size(); begin += MAX_IN_PARAMETERS){
+
+			final List<String> chunk = ids.subList(begin, Math.min(ids.size(), begin + MAX_IN_PARAMETERS));
+			final long start = System.nanoTime();
+			final PooledConnection con = this.pool.acquire();
+			try{
+
+				final int size = parameterSize(chunk.size());
+				final PreparedStatement ps = con.prepare(String.format(FIND_SYNSETS_BY_SYNSETS_AND_LINK, placeholders(size)));
+				ps.setString(1, link.toString());
+				for(int i = 0; i != size; ++i){
+
+					// 余ったパラメータは最後のIDで埋める
+					ps.setString(i + 2, chunk.get(Math.min(i, chunk.size() - 1)));
+
+				}
+
+				int rows = 0;
+				final ResultSet rs = ps.executeQuery();
+				try{
+
+					for(; rs.next(); ++rows){
+
+						final String from = rs.getString(1);
+						List<Synset> list = ret.get(from);
+						if(list == null){
+
+							list = new ArrayList<Synset>();
+							ret.put(from, list);
+
+						}
+						list.add(this.share(Synset.create(this, rs.getString(2), Pos.valueOf(rs.getString(3)), rs.getString(4), rs.getString(5))));
+
+					}
+
+				}finally{
+
+					rs.close();
+
+				}
+				this.record(Query.FIND_SYNSETS_BY_SYNSETS_AND_LINK, start, rows);
+
+			}finally{
+
+				this.pool.release(con);
+
+			}
+
+		}
+
+		return ret;
+
+	}
+
+	/**
+	 * 索引の作成に使うWORDテーブルの内容を読み込む．
+	 */
+	WordTable loadWordTable() throws SQLException{
+
+		final WordTable ret = new WordTable();
+		final PooledConnection con = this.pool.acquire();
+		try{
+
+			final PreparedStatement ps = con.prepare(LOAD_WORD_TABLE);
+			final ResultSet rs = ps.executeQuery();
+			try{
+
+				while(rs.next()){
+
+					ret.add(rs.getInt(1), Lang.valueOf(rs.getString(2)), rs.getString(3), rs.getString(4), Pos.valueOf(rs.getString(5)), rs.getInt(6));
+
+				}
+
+			}finally{
+
+				rs.close();
+
+			}
+
+		}finally{
+
+			this.pool.release(con);
+
+		}
+
+		return ret;
+
+	}
+
+	/**
+	 * 索引の作成に使うSYNSET_DEFテーブルの内容を読み込む．
+	 */
+	DefinitionTable loadDefinitionTable() throws SQLException{
+
+		final DefinitionTable ret = new DefinitionTable();
+		final PooledConnection con = this.pool.acquire();
+		try{
+
+			final PreparedStatement ps = con.prepare(LOAD_DEFINITION_TABLE);
+			final ResultSet rs = ps.executeQuery();
+			try{
+
+				while(rs.next()){
+
+					ret.add(rs.getString(1), Lang.valueOf(rs.getString(2)), rs.getString(3));
+
+				}
+
+			}finally{
+
+				rs.close();
+
+			}
+
+		}finally{
+
+			this.pool.release(con);
+
+		}
+
+		return ret;
+
+	}
+
+	/**
+	 * 指定されたリンクを繰り返したどって到達できるSynsetを，近いものから順に取得する．
+	 * 再帰問い合わせを使えるデータベースでは，一回の問い合わせで計算します．
+	 */
+	List<Synset> findClosure(final Synset synset, final Link link, final int maxDepth) throws SQLException{
+
+		final List<Synset> ret = new ArrayList<Synset>();
+		final Set<String> visited = new HashSet<String>();
+		visited.add(synset.getSynsetID());
+
+		if(!this.supportsRecursiveQueries()){
+
+			this.expand(Collections.singletonList(synset), link, maxDepth, ret, visited, null, null);
+			return ret;
+
+		}
+
+		final int limit = Math.min(maxDepth, MAX_RECURSIVE_DEPTH);
+		final List<Synset> frontier = new ArrayList<Synset>();
+		final long start = System.nanoTime();
+		final PooledConnection con = this.pool.acquire();
+		try{
+
+			final PreparedStatement ps = con.prepare(FIND_CLOSURE);
+			this.setClosureParameters(ps, synset, link, limit);
+			int rows = 0;
+			final ResultSet rs = ps.executeQuery();
+			try{
+
+				for(; rs.next(); ++rows){
+
+					final Synset s = this.share(Synset.create(this, rs.getString(1), Pos.valueOf(rs.getString(2)), rs.getString(3), rs.getString(4)));
+					ret.add(s);
+					visited.add(s.getSynsetID());
+					if(rs.getInt(5) == limit){
+
+						frontier.add(s);
+
+					}
+
+				}
+
+			}finally{
+
+				rs.close();
+
+			}
+			this.record(Query.FIND_CLOSURE, start, rows);
+
+		}finally{
+
+			this.pool.release(con);
+
+		}
+
+		// 上限の深さまで到達した場合，残りを一段ずつたどる
+		if(maxDepth > limit && !frontier.isEmpty()){
+
+			this.expand(frontier, link, maxDepth - limit, ret, visited, null, null);
+
+		}
+
+		return ret;
+
+	}
+
+	/**
+	 * 指定されたリンクを繰り返したどって到達できるSynsetまでの最短距離のうち，最大のものを取得する．
+	 */
+	int findDepth(final Synset synset, final Link link) throws SQLException{
+
+		if(this.supportsRecursiveQueries()){
+
+			final int depth = this.findRecursiveDepth(synset, link);
+			if(depth < MAX_RECURSIVE_DEPTH){
+
+				return depth;
+
+			}
+
+		}
+
+		final Set<String> visited = new HashSet<String>();
+		visited.add(synset.getSynsetID());
+		return this.expand(Collections.singletonList(synset), link, Integer.MAX_VALUE, new ArrayList<Synset>(), visited, null, null);
+
+	}
+
+	/**
+	 * 指定されたリンクをたどってfromからtoへ至る最短経路を取得する．
+	 *
+	 * @return fromからtoまでのSynsetのリスト，到達できない場合は空のリスト
+	 */
+	List<Synset> findPath(final Synset from, final Synset to, final Link link) throws SQLException{
+
+		if(from.equals(to)){
+
+			return Collections.singletonList(from);
+
+		}
+
+		final Map<String, String> parents = new HashMap<String, String>();
+		if(this.supportsRecursiveQueries()){
+
+			final long start = System.nanoTime();
+			final PooledConnection con = this.pool.acquire();
+			try{
+
+				final PreparedStatement ps = con.prepare(FIND_PATH_EDGES);
+				this.setClosureParameters(ps, from, link, MAX_RECURSIVE_DEPTH);
+				ps.setString(5, link.toString());
+				ps.setString(6, to.getSynsetID());
+				int rows = 0;
+				final ResultSet rs = ps.executeQuery();
+				try{
+
+					for(; rs.next(); ++rows){
+
+						final String child = rs.getString(2);
+						if(!parents.containsKey(child)){
+
+							parents.put(child, rs.getString(1));
+
+						}
+
+					}
+
+				}finally{
+
+					rs.close();
+
+				}
+				this.record(Query.FIND_PATH_EDGES, start, rows);
+
+			}finally{
+
+				this.pool.release(con);
+
+			}
+
+			if(parents.containsKey(to.getSynsetID())){
+
+				final List<String> ids = tracePath(parents, from.getSynsetID(), to.getSynsetID());
+				final Map<String, Synset> synsets = new HashMap<String, Synset>();
+				for(final Synset s : this.findSynsetsByIds(ids)){
+
+					synsets.put(s.getSynsetID(), s);
+
+				}
+
+				final List<Synset> ret = new ArrayList<Synset>(ids.size());
+				for(final String id : ids){
+
+					final Synset s = synsets.get(id);
+					ret.add(s != null ? s : Synset.create(this, id));
+
+				}
+				return ret;
+
+			}
+
+			if(this.findRecursiveDepth(from, link) < MAX_RECURSIVE_DEPTH){
+
+				return Collections.emptyList();
+
+			}
+			parents.clear();
+
+		}
+
+		final List<Synset> reached = new ArrayList<Synset>();
+		final Set<String> visited = new HashSet<String>();
+		visited.add(from.getSynsetID());
+		this.expand(Collections.singletonList(from), link, Integer.MAX_VALUE, reached, visited, parents, to.getSynsetID());
+		if(!parents.containsKey(to.getSynsetID())){
+
+			return Collections.emptyList();
+
+		}
+
+		final Map<String, Synset> synsets = new HashMap<String, Synset>();
+		synsets.put(from.getSynsetID(), from);
+		for(final Synset s : reached){
+
+			synsets.put(s.getSynsetID(), s);
+
+		}
+
+		final List<Synset> ret = new ArrayList<Synset>();
+		for(final String id : tracePath(parents, from.getSynsetID(), to.getSynsetID())){
+
+			ret.add(synsets.get(id));
+
+		}
+		return ret;
+
+	}
+
+	/**
+	 * 再帰問い合わせを使えるかどうかを調べる．
+	 * 初めて呼び出された時に，データベースのメタデータから製品を判定します．
+	 */
+	boolean supportsRecursiveQueries() throws SQLException{
+
+		if(this.pool == null){
+
+			return false;
+
+		}
+
+		Dialect d = this.dialect;
+		if(d == null){
+
+			final PooledConnection con = this.pool.acquire();
+			try{
+
+				d = Dialect.detect(con.getConnection().getMetaData());
+				this.dialect = d;
+
+			}finally{
+
+				this.pool.release(con);
+
+			}
+
+		}
+		return d.supportsRecursiveQueries();
+
+	}
+
+	SynsetDef findSynsetDef(final Synset synset) throws SQLException{
+
+		final long start = System.nanoTime();
+		final PooledConnection con = this.pool.acquire();
+		try{
+
+			final PreparedStatement ps = con.prepare(FIND_SYNSETDEF_BY_SYNSET);
+			SynsetDef ret = null;
+			ps.setString(1, synset.getSynsetID());
+			final ResultSet rs = ps.executeQuery();
+			try{
+
+				if(rs.next()){
+
+					ret = new SynsetDef(this, synset, Lang.valueOf(rs.getString(2)), rs.getString(3), rs.getInt(4));
+
+				}
+
+			}finally{
+
+				rs.close();
+
+			}
+
+			this.record(Query.FIND_SYNSETDEF_BY_SYNSET, start, ret == null ? 0 : 1);
+			return ret;
+
+		}finally{
+
+			this.pool.release(con);
+
+		}
+
+	}
+
+	List<Synlink> findSynlinks(final Synset synset) throws SQLException{
+
+		final long start = System.nanoTime();
+		final PooledConnection con = this.pool.acquire();
+		try{
+
+			final PreparedStatement ps = con.prepare(FIND_SYNLINK_BY_SYNSET);
+			ps.setString(1, synset.getSynsetID());
+			final List<Synlink> ret = this.createSynlinks(ps);
+			this.record(Query.FIND_SYNLINK_BY_SYNSET, start, ret.size());
+
+			return ret;
+
+		}finally{
+
+			this.pool.release(con);
+
+		}
+
+	}
+
+	List<Synlink> findSynlinks(final Synset synset, final Link link) throws SQLException{
+
+		final long start = System.nanoTime();
+		final PooledConnection con = this.pool.acquire();
+		try{
+
+			final PreparedStatement ps = con.prepare(FIND_SYNLINK_BY_SYNSET_AND_LINK);
+			ps.setString(1, synset.getSynsetID());
+			ps.setString(2, link.toString());
+			final List<Synlink> ret = this.createSynlinks(ps);
+			this.record(Query.FIND_SYNLINK_BY_SYNSET_AND_LINK, start, ret.size());
+
+			return ret;
+
+		}finally{
+
+			this.pool.release(con);
+
+		}
+
+	}
+
+	/////////////////////////////////////////////////////////////////////////////////////
+	// Private methods
+	/////////////////////////////////////////////////////////////////////////////////////
+	/**
+	 * registerMBeanで登録したMXBeanの登録を解除する．登録していない場合は何もしない．
+	 */
+	private synchronized void unregisterMBean() throws IOException{
+
+		if(this.objectName == null){
+
+			return;
+
+		}
+
+		try{
+
+			final MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+			if(server.isRegistered(this.objectName)){
+
+				server.unregisterMBean(this.objectName);
+
+			}
+			this.objectName = null;
+
+		}catch(final JMException e){
+
+			throw new IOException(e);
+
+		}
+
+	}
+
+	/**
+	 * コネクションを借りて問い合わせを実行し，結果を読み出すStreamを作成する．
+	 * コネクションはStreamが閉じられた時点でプールへ返されます．
+	 * Streamを作成したスレッドが読み出し中に行う検索は，同じコネクションを使います．
+	 * queryがnullでない場合，Streamが閉じられた時点でその統計情報を記録します．
+	 */
+	private <T> Stream<T> stream(final Query query, final String sql, final RowStream.Mapper<T> mapper, final Object... params) throws SQLException{
+
+		final long start = System.nanoTime();
+		final PooledConnection con = this.pool.acquire();
+		final PreparedStatement ps;
+		try{
+
+			ps = con.lease(sql);
+
+		}catch(final SQLException e){
+
+			this.pool.release(con);
+			throw e;
+
+		}
+
+		try{
+
+			for(int i = 0; i != params.length; ++i){
+
+				ps.setObject(i + 1, params[i]);
+
+			}
+
+		}catch(final SQLException e){
+
+			try{
+
+				con.unlease(ps);
+
+			}finally{
+
+				this.pool.release(con);
+
+			}
+			throw e;
+
+		}
+
+		return RowStream.create(this.pool, con, ps, this.fetchSize, mapper, query == null ? null : this.metrics[query.ordinal()], start);
+
+	}
+
+	/**
+	 * キーがlower以上upper未満の行を，キーの順に読み出すStreamを作成する．
+	 * lowerまたはupperがnullの場合，その側の条件は付けません．
+	 */
+	private <T> Stream<T> scan(final String select, final String key, final RowStream.Mapper<T> mapper, final Object lower, final Object upper) throws SQLException{
+
+		final StringBuilder sql = new StringBuilder(select);
+		final List<Object> params = new ArrayList<Object>();
+		if(lower != null){
+
+			sql.append(" where ").append(key).append(" >= ?");
+			params.add(lower);
+
+		}
+		if(upper != null){
+
+			sql.append(lower == null ? " where " : " and ").append(key).append(" < ?");
+			params.add(upper);
+
+		}
+		sql.append(" order by ").append(key).append(";");
+
+		return this.stream(null, sql.toString(), mapper, params.toArray());
+
+	}
+
+	/**
+	 * 区切りのキーで分けた範囲を並列に読み出すStreamを作成する．
+	 */
+	private <T> Stream<T> scan(final String select, final String key, final RowStream.Mapper<T> mapper, final List<Object> bounds) throws SQLException{
+
+		return ScanSpliterator.create(new ScanSpliterator.Source<T>(){
+
+			@Override
+			public Stream<T> open(final int partition) throws SQLException {
+
+				final Object lower = partition == 0 ? null : bounds.get(partition - 1);
+				final Object upper = partition == bounds.size() ? null : bounds.get(partition);
+				return scan(select, key, mapper, lower, upper);
+
+			}
+
+		}, bounds.size() + 1, true);
+
+	}
+
+	/**
+	 * テーブルの行をキーの順にほぼ同じ件数のpartitions個の範囲へ分ける区切りのキーを取得する．
+	 * キーは一度だけ走査し，区切りのキーだけを保持します．
+	 * キーが一意でない場合も走査するテーブルの行数で分けるため，行の多いキーがあっても範囲の件数は偏りません．
+	 * 同じキーの行は一つの範囲に入るため，区切りのキーは重複しません．
+	 *
+	 * @param table 走査するテーブル
+	 * @param key 走査するテーブルの，範囲を分けるキーの列
+	 * @return 昇順に並んだ最大partitions - 1個の区切りのキー
+	 */
+	private List<Object> findBounds(final String table, final String key, final int partitions) throws SQLException{
+
+		final List<Object> ret = new ArrayList<Object>();
+		final PooledConnection con = this.pool.acquire();
 		try{
 
-			if(rs.next()){
+			final long rows;
+			final ResultSet count = con.prepare(String.format(COUNT_ROWS, table)).executeQuery();
+			try{
+
+				rows = count.next() ? count.getLong(1) : 0;
 
-				ret = new SynsetDef(this, synset, Lang.valueOf(rs.getString(2)), rs.getString(3), rs.getInt(4));
+			}finally{
+
+				count.close();
 
 			}
 
-		}finally{
+			final long step = (rows + partitions - 1) / partitions;
+			if(partitions == 1 || step == 0){
 
-			rs.close();
+				return ret;
 
-		}
+			}
 
-		return ret;
+			final long start = System.nanoTime();
+			final PreparedStatement ps = con.prepare(String.format(FIND_KEYS, table, key));
+			ps.setFetchSize(this.fetchSize);
+			final ResultSet rs = ps.executeQuery();
+			try{
 
-	}
+				long i = 0;
+				for(; rs.next(); ++i){
 
-	List<Synlink> findSynlinks(final Synset synset) throws SQLException{
+					if(i != 0 && i % step == 0){
 
-		PreparedStatement ps = this.findSynlinksBySynset.get();
-		if(ps == null){
+						final Object bound = rs.getObject(1);
+						if(ret.isEmpty() || !bound.equals(ret.get(ret.size() - 1))){
 
-			ps = this.createPreparedStatement(FIND_SYNLINK_BY_SYNSET);
-			this.findSynlinksBySynset = new SoftReference<PreparedStatement>(ps);
+							ret.add(bound);
 
-		}
+						}
 
-		final List<Synlink> ret = new ArrayList<Synlink>();
-		ps.setString(1, synset.getSynsetID());
-		ret.addAll(this.createSynlinks(ps));
+					}
 
-		return ret;
+				}
+				this.record(Query.FIND_KEYS, start, i);
 
-	}
+			}finally{
 
-	List<Synlink> findSynlinks(final Synset synset, final Link link) throws SQLException{
+				rs.close();
 
-		PreparedStatement ps = this.findSynlinksBySynsetAndLink.get();
-		if(ps == null){
+			}
 
-			ps = this.createPreparedStatement(FIND_SYNLINK_BY_SYNSET_AND_LINK);
-			this.findSynlinksBySynsetAndLink = new SoftReference<PreparedStatement>(ps);
+		}finally{
 
-		}
+			this.pool.release(con);
 
-		final List<Synlink> ret = new ArrayList<Synlink>();
-		ps.setString(1, synset.getSynsetID());
-		ps.setString(2, link.toString());
-		ret.addAll(this.createSynlinks(ps));
+		}
 
 		return ret;
 
 	}
 
-	/////////////////////////////////////////////////////////////////////////////////////
-	// Private methods
-	/////////////////////////////////////////////////////////////////////////////////////
 	private List<Word> createWords(final PreparedStatement ps) throws SQLException{
 
 		final List<Word> words = new ArrayList<Word>();
@@ -464,7 +2177,7 @@ public class Wnj2 implements Closeable{
 
 			while(rs.next()){
 
-				words.add(Word.create(this, rs.getInt(1), Lang.valueOf(rs.getString(2)), rs.getString(3), rs.getString(4), Pos.valueOf(rs.getString(5))));
+				words.add(this.wordMapper.map(rs));
 
 			}
 
@@ -486,7 +2199,7 @@ public class Wnj2 implements Closeable{
 
 			while(rs.next()){
 
-				senses.add(new Sense(this, rs.getString(1), rs.getInt(2), rs.getString(3), rs.getInt(4), rs.getInt(5), rs.getInt(6), rs.getString(7)));
+				senses.add(this.senseMapper.map(rs));
 
 			}
 
@@ -506,9 +2219,9 @@ public class Wnj2 implements Closeable{
 		final List<Synset> synsets = new ArrayList<Synset>();
 		try{
 
-			if(rs.next()){
+			while(rs.next()){
 
-				synsets.add(Synset.create(this, rs.getString(1), Pos.valueOf(rs.getString(2)), rs.getString(3), rs.getString(4)));
+				synsets.add(this.synsetMapper.map(rs));
 
 			}
 
@@ -530,7 +2243,7 @@ public class Wnj2 implements Closeable{
 
 			while(rs.next()){
 
-				synlinks.add(new Synlink(this, rs.getString(1), rs.getString(2), Link.valueOf(rs.getString(3)), rs.getString(4)));
+				synlinks.add(this.synlinkMapper.map(rs));
 
 			}
 
@@ -544,13 +2257,390 @@ public class Wnj2 implements Closeable{
 
 	}
 
-	private PreparedStatement createPreparedStatement(final String sql) throws SQLException{
+	/**
+	 * wordidの順序を保ったままWordを取得する．
+	 */
+	private List<Word> findWordsInOrder(final int[] wordids) throws SQLException{
+
+		final Map<Integer, Word> words = new HashMap<Integer, Word>();
+		for(final Word w : this.findWordsByIds(wordids)){
+
+			words.put(w.getWordID(), w);
+
+		}
+
+		final List<Word> ret = new ArrayList<Word>(wordids.length);
+		for(final int id : wordids){
+
+			final Word w = words.get(id);
+			if(w != null){
+
+				ret.add(w);
+
+			}
+
+		}
+
+		return ret;
+
+	}
+
+	private DefinitionIndex getDefinitionIndex() throws SQLException{
+
+		DefinitionIndex index = this.definitionIndex;
+		if(index == null){
+
+			synchronized(this.indexLock){
+
+				index = this.definitionIndex;
+				if(index == null){
+
+					index = DefinitionIndex.build(this.loadDefinitionTable(), Runtime.getRuntime().availableProcessors());
+					this.definitionIndex = index;
+
+				}
+
+			}
+
+		}
+
+		return index;
+
+	}
+
+	/**
+	 * SynsetIDの順序を保ったままSynsetを取得する．
+	 */
+	private List<Synset> findSynsetsInOrder(final List<String> synsetids) throws SQLException{
+
+		final Map<String, Synset> synsets = new HashMap<String, Synset>();
+		for(final Synset s : this.findSynsetsByIds(synsetids)){
+
+			synsets.put(s.getSynsetID(), s);
+
+		}
+
+		final List<Synset> ret = new ArrayList<Synset>(synsetids.size());
+		for(final String id : synsetids){
+
+			final Synset s = synsets.get(id);
+			if(s != null){
+
+				ret.add(s);
+
+			}
+
+		}
+
+		return ret;
+
+	}
+
+	/**
+	 * frontierから幅優先でリンクをたどり，新たに到達したSynsetをretに追加する．
+	 * 一段ごとにfindConnectedSynsetsを一回呼び出します．
+	 *
+	 * @param parents nullでない場合，到達したSynsetのIDからその親のIDへの対応を格納する
+	 * @param target nullでない場合，このIDのSynsetに到達した時点で終了する
+	 * @return たどった段数
+	 */
+	private int expand(final List<Synset> frontier, final Link link, final int maxDepth, final List<Synset> ret,
+			final Set<String> visited, final Map<String, String> parents, final String target) throws SQLException{
+
+		List<Synset> level = frontier;
+		int depth = 0;
+		while(depth != maxDepth && !level.isEmpty()){
+
+			final List<String> ids = new ArrayList<String>(level.size());
+			for(final Synset s : level){
+
+				ids.add(s.getSynsetID());
+
+			}
+
+			final List<Synset> next = new ArrayList<Synset>();
+			for(final Map.Entry<String, List<Synset>> e : this.findConnectedSynsets(ids, link).entrySet()){
+
+				for(final Synset s : e.getValue()){
+
+					if(visited.add(s.getSynsetID())){
+
+						next.add(s);
+						if(parents != null){
+
+							parents.put(s.getSynsetID(), e.getKey());
+
+						}
+
+					}
+
+				}
+
+			}
+
+			if(next.isEmpty()){
+
+				break;
+
+			}
+			ret.addAll(next);
+			level = next;
+			++depth;
+
+			if(target != null && visited.contains(target)){
+
+				break;
+
+			}
+
+		}
+		return depth;
+
+	}
+
+	private int findRecursiveDepth(final Synset synset, final Link link) throws SQLException{
+
+		final long start = System.nanoTime();
+		final PooledConnection con = this.pool.acquire();
+		try{
+
+			final PreparedStatement ps = con.prepare(FIND_DEPTH);
+			this.setClosureParameters(ps, synset, link, MAX_RECURSIVE_DEPTH);
+			final ResultSet rs = ps.executeQuery();
+			try{
+
+				final int ret = rs.next() ? rs.getInt(1) : 0;
+				this.record(Query.FIND_DEPTH, start, 1);
+				return ret;
+
+			}finally{
+
+				rs.close();
+
+			}
+
+		}finally{
+
+			this.pool.release(con);
+
+		}
+
+	}
+
+	private void setClosureParameters(final PreparedStatement ps, final Synset synset, final Link link, final int limit) throws SQLException{
+
+		ps.setString(1, synset.getSynsetID());
+		ps.setString(2, link.toString());
+		ps.setString(3, link.toString());
+		ps.setInt(4, limit);
+
+	}
+
+	/**
+	 * 親への対応をたどり，fromからtoへの経路を作成する．
+	 */
+	private static List<String> tracePath(final Map<String, String> parents, final String from, final String to){
+
+		final LinkedList<String> ret = new LinkedList<String>();
+		String id = to;
+		while(id != null && !id.equals(from)){
+
+			ret.addFirst(id);
+			id = parents.get(id);
+
+		}
+		ret.addFirst(from);
+		return ret;
+
+	}
+
+	/**
+	 * SENSEにSYNSETとWORDを結合した行からSenseを作成する．
+	 * 結合したSynsetやWordが存在しない場合は遅延読み込みにする．
+	 *
+	 * @param share SynsetとWordをキャッシュに格納する場合はtrue
+	 */
+	private Sense createSense(final ResultSet rs, final boolean share) throws SQLException{
+
+		final String synsetid = rs.getString(1);
+		final Synset synset;
+		if(rs.getString(8) == null){
+
+			synset = Synset.create(this, synsetid);
+
+		}else{
+
+			final Synset s = Synset.create(this, synsetid, Pos.valueOf(rs.getString(8)), rs.getString(9), rs.getString(10));
+			synset = share ? this.share(s) : s;
+
+		}
+
+		final int wordid = rs.getInt(2);
+		final Word word;
+		if(rs.getString(11) == null){
+
+			word = Word.create(this, wordid);
+
+		}else{
+
+			final Word w = Word.create(this, wordid, Lang.valueOf(rs.getString(11)), rs.getString(12), rs.getString(13), Pos.valueOf(rs.getString(14)));
+			word = share ? this.share(w) : w;
+
+		}
+
+		return new Sense(this, synset, word, rs.getString(3), rs.getInt(4), rs.getInt(5), rs.getInt(6), rs.getString(7));
+
+	}
+
+	/**
+	 * キャッシュが有効な場合，取得したWordをキャッシュに格納し，共有されるオブジェクトを返す．
+	 */
+	private Word share(final Word word){
+
+		final IdentityCache<Integer, Word> cache = this.wordCache;
+		return cache == null ? word : cache.putIfAbsent(word.getWordID(), word);
+
+	}
+
+	/**
+	 * キャッシュが有効な場合，取得したSynsetをキャッシュに格納し，共有されるオブジェクトを返す．
+	 */
+	private Synset share(final Synset synset){
+
+		final IdentityCache<String, Synset> cache = this.synsetCache;
+		return cache == null ? synset : cache.putIfAbsent(synset.getSynsetID(), synset);
+
+	}
+
+	/////////////////////////////////////////////////////////////////////////////////////
+	// Static methods
+	/////////////////////////////////////////////////////////////////////////////////////
+	/**
+	 * SQLiteデータベースファイルへのコネクションを作成する．
+	 * SQLite用JDBCドライバは読み込み済みである必要があります．
+	 *
+	 * @param file 日本語WordNetデータベースファイル
+	 * @return 作成したコネクション
+	 * @throws SQLException 日本語WordNetデータベースファイルに関する入出力エラーが発生した場合
+	 */
+	static Connection openSQLite(final File file) throws SQLException{
+
+		return DriverManager.getConnection(String.format("jdbc:sqlite:%s", file.getAbsolutePath()));
+
+	}
+
+	/**
+	 * SQLiteデータベースファイルを変更されない辞書として読み込み専用で開く．
+	 * immutable=1を指定するため，SQLiteはロックとジャーナルを使いません．
+	 *
+	 * @param file 日本語WordNetデータベースファイル
+	 * @return 作成したコネクション
+	 * @throws SQLException 日本語WordNetデータベースファイルに関する入出力エラーが発生した場合
+	 */
+	static Connection openReadOnlySQLite(final File file) throws SQLException{
+
+		final Connection ret = DriverManager.getConnection(String.format("jdbc:sqlite:%s?mode=ro&immutable=1", file.getAbsoluteFile().toURI()));
+		pragma(ret, String.format("mmap_size = %d", SQLITE_MMAP_SIZE), String.format("cache_size = -%d", SQLITE_CACHE_SIZE), "query_only = 1");
+		return ret;
+
+	}
+
+	/**
+	 * 名前付きのメモリ上のSQLiteデータベースへのコネクションを作成する．
+	 * 同じ名前のコネクションはすべて同じデータベースを共有します．
+	 *
+	 * @param uri "file:name?mode=memory&amp;cache=shared" 形式のURI
+	 * @param file データベースへ複製するファイル，複製しない場合はnull
+	 * @return 作成したコネクション
+	 * @throws SQLException データベースへのアクセスにエラーが発生した場合
+	 */
+	static Connection openInMemorySQLite(final String uri, final File file) throws SQLException{
+
+		final Connection ret = DriverManager.getConnection(String.format("jdbc:sqlite:%s", uri));
+		try{
+
+			if(file != null){
+
+				// SQLite JDBCドライバのオンラインバックアップ機能で複製する
+				final Statement stmt = ret.createStatement();
+				try{
+
+					stmt.executeUpdate(String.format("restore from \"%s\"", file.getAbsolutePath()));
+
+				}finally{
+
+					stmt.close();
+
+				}
+
+			}
+			// 共有キャッシュのテーブル単位のロックを読み込みで取らない
+			pragma(ret, "read_uncommitted = 1", "query_only = 1");
+
+		}catch(final SQLException e){
 
-		final PreparedStatement ret = this.connection.prepareStatement(sql);
+			ret.close();
+			throw e;
 
-		assert ret != null;
+		}
 		return ret;
 
 	}
 
+	private static void pragma(final Connection connection, final String... pragmas) throws SQLException{
+
+		final Statement stmt = connection.createStatement();
+		try{
+
+			for(final String p : pragmas){
+
+				stmt.execute(String.format("pragma %s;", p));
+
+			}
+
+		}finally{
+
+			stmt.close();
+
+		}
+
+	}
+
+	/**
+	 * n個のIDを問い合わせるin句のパラメータ数を求める．
+	 *
+	 * @param n IDの数，MAX_IN_PARAMETERS以下
+	 * @return IN_PARAMETER_SIZESのうちn以上で最小の値
+	 */
+	private static int parameterSize(final int n){
+		assert n > 0 && n <= MAX_IN_PARAMETERS : "n is out of range";
+
+		for(final int size : IN_PARAMETER_SIZES){
+
+			if(n <= size){
+
+				return size;
+
+			}
+
+		}
+		return MAX_IN_PARAMETERS;
+
+	}
+
+	/**
+	 * in句に用いるn個のプレースホルダを作成する．
+	 */
+	private static String placeholders(final int n){
+
+		final StringBuilder ret = new StringBuilder(2 * n);
+		for(int i = 0; i != n; ++i){
+
+			ret.append(i == 0 ? "?" : ",?");
+
+		}
+		return ret.toString();
+
+	}
+
 }
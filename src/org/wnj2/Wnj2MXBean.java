@@ -0,0 +1,61 @@
+/*
+ * Copyright 2009 Junpei Kawamoto
+ *
+ * This file is part of Japanese WordNet wrapper for Java (Wnj2).
+ * Wnj2 is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Wnj2 is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Wnj2.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.wnj2;
+
+import java.util.List;
+
+/**
+ * Wnj2の問い合わせとキャッシュの統計情報を公開するMXBean．
+ *
+ * <p>
+ * Wnj2#registerMBean()でプラットフォームMBeanサーバに登録すると，
+ * JConsoleなどのJMXクライアントから統計情報を参照できます．
+ * </p>
+ *
+ * @see Wnj2#registerMBean()
+ */
+public interface Wnj2MXBean {
+
+	/**
+	 * 問い合わせの種類ごとの統計情報を取得する．
+	 *
+	 * @return 統計情報のリスト
+	 */
+	List<QueryStatistics> getQueryStatistics();
+
+	/**
+	 * Synsetキャッシュの統計情報を取得する．
+	 *
+	 * @return Synsetキャッシュの統計情報，キャッシュが無効の場合はnull
+	 */
+	CacheStatistics getSynsetCacheStatistics();
+
+	/**
+	 * Wordキャッシュの統計情報を取得する．
+	 *
+	 * @return Wordキャッシュの統計情報，キャッシュが無効の場合はnull
+	 */
+	CacheStatistics getWordCacheStatistics();
+
+	/**
+	 * 問い合わせの統計情報を0に戻す．
+	 */
+	void resetQueryStatistics();
+
+}
@@ -0,0 +1,84 @@
+/*
+ * Copyright 2009 Junpei Kawamoto
+ *
+ * This file is part of Japanese WordNet wrapper for Java (Wnj2).
+ * Wnj2 is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Wnj2 is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Wnj2.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.wnj2;
+
+import java.util.List;
+
+/**
+ * Wnj2#registerMBean()で登録するWnj2MXBeanの実装．
+ * 統計情報の取得をWnj2へ委譲します．
+ */
+final class Wnj2Monitor implements Wnj2MXBean{
+
+	private final Wnj2 wn;
+
+	/////////////////////////////////////////////////////////////////////////////////////
+	// Constractor
+	/////////////////////////////////////////////////////////////////////////////////////
+	Wnj2Monitor(final Wnj2 wn){
+		assert wn != null : "wn is null";
+
+		this.wn = wn;
+
+	}
+
+	/////////////////////////////////////////////////////////////////////////////////////
+	// Public methods
+	/////////////////////////////////////////////////////////////////////////////////////
+	/* (非 Javadoc)
+	 * @see org.wnj2.Wnj2MXBean#getQueryStatistics()
+	 */
+	@Override
+	public List<QueryStatistics> getQueryStatistics() {
+
+		return this.wn.getQueryStatistics();
+
+	}
+
+	/* (非 Javadoc)
+	 * @see org.wnj2.Wnj2MXBean#getSynsetCacheStatistics()
+	 */
+	@Override
+	public CacheStatistics getSynsetCacheStatistics() {
+
+		return this.wn.getSynsetCacheStatistics();
+
+	}
+
+	/* (非 Javadoc)
+	 * @see org.wnj2.Wnj2MXBean#getWordCacheStatistics()
+	 */
+	@Override
+	public CacheStatistics getWordCacheStatistics() {
+
+		return this.wn.getWordCacheStatistics();
+
+	}
+
+	/* (非 Javadoc)
+	 * @see org.wnj2.Wnj2MXBean#resetQueryStatistics()
+	 */
+	@Override
+	public void resetQueryStatistics() {
+
+		this.wn.resetQueryStatistics();
+
+	}
+
+}
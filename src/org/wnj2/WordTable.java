@@ -0,0 +1,113 @@
+/*
+ * Copyright 2009 Junpei Kawamoto
+ *
+ * This file is part of Japanese WordNet wrapper for Java (Wnj2).
+ * Wnj2 is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Wnj2 is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Wnj2.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package org.wnj2;
+
+import java.util.Arrays;
+
+/**
+ * 索引の作成に使うWORDテーブルの内容．
+ *
+ * <p>
+ * Wordごとに，wordid，言語，見出し語，読み，品詞，属するSenseの頻度の合計を保持します．
+ * 索引を作成する間だけ使用し，作成後は破棄されます．
+ * </p>
+ *
+ * @see Wnj2#loadWordTable()
+ */
+final class WordTable {
+
+	private int size = 0;
+	private int[] ids = new int[1024];
+	private Lang[] langs = new Lang[1024];
+	private String[] lemmas = new String[1024];
+	private String[] prons = new String[1024];
+	private Pos[] poses = new Pos[1024];
+	private int[] freqs = new int[1024];
+
+	/////////////////////////////////////////////////////////////////////////////////////
+	// Package private methods
+	/////////////////////////////////////////////////////////////////////////////////////
+	void add(final int id, final Lang lang, final String lemma, final String pron, final Pos pos, final int freq){
+
+		if(this.size == this.ids.length){
+
+			final int capacity = this.size * 2;
+			this.ids = Arrays.copyOf(this.ids, capacity);
+			this.langs = Arrays.copyOf(this.langs, capacity);
+			this.lemmas = Arrays.copyOf(this.lemmas, capacity);
+			this.prons = Arrays.copyOf(this.prons, capacity);
+			this.poses = Arrays.copyOf(this.poses, capacity);
+			this.freqs = Arrays.copyOf(this.freqs, capacity);
+
+		}
+
+		this.ids[this.size] = id;
+		this.langs[this.size] = lang;
+		this.lemmas[this.size] = lemma;
+		this.prons[this.size] = pron;
+		this.poses[this.size] = pos;
+		this.freqs[this.size] = freq;
+		++this.size;
+
+	}
+
+	int size(){
+
+		return this.size;
+
+	}
+
+	int id(final int i){
+
+		return this.ids[i];
+
+	}
+
+	Lang lang(final int i){
+
+		return this.langs[i];
+
+	}
+
+	String lemma(final int i){
+
+		return this.lemmas[i];
+
+	}
+
+	String pron(final int i){
+
+		return this.prons[i];
+
+	}
+
+	Pos pos(final int i){
+
+		return this.poses[i];
+
+	}
+
+	int freq(final int i){
+
+		return this.freqs[i];
+
+	}
+
+}
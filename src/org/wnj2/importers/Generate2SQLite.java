@@ -0,0 +1,88 @@
+/*
+ * Copyright 2009 Junpei Kawamoto
+ *
+ * This file is part of Japanese WordNet wrapper for Java (Wnj2).
+ * Wnj2 is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Wnj2 is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Wnj2.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.wnj2.importers;
+
+import java.io.File;
+import java.sql.SQLException;
+
+/**
+ * 日本語 WordNet と同じスキーマの合成データベースを SQLite のファイルとして作成します．
+ * このプログラムを利用するには， SQLite 用の JDBC ドライバが必要になります．
+ *
+ * <p>
+ * 倍率1で日本語 WordNet とほぼ同じ大きさになります．
+ * 同じ倍率とシードからは，常に同じ内容のデータベースを作成します．
+ * </p>
+ *
+ * @author Junpei Kawamoto
+ * @see Generator
+ */
+public class Generate2SQLite {
+
+	/**
+	 * @param args
+	 */
+	public static void main(String[] args) {
+
+		if(args.length < 1){
+			System.out.println("Useage: <Output File's Path> [Scale] [Seed]");
+			System.exit(1);
+		}
+		try {
+
+			Class.forName("org.sqlite.JDBC");
+
+		} catch (ClassNotFoundException e) {
+
+			e.printStackTrace();
+			System.exit(1);
+
+		}
+
+		final File dest = new File(args[0]);
+		final Generator generator = new Generator(
+				Import2Database.connector(String.format("jdbc:sqlite:%s", dest.getPath()), null, null), TargetDialect.SQLITE);
+		if(args.length > 1){
+
+			generator.setScale(Double.parseDouble(args[1]));
+
+		}
+		if(args.length > 2){
+
+			generator.setSeed(Long.parseLong(args[2]));
+
+		}
+
+		try {
+
+			System.out.println("Generating the dictionary");
+			final long start = System.currentTimeMillis();
+			generator.run();
+			System.out.println(String.format("Wrote %s (%d bytes, %d ms)", dest, dest.length(), System.currentTimeMillis() - start));
+
+		} catch (SQLException e) {
+
+			e.printStackTrace();
+			System.exit(1);
+
+		}
+
+	}
+
+}
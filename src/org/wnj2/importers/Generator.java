@@ -0,0 +1,735 @@
+/*
+ * Copyright 2009 Junpei Kawamoto
+ *
+ * This file is part of Japanese WordNet wrapper for Java (Wnj2).
+ * Wnj2 is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Wnj2 is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Wnj2.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.wnj2.importers;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import org.wnj2.Link;
+import org.wnj2.Pos;
+
+/**
+ * 日本語 WordNet と同じスキーマの合成データベースを作成します．
+ *
+ * <p>
+ * 倍率1のとき，品詞ごとの Synset 数は日本語 WordNet とほぼ同じになります．
+ * 名詞と動詞の Synset は上位語の木を作り，根に近い Synset ほど多くの下位語を持ちます．
+ * 見出し語は根に近い Synset のものほど多くの Synset で使われ，Sense の頻度は Zipf 分布に従います．
+ * 約半数の Synset は日本語の見出し語と説明文も持ちます．
+ * </p>
+ * <p>
+ * 同じシードと倍率からは，常に同じ内容のデータベースを作成します．
+ * 行は順に作成して挿入するため，倍率を大きくしてもメモリ使用量は増えません．
+ * </p>
+ * <blockquote><pre>
+ * Generator generator = new Generator(target, TargetDialect.SQLITE);
+ * generator.setScale(10);
+ * generator.run();
+ * </pre></blockquote>
+ *
+ * @author Junpei Kawamoto
+ * @see Generate2SQLite
+ */
+public class Generator {
+
+	/** 既定のシード */
+	public static final long DEFAULT_SEED = 20090227L;
+
+	/** 倍率1のときの品詞ごとのSynset数（Pos.values()の順） */
+	private static final int[] SYNSETS = {18156, 3621, 82115, 13767};
+
+	/** 日本語の見出し語を持つSynsetの割合 */
+	private static final double JAPANESE_RATIO = 0.49;
+
+	/** 英語の見出し語をもう一つ追加する確率 */
+	private static final double MORE_ENGLISH = 0.43;
+
+	/** 日本語の見出し語をもう一つ追加する確率 */
+	private static final double MORE_JAPANESE = 0.63;
+
+	/** 追加する見出し語が他のSynsetで使われていない新しい語である確率 */
+	private static final double FRESH_RATIO = 0.3;
+
+	/** 一つのSynsetが持つ言語ごとの見出し語の最大数 */
+	private static final int MAX_LEMMAS = 16;
+
+	/** 上位語を根に近い側へ偏らせる指数，大きいほど木は浅く，根の分岐数は大きくなる */
+	private static final double HYPERNYM_SKEW = 1.5;
+
+	/** 上位語を持たない動詞の割合 */
+	private static final double VERB_ROOT_RATIO = 0.04;
+
+	/** 形容詞のうち，類似語の中心となるものの割合 */
+	private static final double ADJECTIVE_HEAD_RATIO = 0.3;
+
+	/** 類似語の中心となる形容詞が反意語を持つ確率 */
+	private static final double ANTONYM_RATIO = 0.4;
+
+	/** 名詞が部分を表す名詞を持つ確率 */
+	private static final double PART_RATIO = 0.08;
+
+	/** 名詞が構成員を表す名詞を持つ確率 */
+	private static final double MEMBER_RATIO = 0.05;
+
+	/** 動詞が含意する動詞を持つ確率 */
+	private static final double ENTAIL_RATIO = 0.03;
+
+	/** Synsetが分野を持つ確率 */
+	private static final double DOMAIN_RATIO = 0.02;
+
+	/** 分野として使う根に近い名詞の数 */
+	private static final int DOMAINS = 1000;
+
+	/** 見出し語を選ぶZipf-Mandelbrot分布の順位のずれ，大きいほど上位の語の偏りが小さくなる */
+	private static final double ZIPF_OFFSET = 100;
+
+	/** 最も頻度の高い見出し語のSenseの頻度の上限 */
+	private static final int MAX_FREQ = 1000;
+
+	/** 英語の見出し語を作る子音と母音 */
+	private static final String CONSONANTS = "bdfghklmnprstvz";
+	private static final String VOWELS = "aeiou";
+
+	/** 日本語の見出し語を作るひらがな */
+	private static final String KANA = "あいうえおかきくけこさしすせそたちつてとなにぬねのはひふへほまみむめもやゆよらりるれろわ";
+
+	/** 日本語の見出し語に使う漢字の先頭 */
+	private static final char KANJI = '一';
+
+	/** ハッシュの種類 */
+	private static final long JAPANESE = 1;
+	private static final long HEAD = 2;
+
+	private final Importer.Connector target;
+	private final TargetDialect dialect;
+
+	private long seed = DEFAULT_SEED;
+	private double scale = 1;
+	private int batchSize = Importer.DEFAULT_BATCH_SIZE;
+
+	/////////////////////////////////////////////////////////////////////////////////////
+	// Constractor
+	/////////////////////////////////////////////////////////////////////////////////////
+	/**
+	 * 作成先を指定して Generator を作成する．
+	 *
+	 * @param target 作成先のデータベースへのコネクションを作成する Connector
+	 * @param dialect 作成先の DBMS
+	 */
+	public Generator(final Importer.Connector target, final TargetDialect dialect){
+		assert target != null : "target is null";
+		assert dialect != null : "dialect is null";
+
+		this.target = target;
+		this.dialect = dialect;
+
+	}
+
+	/////////////////////////////////////////////////////////////////////////////////////
+	// Public methods
+	/////////////////////////////////////////////////////////////////////////////////////
+	/**
+	 * 乱数のシードを設定する．
+	 *
+	 * @param seed シード
+	 */
+	public void setSeed(final long seed){
+
+		this.seed = seed;
+
+	}
+
+	/**
+	 * 日本語 WordNet に対する大きさの倍率を設定する．既定値は1です．
+	 *
+	 * @param scale 倍率
+	 */
+	public void setScale(final double scale){
+		assert scale > 0 : "scale must be positive";
+
+		this.scale = scale;
+
+	}
+
+	/**
+	 * 一度に挿入してコミットする行数を設定する．
+	 *
+	 * @param batchSize バッチの行数
+	 */
+	public void setBatchSize(final int batchSize){
+		assert batchSize > 0 : "batchSize must be positive";
+
+		this.batchSize = batchSize;
+
+	}
+
+	/**
+	 * 品詞ごとに作成するSynsetの数を取得する．
+	 *
+	 * @param pos 品詞
+	 * @return Synsetの数
+	 */
+	public int getSynsetCount(final Pos pos){
+
+		return Math.max(1, (int)Math.round(SYNSETS[pos.ordinal()] * this.scale));
+
+	}
+
+	/**
+	 * すべてのテーブルを作り直し，合成したデータを挿入する．
+	 *
+	 * @throws SQLException データベースへのアクセスにエラーが発生した場合
+	 */
+	public void run() throws SQLException{
+
+		final Connection con = this.target.open();
+		try{
+
+			final Statement stmt = con.createStatement();
+			try{
+
+				for(final Table table : Table.ALL){
+
+					stmt.execute(table.getDropTable(this.dialect));
+					stmt.execute(table.getCreateTable(this.dialect));
+
+				}
+
+			}finally{
+
+				stmt.close();
+
+			}
+
+			con.setAutoCommit(false);
+			final Map<String, Batch> batches = new HashMap<String, Batch>();
+			try{
+
+				for(final Table table : Table.ALL){
+
+					batches.put(table.getName(), new Batch(con, table.getInsert(this.dialect), this.batchSize));
+
+				}
+				this.generate(batches);
+				for(final Batch b : batches.values()){
+
+					b.flush();
+
+				}
+				con.commit();
+
+			}catch(final SQLException e){
+
+				con.rollback();
+				throw e;
+
+			}finally{
+
+				for(final Batch b : batches.values()){
+
+					b.close();
+
+				}
+				con.setAutoCommit(true);
+
+			}
+
+			final Statement index = con.createStatement();
+			try{
+
+				for(final Table table : Table.ALL){
+
+					for(final String sql : table.getCreateIndexes(this.dialect)){
+
+						index.execute(sql);
+
+					}
+
+				}
+
+			}finally{
+
+				index.close();
+
+			}
+
+		}finally{
+
+			con.close();
+
+		}
+
+	}
+
+	/////////////////////////////////////////////////////////////////////////////////////
+	// Private methods
+	/////////////////////////////////////////////////////////////////////////////////////
+	/**
+	 * すべての行を作成する．
+	 *
+	 * <p>
+	 * Synsetは品詞ごとに連続した番号を持ち，番号からSynsetID，見出し語，wordidが決まります．
+	 * 英語の見出し語のwordidは番号+1，日本語は総数+番号+1，新しい語は総数の2倍から順に割り当てます．
+	 * </p>
+	 */
+	private void generate(final Map<String, Batch> batches) throws SQLException{
+
+		final Batch posDef = batches.get("POS_DEF");
+		for(final Pos p : Pos.values()){
+
+			posDef.add(p.name(), "eng", p.getDescription());
+
+		}
+		final Batch linkDef = batches.get("LINK_DEF");
+		for(final Link l : Link.values()){
+
+			linkDef.add(l.name(), "eng", l.getDescription());
+
+		}
+
+		final Pos[] poses = Pos.values();
+		final int[] begins = new int[poses.length];
+		int total = 0;
+		for(final Pos p : poses){
+
+			begins[p.ordinal()] = total;
+			total += this.getSynsetCount(p);
+
+		}
+
+		final Random rnd = new Random(this.seed);
+		final int[] wordids = new int[MAX_LEMMAS];
+		int fresh = 2 * total;
+		for(final Pos p : poses){
+
+			final int begin = begins[p.ordinal()];
+			final int n = this.getSynsetCount(p);
+			int freshLemmas = n;
+			for(int i = 0; i != n; ++i){
+
+				final int g = begin + i;
+				final String id = this.synsetId(g, p);
+				final String name = english(i);
+				batches.get("SYNSET").add(id, p.name(), name, "eng30");
+
+				// 名詞と動詞の上位語
+				int parent = -1;
+				if((p == Pos.n || p == Pos.v) && i != 0 && (p == Pos.n || rnd.nextDouble() >= VERB_ROOT_RATIO)){
+
+					parent = (int)(i * Math.pow(rnd.nextDouble(), HYPERNYM_SKEW));
+
+				}
+
+				// 英語の見出し語
+				batches.get("WORD").add(g + 1, "eng", name, null, p.name());
+				batches.get("SENSE").add(id, g + 1, "eng", 0, 0, this.freq(rnd, i), "eng-30");
+				wordids[0] = g + 1;
+				int count = 1;
+				while(count != MAX_LEMMAS && rnd.nextDouble() < MORE_ENGLISH){
+
+					final int j = i == 0 || rnd.nextDouble() < FRESH_RATIO ? -1 : zipf(rnd, i);
+					if(j < 0){
+
+						final int wordid = ++fresh;
+						final int rank = freshLemmas++;
+						batches.get("WORD").add(wordid, "eng", english(rank), null, p.name());
+						batches.get("SENSE").add(id, wordid, "eng", 0, 0, this.freq(rnd, rank), "eng-30");
+						wordids[count++] = wordid;
+
+					}else if(!contains(wordids, count, begin + j + 1)){
+
+						batches.get("SENSE").add(id, begin + j + 1, "eng", 0, 1 + rnd.nextInt(3), this.freq(rnd, j), "eng-30");
+						wordids[count++] = begin + j + 1;
+
+					}
+
+				}
+				batches.get("SYNSET_DEF").add(id, "eng", this.englishDef(rnd, n, parent < 0 ? null : english(parent)), 0);
+
+				// 日本語の見出し語
+				if(this.hasJapanese(g)){
+
+					final int head = total + g + 1;
+					final String reading = katakana(i);
+					batches.get("WORD").add(head, "jpn", this.japanese(g, i), reading, p.name());
+					batches.get("SENSE").add(id, head, "jpn", 0, 0, 0, "hand");
+					wordids[0] = head;
+					count = 1;
+					while(count != MAX_LEMMAS && rnd.nextDouble() < MORE_JAPANESE){
+
+						int j = i == 0 || rnd.nextDouble() < FRESH_RATIO ? -1 : zipf(rnd, i);
+						if(j >= 0 && !this.hasJapanese(begin + j)){
+
+							j = -1;
+
+						}
+						if(j < 0){
+
+							final int wordid = ++fresh;
+							final int rank = freshLemmas++;
+							batches.get("WORD").add(wordid, "jpn", this.japanese(wordid, rank), katakana(rank), p.name());
+							batches.get("SENSE").add(id, wordid, "jpn", 0, 0, 0, "mono");
+							wordids[count++] = wordid;
+
+						}else if(!contains(wordids, count, total + begin + j + 1)){
+
+							batches.get("SENSE").add(id, total + begin + j + 1, "jpn", 0, 0, 0, "multi");
+							wordids[count++] = total + begin + j + 1;
+
+						}
+
+					}
+					batches.get("SYNSET_DEF").add(id, "jpn", this.japaneseDef(rnd, n), 0);
+
+				}
+
+				// 関係
+				final Batch links = batches.get("SYNLINK");
+				switch(p){
+				case n:
+					if(parent >= 0){
+
+						final String hypernym = this.synsetId(begin + parent, p);
+						links.add(id, hypernym, Link.hype.name(), "eng30");
+						links.add(hypernym, id, Link.hypo.name(), "eng30");
+						if(rnd.nextDouble() < PART_RATIO){
+
+							final String part = this.synsetId(begin + rnd.nextInt(i), p);
+							links.add(id, part, Link.hprt.name(), "eng30");
+							links.add(part, id, Link.mprt.name(), "eng30");
+
+						}
+						if(rnd.nextDouble() < MEMBER_RATIO){
+
+							final String member = this.synsetId(begin + rnd.nextInt(i), p);
+							links.add(id, member, Link.hmem.name(), "eng30");
+							links.add(member, id, Link.mmem.name(), "eng30");
+
+						}
+
+					}
+					break;
+				case v:
+					if(parent >= 0){
+
+						final String hypernym = this.synsetId(begin + parent, p);
+						links.add(id, hypernym, Link.hype.name(), "eng30");
+						links.add(hypernym, id, Link.hypo.name(), "eng30");
+						if(rnd.nextDouble() < ENTAIL_RATIO){
+
+							links.add(id, this.synsetId(begin + rnd.nextInt(i), p), Link.enta.name(), "eng30");
+
+						}
+
+					}
+					break;
+				case a:
+					if(i != 0){
+
+						final boolean head = this.isHead(g);
+						if(!head || rnd.nextDouble() < ANTONYM_RATIO){
+
+							final int h = this.findHead(begin, rnd.nextInt(i));
+							if(h >= 0){
+
+								final String other = this.synsetId(begin + h, p);
+								final String link = head ? Link.ants.name() : Link.sim.name();
+								links.add(id, other, link, "eng30");
+								links.add(other, id, link, "eng30");
+
+							}
+
+						}
+
+					}
+					break;
+				default:
+					break;
+				}
+				if(rnd.nextDouble() < DOMAIN_RATIO && (p != Pos.n || i != 0)){
+
+					final int nouns = begins[Pos.n.ordinal()];
+					final int bound = Math.min(p == Pos.n ? i : this.getSynsetCount(Pos.n), DOMAINS);
+					final String domain = this.synsetId(nouns + rnd.nextInt(bound), Pos.n);
+					links.add(id, domain, Link.dmnc.name(), "eng30");
+					links.add(domain, id, Link.dmtc.name(), "eng30");
+
+				}
+
+			}
+
+		}
+
+	}
+
+	private String synsetId(final int g, final Pos pos){
+
+		return String.format("%08d-%s", g + 1, pos.name());
+
+	}
+
+	/**
+	 * Senseの頻度を作成する．頻度の上限は見出し語の順位に反比例します．
+	 */
+	private int freq(final Random rnd, final int rank){
+
+		return (int)(rnd.nextDouble() * MAX_FREQ / (rank + 1));
+
+	}
+
+	private boolean hasJapanese(final int g){
+
+		return this.hash(JAPANESE, g) < JAPANESE_RATIO;
+
+	}
+
+	private boolean isHead(final int g){
+
+		return this.hash(HEAD, g) < ADJECTIVE_HEAD_RATIO;
+
+	}
+
+	/**
+	 * 指定した番号以前で，類似語の中心となる形容詞を探す．
+	 *
+	 * @return 形容詞の中での番号，見つからない場合は負の値
+	 */
+	private int findHead(final int begin, final int from){
+
+		for(int i = from; i >= 0 && i > from - 64; --i){
+
+			if(i == 0 || this.isHead(begin + i)){
+
+				return i;
+
+			}
+
+		}
+		return -1;
+
+	}
+
+	/**
+	 * 日本語の見出し語を作成する．同じ読みから，漢字，ひらがな，カタカナのいずれかの表記を作ります．
+	 */
+	private String japanese(final int key, final int rank){
+
+		final String kana = hiragana(rank);
+		final double style = this.hash(key, rank);
+		if(style < 0.5){
+
+			// 二文字ずつ漢字にし，残りは送り仮名にする
+			final StringBuilder b = new StringBuilder();
+			int i = 0;
+			for(; i + 1 < kana.length(); i += 2){
+
+				b.append((char)(KANJI + KANA.indexOf(kana.charAt(i)) * KANA.length() + KANA.indexOf(kana.charAt(i + 1))));
+
+			}
+			return b.append(kana.substring(i)).toString();
+
+		}else if(style < 0.8){
+
+			return kana;
+
+		}
+		return katakana(rank);
+
+	}
+
+	private String englishDef(final Random rnd, final int n, final String genus){
+
+		final StringBuilder b = new StringBuilder();
+		if(genus != null){
+
+			b.append("a kind of ").append(genus);
+
+		}
+		final int length = 3 + rnd.nextInt(8);
+		for(int i = 0; i != length; ++i){
+
+			b.append(b.length() == 0 ? "" : " ").append(english(zipf(rnd, n)));
+
+		}
+		return b.toString();
+
+	}
+
+	private String japaneseDef(final Random rnd, final int n){
+
+		final StringBuilder b = new StringBuilder();
+		final int length = 2 + rnd.nextInt(6);
+		for(int i = 0; i != length; ++i){
+
+			b.append(hiragana(zipf(rnd, n))).append(i + 1 == length ? "" : "の");
+
+		}
+		return b.append("．").toString();
+
+	}
+
+	/**
+	 * シードと種類，番号から0以上1未満の値を計算する．
+	 */
+	private double hash(final long salt, final long index){
+
+		long z = this.seed + salt * 0x9E3779B97F4A7C15L + index * 0xBF58476D1CE4E5B9L;
+		z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+		z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+		z = z ^ (z >>> 31);
+		return (z >>> 11) * 0x1.0p-53;
+
+	}
+
+	/////////////////////////////////////////////////////////////////////////////////////
+	// Static methods
+	/////////////////////////////////////////////////////////////////////////////////////
+	/**
+	 * 0からn-1までの順位を，順位+ZIPF_OFFSETにほぼ反比例する確率で選ぶ．
+	 */
+	private static int zipf(final Random rnd, final int n){
+
+		final double r = ZIPF_OFFSET * Math.pow((n + ZIPF_OFFSET) / ZIPF_OFFSET, rnd.nextDouble()) - ZIPF_OFFSET;
+		return Math.min((int)r, n - 1);
+
+	}
+
+	private static boolean contains(final int[] values, final int length, final int value){
+
+		for(int i = 0; i != length; ++i){
+
+			if(values[i] == value){
+
+				return true;
+
+			}
+
+		}
+		return false;
+
+	}
+
+	/**
+	 * 順位から英語の見出し語を作成する．子音と母音の組を並べるため，異なる順位からは異なる語ができます．
+	 */
+	private static String english(final int rank){
+
+		final int base = CONSONANTS.length() * VOWELS.length();
+		final StringBuilder b = new StringBuilder();
+		int r = rank;
+		do{
+
+			final int s = r % base;
+			b.append(CONSONANTS.charAt(s / VOWELS.length())).append(VOWELS.charAt(s % VOWELS.length()));
+			r = r / base - 1;
+
+		}while(r >= 0);
+		return b.toString();
+
+	}
+
+	private static String hiragana(final int rank){
+
+		final StringBuilder b = new StringBuilder();
+		int r = rank;
+		do{
+
+			b.append(KANA.charAt(r % KANA.length()));
+			r = r / KANA.length() - 1;
+
+		}while(r >= 0);
+		return b.toString();
+
+	}
+
+	private static String katakana(final int rank){
+
+		final char[] kana = hiragana(rank).toCharArray();
+		for(int i = 0; i != kana.length; ++i){
+
+			kana[i] += 'ア' - 'あ';
+
+		}
+		return new String(kana);
+
+	}
+
+	/////////////////////////////////////////////////////////////////////////////////////
+	// Inner classes
+	/////////////////////////////////////////////////////////////////////////////////////
+	/**
+	 * 一つのテーブルへの挿入をまとめるバッチ．
+	 */
+	private static final class Batch{
+
+		private final Connection con;
+		private final PreparedStatement ps;
+		private final int batchSize;
+		private int size = 0;
+
+		Batch(final Connection con, final String sql, final int batchSize) throws SQLException{
+
+			this.con = con;
+			this.ps = con.prepareStatement(sql);
+			this.batchSize = batchSize;
+
+		}
+
+		void add(final Object... values) throws SQLException{
+
+			for(int i = 0; i != values.length; ++i){
+
+				this.ps.setObject(i + 1, values[i]);
+
+			}
+			this.ps.addBatch();
+			if(++this.size == this.batchSize){
+
+				this.flush();
+				this.con.commit();
+
+			}
+
+		}
+
+		void flush() throws SQLException{
+
+			if(this.size != 0){
+
+				this.ps.executeBatch();
+				this.size = 0;
+
+			}
+
+		}
+
+		void close() throws SQLException{
+
+			this.ps.close();
+
+		}
+
+	}
+
+}
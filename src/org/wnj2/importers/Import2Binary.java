@@ -0,0 +1,91 @@
+/*
+ * Copyright 2009 Junpei Kawamoto
+ *
+ * This file is part of Japanese WordNet wrapper for Java (Wnj2).
+ * Wnj2 is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Wnj2 is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Wnj2.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.wnj2.importers;
+
+import java.io.File;
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+
+import org.wnj2.MappedWnj2;
+
+/**
+ * 日本語 WordNet データベースを MappedWnj2 用のバイナリ辞書ファイルへ変換します．
+ * このプログラムを利用するには， SQLite 用の JDBC ドライバが必要になります．
+ *
+ * @author Junpei Kawamoto
+ *
+ */
+public class Import2Binary {
+
+	/**
+	 * @param args
+	 */
+	public static void main(String[] args) {
+
+		if(args.length < 2){
+			System.out.println("Useage: <Wordnet File's Path> <Output File's Path>");
+			System.exit(1);
+		}
+		try {
+
+			Class.forName("org.sqlite.JDBC");
+
+		} catch (ClassNotFoundException e) {
+
+			e.printStackTrace();
+			System.exit(1);
+
+		}
+
+		final String srcUri = String.format("jdbc:sqlite:%s", args[0]);
+		final File dest = new File(args[1]);
+
+		try {
+
+			final Connection srcCon = DriverManager.getConnection(srcUri);
+			try{
+
+				System.out.println("Compiling the dictionary");
+				final long start = System.currentTimeMillis();
+				MappedWnj2.compile(srcCon, dest);
+				System.out.println(String.format("Wrote %s (%d bytes, %d ms)", dest, dest.length(), System.currentTimeMillis() - start));
+
+			}finally{
+
+				srcCon.close();
+
+			}
+
+		} catch (SQLException e) {
+
+			e.printStackTrace();
+			System.exit(1);
+
+		} catch (IOException e) {
+
+			e.printStackTrace();
+			System.exit(1);
+
+		}
+
+	}
+
+}
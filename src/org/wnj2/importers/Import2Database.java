@@ -0,0 +1,154 @@
+/*
+ * Copyright 2009 Junpei Kawamoto
+ *
+ * This file is part of Japanese WordNet wrapper for Java (Wnj2).
+ * Wnj2 is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Wnj2 is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Wnj2.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.wnj2.importers;
+
+import java.io.Console;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+
+/**
+ * 日本語 WordNet データベースを MySQL, PostgreSQL, H2 などのデータベースへインポートします．
+ * このプログラムを利用するには， SQLite とインポート先 DBMS 用の JDBC ドライバが必要になります．
+ *
+ * <p>
+ * 七つのテーブルを並列にコピーし，テーブルごとにコピーした行数と速度を表示します．
+ * 中断した場合は，同じ引数で再び実行すると続きからコピーします．
+ * ユーザ名を指定した場合は，パスワードをコンソールから読み込みます．
+ * </p>
+ *
+ * @author Junpei Kawamoto
+ * @see Importer
+ */
+public class Import2Database {
+
+	/**
+	 * @param args
+	 */
+	public static void main(String[] args) {
+
+		if(args.length < 3){
+			System.out.println("Useage: <Wordnet File's Path> <mysql|postgresql|h2|sqlite> <DB's URL> [Username of DB] [Threads] [Batch Size]");
+			System.exit(1);
+		}
+		try {
+
+			Class.forName("org.sqlite.JDBC");
+
+		} catch (ClassNotFoundException e) {
+
+			e.printStackTrace();
+			System.exit(1);
+
+		}
+
+		final TargetDialect dialect = TargetDialect.forName(args[1]);
+		final String user = args.length > 3 ? args[3] : null;
+		final String password;
+		if(user != null){
+
+			final Console console = System.console();
+			password = new String(console.readPassword("Password: "));
+
+		}else{
+
+			password = null;
+
+		}
+
+		final Importer importer = new Importer(connector(String.format("jdbc:sqlite:%s", args[0]), null, null),
+				connector(dialect.getURL(args[2]), user, password), dialect);
+		if(args.length > 4){
+
+			importer.setThreads(Integer.parseInt(args[4]));
+
+		}
+		if(args.length > 5){
+
+			importer.setBatchSize(Integer.parseInt(args[5]));
+
+		}
+
+		run(importer);
+
+	}
+
+	/**
+	 * インポートを実行し，テーブルごとの結果を表示する．
+	 * エラーが発生した場合は終了コード1で終了します．
+	 *
+	 * @param importer 実行するImporter
+	 */
+	static void run(final Importer importer){
+
+		importer.setListener(new Importer.Listener(){
+
+			@Override
+			public void progress(final String table, final long rows, final long millis) {
+			}
+
+			@Override
+			public void finished(final String table, final long rows, final long millis) {
+
+				System.out.println(String.format("Copied %s table: %d rows (%d ms, %.0f rows/sec)",
+						table, rows, millis, millis == 0 ? (double)rows : rows * 1000.0 / millis));
+
+			}
+
+		});
+
+		try {
+
+			final long start = System.currentTimeMillis();
+			importer.run();
+			System.out.println(String.format("Done (%d ms)", System.currentTimeMillis() - start));
+
+		} catch (SQLException e) {
+
+			e.printStackTrace();
+			System.exit(1);
+
+		}
+
+	}
+
+	/**
+	 * 接続 URL とユーザ名，パスワードからコネクションを作成する Connector を作成する．
+	 *
+	 * @param url 接続 URL
+	 * @param user ユーザ名，指定しない場合はnull
+	 * @param password パスワード
+	 * @return Connector
+	 */
+	static Importer.Connector connector(final String url, final String user, final String password){
+
+		return new Importer.Connector(){
+
+			@Override
+			public Connection open() throws SQLException {
+
+				return user == null ? DriverManager.getConnection(url) : DriverManager.getConnection(url, user, password);
+
+			}
+
+		};
+
+	}
+
+}
@@ -19,18 +19,21 @@
 package org.wnj2.importers;
 
 import java.io.Console;
-import java.sql.Connection;
-import java.sql.DriverManager;
-import java.sql.ResultSet;
-import java.sql.SQLException;
-import java.sql.Statement;
 
 /**
  * 日本語 WordNet データベースを MySQL データベースへインポートします．
  * このプログラムを利用するには， SQLite と MySQL 用の JDBC ドライバが必要になります．
  *
- * @author Junpei Kawamoto
+ * <p>
+ * 各テーブルの行は PreparedStatement のバッチにまとめて挿入し，バッチごとにコミットします．
+ * 接続 URL には rewriteBatchedStatements=true を付け加え，バッチを複数行の insert 文として送信します．
+ * 二次索引は，すべての行を挿入した後で作成します．
+ * 実行のたびにテーブルを作り直し，すべての行をコピーし直します．
+ * 中断したインポートを再開する場合は Import2Database を使います．
+ * </p>
  *
+ * @author Junpei Kawamoto
+ * @see Import2Database
  */
 public class Import2MySQL {
 
@@ -40,7 +43,7 @@ public class Import2MySQL {
 	public static void main(String[] args) {
 
 		if(args.length < 3){
-			System.out.println("Useage: <Wordnet File's Path> <MySQL DB's URL> <Username of MySQL DB>");
+			System.out.println("Useage: <Wordnet File's Path> <MySQL DB's URL> <Username of MySQL DB> [Batch Size]");
 			System.exit(1);
 		}
 		try {
@@ -56,310 +59,23 @@ public class Import2MySQL {
 		}
 
 		final String srcUri = String.format("jdbc:sqlite:%s", args[0]);
-		final String destUri = args[1];
+		final String destUri = TargetDialect.MYSQL.getURL(args[1]);
 		final String destUser =args[2];
 
 		final Console console = System.console();
 		final String password = new String(console.readPassword("Password: "));
 
-		try {
-
-			final Connection srcCon = DriverManager.getConnection(srcUri);
-			final Statement srcStat = srcCon.createStatement();
-
-			final Connection destCon = DriverManager.getConnection(destUri, destUser, password);
-			final Statement destStat = destCon.createStatement();
-
-
-			System.out.println("Copying LINK_DEF table");
-			try{
-
-				// 既にテーブルがある場合は削除
-				destStat.executeUpdate("drop table if exists LINK_DEF;");
-
-				// 新たにテーブルを作成
-				destStat.executeUpdate("create table LINK_DEF(link varchar(5) primary key, lang char(3) not null, def text not null);");
-
-				// 元のデータベースからコピー
-				final ResultSet rs = srcStat.executeQuery("select * from LINK_DEF");
-				try{
-
-					while(rs.next()){
-
-						// read the result set
-						final String link = rs.getString("link");
-						final String lang = rs.getString("lang");
-						final String def = rs.getString("def");
-
-						if(link != null && lang != null && def != null){
-
-							destStat.executeUpdate(String.format("insert into LINK_DEF values('%s', '%s', '%s');", link, lang, def));
-
-						}
-
-					}
-
-				}finally{
-
-					rs.close();
-
-				}
-
-			}catch(final SQLException e){
-
-				e.printStackTrace();
-				System.exit(1);
-
-			}
-
-
-			System.out.println("Copying POS_DEF table");
-			try{
-
-				// 既にテーブルがある場合は削除
-				destStat.executeUpdate("drop table if exists POS_DEF;");
-
-				// 新たにテーブルを作成
-				destStat.executeUpdate("create table POS_DEF(pos char(1), lang char(3), def text not null, primary key(pos, lang));");
-
-				// 元のデータベースからコピー
-				final ResultSet rs = srcStat.executeQuery("select * from POS_DEF");
-				try{
-
-					while(rs.next()){
-
-						// read the result set
-						final String pos = rs.getString("pos");
-						final String lang = rs.getString("lang");
-						final String def = rs.getString("def");
-
-						if(pos != null && lang != null && def != null){
-
-							destStat.executeUpdate(String.format("insert into POS_DEF values('%s', '%s', '%s');", pos, lang, def));
-
-						}
-
-					}
-
-				}finally{
-
-					rs.close();
-
-				}
-
-			}catch(final SQLException e){
-
-				e.printStackTrace();
-				System.exit(1);
-
-			}
-
-			System.out.println("Copying SENSE table");
-			try{
-
-				// 既にテーブルがある場合は削除
-				destStat.executeUpdate(String.format("drop table if exists SENSE;"));
-
-				// 新たにテーブルを作成
-				destStat.executeUpdate("create table SENSE(synset varchar(12), wordid integer unsigned, lang char(3), rank integer unsigned, lexid integer unsigned, freq integer unsigned, src varchar(10), primary key(synset, wordid));");
-
-				// 元のデータベースからコピー
-				final ResultSet rs = srcStat.executeQuery("select * from SENSE");
-				try{
-
-					while(rs.next()){
-
-						// read the result set
-						final String synset = rs.getString("synset");
-						final int wordid = rs.getInt("wordid");
-						final String lang = rs.getString("lang");
-						final int rank = rs.getInt("rank");
-						final int lexid = rs.getInt("lexid");
-						final int freq = rs.getInt("freq");
-						final String src = rs.getString("src");
-
-						destStat.executeUpdate(String.format("insert into sense values('%s', %d, '%s', %d, %d, %d, '%s');", synset, wordid, lang, rank, lexid, freq, src));
-
-					}
-
-				}finally{
-
-					rs.close();
-
-				}
-
-			}catch(final SQLException e){
-
-				e.printStackTrace();
-				System.exit(1);
-
-			}
-
-			System.out.println("Copying SYNLINK table");
-			try{
-
-				// 既にテーブルがある場合は削除
-				destStat.executeUpdate(String.format("drop table if exists SYNLINK;"));
-
-				// 新たにテーブルを作成
-				destStat.executeUpdate("create table SYNLINK(synset1 varchar(12), synset2 varchar(12), link varchar(5), src varchar(10), primary key(synset1, synset2, link));");
-
-				// 元のデータベースからコピー
-				final ResultSet rs = srcStat.executeQuery("select * from SYNLINK");
-				try{
-					while(rs.next()){
+		final Importer importer = new Importer(Import2Database.connector(srcUri, null, null),
+				Import2Database.connector(destUri, destUser, password), TargetDialect.MYSQL);
+		importer.setResume(false);
+		if(args.length > 3){
 
-						// read the result set
-						final String synset1 = rs.getString("synset1");
-						final String synset2 = rs.getString("synset2");
-						final String link = rs.getString("link");
-						final String src = rs.getString("src");
-
-						destStat.executeUpdate(String.format("INSERT INTO SYNLINK VALUES('%s', '%s', '%s', '%s');", synset1, synset2, link, src));
-
-					}
-
-				}finally{
-
-					rs.close();
-
-				}
-
-			}catch(final SQLException e){
-
-				e.printStackTrace();
-				System.exit(1);
-
-			}
-
-			System.out.println("Copying SYNSET table");
-			try{
-
-				// 既にテーブルがある場合は削除
-				destStat.executeUpdate(String.format("drop table if exists SYNSET;"));
-
-				// 新たにテーブルを作成
-				destStat.executeUpdate("create table SYNSET(synset varchar(12) primary key, pos char(1), name text, src varchar(10));");
-
-				// 元のデータベースからコピー
-				final ResultSet rs = srcStat.executeQuery("select * from SYNSET");
-				try{
-
-					while(rs.next()){
-
-						// read the result set
-						final String synset = rs.getString("synset");
-						final String pos = rs.getString("pos");
-						final String name = rs.getString("name");
-						final String src = rs.getString("src");
-
-						destStat.executeUpdate(String.format("INSERT INTO SYNSET VALUES('%s', '%s', \"%s\", '%s');", synset, pos, name, src));
-
-					}
-
-				}finally{
-
-					rs.close();
-
-				}
-
-			}catch(final SQLException e){
-
-				e.printStackTrace();
-				System.exit(1);
-
-			}
-
-			System.out.println("Copying SYNSET_DEF table");
-			try{
-
-				// 既にテーブルがある場合は削除
-				destStat.executeUpdate(String.format("drop table if exists SYNSET_DEF;"));
-
-				// 新たにテーブルを作成
-				destStat.executeUpdate("create table SYNSET_DEF(synset varchar(12) primary key, lang char(3), def text, sid integer unsigned);");
-
-				// 元のデータベースからコピー
-				final ResultSet rs = srcStat.executeQuery("select * from SYNSET_DEF");
-				try{
-
-					while(rs.next()){
-
-						// read the result set
-						final String synset = rs.getString("synset");
-						final String lang = rs.getString("lang");
-						final String def = rs.getString("def");
-						final String sid = rs.getString("sid");
-
-						final String sql = String.format("INSERT INTO SYNSET_DEF VALUES('%s', '%s', \"%s\", '%s');", synset, lang, def.replace("\"", "\\\""), sid);
-						destStat.executeUpdate(sql);
-
-					}
-
-				}finally{
-
-					rs.close();
-
-				}
-
-			}catch(final SQLException e){
-
-				e.printStackTrace();
-				System.exit(1);
-
-			}
-
-			System.out.println("Copying WORD table");
-			try{
-
-				// 既にテーブルがある場合は削除
-				destStat.executeUpdate(String.format("drop table if exists WORD;"));
-
-				// 新たにテーブルを作成
-				destStat.executeUpdate("create table WORD(wordid integer primary key, lang char(3), lemma text, pron text, pos char(1));");
-
-				// 元のデータベースからコピー
-				final ResultSet rs = srcStat.executeQuery("select * from WORD");
-				try{
-
-					while(rs.next()){
-
-						// read the result set
-						final int wordid = rs.getInt("wordid");
-						final String lang = rs.getString("lang");
-						final String lemma = rs.getString("lemma");
-						final String pron = rs.getString("pron");
-						final String pos = rs.getString("pos");
-
-						destStat.executeUpdate(String.format("INSERT INTO WORD VALUES(%d, '%s', \"%s\", \"%s\", '%s');", wordid, lang, lemma.replace("\"", "\\\""), pron, pos));
-
-					}
-
-				}finally{
-
-					rs.close();
-
-				}
-
-			}catch(final SQLException e){
-
-				e.printStackTrace();
-				System.exit(1);
-
-			}
-
-			destStat.close();
-			destCon.close();
-			srcStat.close();
-			srcCon.close();
-
-		} catch (SQLException e) {
-
-			e.printStackTrace();
+			importer.setBatchSize(Integer.parseInt(args[3]));
 
 		}
 
+		Import2Database.run(importer);
+
 	}
 
 }
-
@@ -0,0 +1,651 @@
+/*
+ * Copyright 2009 Junpei Kawamoto
+ *
+ * This file is part of Japanese WordNet wrapper for Java (Wnj2).
+ * Wnj2 is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Wnj2 is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Wnj2.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.wnj2.importers;
+
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 日本語 WordNet データベースの七つのテーブルを他の DBMS へコピーします．
+ *
+ * <p>
+ * テーブルごとに別のコネクションを使い，複数のテーブルを並列にコピーします．
+ * 行は主キーの順に読み出し， PreparedStatement のバッチにまとめて挿入します．
+ * 二次索引は，テーブルのすべての行を挿入した後で作成します．
+ * </p>
+ * <p>
+ * コピー済みの行数はコピー先の WNJ2_IMPORT テーブルに，挿入した行と同じトランザクションで記録します．
+ * 中断したインポートを再び実行すると，完了したテーブルは読み飛ばし，途中のテーブルは記録した行の次から再開します．
+ * 最初からやり直す場合は setResume(false) を指定します．
+ * </p>
+ * <blockquote><pre>
+ * Importer importer = new Importer(source, target, TargetDialect.POSTGRESQL);
+ * importer.setThreads(4);
+ * importer.run();
+ * </pre></blockquote>
+ *
+ * @author Junpei Kawamoto
+ *
+ */
+public class Importer {
+
+	/**
+	 * データベースへの新しいコネクションを作成する．
+	 */
+	public interface Connector{
+
+		/**
+		 * @return 新しいコネクション
+		 * @throws SQLException コネクションの作成に失敗した場合
+		 */
+		Connection open() throws SQLException;
+
+	}
+
+	/**
+	 * コピーの進捗を受け取る．
+	 * 複数のテーブルを並列にコピーするため，メソッドは複数のスレッドから同時に呼ばれます．
+	 */
+	public interface Listener{
+
+		/**
+		 * バッチをコミットするたびに呼ばれる．
+		 *
+		 * @param table テーブル名
+		 * @param rows このテーブルについて今回の実行で読み出した行数
+		 * @param millis このテーブルのコピーを始めてからの経過時間（ミリ秒）
+		 */
+		void progress(String table, long rows, long millis);
+
+		/**
+		 * テーブルのコピーと索引の作成が終わると呼ばれる．
+		 * 以前の実行で完了していたテーブルについては呼ばれません．
+		 *
+		 * @param table テーブル名
+		 * @param rows このテーブルについて今回の実行で読み出した行数
+		 * @param millis このテーブルのコピーにかかった時間（ミリ秒）
+		 */
+		void finished(String table, long rows, long millis);
+
+	}
+
+	/** 既定のバッチの行数 */
+	public static final int DEFAULT_BATCH_SIZE = 1000;
+
+	/** コピー済みの行数を記録するテーブル */
+	private static final String CHECKPOINT = "WNJ2_IMPORT";
+
+	/** テーブルのコピーが完了したことを表す行数 */
+	private static final long DONE = -1;
+
+	private final Connector source;
+	private final Connector target;
+	private final TargetDialect dialect;
+
+	private int batchSize = DEFAULT_BATCH_SIZE;
+	private int threads = Table.ALL.size();
+	private boolean resume = true;
+	private Listener listener = null;
+
+	/////////////////////////////////////////////////////////////////////////////////////
+	// Constractor
+	/////////////////////////////////////////////////////////////////////////////////////
+	/**
+	 * コピー元とコピー先を指定して Importer を作成する．
+	 *
+	 * @param source 日本語 WordNet データベースへのコネクションを作成する Connector
+	 * @param target コピー先のデータベースへのコネクションを作成する Connector
+	 * @param dialect コピー先の DBMS
+	 */
+	public Importer(final Connector source, final Connector target, final TargetDialect dialect){
+		assert source != null : "source is null";
+		assert target != null : "target is null";
+		assert dialect != null : "dialect is null";
+
+		this.source = source;
+		this.target = target;
+		this.dialect = dialect;
+
+	}
+
+	/////////////////////////////////////////////////////////////////////////////////////
+	// Public methods
+	/////////////////////////////////////////////////////////////////////////////////////
+	/**
+	 * 一度に挿入してコミットする行数を設定する．
+	 *
+	 * @param batchSize バッチの行数
+	 */
+	public void setBatchSize(final int batchSize){
+		assert batchSize > 0 : "batchSize must be positive";
+
+		this.batchSize = batchSize;
+
+	}
+
+	/**
+	 * 並列にコピーするテーブルの数を設定する．既定値は7（すべてのテーブル）です．
+	 * コピー元とコピー先へのコネクションはそれぞれこの数まで作成されます．
+	 *
+	 * @param threads 並列にコピーするテーブルの数
+	 */
+	public void setThreads(final int threads){
+		assert threads > 0 : "threads must be positive";
+
+		this.threads = threads;
+
+	}
+
+	/**
+	 * 中断したインポートを再開するかどうかを設定する．既定値はtrueです．
+	 * falseの場合，記録した進捗を破棄してすべてのテーブルを作り直します．
+	 *
+	 * @param resume 再開する場合はtrue
+	 */
+	public void setResume(final boolean resume){
+
+		this.resume = resume;
+
+	}
+
+	/**
+	 * 進捗を受け取るListenerを設定する．
+	 *
+	 * @param listener Listener，進捗を受け取らない場合はnull
+	 */
+	public void setListener(final Listener listener){
+
+		this.listener = listener;
+
+	}
+
+	/**
+	 * すべてのテーブルをコピーする．
+	 *
+	 * @throws SQLException データベースへのアクセスにエラーが発生した場合，または待機中に割り込まれた場合
+	 */
+	public void run() throws SQLException{
+
+		final Map<String, Long> checkpoints = this.prepareCheckpoints();
+
+		final ExecutorService executor = Executors.newFixedThreadPool(Math.min(this.threads, Table.ALL.size()));
+		try{
+
+			final List<Future<Void>> futures = new ArrayList<Future<Void>>();
+			for(final Table table : Table.ALL){
+
+				final Long position = checkpoints.get(table.getName());
+				if(position != null && position == DONE){
+
+					continue;
+
+				}
+
+				futures.add(executor.submit(new Callable<Void>(){
+
+					@Override
+					public Void call() throws Exception {
+
+						copy(table, position);
+						return null;
+
+					}
+
+				}));
+
+			}
+
+			for(final Future<Void> f : futures){
+
+				getResult(f);
+
+			}
+
+		}finally{
+
+			// 失敗した場合は残りのテーブルのコピーを中断させ，終了を待つ
+			executor.shutdownNow();
+			awaitTermination(executor);
+
+		}
+
+	}
+
+	/////////////////////////////////////////////////////////////////////////////////////
+	// Private methods
+	/////////////////////////////////////////////////////////////////////////////////////
+	/**
+	 * 進捗を記録するテーブルを作成し，記録済みの進捗を読み込む．
+	 *
+	 * @return テーブル名からコピー済みの行数への写像，完了したテーブルはDONE
+	 */
+	private Map<String, Long> prepareCheckpoints() throws SQLException{
+
+		final Map<String, Long> ret = new HashMap<String, Long>();
+		final String name = this.dialect.getIdentifier(CHECKPOINT);
+		final Connection con = this.target.open();
+		try{
+
+			final Statement stmt = con.createStatement();
+			try{
+
+				if(!this.resume){
+
+					stmt.executeUpdate(String.format("drop table if exists %s;", name));
+
+				}
+				if(!this.exists(con.getMetaData(), CHECKPOINT)){
+
+					stmt.executeUpdate(String.format("create table %s(%s %s primary key, %s bigint not null);",
+							name, this.dialect.getIdentifier("name"), this.dialect.getVarcharType(16), this.dialect.getIdentifier("position")));
+
+				}
+
+				final ResultSet rs = stmt.executeQuery(String.format("select %s, %s from %s;",
+						this.dialect.getIdentifier("name"), this.dialect.getIdentifier("position"), name));
+				try{
+
+					while(rs.next()){
+
+						ret.put(rs.getString(1), rs.getLong(2));
+
+					}
+
+				}finally{
+
+					rs.close();
+
+				}
+
+			}finally{
+
+				stmt.close();
+
+			}
+
+		}finally{
+
+			con.close();
+
+		}
+		return ret;
+
+	}
+
+	/**
+	 * 一つのテーブルをコピーする．
+	 *
+	 * @param table コピーするテーブル
+	 * @param position 前回までにコピーした行数，記録がない場合はnull
+	 */
+	private void copy(final Table table, final Long position) throws SQLException{
+
+		final long start = System.currentTimeMillis();
+		final Connection src = this.source.open();
+		try{
+
+			final Connection dest = this.target.open();
+			try{
+
+				final PreparedStatement checkpoint = dest.prepareStatement(String.format("update %s set %s = ? where %s = ?;",
+						this.dialect.getIdentifier(CHECKPOINT), this.dialect.getIdentifier("position"), this.dialect.getIdentifier("name")));
+				try{
+
+					checkpoint.setString(2, table.getName());
+					final long skip = position == null ? this.create(dest, table) : position;
+					final long rows = this.insert(src, dest, table, skip, checkpoint, start);
+					this.createIndexes(dest, table);
+
+					dest.setAutoCommit(true);
+					checkpoint.setLong(1, DONE);
+					checkpoint.executeUpdate();
+
+					if(this.listener != null){
+
+						this.listener.finished(table.getName(), rows, System.currentTimeMillis() - start);
+
+					}
+
+				}finally{
+
+					checkpoint.close();
+
+				}
+
+			}finally{
+
+				dest.close();
+
+			}
+
+		}finally{
+
+			src.close();
+
+		}
+
+	}
+
+	/**
+	 * テーブルを作り直し，進捗の記録を始める．
+	 *
+	 * @return 0
+	 */
+	private long create(final Connection dest, final Table table) throws SQLException{
+
+		final Statement stmt = dest.createStatement();
+		try{
+
+			stmt.executeUpdate(table.getDropTable(this.dialect));
+			stmt.executeUpdate(table.getCreateTable(this.dialect));
+
+		}finally{
+
+			stmt.close();
+
+		}
+
+		final PreparedStatement ps = dest.prepareStatement(String.format("insert into %s values(?, 0);", this.dialect.getIdentifier(CHECKPOINT)));
+		try{
+
+			ps.setString(1, table.getName());
+			ps.executeUpdate();
+
+		}finally{
+
+			ps.close();
+
+		}
+		return 0;
+
+	}
+
+	/**
+	 * skip行目の次から行をコピーする．
+	 * バッチごとに，挿入した行と読み出した位置を同じトランザクションでコミットします．
+	 *
+	 * @return 今回読み出した行数
+	 */
+	private long insert(final Connection src, final Connection dest, final Table table, final long skip,
+			final PreparedStatement checkpoint, final long start) throws SQLException{
+
+		final int columns = table.getColumnCount();
+		final Statement srcStat = src.createStatement();
+		dest.setAutoCommit(false);
+		try{
+
+			final ResultSet rs = srcStat.executeQuery(table.getSelect());
+			try{
+
+				// コピー済みの行を読み飛ばす
+				long position = 0;
+				while(position != skip && rs.next()){
+
+					++position;
+
+				}
+
+				final PreparedStatement ps = dest.prepareStatement(table.getInsert(this.dialect));
+				try{
+
+					int pending = 0;
+					boolean more = true;
+					while(more){
+
+						more = rs.next();
+						if(more){
+
+							++position;
+							if(this.bind(ps, rs, table, columns)){
+
+								ps.addBatch();
+
+							}
+							++pending;
+
+						}
+
+						if(pending == this.batchSize || (!more && pending != 0)){
+
+							if(Thread.currentThread().isInterrupted()){
+
+								throw new SQLException("interrupted while importing tables");
+
+							}
+							ps.executeBatch();
+							checkpoint.setLong(1, position);
+							checkpoint.executeUpdate();
+							dest.commit();
+							pending = 0;
+
+							if(this.listener != null){
+
+								this.listener.progress(table.getName(), position - skip, System.currentTimeMillis() - start);
+
+							}
+
+						}
+
+					}
+					return position - skip;
+
+				}finally{
+
+					ps.close();
+
+				}
+
+			}finally{
+
+				rs.close();
+
+			}
+
+		}catch(final SQLException e){
+
+			dest.rollback();
+			throw e;
+
+		}finally{
+
+			srcStat.close();
+
+		}
+
+	}
+
+	/**
+	 * 現在の行の値をpsに設定する．
+	 *
+	 * @return 主キーまたは非null制約のある列の値がnullで，行をスキップする場合はfalse
+	 */
+	private boolean bind(final PreparedStatement ps, final ResultSet rs, final Table table, final int columns) throws SQLException{
+
+		for(int i = 0; i != columns; ++i){
+
+			final Object value = rs.getObject(i + 1);
+			if(value == null && table.isRequired(i)){
+
+				ps.clearParameters();
+				return false;
+
+			}
+			ps.setObject(i + 1, value);
+
+		}
+		return true;
+
+	}
+
+	/**
+	 * 二次索引を作成する．
+	 * 再開した場合に備え，既に存在する索引は作成しません．
+	 */
+	private void createIndexes(final Connection dest, final Table table) throws SQLException{
+
+		// DBMS によって名前の大文字と小文字の扱いが異なるため，両方を試す
+		final Set<String> existing = new HashSet<String>();
+		for(final String name : new String[]{table.getName(), table.getName().toLowerCase()}){
+
+			final ResultSet rs = dest.getMetaData().getIndexInfo(null, null, name, false, true);
+			try{
+
+				while(rs.next()){
+
+					final String index = rs.getString("INDEX_NAME");
+					if(index != null){
+
+						existing.add(index.toUpperCase());
+
+					}
+
+				}
+
+			}finally{
+
+				rs.close();
+
+			}
+
+		}
+
+		final List<String> names = table.getIndexNames();
+		final List<String> sqls = table.getCreateIndexes(this.dialect);
+		final Statement stmt = dest.createStatement();
+		try{
+
+			for(int i = 0; i != names.size(); ++i){
+
+				if(!existing.contains(names.get(i))){
+
+					stmt.executeUpdate(sqls.get(i));
+
+				}
+
+			}
+
+		}finally{
+
+			stmt.close();
+
+		}
+
+	}
+
+	/**
+	 * テーブルが存在するかどうかを調べる．
+	 * DBMS によって名前の大文字と小文字の扱いが異なるため，両方を試します．
+	 */
+	private boolean exists(final DatabaseMetaData meta, final String table) throws SQLException{
+
+		for(final String name : new String[]{table, table.toLowerCase()}){
+
+			final ResultSet rs = meta.getTables(null, null, name, null);
+			try{
+
+				if(rs.next()){
+
+					return true;
+
+				}
+
+			}finally{
+
+				rs.close();
+
+			}
+
+		}
+		return false;
+
+	}
+
+	/////////////////////////////////////////////////////////////////////////////////////
+	// Static methods
+	/////////////////////////////////////////////////////////////////////////////////////
+	private static void awaitTermination(final ExecutorService executor){
+
+		boolean interrupted = false;
+		while(!executor.isTerminated()){
+
+			try{
+
+				executor.awaitTermination(1, TimeUnit.SECONDS);
+
+			}catch(final InterruptedException e){
+
+				interrupted = true;
+
+			}
+
+		}
+		if(interrupted){
+
+			Thread.currentThread().interrupt();
+
+		}
+
+	}
+
+	private static void getResult(final Future<Void> future) throws SQLException{
+
+		try{
+
+			future.get();
+
+		}catch(final InterruptedException e){
+
+			Thread.currentThread().interrupt();
+			throw new SQLException("interrupted while importing tables");
+
+		}catch(final ExecutionException e){
+
+			final Throwable cause = e.getCause();
+			if(cause instanceof SQLException){
+
+				throw (SQLException)cause;
+
+			}else if(cause instanceof RuntimeException){
+
+				throw (RuntimeException)cause;
+
+			}
+			throw new IllegalStateException(cause);
+
+		}
+
+	}
+
+}
@@ -0,0 +1,297 @@
+/*
+ * Copyright 2009 Junpei Kawamoto
+ *
+ * This file is part of Japanese WordNet wrapper for Java (Wnj2).
+ * Wnj2 is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Wnj2 is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Wnj2.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.wnj2.importers;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * インポートする日本語 WordNet のテーブルの定義．
+ *
+ * <p>
+ * 列の型は TargetDialect を通して各 DBMS の型名に変換します．
+ * 二次索引は，すべての行を挿入した後で作成します．
+ * </p>
+ */
+final class Table {
+
+	/** 列の型：整数 */
+	static final int INTEGER = 0;
+
+	/** 列の型：長さを指定した文字列 */
+	static final int VARCHAR = 1;
+
+	/** 列の型：長さの制限がない文字列 */
+	static final int TEXT = 2;
+
+	/** 日本語 WordNet のすべてのテーブル */
+	static final List<Table> ALL;
+	static{
+
+		final List<Table> tables = new ArrayList<Table>();
+		tables.add(new Table("LINK_DEF")
+			.column("link", VARCHAR, 5).column("lang", VARCHAR, 3).column("def", TEXT, 0)
+			.primaryKey("link").notNull("lang", "def"));
+		tables.add(new Table("POS_DEF")
+			.column("pos", VARCHAR, 1).column("lang", VARCHAR, 3).column("def", TEXT, 0)
+			.primaryKey("pos", "lang").notNull("def"));
+		tables.add(new Table("SENSE")
+			.column("synset", VARCHAR, 12).column("wordid", INTEGER, 0).column("lang", VARCHAR, 3)
+			.column("rank", INTEGER, 0).column("lexid", INTEGER, 0).column("freq", INTEGER, 0).column("src", VARCHAR, 10)
+			.primaryKey("synset", "wordid").index("wordid"));
+		tables.add(new Table("SYNLINK")
+			.column("synset1", VARCHAR, 12).column("synset2", VARCHAR, 12).column("link", VARCHAR, 5).column("src", VARCHAR, 10)
+			.primaryKey("synset1", "synset2", "link").index("synset1", "link", "synset2"));
+		tables.add(new Table("SYNSET")
+			.column("synset", VARCHAR, 12).column("pos", VARCHAR, 1).column("name", TEXT, 0).column("src", VARCHAR, 10)
+			.primaryKey("synset").index("name", "pos"));
+		tables.add(new Table("SYNSET_DEF")
+			.column("synset", VARCHAR, 12).column("lang", VARCHAR, 3).column("def", TEXT, 0).column("sid", INTEGER, 0)
+			.primaryKey("synset", "lang", "sid"));
+		tables.add(new Table("WORD")
+			.column("wordid", INTEGER, 0).column("lang", VARCHAR, 3).column("lemma", TEXT, 0).column("pron", TEXT, 0).column("pos", VARCHAR, 1)
+			.primaryKey("wordid").index("lemma", "pos"));
+		ALL = Collections.unmodifiableList(tables);
+
+	}
+
+	private final String name;
+	private final List<String> columns = new ArrayList<String>();
+	private final List<Integer> types = new ArrayList<Integer>();
+	private final List<Integer> lengths = new ArrayList<Integer>();
+	private final List<String> notNulls = new ArrayList<String>();
+	private final List<String[]> indexes = new ArrayList<String[]>();
+	private String[] primaryKey = new String[0];
+
+	/////////////////////////////////////////////////////////////////////////////////////
+	// Constractor
+	/////////////////////////////////////////////////////////////////////////////////////
+	private Table(final String name){
+
+		this.name = name;
+
+	}
+
+	/////////////////////////////////////////////////////////////////////////////////////
+	// Package private methods
+	/////////////////////////////////////////////////////////////////////////////////////
+	String getName(){
+
+		return this.name;
+
+	}
+
+	int getColumnCount(){
+
+		return this.columns.size();
+
+	}
+
+	/**
+	 * 値がnullの場合に行をスキップする列かどうかを調べる．
+	 *
+	 * @param i 0から始まる列の番号
+	 * @return 主キーまたは非null制約のある列の場合はtrue
+	 */
+	boolean isRequired(final int i){
+
+		final String column = this.columns.get(i);
+		for(final String c : this.primaryKey){
+
+			if(c.equals(column)){
+
+				return true;
+
+			}
+
+		}
+		return this.notNulls.contains(column);
+
+	}
+
+	String getCreateTable(final TargetDialect dialect){
+
+		final StringBuilder sql = new StringBuilder();
+		sql.append("create table ").append(dialect.getIdentifier(this.name)).append("(");
+		for(int i = 0; i != this.columns.size(); ++i){
+
+			final String column = this.columns.get(i);
+			sql.append(dialect.getIdentifier(column)).append(" ");
+			switch(this.types.get(i)){
+			case INTEGER:
+				sql.append(dialect.getIntegerType());
+				break;
+			case VARCHAR:
+				sql.append(dialect.getVarcharType(this.lengths.get(i)));
+				break;
+			default:
+				sql.append(dialect.getTextType());
+				break;
+			}
+			if(this.notNulls.contains(column)){
+
+				sql.append(" not null");
+
+			}
+			sql.append(", ");
+
+		}
+		sql.append("primary key(").append(this.join(dialect, this.primaryKey, false)).append("));");
+		return sql.toString();
+
+	}
+
+	String getDropTable(final TargetDialect dialect){
+
+		return String.format("drop table if exists %s;", dialect.getIdentifier(this.name));
+
+	}
+
+	/**
+	 * 主キーの順に行を読み出す問い合わせを取得する．
+	 * 主キーの順に読み出すことで，中断した位置から再開できます．
+	 */
+	String getSelect(){
+
+		final StringBuilder sql = new StringBuilder("select ");
+		for(int i = 0; i != this.columns.size(); ++i){
+
+			sql.append(i == 0 ? "" : ", ").append(this.columns.get(i));
+
+		}
+		sql.append(" from ").append(this.name).append(" order by ");
+		for(int i = 0; i != this.primaryKey.length; ++i){
+
+			sql.append(i == 0 ? "" : ", ").append(this.primaryKey[i]);
+
+		}
+		return sql.append(";").toString();
+
+	}
+
+	String getInsert(final TargetDialect dialect){
+
+		final StringBuilder sql = new StringBuilder();
+		sql.append("insert into ").append(dialect.getIdentifier(this.name)).append(" values(");
+		for(int i = 0; i != this.columns.size(); ++i){
+
+			sql.append(i == 0 ? "?" : ", ?");
+
+		}
+		return sql.append(");").toString();
+
+	}
+
+	/**
+	 * 二次索引の名前を取得する．
+	 *
+	 * @return "WORD_LEMMA_POS" 形式の索引名のリスト
+	 */
+	List<String> getIndexNames(){
+
+		final List<String> ret = new ArrayList<String>();
+		for(final String[] index : this.indexes){
+
+			final StringBuilder b = new StringBuilder(this.name);
+			for(final String column : index){
+
+				b.append("_").append(column.toUpperCase());
+
+			}
+			ret.add(b.toString());
+
+		}
+		return ret;
+
+	}
+
+	List<String> getCreateIndexes(final TargetDialect dialect){
+
+		final List<String> names = this.getIndexNames();
+		final List<String> ret = new ArrayList<String>();
+		for(int i = 0; i != this.indexes.size(); ++i){
+
+			ret.add(String.format("create index %s on %s(%s);",
+					dialect.getIdentifier(names.get(i)), dialect.getIdentifier(this.name), this.join(dialect, this.indexes.get(i), true)));
+
+		}
+		return ret;
+
+	}
+
+	/////////////////////////////////////////////////////////////////////////////////////
+	// Private methods
+	/////////////////////////////////////////////////////////////////////////////////////
+	private Table column(final String column, final int type, final int length){
+
+		this.columns.add(column);
+		this.types.add(type);
+		this.lengths.add(length);
+		return this;
+
+	}
+
+	private Table primaryKey(final String... columns){
+
+		this.primaryKey = columns;
+		return this;
+
+	}
+
+	private Table notNull(final String... columns){
+
+		Collections.addAll(this.notNulls, columns);
+		return this;
+
+	}
+
+	private Table index(final String... columns){
+
+		this.indexes.add(columns);
+		return this;
+
+	}
+
+	private String join(final TargetDialect dialect, final String[] columns, final boolean index){
+
+		final StringBuilder b = new StringBuilder();
+		for(int i = 0; i != columns.length; ++i){
+
+			if(i != 0){
+
+				b.append(", ");
+
+			}
+			if(index){
+
+				b.append(dialect.getIndexColumn(columns[i], this.types.get(this.columns.indexOf(columns[i])) == TEXT));
+
+			}else{
+
+				b.append(dialect.getIdentifier(columns[i]));
+
+			}
+
+		}
+		return b.toString();
+
+	}
+
+}
@@ -0,0 +1,260 @@
+/*
+ * Copyright 2009 Junpei Kawamoto
+ *
+ * This file is part of Japanese WordNet wrapper for Java (Wnj2).
+ * Wnj2 is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Wnj2 is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Wnj2.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.wnj2.importers;
+
+/**
+ * インポート先 DBMS ごとの SQL の違い．
+ *
+ * <p>
+ * MySQL, PostgreSQL, H2, SQLite 用のものを定数として用意しています．
+ * その他の DBMS へインポートする場合は，このクラスを継承して違いのあるメソッドを上書きします．
+ * 既定の実装は標準 SQL の型名と二重引用符で囲んだ識別子を返します．
+ * </p>
+ *
+ * @author Junpei Kawamoto
+ *
+ */
+public abstract class TargetDialect {
+
+	/**
+	 * MySQL 用．
+	 * 接続 URL に rewriteBatchedStatements=true を付け加え，バッチを複数行の insert 文として送信します．
+	 */
+	public static final TargetDialect MYSQL = new TargetDialect("mysql"){
+
+		@Override
+		public String getURL(final String url) {
+
+			return appendParameter(url, "rewriteBatchedStatements=true");
+
+		}
+
+		@Override
+		public String getIdentifier(final String name) {
+
+			return "`" + name + "`";
+
+		}
+
+		@Override
+		public String getIndexColumn(final String column, final boolean text) {
+
+			// text 型の列は先頭の一部だけを索引にできる
+			return text ? this.getIdentifier(column) + "(191)" : this.getIdentifier(column);
+
+		}
+
+	};
+
+	/**
+	 * PostgreSQL 用．
+	 * 接続 URL に reWriteBatchedInserts=true を付け加え，バッチを複数行の insert 文として送信します．
+	 * 識別子は Wnj2 の問い合わせと一致するよう小文字にします．
+	 */
+	public static final TargetDialect POSTGRESQL = new TargetDialect("postgresql"){
+
+		@Override
+		public String getURL(final String url) {
+
+			return appendParameter(url, "reWriteBatchedInserts=true");
+
+		}
+
+		@Override
+		public String getIdentifier(final String name) {
+
+			return "\"" + name.toLowerCase() + "\"";
+
+		}
+
+	};
+
+	/**
+	 * H2 Database Engine 用．
+	 * 識別子は Wnj2 の問い合わせと一致するよう大文字にします．
+	 * 索引を作成できるよう，text 型の列は varchar 型にします．
+	 */
+	public static final TargetDialect H2 = new TargetDialect("h2"){
+
+		@Override
+		public String getIdentifier(final String name) {
+
+			return "\"" + name.toUpperCase() + "\"";
+
+		}
+
+		@Override
+		public String getTextType() {
+
+			return "varchar";
+
+		}
+
+	};
+
+	/**
+	 * SQLite 用．
+	 * 標準 SQL の型名と識別子をそのまま使います．
+	 */
+	public static final TargetDialect SQLITE = new TargetDialect("sqlite"){
+	};
+
+	private final String name;
+
+	/////////////////////////////////////////////////////////////////////////////////////
+	// Constractor
+	/////////////////////////////////////////////////////////////////////////////////////
+	/**
+	 * 名前を指定して TargetDialect を作成する．
+	 *
+	 * @param name DBMS の名前
+	 */
+	protected TargetDialect(final String name){
+		assert name != null : "name is null";
+
+		this.name = name;
+
+	}
+
+	/////////////////////////////////////////////////////////////////////////////////////
+	// Public methods
+	/////////////////////////////////////////////////////////////////////////////////////
+	/**
+	 * DBMS の名前を取得する．
+	 *
+	 * @return DBMS の名前
+	 */
+	public String getName(){
+
+		return this.name;
+
+	}
+
+	/**
+	 * 一括挿入に適したパラメータを接続 URL に付け加える．
+	 *
+	 * @param url 接続 URL
+	 * @return パラメータを付け加えた接続 URL
+	 */
+	public String getURL(final String url){
+
+		return url;
+
+	}
+
+	/**
+	 * テーブル名や列名を SQL 文に埋め込める形式にする．
+	 *
+	 * @param name テーブル名または列名
+	 * @return 引用符で囲んだ識別子
+	 */
+	public String getIdentifier(final String name){
+
+		return "\"" + name + "\"";
+
+	}
+
+	/**
+	 * 整数型の型名を取得する．
+	 *
+	 * @return 整数型の型名
+	 */
+	public String getIntegerType(){
+
+		return "integer";
+
+	}
+
+	/**
+	 * 長さを指定した文字列型の型名を取得する．
+	 *
+	 * @param length 最大の長さ
+	 * @return 文字列型の型名
+	 */
+	public String getVarcharType(final int length){
+
+		return String.format("varchar(%d)", length);
+
+	}
+
+	/**
+	 * 長さの制限がない文字列型の型名を取得する．
+	 *
+	 * @return 文字列型の型名
+	 */
+	public String getTextType(){
+
+		return "text";
+
+	}
+
+	/**
+	 * 索引の作成文に埋め込む列を取得する．
+	 *
+	 * @param column 列名
+	 * @param text 長さの制限がない文字列型の列の場合は true
+	 * @return 索引の列
+	 */
+	public String getIndexColumn(final String column, final boolean text){
+
+		return this.getIdentifier(column);
+
+	}
+
+	/////////////////////////////////////////////////////////////////////////////////////
+	// Static methods
+	/////////////////////////////////////////////////////////////////////////////////////
+	/**
+	 * 名前から TargetDialect を取得する．
+	 *
+	 * @param name "mysql", "postgresql", "h2", "sqlite" のいずれか
+	 * @return 名前に対応する TargetDialect
+	 * @throws IllegalArgumentException 対応していない名前の場合
+	 */
+	public static TargetDialect forName(final String name){
+
+		for(final TargetDialect d : new TargetDialect[]{MYSQL, POSTGRESQL, H2, SQLITE}){
+
+			if(d.getName().equalsIgnoreCase(name)){
+
+				return d;
+
+			}
+
+		}
+		throw new IllegalArgumentException(String.format("unsupported dialect %s", name));
+
+	}
+
+	/**
+	 * 接続 URL にパラメータを付け加える．既に同じ名前のパラメータがある場合は何もしない．
+	 */
+	private static String appendParameter(final String url, final String parameter){
+
+		final String key = parameter.substring(0, parameter.indexOf('=') + 1);
+		if(url.contains(key)){
+
+			return url;
+
+		}
+		return url + (url.indexOf('?') < 0 ? "?" : "&") + parameter;
+
+	}
+
+}
@@ -19,5 +19,9 @@
  *	日本語 WordNet データベースを他の DBMS へインポートするツールを提供します．
  *	このパッケージに含まれるプログラムを利用するためには，SQLite3 の JDBC ドライバと，
  *	インポート先 DBMS 用の JDBC ドライバが必要になります．
+ *	{@link org.wnj2.importers.Importer} は，インポート先の違いを {@link org.wnj2.importers.TargetDialect} で吸収し，
+ *	テーブルを並列に，中断した位置から再開できるようにコピーします．
+ *	{@link org.wnj2.importers.Generator} は，ベンチマークや大規模なデータでの試験に使う，
+ *	日本語 WordNet と同じスキーマの合成データベースを作成します．
  */
 package org.wnj2.importers;
\ No newline at end of file
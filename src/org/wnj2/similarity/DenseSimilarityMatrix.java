@@ -0,0 +1,103 @@
+/*
+ * Copyright 2009 Junpei Kawamoto
+ *
+ * This file is part of Japanese WordNet wrapper for Java (Wnj2).
+ * Wnj2 is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Wnj2 is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Wnj2.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package org.wnj2.similarity;
+
+/**
+ * すべての要素を保持する類似度の行列．
+ *
+ * <p>
+ * 対称性を利用し，対角成分を含む上三角部分だけをdouble型の配列に保持します．
+ * 要素数nに対してn(n+1)/2個の値を保持するため，nは65535以下に制限されます．
+ * </p>
+ *
+ * @see SimilarityMeasure#computeMatrix(java.util.List)
+ * @see SimilarityMeasure#computeWordMatrix(java.util.List)
+ */
+public final class DenseSimilarityMatrix extends SimilarityMatrix{
+
+	/** 保持できる最大の要素数 */
+	public static final int MAX_SIZE = 65535;
+
+	private final SimilarityMeasure measure;
+	private final Node[][] items;
+	private final double[] values;
+
+	/////////////////////////////////////////////////////////////////////////////////////
+	// Constractor
+	/////////////////////////////////////////////////////////////////////////////////////
+	DenseSimilarityMatrix(final SimilarityMeasure measure, final Node[][] items){
+		super(items.length);
+
+		if(items.length > MAX_SIZE){
+
+			throw new IllegalArgumentException(String.format("too many items: %d", items.length));
+
+		}
+
+		this.measure = measure;
+		this.items = items;
+		this.values = new double[(int)((long)items.length * (items.length + 1) / 2)];
+		this.computeRows();
+
+	}
+
+	/////////////////////////////////////////////////////////////////////////////////////
+	// Public methods
+	/////////////////////////////////////////////////////////////////////////////////////
+	/* (非 Javadoc)
+	 * @see org.wnj2.similarity.SimilarityMatrix#get(int, int)
+	 */
+	@Override
+	public double get(final int i, final int j){
+
+		return i <= j ? this.values[this.index(i, j)] : this.values[this.index(j, i)];
+
+	}
+
+	/////////////////////////////////////////////////////////////////////////////////////
+	// Package private methods
+	/////////////////////////////////////////////////////////////////////////////////////
+	@Override
+	void computeRow(final int i){
+
+		final Node[] a = this.items[i];
+		int k = this.index(i, i);
+		for(int j = i; j != this.items.length; ++j){
+
+			this.values[k++] = this.measure.compute(a, this.items[j]);
+
+		}
+
+	}
+
+	/////////////////////////////////////////////////////////////////////////////////////
+	// Private methods
+	/////////////////////////////////////////////////////////////////////////////////////
+	/**
+	 * 上三角部分のi行j列（i &lt;= j）の値の位置を求める．
+	 */
+	private int index(final int i, final int j){
+
+		final int n = this.size();
+		return (int)((long)i * n - (long)i * (i - 1) / 2) + (j - i);
+
+	}
+
+}
@@ -0,0 +1,508 @@
+/*
+ * Copyright 2009 Junpei Kawamoto
+ *
+ * This file is part of Japanese WordNet wrapper for Java (Wnj2).
+ * Wnj2 is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Wnj2 is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Wnj2.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package org.wnj2.similarity;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.wnj2.Pos;
+import org.wnj2.Synset;
+import org.wnj2.Wnj2;
+
+/**
+ * Synsetの情報量（information content）．
+ *
+ * <p>
+ * Synsetの出現確率をp(c)として，情報量を-log p(c)で定義します．
+ * 出現回数はSENSE.freqをSynsetごとに合計し，上位語の階層に沿ってすべての祖先へ加算したものです．
+ * 確率は品詞ごとの出現回数の合計で割って求めます．
+ * 出現回数が0のSynsetは，出現回数を1として扱います．
+ * </p>
+ * <blockquote><pre>
+ * Taxonomy taxonomy = new Taxonomy();
+ * InformationContent ic = InformationContent.compute(wn, taxonomy);
+ * ic.save(new File("path_to_the_ic_file"));
+ * </pre></blockquote>
+ * <p>
+ * 計算した情報量はファイルへ保存でき，次回以降はloadで読み込めば計算を省略できます．
+ * 作成後に内容は変更されないため，このオブジェクトは複数のスレッドから同時に利用できます．
+ * </p>
+ *
+ * @see ResnikSimilarity
+ * @see LinSimilarity
+ * @see JiangConrathSimilarity
+ * @see Wnj2#getSynsetFrequencies()
+ */
+public final class InformationContent {
+
+	static final int MAGIC = 0x574E4943;
+	static final int VERSION = 1;
+
+	/** 一つのタスクで処理するSynsetの数 */
+	private static final int CHUNK_SIZE = 500;
+
+	private final Taxonomy taxonomy;
+
+	/** Taxonomy内の番号ごとの情報量，出現回数が0の場合はNaN */
+	private final double[] values;
+
+	/** Taxonomy内の番号ごとのSynsetID */
+	private final String[] ids;
+
+	/** 品詞ごとの出現回数の合計 */
+	private final long[] totals;
+
+	/////////////////////////////////////////////////////////////////////////////////////
+	// Constractor
+	/////////////////////////////////////////////////////////////////////////////////////
+	private InformationContent(final Taxonomy taxonomy, final double[] values, final String[] ids, final long[] totals){
+
+		this.taxonomy = taxonomy;
+		this.values = values;
+		this.ids = ids;
+		this.totals = totals;
+
+	}
+
+	/////////////////////////////////////////////////////////////////////////////////////
+	// Public methods
+	/////////////////////////////////////////////////////////////////////////////////////
+	/**
+	 * Synsetの情報量を取得する．
+	 *
+	 * @param synset 対象のSynset
+	 * @return 情報量
+	 * @throws SQLException 上位語の取得中にデータベースへのアクセスにエラーが発生した場合
+	 */
+	public double getInformationContent(final Synset synset) throws SQLException{
+		assert synset != null : "synset is null";
+
+		return this.value(this.taxonomy.node(synset));
+
+	}
+
+	/**
+	 * 計算に使用したTaxonomyを取得する．
+	 *
+	 * @return Taxonomy
+	 */
+	public Taxonomy getTaxonomy(){
+
+		return this.taxonomy;
+
+	}
+
+	/**
+	 * 情報量をファイルへ保存する．
+	 *
+	 * @param file 出力先のファイル
+	 * @throws IOException 入出力エラーが発生した場合
+	 */
+	public void save(final File file) throws IOException{
+		assert file != null : "file is null";
+
+		final DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file)));
+		try{
+
+			out.writeInt(MAGIC);
+			out.writeInt(VERSION);
+			for(final long total : this.totals){
+
+				out.writeLong(total);
+
+			}
+
+			int count = 0;
+			for(int i = 0; i != this.values.length; ++i){
+
+				if(!Double.isNaN(this.values[i])){
+
+					++count;
+
+				}
+
+			}
+			out.writeInt(count);
+			for(int i = 0; i != this.values.length; ++i){
+
+				if(!Double.isNaN(this.values[i])){
+
+					out.writeUTF(this.ids[i]);
+					out.writeDouble(this.values[i]);
+
+				}
+
+			}
+
+		}finally{
+
+			out.close();
+
+		}
+
+	}
+
+	/////////////////////////////////////////////////////////////////////////////////////
+	// Package private methods
+	/////////////////////////////////////////////////////////////////////////////////////
+	/**
+	 * Nodeの情報量を取得する．
+	 */
+	double value(final Node node){
+
+		if(node.key < this.values.length && !Double.isNaN(this.values[node.key])){
+
+			return this.values[node.key];
+
+		}
+
+		final long total = this.totals[node.synset.getPos().ordinal()];
+		return total > 1 ? Math.log(total) : 0;
+
+	}
+
+	/**
+	 * 二つのNodeに共通の祖先のうち，最大の情報量を求める．
+	 *
+	 * @return 最大の情報量，共通の祖先がない場合は負の値
+	 */
+	double commonValue(final Node a, final Node b){
+
+		double ret = -1;
+		int i = 0;
+		int j = 0;
+		while(i != a.keys.length && j != b.keys.length){
+
+			if(a.keys[i] < b.keys[j]){
+
+				++i;
+
+			}else if(a.keys[i] > b.keys[j]){
+
+				++j;
+
+			}else{
+
+				final double v = this.value(a.ancestors[i]);
+				if(v > ret){
+
+					ret = v;
+
+				}
+				++i;
+				++j;
+
+			}
+
+		}
+
+		return ret;
+
+	}
+
+	/////////////////////////////////////////////////////////////////////////////////////
+	// Static methods
+	/////////////////////////////////////////////////////////////////////////////////////
+	/**
+	 * データベースのSENSE.freqから情報量を計算する．
+	 * 利用可能なプロセッサの数と同じ数のスレッドで並行に計算します．
+	 *
+	 * @param wn 日本語WordNet
+	 * @param taxonomy 上位語の階層
+	 * @return 計算した情報量
+	 * @throws SQLException データベースへのアクセスにエラーが発生した場合
+	 */
+	public static InformationContent compute(final Wnj2 wn, final Taxonomy taxonomy) throws SQLException{
+
+		return compute(wn, taxonomy, Runtime.getRuntime().availableProcessors());
+
+	}
+
+	/**
+	 * データベースのSENSE.freqから情報量を計算する．
+	 *
+	 * <p>
+	 * 頻度が1以上のSynsetを分割して各スレッドに割り当て，
+	 * 各スレッドは担当するSynsetの祖先を取得しながら出現回数を加算します．
+	 * 上位語の取得にデータベースを使う場合は，Wnj2のコネクション数以下のスレッド数を指定してください．
+	 * </p>
+	 *
+	 * @param wn 日本語WordNet
+	 * @param taxonomy 上位語の階層
+	 * @param threads 計算に使うスレッドの数
+	 * @return 計算した情報量
+	 * @throws SQLException データベースへのアクセスにエラーが発生した場合
+	 */
+	public static InformationContent compute(final Wnj2 wn, final Taxonomy taxonomy, final int threads) throws SQLException{
+		assert wn != null : "wn is null";
+		assert taxonomy != null : "taxonomy is null";
+		assert threads > 0 : "threads must be positive";
+
+		final Map<String, Integer> frequencies = wn.getSynsetFrequencies();
+		final List<String> synsetids = new ArrayList<String>();
+		for(final Map.Entry<String, Integer> e : frequencies.entrySet()){
+
+			if(e.getValue() > 0){
+
+				synsetids.add(e.getKey());
+
+			}
+
+		}
+
+		final ExecutorService executor = Executors.newFixedThreadPool(threads);
+		final Counter total = new Counter();
+		try{
+
+			final List<Future<Counter>> futures = new ArrayList<Future<Counter>>();
+			for(int begin = 0; begin < synsetids.size(); begin += CHUNK_SIZE){
+
+				final List<String> chunk = synsetids.subList(begin, Math.min(synsetids.size(), begin + CHUNK_SIZE));
+				futures.add(executor.submit(new Callable<Counter>(){
+
+					@Override
+					public Counter call() throws SQLException {
+
+						final Counter ret = new Counter();
+						for(final Synset s : wn.findSynsetsByIds(chunk)){
+
+							ret.add(taxonomy.node(s), frequencies.get(s.getSynsetID()));
+
+						}
+						return ret;
+
+					}
+
+				}));
+
+			}
+
+			for(final Future<Counter> f : futures){
+
+				total.merge(getResult(f));
+
+			}
+
+		}finally{
+
+			executor.shutdownNow();
+
+		}
+
+		final double[] values = new double[total.counts.length];
+		for(int i = 0; i != values.length; ++i){
+
+			if(total.counts[i] == 0){
+
+				values[i] = Double.NaN;
+
+			}else{
+
+				values[i] = Math.log((double)total.totals[total.poses[i]] / total.counts[i]);
+
+			}
+
+		}
+
+		return new InformationContent(taxonomy, values, total.ids, total.totals);
+
+	}
+
+	/**
+	 * saveで保存した情報量を読み込む．
+	 *
+	 * @param file saveで保存したファイル
+	 * @param taxonomy 類似度の計算に使う上位語の階層
+	 * @return 読み込んだ情報量
+	 * @throws IOException 入出力エラーが発生した場合，またはファイルの形式やバージョンが異なる場合
+	 */
+	public static InformationContent load(final File file, final Taxonomy taxonomy) throws IOException{
+		assert file != null : "file is null";
+		assert taxonomy != null : "taxonomy is null";
+
+		final DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)));
+		try{
+
+			if(in.readInt() != MAGIC){
+
+				throw new IOException("not a Wnj2 information content file");
+
+			}
+			final int version = in.readInt();
+			if(version != VERSION){
+
+				throw new IOException(String.format("unsupported information content version %d", version));
+
+			}
+
+			final long[] totals = new long[Pos.values().length];
+			for(int i = 0; i != totals.length; ++i){
+
+				totals[i] = in.readLong();
+
+			}
+
+			final int count = in.readInt();
+			final int[] keys = new int[count];
+			final String[] ids = new String[count];
+			final double[] values = new double[count];
+			int size = 0;
+			for(int i = 0; i != count; ++i){
+
+				ids[i] = in.readUTF();
+				values[i] = in.readDouble();
+				keys[i] = taxonomy.key(ids[i]);
+				size = Math.max(size, keys[i] + 1);
+
+			}
+
+			final double[] byKey = new double[size];
+			final String[] idsByKey = new String[size];
+			Arrays.fill(byKey, Double.NaN);
+			for(int i = 0; i != count; ++i){
+
+				byKey[keys[i]] = values[i];
+				idsByKey[keys[i]] = ids[i];
+
+			}
+
+			return new InformationContent(taxonomy, byKey, idsByKey, totals);
+
+		}finally{
+
+			in.close();
+
+		}
+
+	}
+
+	private static Counter getResult(final Future<Counter> future) throws SQLException{
+
+		try{
+
+			return future.get();
+
+		}catch(final InterruptedException e){
+
+			Thread.currentThread().interrupt();
+			throw new SQLException("interrupted while computing information content");
+
+		}catch(final ExecutionException e){
+
+			final Throwable cause = e.getCause();
+			if(cause instanceof SQLException){
+
+				throw (SQLException)cause;
+
+			}else if(cause instanceof RuntimeException){
+
+				throw (RuntimeException)cause;
+
+			}
+			throw new IllegalStateException(cause);
+
+		}
+
+	}
+
+	/**
+	 * Taxonomy内の番号ごとの出現回数．
+	 * 各スレッドが個別に持ち，最後に併合します．
+	 */
+	private static final class Counter{
+
+		long[] counts = new long[0];
+		int[] poses = new int[0];
+		String[] ids = new String[0];
+		final long[] totals = new long[Pos.values().length];
+
+		/**
+		 * Synsetとそのすべての祖先に出現回数を加算する．
+		 */
+		void add(final Node node, final int freq){
+
+			final int pos = node.synset.getPos().ordinal();
+			this.totals[pos] += freq;
+			for(int i = 0; i != node.keys.length; ++i){
+
+				final int key = node.keys[i];
+				this.ensure(key + 1);
+				this.counts[key] += freq;
+				this.poses[key] = pos;
+				this.ids[key] = node.ancestors[i].synset.getSynsetID();
+
+			}
+
+		}
+
+		void merge(final Counter other){
+
+			this.ensure(other.counts.length);
+			for(int i = 0; i != other.counts.length; ++i){
+
+				if(other.counts[i] != 0){
+
+					this.counts[i] += other.counts[i];
+					this.poses[i] = other.poses[i];
+					this.ids[i] = other.ids[i];
+
+				}
+
+			}
+			for(int i = 0; i != this.totals.length; ++i){
+
+				this.totals[i] += other.totals[i];
+
+			}
+
+		}
+
+		private void ensure(final int size){
+
+			if(this.counts.length < size){
+
+				final int capacity = Math.max(size, this.counts.length * 2);
+				this.counts = Arrays.copyOf(this.counts, capacity);
+				this.poses = Arrays.copyOf(this.poses, capacity);
+				this.ids = Arrays.copyOf(this.ids, capacity);
+
+			}
+
+		}
+
+	}
+
+}
@@ -0,0 +1,76 @@
+/*
+ * Copyright 2009 Junpei Kawamoto
+ *
+ * This file is part of Japanese WordNet wrapper for Java (Wnj2).
+ * Wnj2 is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Wnj2 is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Wnj2.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package org.wnj2.similarity;
+
+/**
+ * Jiang-Conrathの類似度．
+ *
+ * <p>
+ * 共通の祖先の情報量の最大値をIC(c)として，1 / (IC(a) + IC(b) - 2 IC(c))で計算します．
+ * 距離が0となる組，例えば同じSynsetの組にはDouble.POSITIVE_INFINITYを返します．
+ * </p>
+ *
+ * @see InformationContent
+ */
+public class JiangConrathSimilarity extends SimilarityMeasure{
+
+	private final InformationContent informationContent;
+
+	/////////////////////////////////////////////////////////////////////////////////////
+	// Constractor
+	/////////////////////////////////////////////////////////////////////////////////////
+	/**
+	 * 指定した情報量を使うJiangConrathSimilarityを作成する．
+	 *
+	 * @param informationContent Synsetの情報量
+	 */
+	public JiangConrathSimilarity(final InformationContent informationContent){
+		super(informationContent.getTaxonomy());
+
+		this.informationContent = informationContent;
+
+	}
+
+	/////////////////////////////////////////////////////////////////////////////////////
+	// Package private methods
+	/////////////////////////////////////////////////////////////////////////////////////
+	@Override
+	double compute(final Node a, final Node b){
+
+		final InformationContent ic = this.informationContent;
+		final double common = ic.commonValue(a, b);
+		if(common < 0){
+
+			return 0;
+
+		}
+
+		final double distance = ic.value(a) + ic.value(b) - 2 * common;
+		if(distance <= 0){
+
+			return Double.POSITIVE_INFINITY;
+
+		}
+
+		return 1 / distance;
+
+	}
+
+}
@@ -0,0 +1,73 @@
+/*
+ * Copyright 2009 Junpei Kawamoto
+ *
+ * This file is part of Japanese WordNet wrapper for Java (Wnj2).
+ * Wnj2 is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Wnj2 is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Wnj2.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package org.wnj2.similarity;
+
+/**
+ * Leacock-Chodorowの類似度．
+ *
+ * <p>
+ * 二つのSynsetを結ぶ最短経路の辺の数をd，品詞ごとの階層の深さをDとして，
+ * -log((d + 1) / 2D)で計算します．
+ * 階層の深さはTaxonomy.getMaxDepthの値を使います．
+ * 品詞が異なるSynsetの組には0を返します．
+ * </p>
+ *
+ * @see Taxonomy#setMaxDepth(org.wnj2.Pos, int)
+ */
+public class LeacockChodorowSimilarity extends SimilarityMeasure{
+
+	/////////////////////////////////////////////////////////////////////////////////////
+	// Constractor
+	/////////////////////////////////////////////////////////////////////////////////////
+	/**
+	 * 指定したTaxonomyを使うLeacockChodorowSimilarityを作成する．
+	 *
+	 * @param taxonomy 上位語の階層
+	 */
+	public LeacockChodorowSimilarity(final Taxonomy taxonomy){
+		super(taxonomy);
+
+	}
+
+	/////////////////////////////////////////////////////////////////////////////////////
+	// Package private methods
+	/////////////////////////////////////////////////////////////////////////////////////
+	@Override
+	double compute(final Node a, final Node b){
+
+		if(a.synset.getPos() != b.synset.getPos()){
+
+			return 0;
+
+		}
+
+		final int d = Node.shortestPath(a, b);
+		if(d < 0){
+
+			return 0;
+
+		}
+
+		final int depth = this.taxonomy.getMaxDepth(a.synset.getPos());
+		return Math.max(0, -Math.log((d + 1.0) / (2.0 * depth)));
+
+	}
+
+}
@@ -0,0 +1,76 @@
+/*
+ * Copyright 2009 Junpei Kawamoto
+ *
+ * This file is part of Japanese WordNet wrapper for Java (Wnj2).
+ * Wnj2 is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Wnj2 is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Wnj2.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package org.wnj2.similarity;
+
+/**
+ * Linの類似度．
+ *
+ * <p>
+ * 共通の祖先の情報量の最大値をIC(c)として，2 IC(c) / (IC(a) + IC(b))で計算します．
+ * 値は0以上1以下です．
+ * </p>
+ *
+ * @see InformationContent
+ */
+public class LinSimilarity extends SimilarityMeasure{
+
+	private final InformationContent informationContent;
+
+	/////////////////////////////////////////////////////////////////////////////////////
+	// Constractor
+	/////////////////////////////////////////////////////////////////////////////////////
+	/**
+	 * 指定した情報量を使うLinSimilarityを作成する．
+	 *
+	 * @param informationContent Synsetの情報量
+	 */
+	public LinSimilarity(final InformationContent informationContent){
+		super(informationContent.getTaxonomy());
+
+		this.informationContent = informationContent;
+
+	}
+
+	/////////////////////////////////////////////////////////////////////////////////////
+	// Package private methods
+	/////////////////////////////////////////////////////////////////////////////////////
+	@Override
+	double compute(final Node a, final Node b){
+
+		final InformationContent ic = this.informationContent;
+		final double common = ic.commonValue(a, b);
+		if(common < 0){
+
+			return 0;
+
+		}
+
+		final double sum = ic.value(a) + ic.value(b);
+		if(sum == 0){
+
+			return a.key == b.key ? 1 : 0;
+
+		}
+
+		return 2 * common / sum;
+
+	}
+
+}
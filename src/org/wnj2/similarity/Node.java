@@ -0,0 +1,178 @@
+/*
+ * Copyright 2009 Junpei Kawamoto
+ *
+ * This file is part of Japanese WordNet wrapper for Java (Wnj2).
+ * Wnj2 is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Wnj2 is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Wnj2.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package org.wnj2.similarity;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import org.wnj2.Synset;
+
+/**
+ * 上位語の階層中の一つのSynsetと，その祖先の情報．
+ *
+ * <p>
+ * 祖先（自身を含む）はTaxonomy内の番号順に並べて保持し，
+ * 二つのNodeの共通の祖先は配列の併合で求めます．
+ * 作成後に内容は変更されません．
+ * </p>
+ */
+final class Node {
+
+	final Synset synset;
+	final int key;
+
+	/** ルートからの深さ．ルートは1 */
+	final int depth;
+
+	/** 祖先の番号，昇順 */
+	final int[] keys;
+
+	/** 祖先までの最短距離 */
+	final int[] distances;
+
+	final Node[] ancestors;
+
+	/////////////////////////////////////////////////////////////////////////////////////
+	// Constractor
+	/////////////////////////////////////////////////////////////////////////////////////
+	private Node(final Synset synset, final int key, final int depth, final int[] keys, final int[] distances, final Node[] ancestors){
+
+		this.synset = synset;
+		this.key = key;
+		this.depth = depth;
+		this.keys = keys;
+		this.distances = distances;
+		this.ancestors = ancestors;
+
+	}
+
+	/////////////////////////////////////////////////////////////////////////////////////
+	// Static methods
+	/////////////////////////////////////////////////////////////////////////////////////
+	/**
+	 * 上位語のNodeからNodeを作成する．
+	 *
+	 * @param synset 対応するSynset
+	 * @param key Taxonomy内の番号
+	 * @param parents 直接の上位語のNode
+	 * @return 新しいNode
+	 */
+	static Node create(final Synset synset, final int key, final List<Node> parents){
+
+		final Map<Integer, Integer> distances = new TreeMap<Integer, Integer>();
+		final Map<Integer, Node> nodes = new TreeMap<Integer, Node>();
+		int depth = 0;
+		for(final Node p : parents){
+
+			for(int i = 0; i != p.keys.length; ++i){
+
+				final Integer k = p.keys[i];
+				final Integer d = distances.get(k);
+				if(d == null || d > p.distances[i] + 1){
+
+					distances.put(k, p.distances[i] + 1);
+					nodes.put(k, p.ancestors[i]);
+
+				}
+
+			}
+			if(depth == 0 || depth > p.depth){
+
+				depth = p.depth;
+
+			}
+
+		}
+
+		final int[] keys = new int[distances.size() + 1];
+		final int[] dists = new int[keys.length];
+		final Node[] ancestors = new Node[keys.length];
+		final Node ret = new Node(synset, key, depth + 1, keys, dists, ancestors);
+
+		// 自身を番号順の位置に挿入する
+		final List<Integer> sorted = new ArrayList<Integer>(distances.keySet());
+		boolean inserted = false;
+		int j = 0;
+		for(int i = 0; i != keys.length; ++i){
+
+			if(!inserted && (j == sorted.size() || sorted.get(j) > key)){
+
+				keys[i] = key;
+				dists[i] = 0;
+				ancestors[i] = ret;
+				inserted = true;
+
+			}else{
+
+				final Integer k = sorted.get(j++);
+				keys[i] = k;
+				dists[i] = distances.get(k);
+				ancestors[i] = nodes.get(k);
+
+			}
+
+		}
+
+		return ret;
+
+	}
+
+	/**
+	 * 二つのNodeを共通の祖先を介して結ぶ最短経路の長さを求める．
+	 *
+	 * @return 経路の辺の数，共通の祖先がない場合は負の値
+	 */
+	static int shortestPath(final Node a, final Node b){
+
+		int ret = -1;
+		int i = 0;
+		int j = 0;
+		while(i != a.keys.length && j != b.keys.length){
+
+			if(a.keys[i] < b.keys[j]){
+
+				++i;
+
+			}else if(a.keys[i] > b.keys[j]){
+
+				++j;
+
+			}else{
+
+				final int d = a.distances[i] + b.distances[j];
+				if(ret < 0 || d < ret){
+
+					ret = d;
+
+				}
+				++i;
+				++j;
+
+			}
+
+		}
+
+		return ret;
+
+	}
+
+}
@@ -0,0 +1,62 @@
+/*
+ * Copyright 2009 Junpei Kawamoto
+ *
+ * This file is part of Japanese WordNet wrapper for Java (Wnj2).
+ * Wnj2 is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Wnj2 is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Wnj2.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package org.wnj2.similarity;
+
+/**
+ * 最短経路の長さに基づく類似度．
+ *
+ * <p>
+ * 共通の祖先を介して二つのSynsetを結ぶ最短経路の辺の数をdとして，1 / (d + 1)で計算します．
+ * 同じSynsetの類似度は1です．
+ * </p>
+ */
+public class PathSimilarity extends SimilarityMeasure{
+
+	/////////////////////////////////////////////////////////////////////////////////////
+	// Constractor
+	/////////////////////////////////////////////////////////////////////////////////////
+	/**
+	 * 指定したTaxonomyを使うPathSimilarityを作成する．
+	 *
+	 * @param taxonomy 上位語の階層
+	 */
+	public PathSimilarity(final Taxonomy taxonomy){
+		super(taxonomy);
+
+	}
+
+	/////////////////////////////////////////////////////////////////////////////////////
+	// Package private methods
+	/////////////////////////////////////////////////////////////////////////////////////
+	@Override
+	double compute(final Node a, final Node b){
+
+		final int d = Node.shortestPath(a, b);
+		if(d < 0){
+
+			return 0;
+
+		}
+
+		return 1.0 / (d + 1);
+
+	}
+
+}
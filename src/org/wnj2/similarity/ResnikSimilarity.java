@@ -0,0 +1,61 @@
+/*
+ * Copyright 2009 Junpei Kawamoto
+ *
+ * This file is part of Japanese WordNet wrapper for Java (Wnj2).
+ * Wnj2 is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Wnj2 is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Wnj2.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package org.wnj2.similarity;
+
+/**
+ * Resnikの類似度．
+ *
+ * <p>
+ * 二つのSynsetに共通の祖先のうち，情報量が最大のものの情報量です．
+ * </p>
+ *
+ * @see InformationContent
+ */
+public class ResnikSimilarity extends SimilarityMeasure{
+
+	private final InformationContent informationContent;
+
+	/////////////////////////////////////////////////////////////////////////////////////
+	// Constractor
+	/////////////////////////////////////////////////////////////////////////////////////
+	/**
+	 * 指定した情報量を使うResnikSimilarityを作成する．
+	 *
+	 * @param informationContent Synsetの情報量
+	 */
+	public ResnikSimilarity(final InformationContent informationContent){
+		super(informationContent.getTaxonomy());
+
+		this.informationContent = informationContent;
+
+	}
+
+	/////////////////////////////////////////////////////////////////////////////////////
+	// Package private methods
+	/////////////////////////////////////////////////////////////////////////////////////
+	@Override
+	double compute(final Node a, final Node b){
+
+		final double ic = this.informationContent.commonValue(a, b);
+		return ic < 0 ? 0 : ic;
+
+	}
+
+}
@@ -0,0 +1,138 @@
+/*
+ * Copyright 2009 Junpei Kawamoto
+ *
+ * This file is part of Japanese WordNet wrapper for Java (Wnj2).
+ * Wnj2 is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Wnj2 is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Wnj2.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package org.wnj2.similarity;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * 要素どうしの類似度を並べた対称行列．
+ *
+ * <p>
+ * i行j列の値は，入力のi番目とj番目の要素の類似度です．
+ * 類似度は対称なため，get(i, j)とget(j, i)は同じ値を返します．
+ * 作成後に内容は変更されないため，このオブジェクトは複数のスレッドから同時に利用できます．
+ * </p>
+ * <p>
+ * 行列はForkJoinPool.commonPool()で並行に計算するため，Java SE 8 以降が必要です．
+ * </p>
+ *
+ * @see SimilarityMeasure#computeMatrix(java.util.List)
+ * @see SimilarityMeasure#computeWordMatrix(java.util.List)
+ */
+public abstract class SimilarityMatrix {
+
+	/** 一つのタスクで計算する行の数 */
+	static final int ROWS_PER_TASK = 16;
+
+	private final int size;
+
+	/////////////////////////////////////////////////////////////////////////////////////
+	// Constractor
+	/////////////////////////////////////////////////////////////////////////////////////
+	SimilarityMatrix(final int size){
+
+		this.size = size;
+
+	}
+
+	/////////////////////////////////////////////////////////////////////////////////////
+	// Public methods
+	/////////////////////////////////////////////////////////////////////////////////////
+	/**
+	 * 行列の行数（列数）を取得する．
+	 *
+	 * @return 入力の要素数
+	 */
+	public int size(){
+
+		return this.size;
+
+	}
+
+	/**
+	 * 二つの要素の類似度を取得する．
+	 *
+	 * @param i 要素の番号
+	 * @param j 要素の番号
+	 * @return 類似度
+	 */
+	public abstract double get(int i, int j);
+
+	/////////////////////////////////////////////////////////////////////////////////////
+	// Package private methods
+	/////////////////////////////////////////////////////////////////////////////////////
+	/**
+	 * i行目のj &gt;= iの要素を計算する．
+	 * 各行は異なるスレッドから同時に呼び出されます．
+	 */
+	abstract void computeRow(int i);
+
+	/**
+	 * すべての行をForkJoinPoolで計算する．
+	 */
+	void computeRows(){
+
+		ForkJoinPool.commonPool().invoke(new RowTask(0, this.size));
+
+	}
+
+	/**
+	 * 行の範囲を分割して計算するタスク．
+	 * 上の行ほど計算する要素が多いため，行を少しずつまとめた小さなタスクに分け，
+	 * 偏りはワークスティーリングで均します．
+	 */
+	private final class RowTask extends RecursiveAction{
+
+		private static final long serialVersionUID = 1L;
+
+		private final int begin;
+		private final int end;
+
+		RowTask(final int begin, final int end){
+
+			this.begin = begin;
+			this.end = end;
+
+		}
+
+		@Override
+		protected void compute(){
+
+			if(this.end - this.begin <= ROWS_PER_TASK){
+
+				for(int i = this.begin; i != this.end; ++i){
+
+					computeRow(i);
+
+				}
+
+			}else{
+
+				final int middle = (this.begin + this.end) >>> 1;
+				invokeAll(new RowTask(this.begin, middle), new RowTask(middle, this.end));
+
+			}
+
+		}
+
+	}
+
+}
@@ -0,0 +1,245 @@
+/*
+ * Copyright 2009 Junpei Kawamoto
+ *
+ * This file is part of Japanese WordNet wrapper for Java (Wnj2).
+ * Wnj2 is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Wnj2 is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Wnj2.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package org.wnj2.similarity;
+
+import java.sql.SQLException;
+import java.util.List;
+
+import org.wnj2.Sense;
+import org.wnj2.Synset;
+import org.wnj2.Word;
+
+/**
+ * Synset間の意味的な類似度．
+ *
+ * <p>
+ * 類似度は値が大きいほど似ていることを表し，共通の祖先を持たないSynsetの組には0を返します．
+ * Word間の類似度は，それぞれのWordが属するSynsetのすべての組の類似度のうち最大の値です．
+ * </p>
+ *
+ * @see Taxonomy
+ */
+public abstract class SimilarityMeasure {
+
+	protected final Taxonomy taxonomy;
+
+	/////////////////////////////////////////////////////////////////////////////////////
+	// Constractor
+	/////////////////////////////////////////////////////////////////////////////////////
+	SimilarityMeasure(final Taxonomy taxonomy){
+		assert taxonomy != null : "taxonomy is null";
+
+		this.taxonomy = taxonomy;
+
+	}
+
+	/////////////////////////////////////////////////////////////////////////////////////
+	// Public methods
+	/////////////////////////////////////////////////////////////////////////////////////
+	/**
+	 * 二つのSynsetの類似度を計算する．
+	 *
+	 * @param a Synset
+	 * @param b Synset
+	 * @return 類似度
+	 * @throws SQLException 上位語の取得中にデータベースへのアクセスにエラーが発生した場合
+	 */
+	public double similarity(final Synset a, final Synset b) throws SQLException{
+		assert a != null : "a is null";
+		assert b != null : "b is null";
+
+		return this.compute(this.taxonomy.node(a), this.taxonomy.node(b));
+
+	}
+
+	/**
+	 * 二つのWordの類似度を計算する．
+	 * それぞれのWordが属するSynsetの組のうち，最も似ている組の類似度を返します．
+	 *
+	 * @param a Word
+	 * @param b Word
+	 * @return 類似度，どちらかのWordがSynsetに属さない場合は0
+	 * @throws SQLException データベースへのアクセスにエラーが発生した場合
+	 */
+	public double similarity(final Word a, final Word b) throws SQLException{
+		assert a != null : "a is null";
+		assert b != null : "b is null";
+
+		return this.compute(this.nodes(a), this.nodes(b));
+
+	}
+
+	/**
+	 * Synsetのすべての組の類似度を並行に計算する．
+	 *
+	 * <p>
+	 * 最初にすべてのSynsetの祖先を取得し，その後の計算はデータベースへアクセスせずに
+	 * 行をいくつかずつまとめたタスクとしてForkJoinPoolで実行します．
+	 * </p>
+	 *
+	 * @param synsets Synsetのリスト
+	 * @return i番目とj番目のSynsetの類似度を要素とする行列
+	 * @throws SQLException 上位語の取得中にデータベースへのアクセスにエラーが発生した場合
+	 */
+	public DenseSimilarityMatrix computeMatrix(final List<? extends Synset> synsets) throws SQLException{
+		assert synsets != null : "synsets is null";
+
+		return new DenseSimilarityMatrix(this, this.synsetNodes(synsets));
+
+	}
+
+	/**
+	 * Synsetのすべての組の類似度を並行に計算し，閾値以上の要素だけを保持する．
+	 *
+	 * @param synsets Synsetのリスト
+	 * @param threshold 保持する類似度の下限
+	 * @return 閾値以上の要素だけを持つ疎な行列
+	 * @throws SQLException 上位語の取得中にデータベースへのアクセスにエラーが発生した場合
+	 */
+	public SparseSimilarityMatrix computeMatrix(final List<? extends Synset> synsets, final double threshold) throws SQLException{
+		assert synsets != null : "synsets is null";
+
+		return new SparseSimilarityMatrix(this, this.synsetNodes(synsets), threshold);
+
+	}
+
+	/**
+	 * Wordのすべての組の類似度を並行に計算する．
+	 * 各要素はsimilarity(Word, Word)と同じ値です．
+	 *
+	 * @param words Wordのリスト
+	 * @return i番目とj番目のWordの類似度を要素とする行列
+	 * @throws SQLException データベースへのアクセスにエラーが発生した場合
+	 */
+	public DenseSimilarityMatrix computeWordMatrix(final List<? extends Word> words) throws SQLException{
+		assert words != null : "words is null";
+
+		return new DenseSimilarityMatrix(this, this.wordNodes(words));
+
+	}
+
+	/**
+	 * Wordのすべての組の類似度を並行に計算し，閾値以上の要素だけを保持する．
+	 *
+	 * @param words Wordのリスト
+	 * @param threshold 保持する類似度の下限
+	 * @return 閾値以上の要素だけを持つ疎な行列
+	 * @throws SQLException データベースへのアクセスにエラーが発生した場合
+	 */
+	public SparseSimilarityMatrix computeWordMatrix(final List<? extends Word> words, final double threshold) throws SQLException{
+		assert words != null : "words is null";
+
+		return new SparseSimilarityMatrix(this, this.wordNodes(words), threshold);
+
+	}
+
+	/**
+	 * この類似度が計算に使用するTaxonomyを取得する．
+	 *
+	 * @return Taxonomy
+	 */
+	public Taxonomy getTaxonomy(){
+
+		return this.taxonomy;
+
+	}
+
+	/////////////////////////////////////////////////////////////////////////////////////
+	// Package private methods
+	/////////////////////////////////////////////////////////////////////////////////////
+	/**
+	 * 二つのNodeの類似度を計算する．
+	 * データベースへはアクセスしません．
+	 */
+	abstract double compute(Node a, Node b);
+
+	/**
+	 * Nodeの集合どうしの類似度として，すべての組の類似度の最大値を計算する．
+	 * どちらかが空の場合は0です．
+	 */
+	double compute(final Node[] a, final Node[] b){
+
+		double ret = 0;
+		for(final Node p : a){
+
+			for(final Node q : b){
+
+				final double s = this.compute(p, q);
+				if(s > ret){
+
+					ret = s;
+
+				}
+
+			}
+
+		}
+
+		return ret;
+
+	}
+
+	/////////////////////////////////////////////////////////////////////////////////////
+	// Private methods
+	/////////////////////////////////////////////////////////////////////////////////////
+	/**
+	 * Wordの各Senseが属するSynsetのNodeを取得する．
+	 */
+	private Node[] nodes(final Word word) throws SQLException{
+
+		final List<Sense> senses = word.getSenses();
+		final Node[] ret = new Node[senses.size()];
+		for(int i = 0; i != ret.length; ++i){
+
+			ret[i] = this.taxonomy.node(senses.get(i).getSynset());
+
+		}
+
+		return ret;
+
+	}
+
+	private Node[][] synsetNodes(final List<? extends Synset> synsets) throws SQLException{
+
+		final Node[][] ret = new Node[synsets.size()][];
+		for(int i = 0; i != ret.length; ++i){
+
+			ret[i] = new Node[]{this.taxonomy.node(synsets.get(i))};
+
+		}
+
+		return ret;
+
+	}
+
+	private Node[][] wordNodes(final List<? extends Word> words) throws SQLException{
+
+		final Node[][] ret = new Node[words.size()][];
+		for(int i = 0; i != ret.length; ++i){
+
+			ret[i] = this.nodes(words.get(i));
+
+		}
+
+		return ret;
+
+	}
+
+}
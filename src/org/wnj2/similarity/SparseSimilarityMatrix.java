@@ -0,0 +1,227 @@
+/*
+ * Copyright 2009 Junpei Kawamoto
+ *
+ * This file is part of Japanese WordNet wrapper for Java (Wnj2).
+ * Wnj2 is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Wnj2 is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Wnj2.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package org.wnj2.similarity;
+
+import java.util.Arrays;
+
+/**
+ * 閾値以上の要素だけを保持する類似度の行列．
+ *
+ * <p>
+ * 各行について，閾値以上の類似度を持つ列の番号と値を列の番号順に保持します．
+ * 保持していない要素のgetは0を返します．
+ * 類似度の高い組だけが必要な場合，すべての組を保持するより少ないメモリで済みます．
+ * </p>
+ *
+ * @see SimilarityMeasure#computeMatrix(java.util.List, double)
+ * @see SimilarityMeasure#computeWordMatrix(java.util.List, double)
+ */
+public final class SparseSimilarityMatrix extends SimilarityMatrix{
+
+	private final SimilarityMeasure measure;
+	private final Node[][] items;
+	private final double threshold;
+
+	/** 行ごとの列の番号，昇順 */
+	private final int[][] columns;
+
+	/** 行ごとの値 */
+	private final double[][] values;
+
+	/////////////////////////////////////////////////////////////////////////////////////
+	// Constractor
+	/////////////////////////////////////////////////////////////////////////////////////
+	SparseSimilarityMatrix(final SimilarityMeasure measure, final Node[][] items, final double threshold){
+		super(items.length);
+
+		this.measure = measure;
+		this.items = items;
+		this.threshold = threshold;
+		this.columns = new int[items.length][];
+		this.values = new double[items.length][];
+		this.computeRows();
+		this.mirror();
+
+	}
+
+	/////////////////////////////////////////////////////////////////////////////////////
+	// Public methods
+	/////////////////////////////////////////////////////////////////////////////////////
+	/* (非 Javadoc)
+	 * @see org.wnj2.similarity.SimilarityMatrix#get(int, int)
+	 */
+	@Override
+	public double get(final int i, final int j){
+
+		final int k = Arrays.binarySearch(this.columns[i], j);
+		return k < 0 ? 0 : this.values[i][k];
+
+	}
+
+	/**
+	 * 行列を作成した時の閾値を取得する．
+	 *
+	 * @return 閾値
+	 */
+	public double getThreshold(){
+
+		return this.threshold;
+
+	}
+
+	/**
+	 * 指定した行で保持している列の番号を取得する．
+	 *
+	 * @param i 行の番号
+	 * @return 閾値以上の類似度を持つ列の番号，昇順
+	 */
+	public int[] getColumns(final int i){
+
+		return this.columns[i].clone();
+
+	}
+
+	/**
+	 * 指定した行で保持している値を取得する．
+	 *
+	 * @param i 行の番号
+	 * @return getColumnsの各列に対応する類似度
+	 */
+	public double[] getValues(final int i){
+
+		return this.values[i].clone();
+
+	}
+
+	/**
+	 * 保持している要素の数を取得する．
+	 *
+	 * @return 閾値以上の要素の数
+	 */
+	public long count(){
+
+		long ret = 0;
+		for(final int[] c : this.columns){
+
+			ret += c.length;
+
+		}
+
+		return ret;
+
+	}
+
+	/////////////////////////////////////////////////////////////////////////////////////
+	// Package private methods
+	/////////////////////////////////////////////////////////////////////////////////////
+	@Override
+	void computeRow(final int i){
+
+		final Node[] a = this.items[i];
+		int[] columns = new int[8];
+		double[] values = new double[8];
+		int size = 0;
+		for(int j = i; j != this.items.length; ++j){
+
+			final double s = this.measure.compute(a, this.items[j]);
+			if(s >= this.threshold){
+
+				if(size == columns.length){
+
+					columns = Arrays.copyOf(columns, size * 2);
+					values = Arrays.copyOf(values, size * 2);
+
+				}
+				columns[size] = j;
+				values[size] = s;
+				++size;
+
+			}
+
+		}
+
+		this.columns[i] = Arrays.copyOf(columns, size);
+		this.values[i] = Arrays.copyOf(values, size);
+
+	}
+
+	/////////////////////////////////////////////////////////////////////////////////////
+	// Private methods
+	/////////////////////////////////////////////////////////////////////////////////////
+	/**
+	 * 上三角部分の要素を下三角部分へ複写し，各行が全列を持つようにする．
+	 */
+	private void mirror(){
+
+		final int n = this.size();
+		final int[] lower = new int[n];
+		for(int i = 0; i != n; ++i){
+
+			for(final int j : this.columns[i]){
+
+				if(j != i){
+
+					++lower[j];
+
+				}
+
+			}
+
+		}
+
+		final int[][] columns = new int[n][];
+		final double[][] values = new double[n][];
+		final int[] fill = new int[n];
+		for(int i = 0; i != n; ++i){
+
+			columns[i] = new int[lower[i] + this.columns[i].length];
+			values[i] = new double[columns[i].length];
+
+		}
+
+		// 行の番号順に処理するため，下三角部分の列も昇順に並ぶ
+		for(int i = 0; i != n; ++i){
+
+			for(int k = 0; k != this.columns[i].length; ++k){
+
+				final int j = this.columns[i][k];
+				if(j != i){
+
+					columns[j][fill[j]] = i;
+					values[j][fill[j]] = this.values[i][k];
+					++fill[j];
+
+				}
+
+			}
+
+		}
+		for(int i = 0; i != n; ++i){
+
+			System.arraycopy(this.columns[i], 0, columns[i], fill[i], this.columns[i].length);
+			System.arraycopy(this.values[i], 0, values[i], fill[i], this.values[i].length);
+			this.columns[i] = columns[i];
+			this.values[i] = values[i];
+
+		}
+
+	}
+
+}
@@ -0,0 +1,281 @@
+/*
+ * Copyright 2009 Junpei Kawamoto
+ *
+ * This file is part of Japanese WordNet wrapper for Java (Wnj2).
+ * Wnj2 is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Wnj2 is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Wnj2.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package org.wnj2.similarity;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.wnj2.Link;
+import org.wnj2.Pos;
+import org.wnj2.Synset;
+
+/**
+ * 上位語（Link.hype）とインスタンスの上位語（Link.inst）からなる階層．
+ *
+ * <p>
+ * 各Synsetについて，ルートからの深さと祖先の集合を最初に必要になった時に一度だけ計算し，保持します．
+ * 以降の類似度の計算ではデータベースへアクセスしないため，一組のSynsetの類似度は数マイクロ秒で求まります．
+ * </p>
+ * <blockquote><pre>
+ * Taxonomy taxonomy = new Taxonomy();
+ * SimilarityMeasure wup = new WuPalmerSimilarity(taxonomy);
+ * double s = wup.similarity(synset1, synset2);
+ * </pre></blockquote>
+ * <p>
+ * 一つのTaxonomyを複数の類似度で共有できます．
+ * このオブジェクトは複数のスレッドから同時に利用できます．
+ * </p>
+ */
+public final class Taxonomy {
+
+	/** WordNet 3.0の名詞の階層の深さ */
+	public static final int DEFAULT_NOUN_DEPTH = 20;
+
+	/** WordNet 3.0の動詞の階層の深さ */
+	public static final int DEFAULT_VERB_DEPTH = 13;
+
+	private static final Link[] PARENT_LINKS = new Link[]{Link.hype, Link.inst};
+
+	private final ConcurrentMap<String, Node> nodes = new ConcurrentHashMap<String, Node>();
+	private final ConcurrentMap<String, Integer> keys = new ConcurrentHashMap<String, Integer>();
+	private final AtomicInteger nextKey = new AtomicInteger();
+	private volatile int[] maxDepths = new int[Pos.values().length];
+
+	/////////////////////////////////////////////////////////////////////////////////////
+	// Constractor
+	/////////////////////////////////////////////////////////////////////////////////////
+	/**
+	 * 空のTaxonomyを作成する．
+	 * 階層の深さには日本語WordNetの元になったWordNet 3.0の値を設定します．
+	 */
+	public Taxonomy(){
+
+		for(final Pos pos : Pos.values()){
+
+			this.maxDepths[pos.ordinal()] = 1;
+
+		}
+		this.maxDepths[Pos.n.ordinal()] = DEFAULT_NOUN_DEPTH;
+		this.maxDepths[Pos.v.ordinal()] = DEFAULT_VERB_DEPTH;
+
+	}
+
+	/////////////////////////////////////////////////////////////////////////////////////
+	// Public methods
+	/////////////////////////////////////////////////////////////////////////////////////
+	/**
+	 * Synsetのルートからの深さを取得する．
+	 * 上位語を持たないSynsetの深さは1です．
+	 * 上位語が複数ある場合は，最も浅い経路での深さになります．
+	 *
+	 * @param synset 対象のSynset
+	 * @return 深さ
+	 * @throws SQLException データベースへのアクセスにエラーが発生した場合
+	 */
+	public int getDepth(final Synset synset) throws SQLException{
+		assert synset != null : "synset is null";
+
+		return this.node(synset).depth;
+
+	}
+
+	/**
+	 * 二つのSynsetに共通の祖先のうち，最も深いものを取得する．
+	 * 深さが同じ祖先が複数ある場合は，二つのSynsetを結ぶ経路が最も短いものを返します．
+	 *
+	 * @param a Synset
+	 * @param b Synset
+	 * @return 最も深い共通の祖先，存在しない場合はnull
+	 * @throws SQLException データベースへのアクセスにエラーが発生した場合
+	 */
+	public Synset getLowestCommonSubsumer(final Synset a, final Synset b) throws SQLException{
+		assert a != null : "a is null";
+		assert b != null : "b is null";
+
+		final Node x = this.node(a);
+		final Node y = this.node(b);
+		Node ret = null;
+		int path = 0;
+		int i = 0;
+		int j = 0;
+		while(i != x.keys.length && j != y.keys.length){
+
+			if(x.keys[i] < y.keys[j]){
+
+				++i;
+
+			}else if(x.keys[i] > y.keys[j]){
+
+				++j;
+
+			}else{
+
+				final Node n = x.ancestors[i];
+				final int d = x.distances[i] + y.distances[j];
+				if(ret == null || n.depth > ret.depth || (n.depth == ret.depth && d < path)){
+
+					ret = n;
+					path = d;
+
+				}
+				++i;
+				++j;
+
+			}
+
+		}
+
+		return ret != null ? ret.synset : null;
+
+	}
+
+	/**
+	 * 品詞ごとの階層の深さを取得する．
+	 * Leacock-Chodorowの類似度で使用します．
+	 *
+	 * @param pos 品詞
+	 * @return 階層の深さ
+	 */
+	public int getMaxDepth(final Pos pos){
+		assert pos != null : "pos is null";
+
+		return this.maxDepths[pos.ordinal()];
+
+	}
+
+	/**
+	 * 品詞ごとの階層の深さを設定する．
+	 * WordNet 3.0以外のデータを使う場合に設定してください．
+	 *
+	 * @param pos 品詞
+	 * @param depth 階層の深さ，1以上
+	 */
+	public void setMaxDepth(final Pos pos, final int depth){
+		assert pos != null : "pos is null";
+		assert depth > 0 : "depth must be positive";
+
+		synchronized(this){
+
+			final int[] depths = this.maxDepths.clone();
+			depths[pos.ordinal()] = depth;
+			this.maxDepths = depths;
+
+		}
+
+	}
+
+	/**
+	 * 情報を保持しているSynsetの数を取得する．
+	 *
+	 * @return Synsetの数
+	 */
+	public int size(){
+
+		return this.nodes.size();
+
+	}
+
+	/////////////////////////////////////////////////////////////////////////////////////
+	// Package private methods
+	/////////////////////////////////////////////////////////////////////////////////////
+	/**
+	 * SynsetのNodeを取得する．
+	 * まだ作成していない場合は，上位語をたどって作成します．
+	 */
+	Node node(final Synset synset) throws SQLException{
+
+		final Node ret = this.nodes.get(synset.getSynsetID());
+		if(ret != null){
+
+			return ret;
+
+		}
+
+		return this.build(synset, new HashSet<String>());
+
+	}
+
+	/**
+	 * SynsetIDに対応するTaxonomy内の番号を取得する．
+	 * 番号は0から順に割り当てられます．
+	 */
+	int key(final String id){
+
+		final Integer found = this.keys.get(id);
+		if(found != null){
+
+			return found;
+
+		}
+
+		final Integer created = this.nextKey.getAndIncrement();
+		final Integer prev = this.keys.putIfAbsent(id, created);
+		return prev != null ? prev : created;
+
+	}
+
+	/////////////////////////////////////////////////////////////////////////////////////
+	// Private methods
+	/////////////////////////////////////////////////////////////////////////////////////
+	/**
+	 * 上位語のNodeを先に作成し，それらからSynsetのNodeを作成する．
+	 *
+	 * @param path 作成中のSynsetのID．循環するリンクを無視するために使用します．
+	 */
+	private Node build(final Synset synset, final Set<String> path) throws SQLException{
+
+		final String id = synset.getSynsetID();
+		final Node found = this.nodes.get(id);
+		if(found != null){
+
+			return found;
+
+		}
+
+		path.add(id);
+		final List<Node> parents = new ArrayList<Node>();
+		for(final Link link : PARENT_LINKS){
+
+			for(final Synset p : synset.getConnectedSynsets(link)){
+
+				if(!path.contains(p.getSynsetID())){
+
+					parents.add(this.build(p, path));
+
+				}
+
+			}
+
+		}
+		path.remove(id);
+
+		final Node created = Node.create(synset, this.key(id), parents);
+		final Node prev = this.nodes.putIfAbsent(id, created);
+		return prev != null ? prev : created;
+
+	}
+
+}
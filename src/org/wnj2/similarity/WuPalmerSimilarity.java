@@ -0,0 +1,93 @@
+/*
+ * Copyright 2009 Junpei Kawamoto
+ *
+ * This file is part of Japanese WordNet wrapper for Java (Wnj2).
+ * Wnj2 is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Wnj2 is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Wnj2.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package org.wnj2.similarity;
+
+/**
+ * Wu-Palmerの類似度．
+ *
+ * <p>
+ * 最も深い共通の祖先cの深さをD，二つのSynsetからcまでの距離をd1, d2として，
+ * 2D / (d1 + d2 + 2D)で計算します．
+ * 値は0より大きく1以下です．
+ * </p>
+ */
+public class WuPalmerSimilarity extends SimilarityMeasure{
+
+	/////////////////////////////////////////////////////////////////////////////////////
+	// Constractor
+	/////////////////////////////////////////////////////////////////////////////////////
+	/**
+	 * 指定したTaxonomyを使うWuPalmerSimilarityを作成する．
+	 *
+	 * @param taxonomy 上位語の階層
+	 */
+	public WuPalmerSimilarity(final Taxonomy taxonomy){
+		super(taxonomy);
+
+	}
+
+	/////////////////////////////////////////////////////////////////////////////////////
+	// Package private methods
+	/////////////////////////////////////////////////////////////////////////////////////
+	@Override
+	double compute(final Node a, final Node b){
+
+		int depth = 0;
+		int path = 0;
+		int i = 0;
+		int j = 0;
+		while(i != a.keys.length && j != b.keys.length){
+
+			if(a.keys[i] < b.keys[j]){
+
+				++i;
+
+			}else if(a.keys[i] > b.keys[j]){
+
+				++j;
+
+			}else{
+
+				final int c = a.ancestors[i].depth;
+				final int d = a.distances[i] + b.distances[j];
+				if(c > depth || (c == depth && d < path)){
+
+					depth = c;
+					path = d;
+
+				}
+				++i;
+				++j;
+
+			}
+
+		}
+
+		if(depth == 0){
+
+			return 0;
+
+		}
+
+		return 2.0 * depth / (path + 2.0 * depth);
+
+	}
+
+}
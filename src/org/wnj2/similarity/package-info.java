@@ -0,0 +1,24 @@
+/*
+ * Copyright 2009 Junpei Kawamoto
+ *
+ * This file is part of Japanese WordNet wrapper for Java (Wnj2).
+ * Wnj2 is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Wnj2 is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Wnj2.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+/**
+ *	Synset, Word間の意味的な類似度を計算するクラスを提供します．
+ *	類似度はTaxonomyが保持する上位語の階層をもとに計算します．
+ *	類似度の行列の計算に Java SE 8 の API を使用するため，このパッケージは Java SE 8 以降で動作します．
+ */
+package org.wnj2.similarity;
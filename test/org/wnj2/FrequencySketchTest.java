@@ -0,0 +1,109 @@
+/*
+ * Copyright 2009 Junpei Kawamoto
+ *
+ * This file is part of Japanese WordNet wrapper for Java (Wnj2).
+ * Wnj2 is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Wnj2 is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Wnj2.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package org.wnj2;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+/**
+ * FrequencySketchの計数，飽和，減衰を確認する．
+ *
+ * @author Junpei Kawamoto
+ */
+public class FrequencySketchTest {
+
+	@Test
+	public void testIncrement(){
+
+		final FrequencySketch sketch = new FrequencySketch(1024);
+		assertEquals(0, sketch.frequency("a"));
+		for(int i = 1; i <= 5; ++i){
+
+			sketch.increment("a");
+			assertEquals(i, sketch.frequency("a"));
+
+		}
+		assertEquals(0, sketch.frequency("b"));
+
+	}
+
+	/**
+	 * カウンタは15で飽和し，隣のカウンタへ溢れないことを確認する．
+	 */
+	@Test
+	public void testSaturation(){
+
+		final FrequencySketch sketch = new FrequencySketch(1024);
+		for(int i = 0; i != 100; ++i){
+
+			sketch.increment("a");
+
+		}
+		assertEquals(15, sketch.frequency("a"));
+		assertEquals(0, sketch.frequency("b"));
+
+	}
+
+	/**
+	 * 加算回数が容量の10倍に達するとカウンタが半分になることを確認する．
+	 */
+	@Test
+	public void testReset(){
+
+		final int capacity = 16;
+		final FrequencySketch sketch = new FrequencySketch(capacity);
+		for(int i = 0; i != 15; ++i){
+
+			sketch.increment("hot");
+
+		}
+		assertEquals(15, sketch.frequency("hot"));
+
+		int steps = 0;
+		while(sketch.frequency("hot") == 15){
+
+			sketch.increment(steps++);
+			assertTrue(steps <= 10 * capacity - 15);
+
+		}
+		assertEquals(7, sketch.frequency("hot"));
+
+	}
+
+	/**
+	 * 飽和したキーの参照は加算回数に数えず，それだけではカウンタが減衰しないことを確認する．
+	 */
+	@Test
+	public void testSaturatedKeyDoesNotAge(){
+
+		final int capacity = 16;
+		final FrequencySketch sketch = new FrequencySketch(capacity);
+		for(int i = 0; i != 100 * capacity; ++i){
+
+			sketch.increment("hot");
+
+		}
+		assertEquals(15, sketch.frequency("hot"));
+
+	}
+
+}
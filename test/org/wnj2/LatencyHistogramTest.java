@@ -0,0 +1,209 @@
+/*
+ * Copyright 2009 Junpei Kawamoto
+ *
+ * This file is part of Japanese WordNet wrapper for Java (Wnj2).
+ * Wnj2 is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Wnj2 is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Wnj2.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package org.wnj2;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assume.assumeTrue;
+
+import java.lang.management.ManagementFactory;
+
+import org.junit.Test;
+
+/**
+ * LatencyHistogramの区間の境界とパーセンタイルの読み出しを確認する．
+ *
+ * @author Junpei Kawamoto
+ */
+public class LatencyHistogramTest {
+
+	/**
+	 * 32未満の値はそれぞれ独立した区間に数え，負の値は0として扱うことを確認する．
+	 */
+	@Test
+	public void testSmallValues(){
+
+		for(int v = 0; v != 32; ++v){
+
+			assertEquals(v, LatencyHistogram.index(v));
+			assertEquals(v, LatencyHistogram.highestValue(v));
+
+		}
+		assertEquals(0, LatencyHistogram.index(-1));
+		assertEquals(0, LatencyHistogram.index(Long.MIN_VALUE));
+		assertEquals(32, LatencyHistogram.index(32));
+
+	}
+
+	/**
+	 * 2のべき乗ごとに，その直前の値とは別の区間が始まることを確認する．
+	 */
+	@Test
+	public void testPowerOfTwoEdges(){
+
+		for(int exponent = 0; exponent != 63; ++exponent){
+
+			final long edge = 1L << exponent;
+			assertEquals(LatencyHistogram.index(edge - 1) + 1, LatencyHistogram.index(edge));
+			assertEquals(edge - 1, LatencyHistogram.highestValue(LatencyHistogram.index(edge - 1)));
+			if(exponent >= 5){
+
+				// 2のべき乗ごとの範囲は16個の区間からなる
+				assertEquals(16, LatencyHistogram.index(edge) - LatencyHistogram.index(edge >>> 1));
+
+			}
+
+		}
+
+	}
+
+	/**
+	 * すべての区間について，最大の値はその区間に，その次の値は次の区間に数えることを確認する．
+	 */
+	@Test
+	public void testBucketBoundaries(){
+
+		for(int i = 0; i != LatencyHistogram.BUCKETS - 1; ++i){
+
+			final long highest = LatencyHistogram.highestValue(i);
+			assertEquals(i, LatencyHistogram.index(highest));
+			assertEquals(i + 1, LatencyHistogram.index(highest + 1));
+
+			// 相対誤差は1/16以内
+			final long lowest = i == 0 ? 0 : LatencyHistogram.highestValue(i - 1) + 1;
+			assertTrue(highest - lowest <= lowest / 16);
+
+		}
+
+	}
+
+	@Test
+	public void testMaxValue(){
+
+		assertEquals(LatencyHistogram.BUCKETS - 1, LatencyHistogram.index(Long.MAX_VALUE));
+		assertEquals(Long.MAX_VALUE, LatencyHistogram.highestValue(LatencyHistogram.BUCKETS - 1));
+
+		final LatencyHistogram histogram = new LatencyHistogram();
+		histogram.record(Long.MAX_VALUE);
+		assertEquals(1, histogram.getCounts()[LatencyHistogram.BUCKETS - 1]);
+
+	}
+
+	@Test
+	public void testRecord(){
+
+		final LatencyHistogram histogram = new LatencyHistogram();
+		histogram.record(-1);
+		histogram.record(0);
+		histogram.record(1);
+		histogram.record(1);
+		histogram.record(1000);
+
+		final long[] expected = new long[LatencyHistogram.BUCKETS];
+		expected[0] = 2;
+		expected[1] = 2;
+		expected[LatencyHistogram.index(1000)] = 1;
+		assertArrayEquals(expected, histogram.getCounts());
+
+		histogram.reset();
+		assertArrayEquals(new long[LatencyHistogram.BUCKETS], histogram.getCounts());
+
+	}
+
+	/**
+	 * 記録した値からQueryStatisticsが読み出すパーセンタイルを確認する．
+	 */
+	@Test
+	public void testPercentile(){
+
+		final LatencyHistogram histogram = new LatencyHistogram();
+		assertEquals(0, statistics(histogram, 0).getMedianTime());
+
+		for(int v = 1; v <= 100; ++v){
+
+			histogram.record(v);
+
+		}
+		final QueryStatistics s = statistics(histogram, 100);
+		assertEquals(1, s.getPercentileTime(0));
+		assertEquals(31, s.getPercentileTime(31));
+
+		// 50は50以上51以下の区間に数えられる
+		assertEquals(51, s.getMedianTime());
+		assertEquals(91, s.get90thPercentileTime());
+		assertEquals(99, s.get99thPercentileTime());
+
+		// 100を含む区間の最大値103ではなく，記録した最大値を返す
+		assertEquals(100, s.get999thPermilleTime());
+		assertEquals(100, s.getPercentileTime(100));
+
+		for(long v = 1L << 40; v != (1L << 40) + 100; ++v){
+
+			histogram.record(v);
+
+		}
+		final QueryStatistics large = statistics(histogram, (1L << 40) + 99);
+		final long p75 = large.getPercentileTime(75);
+		assertTrue(p75 >= (1L << 40) + 49);
+		assertTrue(p75 - ((1L << 40) + 49) <= (1L << 40) / 16);
+
+	}
+
+	/**
+	 * recordがオブジェクトを作成しないことを確認する．
+	 */
+	@Test
+	public void testRecordDoesNotAllocate(){
+
+		assumeTrue(ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean);
+		final com.sun.management.ThreadMXBean bean = (com.sun.management.ThreadMXBean)ManagementFactory.getThreadMXBean();
+		assumeTrue(bean.isThreadAllocatedMemorySupported());
+		bean.setThreadAllocatedMemoryEnabled(true);
+
+		final long id = Thread.currentThread().getId();
+		final LatencyHistogram histogram = new LatencyHistogram();
+		final int records = 1000000;
+		for(int i = 0; i != records; ++i){
+
+			histogram.record(i);
+
+		}
+
+		final long before = bean.getThreadAllocatedBytes(id);
+		for(int i = 0; i != records; ++i){
+
+			histogram.record(i * 7919L);
+
+		}
+		final long allocated = bean.getThreadAllocatedBytes(id) - before;
+
+		// getThreadAllocatedBytes自身の小さな配列を除けば0になる
+		assertTrue(String.format("%d bytes", allocated), allocated < 1024);
+
+	}
+
+	private static QueryStatistics statistics(final LatencyHistogram histogram, final long max){
+
+		return new QueryStatistics("TEST", 0, 0, 0, max, histogram.getCounts());
+
+	}
+
+}
@@ -0,0 +1,507 @@
+/*
+ * Copyright 2009 Junpei Kawamoto
+ *
+ * This file is part of Japanese WordNet wrapper for Java (Wnj2).
+ * Wnj2 is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Wnj2 is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Wnj2.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package org.wnj2;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.DataInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.ClassRule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.wnj2.importers.Generator;
+import org.wnj2.importers.Import2Binary;
+import org.wnj2.importers.TargetDialect;
+
+/**
+ * Import2Binaryで書き出したバイナリ辞書ファイルを，元のSQLiteデータベースと比較する．
+ *
+ * @author Junpei Kawamoto
+ */
+public class MappedDictionaryTest {
+
+	/** 作成する合成データベースの倍率 */
+	private static final double SCALE = 0.02;
+
+	@ClassRule
+	public static final TemporaryFolder folder = new TemporaryFolder();
+
+	private static File database;
+	private static File binary;
+	private static Connection connection;
+	private static Snapshot expected;
+	private static MappedDictionary actual;
+
+	@BeforeClass
+	public static void setUpClass() throws Exception{
+
+		Class.forName("org.sqlite.JDBC");
+		database = new File(folder.getRoot(), "wnjpn.db");
+		binary = new File(folder.getRoot(), "wnjpn.bin");
+
+		final String url = String.format("jdbc:sqlite:%s", database.getPath());
+		final Generator generator = new Generator(new org.wnj2.importers.Importer.Connector(){
+
+			@Override
+			public Connection open() throws SQLException {
+
+				return DriverManager.getConnection(url);
+
+			}
+
+		}, TargetDialect.SQLITE);
+		generator.setScale(SCALE);
+		generator.run();
+
+		Import2Binary.main(new String[]{database.getPath(), binary.getPath()});
+
+		connection = DriverManager.getConnection(url);
+		expected = Snapshot.load(connection);
+		actual = MappedDictionary.map(binary);
+
+	}
+
+	@AfterClass
+	public static void tearDownClass() throws SQLException{
+
+		if(connection != null){
+
+			connection.close();
+
+		}
+
+	}
+
+	/////////////////////////////////////////////////////////////////////////////////////
+	// Header
+	/////////////////////////////////////////////////////////////////////////////////////
+	/**
+	 * ヘッダの件数と各配列の開始位置が，ファイルの中身と一致することを確認する．
+	 */
+	@Test
+	public void testHeader() throws IOException{
+
+		assertTrue(expected.wordCount() > 0);
+		assertTrue(expected.synsetCount() > 0);
+		assertTrue(expected.senseCount() > 0);
+		assertTrue(expected.linkCount() > 0);
+
+		final int[] header = new int[8];
+		final int[] offsets;
+		final DataInputStream in = new DataInputStream(new FileInputStream(binary));
+		try{
+
+			for(int i = 0; i != header.length; ++i){
+
+				header[i] = in.readInt();
+
+			}
+
+			// 最初の配列はヘッダの直後から始まる
+			final int first = in.readInt();
+			assertEquals(0, first % 4);
+			offsets = new int[(first - 4 * header.length) / 4];
+			offsets[0] = first;
+			for(int i = 1; i != offsets.length; ++i){
+
+				offsets[i] = in.readInt();
+
+			}
+
+		}finally{
+
+			in.close();
+
+		}
+
+		assertEquals(MappedDictionary.MAGIC, header[0]);
+		assertEquals(MappedDictionary.VERSION, header[1]);
+		assertEquals(expected.wordCount(), header[2]);
+		assertEquals(expected.synsetCount(), header[3]);
+		assertEquals(expected.senseCount(), header[4]);
+		assertEquals(expected.defEnd(expected.synsetCount() - 1), header[5]);
+		assertEquals(expected.linkCount(), header[6]);
+		assertEquals(strings(expected).size(), header[7]);
+
+		for(int i = 1; i != offsets.length; ++i){
+
+			assertEquals(0, offsets[i] % 4);
+			assertTrue(offsets[i - 1] <= offsets[i]);
+
+		}
+		assertTrue(offsets[offsets.length - 1] <= binary.length());
+
+		// 文字列の開始位置の表の直後に文字列の本体が続き，その直後に単語IDが続く
+		assertEquals(offsets[0] + 4 * (header[7] + 1), offsets[1]);
+		final RandomAccessFile raf = new RandomAccessFile(binary, "r");
+		try{
+
+			raf.seek(offsets[0] + 4 * header[7]);
+			final int blob = raf.readInt();
+			assertEquals(offsets[1] + ((blob + 3) & ~3), offsets[2]);
+			assertEquals(offsets[2] + 4 * header[2], offsets[3]);
+
+		}finally{
+
+			raf.close();
+
+		}
+
+	}
+
+	/**
+	 * 形式の異なるファイルや途中で切れたファイルはマップできないことを確認する．
+	 */
+	@Test
+	public void testBrokenFile() throws IOException{
+
+		final File empty = folder.newFile("empty.bin");
+		try{
+
+			MappedDictionary.map(empty);
+			fail("mapped an empty file");
+
+		}catch(final IOException e){
+			// 期待どおり
+		}
+
+		final File truncated = folder.newFile("truncated.bin");
+		write(truncated, MappedDictionary.MAGIC, MappedDictionary.VERSION, 8);
+		try{
+
+			MappedDictionary.map(truncated);
+			fail("mapped a truncated header");
+
+		}catch(final IOException e){
+			// 期待どおり
+		}
+
+		final File unsupported = folder.newFile("unsupported.bin");
+		write(unsupported, MappedDictionary.MAGIC, MappedDictionary.VERSION + 1, binary.length());
+		try{
+
+			MappedDictionary.map(unsupported);
+			fail("mapped an unsupported version");
+
+		}catch(final IOException e){
+			// 期待どおり
+		}
+
+	}
+
+	/////////////////////////////////////////////////////////////////////////////////////
+	// Tables
+	/////////////////////////////////////////////////////////////////////////////////////
+	@Test
+	public void testWords(){
+
+		assertEquals(expected.wordCount(), actual.wordCount());
+		for(int i = 0; i != expected.wordCount(); ++i){
+
+			assertEquals(expected.wordId(i), actual.wordId(i));
+			assertEquals(expected.wordLang(i), actual.wordLang(i));
+			assertEquals(expected.wordLemma(i), actual.wordLemma(i));
+			assertEquals(expected.wordPron(i), actual.wordPron(i));
+			assertEquals(expected.wordPos(i), actual.wordPos(i));
+			assertEquals(i, actual.findWord(actual.wordId(i)));
+
+			assertEquals(expected.wordSenseBegin(i), actual.wordSenseBegin(i));
+			assertEquals(expected.wordSenseEnd(i), actual.wordSenseEnd(i));
+			for(int j = expected.wordSenseBegin(i); j != expected.wordSenseEnd(i); ++j){
+
+				assertEquals(expected.wordSense(j), actual.wordSense(j));
+
+			}
+
+			assertArrayEquals(sorted(expected.findWordsByLemma(expected.wordLemma(i))), sorted(actual.findWordsByLemma(actual.wordLemma(i))));
+
+		}
+		assertTrue(actual.findWord(Integer.MAX_VALUE) < 0);
+		assertEquals(0, actual.findWordsByLemma("\u0000no such lemma").length);
+
+	}
+
+	@Test
+	public void testSynsets(){
+
+		assertEquals(expected.synsetCount(), actual.synsetCount());
+		for(int i = 0; i != expected.synsetCount(); ++i){
+
+			assertEquals(expected.synsetId(i), actual.synsetId(i));
+			assertEquals(expected.synsetPos(i), actual.synsetPos(i));
+			assertEquals(expected.synsetName(i), actual.synsetName(i));
+			assertEquals(expected.synsetSrc(i), actual.synsetSrc(i));
+			assertEquals(i, actual.findSynset(expected.synsetId(i)));
+			assertArrayEquals(sorted(expected.findSynsetsByName(expected.synsetName(i))), sorted(actual.findSynsetsByName(actual.synsetName(i))));
+
+			assertEquals(expected.synsetSenseBegin(i), actual.synsetSenseBegin(i));
+			assertEquals(expected.synsetSenseEnd(i), actual.synsetSenseEnd(i));
+			for(int j = expected.synsetSenseBegin(i); j != expected.synsetSenseEnd(i); ++j){
+
+				assertEquals(expected.synsetSense(j), actual.synsetSense(j));
+
+			}
+
+			assertEquals(expected.defBegin(i), actual.defBegin(i));
+			assertEquals(expected.defEnd(i), actual.defEnd(i));
+			for(int j = expected.defBegin(i); j != expected.defEnd(i); ++j){
+
+				assertEquals(expected.defLang(j), actual.defLang(j));
+				assertEquals(expected.defText(j), actual.defText(j));
+				assertEquals(expected.defSid(j), actual.defSid(j));
+
+			}
+
+			assertEquals(expected.linkBegin(i), actual.linkBegin(i));
+			assertEquals(expected.linkEnd(i), actual.linkEnd(i));
+			for(int j = expected.linkBegin(i); j != expected.linkEnd(i); ++j){
+
+				assertEquals(expected.linkTo(j), actual.linkTo(j));
+				assertEquals(expected.linkType(j), actual.linkType(j));
+				assertEquals(expected.linkSrc(j), actual.linkSrc(j));
+
+			}
+
+		}
+
+	}
+
+	@Test
+	public void testSenses(){
+
+		assertEquals(expected.senseCount(), actual.senseCount());
+		for(int i = 0; i != expected.senseCount(); ++i){
+
+			assertEquals(expected.senseSynset(i), actual.senseSynset(i));
+			assertEquals(expected.senseWord(i), actual.senseWord(i));
+			assertEquals(expected.senseLang(i), actual.senseLang(i));
+			assertEquals(expected.senseRank(i), actual.senseRank(i));
+			assertEquals(expected.senseLexid(i), actual.senseLexid(i));
+			assertEquals(expected.senseFreq(i), actual.senseFreq(i));
+			assertEquals(expected.senseSrc(i), actual.senseSrc(i));
+
+		}
+
+	}
+
+	/////////////////////////////////////////////////////////////////////////////////////
+	// SynsetID
+	/////////////////////////////////////////////////////////////////////////////////////
+	/**
+	 * SynsetIDの符号の順序が文字列の順序と一致し，復号すると元に戻ることを確認する．
+	 */
+	@Test
+	public void testEncodeSynsetId(){
+
+		int previous = -1;
+		for(int i = 0; i != actual.synsetCount(); ++i){
+
+			final String id = actual.synsetId(i);
+			final int code = MappedDictionary.encodeSynsetId(id);
+			assertTrue(id, code > previous);
+			assertEquals(id, MappedDictionary.decodeSynsetId(code));
+			if(i != 0){
+
+				assertTrue(id, actual.synsetId(i - 1).compareTo(id) < 0);
+
+			}
+			previous = code;
+
+		}
+
+		final String[] ids = {"00000000-a", "00000000-n", "00000000-r", "00000000-s", "00000000-v", "00000001-a", "99999999-v"};
+		for(int i = 1; i != ids.length; ++i){
+
+			assertTrue(ids[i], MappedDictionary.encodeSynsetId(ids[i - 1]) < MappedDictionary.encodeSynsetId(ids[i]));
+			assertEquals(ids[i], MappedDictionary.decodeSynsetId(MappedDictionary.encodeSynsetId(ids[i])));
+
+		}
+
+		for(final String id : new String[]{null, "", "00001740n", "00001740-x", "0000174a-n", "000017400-n"}){
+
+			assertTrue(String.valueOf(id), MappedDictionary.encodeSynsetId(id) < 0);
+			if(id != null){
+
+				assertTrue(id, actual.findSynset(id) < 0);
+
+			}
+
+		}
+		assertTrue(actual.findSynset("99999999-v") < 0);
+
+	}
+
+	/////////////////////////////////////////////////////////////////////////////////////
+	// Public API
+	/////////////////////////////////////////////////////////////////////////////////////
+	/**
+	 * 同じ検索に対して，SQLiteを検索するWnj2とMappedWnj2が同じ結果を返すことを確認する．
+	 */
+	@Test
+	public void testAgainstSQLite() throws Exception{
+
+		final Wnj2 sqlite = new Wnj2(database);
+		final MappedWnj2 mapped = new MappedWnj2(binary);
+		try{
+
+			for(int i = 0; i < expected.wordCount(); i += 17){
+
+				final String lemma = expected.wordLemma(i);
+				final List<Word> a = sqlite.findWords(lemma);
+				final List<Word> b = mapped.findWords(lemma);
+				assertEquals(lemma, wordIds(a), wordIds(b));
+
+				for(final Word w : b){
+
+					assertEquals(lemma, synsetIds(sqlite.findWordsByIds(new int[]{w.getWordID()}).get(0).getSynsets()), synsetIds(w.getSynsets()));
+
+				}
+
+			}
+
+			for(int i = 0; i < expected.synsetCount(); i += 13){
+
+				final String id = expected.synsetId(i);
+				final Synset a = sqlite.findSynsetsByIds(Arrays.asList(id)).get(0);
+				final Synset b = mapped.findSynsetsByIds(Arrays.asList(id)).get(0);
+				assertEquals(id, a.getName(), b.getName());
+				assertEquals(id, a.getPos(), b.getPos());
+				assertEquals(id, a.getSenses().size(), b.getSenses().size());
+				assertEquals(id, synsetIds(a.getConnectedSynsets(Link.hype)), synsetIds(b.getConnectedSynsets(Link.hype)));
+
+			}
+
+		}finally{
+
+			mapped.close();
+			sqlite.close();
+
+		}
+
+	}
+
+	/////////////////////////////////////////////////////////////////////////////////////
+	// Private methods
+	/////////////////////////////////////////////////////////////////////////////////////
+	/**
+	 * 文字列表に入るべき，重複を除いた文字列の集合を取得する．
+	 */
+	private static Set<String> strings(final Dictionary d){
+
+		final Set<String> ret = new HashSet<String>();
+		for(int i = 0; i != d.wordCount(); ++i){
+
+			ret.add(d.wordLemma(i));
+			ret.add(d.wordPron(i));
+
+		}
+		for(int i = 0; i != d.synsetCount(); ++i){
+
+			ret.add(d.synsetName(i));
+			ret.add(d.synsetSrc(i));
+			for(int j = d.defBegin(i); j != d.defEnd(i); ++j){
+
+				ret.add(d.defText(j));
+
+			}
+
+		}
+		for(int i = 0; i != d.senseCount(); ++i){
+
+			ret.add(d.senseSrc(i));
+
+		}
+		for(int i = 0; i != d.linkCount(); ++i){
+
+			ret.add(d.linkSrc(i));
+
+		}
+		ret.remove(null);
+		return ret;
+
+	}
+
+	private static void write(final File file, final int magic, final int version, final long length) throws IOException{
+
+		final RandomAccessFile raf = new RandomAccessFile(file, "rw");
+		try{
+
+			raf.writeInt(magic);
+			raf.writeInt(version);
+			raf.setLength(length);
+
+		}finally{
+
+			raf.close();
+
+		}
+
+	}
+
+	private static int[] sorted(final int[] values){
+
+		final int[] ret = values.clone();
+		Arrays.sort(ret);
+		return ret;
+
+	}
+
+	private static Set<Integer> wordIds(final List<Word> words){
+
+		final Set<Integer> ret = new TreeSet<Integer>();
+		for(final Word w : words){
+
+			ret.add(w.getWordID());
+
+		}
+		return ret;
+
+	}
+
+	private static Set<String> synsetIds(final List<Synset> synsets){
+
+		final Set<String> ret = new TreeSet<String>();
+		for(final Synset s : synsets){
+
+			ret.add(s.getSynsetID());
+
+		}
+		return ret;
+
+	}
+
+}
@@ -0,0 +1,139 @@
+/*
+ * Copyright 2009 Junpei Kawamoto
+ *
+ * This file is part of Japanese WordNet wrapper for Java (Wnj2).
+ * Wnj2 is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Wnj2 is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Wnj2.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package org.wnj2;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+/**
+ * TinyLfuCacheの受け入れ方針を，同じ参照列を与えたLruCacheと比較して確認する．
+ *
+ * @author Junpei Kawamoto
+ */
+public class TinyLfuCacheTest {
+
+	private static final int CAPACITY = 100;
+
+	/**
+	 * 頻繁に参照される要素は，一度しか参照されない要素の走査で追い出されないことを確認する．
+	 */
+	@Test
+	@SuppressWarnings("unchecked")
+	public void testFrequentKeySurvivesScan(){
+
+		final IdentityCache<Integer, String> tinyLfu = new TinyLfuCache<Integer, String>(CAPACITY);
+		final IdentityCache<Integer, String> lru = new LruCache<Integer, String>(CAPACITY);
+		for(final IdentityCache<Integer, String> cache : new IdentityCache[]{tinyLfu, lru}){
+
+			load(cache, -1);
+			for(int i = 0; i != 10; ++i){
+
+				assertNotNull(cache.get(-1));
+				load(cache, i);
+
+			}
+			for(int i = 10; i != 100 * CAPACITY; ++i){
+
+				load(cache, i);
+
+			}
+			assertTrue(cache.getStatistics().getSize() <= CAPACITY);
+
+		}
+
+		assertNotNull(tinyLfu.get(-1));
+		assertNull(lru.get(-1));
+
+	}
+
+	/**
+	 * 本体が満杯のとき，一度しか参照されない要素は頻繁に参照される要素をほとんど追い出せないことを確認する．
+	 * Count-Min Sketchは推定値を多めに見積もるため，少数の要素は受け入れられる．
+	 */
+	@Test
+	@SuppressWarnings("unchecked")
+	public void testAdmission(){
+
+		final int scan = CAPACITY / 2;
+		final IdentityCache<Integer, String> tinyLfu = new TinyLfuCache<Integer, String>(CAPACITY);
+		final IdentityCache<Integer, String> lru = new LruCache<Integer, String>(CAPACITY);
+		for(final IdentityCache<Integer, String> cache : new IdentityCache[]{tinyLfu, lru}){
+
+			for(int i = 0; i != CAPACITY; ++i){
+
+				load(cache, i);
+				for(int j = 0; j != 5; ++j){
+
+					assertNotNull(cache.get(i));
+
+				}
+
+			}
+			for(int i = CAPACITY; i != CAPACITY + scan; ++i){
+
+				load(cache, i);
+
+			}
+			assertEquals(CAPACITY, cache.getStatistics().getSize());
+
+		}
+
+		assertTrue(countOneOff(tinyLfu, scan) <= scan / 5);
+		assertEquals(scan, countOneOff(lru, scan));
+
+	}
+
+	/**
+	 * 格納されている一度しか参照されていない要素の数を数える．
+	 */
+	private static int countOneOff(final IdentityCache<Integer, String> cache, final int scan){
+
+		int ret = 0;
+		for(int i = CAPACITY; i != CAPACITY + scan; ++i){
+
+			if(cache.peek(i) != null){
+
+				++ret;
+
+			}
+
+		}
+		return ret;
+
+	}
+
+	/**
+	 * 参照して見つからなければ格納する．
+	 */
+	private static void load(final IdentityCache<Integer, String> cache, final int key){
+
+		if(cache.get(key) == null){
+
+			cache.putIfAbsent(key, String.valueOf(key));
+
+		}
+
+	}
+
+}
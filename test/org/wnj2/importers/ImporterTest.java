@@ -0,0 +1,480 @@
+/*
+ * Copyright 2009 Junpei Kawamoto
+ *
+ * This file is part of Japanese WordNet wrapper for Java (Wnj2).
+ * Wnj2 is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Wnj2 is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Wnj2.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package org.wnj2.importers;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.File;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.BeforeClass;
+import org.junit.ClassRule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * 中断したインポートを再開し，行が欠けることも重複することもなくコピーされることを確認する．
+ *
+ * @author Junpei Kawamoto
+ */
+public class ImporterTest {
+
+	/** 作成する合成データベースの倍率 */
+	private static final double SCALE = 0.02;
+
+	/** バッチの行数 */
+	private static final int BATCH_SIZE = 100;
+
+	/** 中断するテーブル */
+	private static final String ABORTED = "SENSE";
+
+	/** 中断するまでにコミットするバッチの数 */
+	private static final int COMMITTED_BATCHES = 3;
+
+	/** テーブルごとの主キー */
+	private static final Map<String, String[]> KEYS = new HashMap<String, String[]>();
+	static{
+
+		KEYS.put("LINK_DEF", new String[]{"link"});
+		KEYS.put("POS_DEF", new String[]{"pos", "lang"});
+		KEYS.put("SENSE", new String[]{"synset", "wordid"});
+		KEYS.put("SYNLINK", new String[]{"synset1", "synset2", "link"});
+		KEYS.put("SYNSET", new String[]{"synset"});
+		KEYS.put("SYNSET_DEF", new String[]{"synset", "lang", "sid"});
+		KEYS.put("WORD", new String[]{"wordid"});
+
+	}
+
+	@ClassRule
+	public static final TemporaryFolder folder = new TemporaryFolder();
+
+	private static Importer.Connector source;
+	private static Map<String, Long> expected;
+
+	@BeforeClass
+	public static void setUpClass() throws Exception{
+
+		Class.forName("org.sqlite.JDBC");
+		Class.forName("org.h2.Driver");
+
+		source = Import2Database.connector(String.format("jdbc:sqlite:%s", new File(folder.getRoot(), "wnjpn.db").getPath()), null, null);
+		final Generator generator = new Generator(source, TargetDialect.SQLITE);
+		generator.setScale(SCALE);
+		generator.run();
+
+		expected = new HashMap<String, Long>();
+		final Connection con = source.open();
+		try{
+
+			for(final Table table : Table.ALL){
+
+				expected.put(table.getName(), count(con, String.format("select count(*) from %s", table.getName())));
+
+			}
+
+		}finally{
+
+			con.close();
+
+		}
+		assertTrue(expected.get(ABORTED) > (COMMITTED_BATCHES + 1) * BATCH_SIZE);
+
+	}
+
+	/**
+	 * バッチのコミットに失敗して中断したインポートを再開する．
+	 */
+	@Test
+	public void testResume() throws Exception{
+
+		final String url = String.format("jdbc:h2:%s", new File(folder.getRoot(), "target").getPath());
+		final Importer.Connector target = Import2Database.connector(url, null, null);
+		final FailingConnector failing = new FailingConnector(target);
+
+		// 中断するテーブルが COMMITTED_BATCHES 個のバッチをコミットした後，次のコミットを失敗させる
+		final CheckpointRecorder first = new CheckpointRecorder(target){
+
+			@Override
+			public void progress(final String table, final long rows, final long millis) {
+				super.progress(table, rows, millis);
+
+				if(table.equals(ABORTED) && rows == COMMITTED_BATCHES * BATCH_SIZE){
+
+					failing.failNextCommit();
+
+				}
+
+			}
+
+		};
+
+		final Importer importer = new Importer(source, failing, TargetDialect.H2);
+		importer.setBatchSize(BATCH_SIZE);
+		importer.setThreads(1);
+		importer.setListener(first);
+		try{
+
+			importer.run();
+			fail("the import was not aborted");
+
+		}catch(final SQLException e){
+
+			assertEquals(FailingConnector.MESSAGE, e.getMessage());
+
+		}
+		first.assertConsistent();
+
+		// 中断したテーブルには，コミットしたバッチの行だけが残る
+		final Map<String, Long> aborted = checkpoints(target);
+		assertEquals(Long.valueOf(COMMITTED_BATCHES * BATCH_SIZE), aborted.get(ABORTED));
+		assertEquals(Arrays.asList(BATCH_SIZE * 1L, BATCH_SIZE * 2L, BATCH_SIZE * 3L), first.positions(ABORTED));
+		assertEquals(COMMITTED_BATCHES * BATCH_SIZE, rows(target, ABORTED));
+		assertFalse(first.finished(ABORTED));
+
+		// 一つのスレッドでは ALL の順にコピーするため，中断したテーブルより前は完了し，後は始まっていない
+		boolean before = true;
+		for(final Table table : Table.ALL){
+
+			final String name = table.getName();
+			if(name.equals(ABORTED)){
+
+				before = false;
+
+			}else if(before){
+
+				assertEquals(name, Long.valueOf(-1), aborted.get(name));
+				assertEquals(name, expected.get(name).longValue(), rows(target, name));
+				assertTrue(name, first.finished(name));
+
+			}else{
+
+				assertFalse(name, aborted.containsKey(name));
+
+			}
+
+		}
+
+		// 再開する
+		final CheckpointRecorder second = new CheckpointRecorder(target);
+		final Importer resumed = new Importer(source, target, TargetDialect.H2);
+		resumed.setBatchSize(BATCH_SIZE);
+		resumed.setListener(second);
+		resumed.run();
+		second.assertConsistent();
+
+		// 中断したテーブルは記録した行の次から再開し，完了したテーブルは読み飛ばす
+		assertEquals(Long.valueOf((COMMITTED_BATCHES + 1) * BATCH_SIZE), second.positions(ABORTED).get(0));
+		for(final Table table : Table.ALL){
+
+			final String name = table.getName();
+			assertEquals(name, aborted.get(name) == null || aborted.get(name) != -1, second.finished(name));
+
+		}
+
+		final Map<String, Long> done = checkpoints(target);
+		for(final Table table : Table.ALL){
+
+			final String name = table.getName();
+			assertEquals(name, Long.valueOf(-1), done.get(name));
+			assertEquals(name, expected.get(name).longValue(), rows(target, name));
+			assertEquals(name, expected.get(name).longValue(), distinctKeys(target, name));
+
+		}
+
+	}
+
+	/////////////////////////////////////////////////////////////////////////////////////
+	// Private methods
+	/////////////////////////////////////////////////////////////////////////////////////
+	private static Map<String, Long> checkpoints(final Importer.Connector target) throws SQLException{
+
+		final Map<String, Long> ret = new HashMap<String, Long>();
+		final Connection con = target.open();
+		try{
+
+			final Statement stmt = con.createStatement();
+			try{
+
+				final ResultSet rs = stmt.executeQuery("select NAME, POSITION from WNJ2_IMPORT");
+				try{
+
+					while(rs.next()){
+
+						ret.put(rs.getString(1), rs.getLong(2));
+
+					}
+
+				}finally{
+
+					rs.close();
+
+				}
+
+			}finally{
+
+				stmt.close();
+
+			}
+
+		}finally{
+
+			con.close();
+
+		}
+		return ret;
+
+	}
+
+	private static long rows(final Importer.Connector target, final String table) throws SQLException{
+
+		final Connection con = target.open();
+		try{
+
+			return count(con, String.format("select count(*) from %s", TargetDialect.H2.getIdentifier(table)));
+
+		}finally{
+
+			con.close();
+
+		}
+
+	}
+
+	private static long distinctKeys(final Importer.Connector target, final String table) throws SQLException{
+
+		final StringBuilder columns = new StringBuilder();
+		for(final String c : KEYS.get(table)){
+
+			columns.append(columns.length() == 0 ? "" : ", ").append(TargetDialect.H2.getIdentifier(c));
+
+		}
+
+		final Connection con = target.open();
+		try{
+
+			return count(con, String.format("select count(*) from (select distinct %s from %s) K", columns, TargetDialect.H2.getIdentifier(table)));
+
+		}finally{
+
+			con.close();
+
+		}
+
+	}
+
+	private static long count(final Connection con, final String sql) throws SQLException{
+
+		final Statement stmt = con.createStatement();
+		try{
+
+			final ResultSet rs = stmt.executeQuery(sql);
+			try{
+
+				rs.next();
+				return rs.getLong(1);
+
+			}finally{
+
+				rs.close();
+
+			}
+
+		}finally{
+
+			stmt.close();
+
+		}
+
+	}
+
+	/////////////////////////////////////////////////////////////////////////////////////
+	// Inner classes
+	/////////////////////////////////////////////////////////////////////////////////////
+	/**
+	 * コミットのたびに，別のコネクションから見た WNJ2_IMPORT の行数を記録する．
+	 */
+	private static class CheckpointRecorder implements Importer.Listener{
+
+		private final Importer.Connector target;
+		private final Map<String, List<Long>> positions = new HashMap<String, List<Long>>();
+		private final Map<String, List<Long>> rows = new HashMap<String, List<Long>>();
+		private final List<String> finished = new ArrayList<String>();
+
+		CheckpointRecorder(final Importer.Connector target){
+
+			this.target = target;
+
+		}
+
+		@Override
+		public void progress(final String table, final long rows, final long millis) {
+
+			try{
+
+				final Long position = checkpoints(this.target).get(table);
+				synchronized(this){
+
+					list(this.positions, table).add(position);
+					list(this.rows, table).add(rows);
+
+				}
+
+			}catch(final SQLException e){
+
+				throw new IllegalStateException(e);
+
+			}
+
+		}
+
+		@Override
+		public synchronized void finished(final String table, final long rows, final long millis) {
+
+			this.finished.add(table);
+
+		}
+
+		synchronized List<Long> positions(final String table){
+
+			return list(this.positions, table);
+
+		}
+
+		synchronized boolean finished(final String table){
+
+			return this.finished.contains(table);
+
+		}
+
+		/**
+		 * 記録した行数が，バッチごとにバッチの行数ずつ進んでいることを確認する．
+		 * 最後のバッチだけは短くなることがあります．
+		 */
+		synchronized void assertConsistent(){
+
+			for(final String table : this.positions.keySet()){
+
+				final List<Long> positions = this.positions.get(table);
+				final List<Long> rows = this.rows.get(table);
+				final long skip = positions.get(0) - rows.get(0);
+				for(int i = 0; i != positions.size(); ++i){
+
+					assertEquals(table, skip + rows.get(i), positions.get(i).longValue());
+					if(i != 0){
+
+						final long step = positions.get(i) - positions.get(i - 1);
+						assertTrue(table, step == BATCH_SIZE || (i == positions.size() - 1 && step > 0 && step < BATCH_SIZE));
+
+					}
+
+				}
+
+			}
+
+		}
+
+		private static List<Long> list(final Map<String, List<Long>> map, final String table){
+
+			List<Long> ret = map.get(table);
+			if(ret == null){
+
+				ret = new ArrayList<Long>();
+				map.put(table, ret);
+
+			}
+			return ret;
+
+		}
+
+	}
+
+	/**
+	 * 指定した後の最初のコミットを失敗させるコネクションを作成する．
+	 */
+	private static class FailingConnector implements Importer.Connector{
+
+		static final String MESSAGE = "commit failed";
+
+		private final Importer.Connector connector;
+		private volatile boolean fail = false;
+
+		FailingConnector(final Importer.Connector connector){
+
+			this.connector = connector;
+
+		}
+
+		void failNextCommit(){
+
+			this.fail = true;
+
+		}
+
+		@Override
+		public Connection open() throws SQLException {
+
+			final Connection con = this.connector.open();
+			return (Connection)Proxy.newProxyInstance(Connection.class.getClassLoader(), new Class<?>[]{Connection.class}, new InvocationHandler(){
+
+				@Override
+				public Object invoke(final Object proxy, final Method method, final Object[] args) throws Throwable {
+
+					if(method.getName().equals("commit") && FailingConnector.this.fail){
+
+						FailingConnector.this.fail = false;
+						throw new SQLException(MESSAGE);
+
+					}
+
+					try{
+
+						return method.invoke(con, args);
+
+					}catch(final InvocationTargetException e){
+
+						throw e.getCause();
+
+					}
+
+				}
+
+			});
+
+		}
+
+	}
+
+}